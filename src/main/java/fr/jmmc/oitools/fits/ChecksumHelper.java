@@ -27,6 +27,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
@@ -57,8 +58,26 @@ public final class ChecksumHelper {
         return Fits.setChecksum(hdu, false);
     }
 
+    /**
+     * Add two checksums (32-bit 1's complement sum) to combine partial checksums
+     * computed on consecutive blocks (each block starting on a 4-byte boundary)
+     * @param sum1 first checksum
+     * @param sum2 second checksum
+     * @return 32-bit 1's complement sum
+     */
+    public static long addChecksum(final long sum1, final long sum2) {
+        long sum = sum1 + sum2;
+        while ((sum & 0xFFFFFFFF00000000L) != 0) {
+            sum = (sum & 0xFFFFFFFFL) + (sum >>> 32);
+        }
+        return sum;
+    }
+
+    /** MD5 algorithm */
+    public static final String ALGORITHM_MD5 = "MD5";
+
     public static String computeMD5(final File file) {
-        return computeChecksum(file, "MD5");
+        return computeChecksum(file, ALGORITHM_MD5);
     }
 
     /**
@@ -68,14 +87,50 @@ public final class ChecksumHelper {
      * @return file checksum
      */
     public static String computeChecksum(final File file, final String algorithm) {
-        final MessageDigest digest;
+        return toHexString(createChecksum(getDigest(algorithm), file));
+    }
+
+    /**
+     * Return a new MessageDigest for the given algorithm
+     * @param algorithm the name of the algorithm requested
+     * @return new MessageDigest instance
+     */
+    public static MessageDigest getDigest(final String algorithm) {
         try {
-            digest = MessageDigest.getInstance(algorithm);
+            return MessageDigest.getInstance(algorithm);
         } catch (NoSuchAlgorithmException nsae) {
             throw new IllegalArgumentException("Unsupported algorithm : " + algorithm, nsae);
         }
+    }
 
-        return toHexString(createChecksum(digest, file));
+    /**
+     * Open the given file as a buffered stream updating the given digest with every byte read
+     * so the checksum is computed while the file is read (single pass)
+     * @param file file to read
+     * @param digest digest to update
+     * @return buffered input stream
+     * @throws IOException if the file can not be opened
+     */
+    public static InputStream openDigestStream(final File file, final MessageDigest digest) throws IOException {
+        // digest below the buffer: every byte is digested once when read from the file:
+        return new BufferedInputStream(new SkipDigestInputStream(new FileInputStream(file), digest), DEFAULT_BUFFER_CAPACITY);
+    }
+
+    /**
+     * Read the remaining bytes of the given stream (opened by openDigestStream)
+     * and return the checksum of the complete file
+     * @param in digest stream
+     * @param digest digest to complete
+     * @return file checksum
+     * @throws IOException IO failure
+     */
+    public static String completeChecksum(final InputStream in, final MessageDigest digest) throws IOException {
+        final byte[] buffer = new byte[DEFAULT_BUFFER_CAPACITY];
+
+        while (in.read(buffer) > 0) {
+            // consume trailing bytes (padding ...)
+        }
+        return toHexString(digest.digest());
     }
 
     private static byte[] createChecksum(final MessageDigest digest, final File file) {
@@ -105,7 +160,12 @@ public final class ChecksumHelper {
         return digest.digest();
     }
 
-    private static String toHexString(final byte[] bytes) {
+    /**
+     * Return the hexadecimal representation of the given bytes (digest)
+     * @param bytes bytes to convert
+     * @return hexadecimal string (lower case)
+     */
+    public static String toHexString(final byte[] bytes) {
         final int len = bytes.length;
         final char[] hexChars = new char[len * 2];
 
@@ -117,4 +177,36 @@ public final class ChecksumHelper {
         return new String(hexChars);
     }
 
+    /**
+     * DigestInputStream digesting skipped bytes too (FITS readers skip padding and unused data)
+     */
+    private static final class SkipDigestInputStream extends DigestInputStream {
+
+        /** skip buffer */
+        private byte[] skipBuffer = null;
+
+        SkipDigestInputStream(final InputStream in, final MessageDigest digest) {
+            super(in, digest);
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            if (n <= 0L) {
+                return 0L;
+            }
+            if (skipBuffer == null) {
+                skipBuffer = new byte[DEFAULT_BUFFER_CAPACITY];
+            }
+            long remaining = n;
+            int len;
+            while (remaining > 0L) {
+                len = read(skipBuffer, 0, (int) Math.min(skipBuffer.length, remaining));
+                if (len < 0) {
+                    break;
+                }
+                remaining -= len;
+            }
+            return n - remaining;
+        }
+    }
 }
@@ -0,0 +1,33 @@
+/* 
+ * Copyright (C) 2026 CNRS - JMMC project ( http://www.jmmc.fr )
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.jmmc.oitools.fits;
+
+import fr.jmmc.oitools.meta.ColumnMeta;
+
+/**
+ * ColumnLoader interface used by FitsTable to decode column values on demand (lazy loading)
+ */
+public interface ColumnLoader {
+
+    /**
+     * Load the column value for the given table and column descriptor
+     * @param table table owning the column
+     * @param column column descriptor
+     * @return column value or null if undefined or invalid
+     */
+    public Object loadColumn(final FitsTable table, final ColumnMeta column);
+}
@@ -0,0 +1,405 @@
+/* 
+ * Copyright (C) 2026 CNRS - JMMC project ( http://www.jmmc.fr )
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.jmmc.oitools.fits;
+
+import fr.jmmc.oitools.util.Array2D;
+import fr.jmmc.oitools.util.BooleanArray2D;
+import fr.jmmc.oitools.util.DoubleArray2D;
+import fr.jmmc.oitools.util.EncodedStringArray;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This class bounds the memory used by the derived column values (SPATIAL_FREQ, HOUR_ANGLE, NIGHT_ID, expressions ...)
+ * of all FitsTable instances: every derived value is accounted (estimated size in bytes) in a global LRU list
+ * and the least recently used values are evicted from their table when the byte budget is exceeded.
+ * Evicted values are computed again on next access by the lazy getters of the tables.
+ *
+ * The byte budget is given by the system property 'oitools.derived.maxBytes' (0 means unbounded i.e. no eviction)
+ * or setMaxBytes(). Tables are weakly referenced so the cache never keeps a table alive.
+ *
+ * This class is thread-safe: accesses only take the lock to update the LRU order when the cache is bounded
+ * and statistics use striped counters.
+ */
+public final class DerivedColumnCache {
+
+    /* constants */
+    /** Logger associated to this class */
+    private final static Logger logger = Logger.getLogger(DerivedColumnCache.class.getName());
+    /** array header size in bytes (estimation) */
+    private final static int ARRAY_HEADER = 16;
+    /** object reference size in bytes (estimation) */
+    private final static int REF_SIZE = 8;
+    /** singleton */
+    private final static DerivedColumnCache instance = new DerivedColumnCache(parseMaxBytes());
+
+    /**
+     * Return the singleton instance
+     * @return singleton instance
+     */
+    public static DerivedColumnCache getInstance() {
+        return instance;
+    }
+
+    private static long parseMaxBytes() {
+        final String value = System.getProperty("oitools.derived.maxBytes", "0");
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException nfe) {
+            logger.log(Level.WARNING, "Invalid oitools.derived.maxBytes value: {0}", value);
+        }
+        return 0L;
+    }
+
+    /* members */
+    /** byte budget (0 means unbounded) */
+    private volatile long maxBytes;
+    /** accounted bytes */
+    private long bytes = 0L;
+    /** LRU list of cache entries (access order) */
+    private final LinkedHashMap<Entry, Entry> entries = new LinkedHashMap<Entry, Entry>(256, 0.75f, true);
+    /** queue of garbage collected tables */
+    private final ReferenceQueue<FitsTable> queue = new ReferenceQueue<FitsTable>();
+    /* statistics */
+    /** number of hits */
+    private final LongAdder hits = new LongAdder();
+    /** number of misses */
+    private final LongAdder misses = new LongAdder();
+    /** number of evicted values */
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Private constructor
+     * @param maxBytes byte budget (0 means unbounded)
+     */
+    private DerivedColumnCache(final long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Return the byte budget
+     * @return byte budget (0 means unbounded)
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Define the byte budget and evict values if needed
+     * Note: values stored before the cache was bounded are not accounted
+     * @param maxBytes byte budget (0 means unbounded)
+     */
+    public synchronized void setMaxBytes(final long maxBytes) {
+        this.maxBytes = maxBytes;
+        if (maxBytes <= 0L) {
+            // unbounded: forget entries
+            entries.clear();
+            bytes = 0L;
+        } else {
+            evict(null);
+        }
+    }
+
+    /**
+     * @return true if the byte budget is defined
+     */
+    boolean isBounded() {
+        return maxBytes > 0L;
+    }
+
+    /**
+     * @return accounted bytes
+     */
+    public synchronized long getBytes() {
+        purge();
+        return bytes;
+    }
+
+    /**
+     * @return number of accounted values
+     */
+    public synchronized int getSize() {
+        purge();
+        return entries.size();
+    }
+
+    /**
+     * @return number of hits (derived value found)
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of misses (derived value to compute)
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of evicted values
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Reset the statistics (hits, misses and evictions)
+     */
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    /**
+     * Record an access to the derived value of the given table
+     * @param table table
+     * @param name derived column name
+     * @param found true if the derived value was found
+     */
+    void access(final FitsTable table, final String name, final boolean found) {
+        if (found) {
+            hits.increment();
+            if (maxBytes > 0L) {
+                final Entry key = new Entry(table, name, null, 0L, null);
+                synchronized (this) {
+                    // update LRU order:
+                    entries.get(key);
+                }
+            }
+        } else {
+            misses.increment();
+        }
+    }
+
+    /**
+     * Account the derived value of the given table and evict least recently used values if needed
+     * @param table table
+     * @param name derived column name
+     * @param value derived value
+     */
+    synchronized void put(final FitsTable table, final String name, final Object value) {
+        if (maxBytes <= 0L) {
+            return;
+        }
+        purge();
+        final Entry entry = new Entry(table, name, value, estimateBytes(value), queue);
+        final Entry old = entries.remove(entry);
+        if (old != null) {
+            bytes -= old.bytes;
+        }
+        entries.put(entry, entry);
+        bytes += entry.bytes;
+
+        evict(entry);
+    }
+
+    /**
+     * Forget the derived value of the given table
+     * @param table table
+     * @param name derived column name
+     */
+    synchronized void remove(final FitsTable table, final String name) {
+        if (!entries.isEmpty()) {
+            final Entry old = entries.remove(new Entry(table, name, null, 0L, null));
+            if (old != null) {
+                bytes -= old.bytes;
+            }
+        }
+    }
+
+    /**
+     * Forget the derived values of the given table
+     * @param table table
+     * @param names derived column names
+     */
+    synchronized void removeAll(final FitsTable table, final Iterable<String> names) {
+        if (!entries.isEmpty()) {
+            for (String name : names) {
+                remove(table, name);
+            }
+        }
+    }
+
+    /**
+     * Evict least recently used values until the accounted bytes fit in the byte budget
+     * @param keep entry to keep (last stored value) or null
+     */
+    private void evict(final Entry keep) {
+        for (final Iterator<Entry> it = entries.keySet().iterator(); (bytes > maxBytes) && it.hasNext();) {
+            final Entry entry = it.next();
+            if (entry == keep) {
+                continue;
+            }
+            it.remove();
+            bytes -= entry.bytes;
+
+            final FitsTable table = entry.get();
+            if (table != null) {
+                table.evictColumnDerivedValue(entry.name, entry.value.get());
+                evictions.increment();
+
+                if (logger.isLoggable(Level.FINE)) {
+                    logger.log(Level.FINE, "evicted derived column [{0}] ({1} bytes) of {2}",
+                            new Object[]{entry.name, entry.bytes, table.idToString()});
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove the entries of garbage collected tables
+     */
+    private void purge() {
+        Reference<? extends FitsTable> ref = queue.poll();
+        if (ref != null) {
+            // drain queue:
+            while (queue.poll() != null) {
+                // nothing to do
+            }
+            for (final Iterator<Entry> it = entries.keySet().iterator(); it.hasNext();) {
+                final Entry entry = it.next();
+                if (entry.get() == null) {
+                    it.remove();
+                    bytes -= entry.bytes;
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "DerivedColumnCache{maxBytes=" + maxBytes + ", bytes=" + bytes + ", size=" + entries.size()
+                + ", hits=" + hits.sum() + ", misses=" + misses.sum() + ", evictions=" + evictions.sum() + '}';
+    }
+
+    /**
+     * Return the estimated size in bytes of the given value (array or 2D view)
+     * @param value any value
+     * @return estimated size in bytes
+     */
+    public static long estimateBytes(final Object value) {
+        if (value == null) {
+            return 0L;
+        }
+        if (value instanceof Array2D) {
+            final Array2D values2D = (Array2D) value;
+            if (!values2D.isFlat()) {
+                return estimateBytes(values2D.toArray());
+            }
+            final long nValues = ((long) values2D.getNbRows()) * values2D.getNbCols();
+            if (value instanceof BooleanArray2D) {
+                return ARRAY_HEADER + ((long) values2D.getNbRows()) * ((BooleanArray2D) value).getNbWords() * 8L;
+            }
+            return ARRAY_HEADER + nValues * ((((DoubleArray2D) value).isFloat()) ? 4L : 8L);
+        }
+        if (value instanceof EncodedStringArray.Decoded) {
+            // rows share distinct String instances (dictionary) so only count references:
+            return ARRAY_HEADER + REF_SIZE * ((EncodedStringArray.Decoded) value).getValues().length;
+        }
+        if (value instanceof EncodedStringArray) {
+            return ARRAY_HEADER + 4L * ((EncodedStringArray) value).getNbRows();
+        }
+        if (value instanceof double[]) {
+            return ARRAY_HEADER + 8L * ((double[]) value).length;
+        }
+        if (value instanceof int[]) {
+            return ARRAY_HEADER + 4L * ((int[]) value).length;
+        }
+        if (value instanceof float[]) {
+            return ARRAY_HEADER + 4L * ((float[]) value).length;
+        }
+        if (value instanceof short[]) {
+            return ARRAY_HEADER + 2L * ((short[]) value).length;
+        }
+        if (value instanceof long[]) {
+            return ARRAY_HEADER + 8L * ((long[]) value).length;
+        }
+        if (value instanceof boolean[]) {
+            return ARRAY_HEADER + ((boolean[]) value).length;
+        }
+        if (value instanceof byte[]) {
+            return ARRAY_HEADER + ((byte[]) value).length;
+        }
+        if (value instanceof char[]) {
+            return ARRAY_HEADER + 2L * ((char[]) value).length;
+        }
+        if (value instanceof String) {
+            return 40L + 2L * ((String) value).length();
+        }
+        if (value instanceof Object[]) {
+            final Object[] values = (Object[]) value;
+            long size = ARRAY_HEADER + REF_SIZE * values.length;
+            for (Object item : values) {
+                size += estimateBytes(item);
+            }
+            return size;
+        }
+        // other object:
+        return ARRAY_HEADER;
+    }
+
+    /**
+     * Cache entry (table weak reference and derived column name)
+     */
+    private static final class Entry extends WeakReference<FitsTable> {
+
+        /** derived column name */
+        final String name;
+        /** derived value (weak reference to only evict the accounted value) */
+        final WeakReference<Object> value;
+        /** estimated size in bytes */
+        final long bytes;
+        /** cached hash code */
+        private final int hash;
+
+        Entry(final FitsTable table, final String name, final Object value, final long bytes,
+              final ReferenceQueue<FitsTable> queue) {
+            super(table, queue);
+            this.name = name;
+            this.value = (value != null) ? new WeakReference<Object>(value) : null;
+            this.bytes = bytes;
+            this.hash = 31 * System.identityHashCode(table) + name.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Entry)) {
+                return false;
+            }
+            final Entry other = (Entry) obj;
+            final FitsTable table = get();
+            return (hash == other.hash) && (table != null) && (table == other.get()) && name.equals(other.name);
+        }
+    }
+}
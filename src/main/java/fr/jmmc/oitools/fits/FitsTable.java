@@ -31,6 +31,10 @@ import fr.jmmc.oitools.model.OIFitsChecker;
 import fr.jmmc.oitools.model.OITable;
 import fr.jmmc.oitools.model.Rule;
 import fr.jmmc.oitools.model.range.Range;
+import fr.jmmc.oitools.util.Array2D;
+import fr.jmmc.oitools.util.BooleanArray2D;
+import fr.jmmc.oitools.util.DoubleArray2D;
+import fr.jmmc.oitools.util.EncodedStringArray;
 import fr.nom.tam.util.ArrayFuncs;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
@@ -41,6 +45,7 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 
 /**
@@ -59,6 +64,75 @@ public abstract class FitsTable extends FitsHDU {
      */
     private final static KeywordMeta KEYWORD_EXTVER = new KeywordMeta(FitsConstants.KEYWORD_EXT_VER,
             "extension version", Types.TYPE_INT, Units.NO_UNIT, true);
+    /**
+     * flag to store 2D double columns in flat contiguous arrays (see DoubleArray2D)
+     */
+    private static boolean FLAT_STORAGE = "true".equalsIgnoreCase(System.getProperty("oitools.table.flat", "false"));
+
+    /**
+     * Return true if 2D double columns are stored in flat contiguous arrays (see DoubleArray2D)
+     * @return true if 2D double columns are stored in flat contiguous arrays
+     */
+    public static boolean isFlatStorage() {
+        return FLAT_STORAGE;
+    }
+
+    /**
+     * Define the flag to store 2D double columns in flat contiguous arrays (see DoubleArray2D)
+     * @param flat true to store 2D double columns in flat contiguous arrays
+     */
+    public static void setFlatStorage(final boolean flat) {
+        FLAT_STORAGE = flat;
+    }
+
+    /**
+     * flag to keep single-precision 2D columns (FITS 'E') as float values (see DoubleArray2D)
+     */
+    private static boolean NATIVE_STORAGE = "true".equalsIgnoreCase(System.getProperty("oitools.table.native", "false"));
+
+    /**
+     * Return true if single-precision 2D columns are kept as float values (see DoubleArray2D)
+     * @return true if single-precision 2D columns are kept as float values
+     */
+    public static boolean isNativeStorage() {
+        return NATIVE_STORAGE;
+    }
+
+    /**
+     * Define the flag to keep single-precision 2D columns (FITS 'E') as float values (see DoubleArray2D)
+     * instead of widening them to double values
+     * @param nativeStorage true to keep single-precision 2D columns as float values
+     */
+    public static void setNativeStorage(final boolean nativeStorage) {
+        NATIVE_STORAGE = nativeStorage;
+    }
+
+    /**
+     * flag to store 2D boolean columns (FLAG) in packed long words (see BooleanArray2D)
+     */
+    private static boolean PACKED_STORAGE = "true".equalsIgnoreCase(System.getProperty("oitools.table.packed", "false"));
+
+    /**
+     * Return true if 2D boolean columns (FLAG) are stored in packed long words (see BooleanArray2D)
+     * @return true if 2D boolean columns are stored in packed long words
+     */
+    public static boolean isPackedStorage() {
+        return PACKED_STORAGE;
+    }
+
+    /**
+     * Define the flag to store 2D boolean columns (FLAG) in packed long words (see BooleanArray2D)
+     * @param packed true to store 2D boolean columns in packed long words
+     */
+    public static void setPackedStorage(final boolean packed) {
+        PACKED_STORAGE = packed;
+    }
+
+    /**
+     * suffix of the name used by the DerivedColumnCache to account the decoded values of a dictionary-encoded derived value
+     */
+    private final static String DECODED_SUFFIX = "#DECODED";
+
     /* descriptors */
     /**
      * Map storing column definitions ordered according to OIFits specification
@@ -75,14 +149,28 @@ public abstract class FitsTable extends FitsHDU {
     /* data */
     /**
      * Map storing column values
+     * (concurrent maps as deferred or flat column values may be loaded or inflated by any thread)
      */
-    private final Map<String, Object> columnsValue = new HashMap<String, Object>();
+    private final Map<String, Object> columnsValue = new ConcurrentHashMap<String, Object>();
+    /**
+     * Map storing column loaders for deferred column values (lazy loading)
+     */
+    private final Map<String, ColumnLoader> columnsLoader = new ConcurrentHashMap<String, ColumnLoader>();
+    /**
+     * Map storing 2D column values in flat contiguous arrays or packed words (flat storage)
+     */
+    private final Map<String, Array2D> columnsFlatValue = new ConcurrentHashMap<String, Array2D>();
     /* cached computed data */
     /**
      * Map storing computed values derived from this data table or related
-     * tables
+     * tables (concurrent map as values may be evicted by the DerivedColumnCache)
      */
     private Map<String, Object> columnsDerivedValue = null;
+    /**
+     * Map storing decoded values of dictionary-encoded derived values
+     * (kept apart from derived values as an internal cache)
+     */
+    private Map<String, EncodedStringArray.Decoded> columnsDecodedValue = null;
     /**
      * Map storing min/max computed values derived from this column
      */
@@ -132,7 +220,8 @@ public abstract class FitsTable extends FitsHDU {
 
         for (ColumnMeta column : getColumnDescCollection()) {
             final String columnName = column.getName();
-            Object columnValue = src.getColumnValue(columnName);
+            // keep flat storage:
+            Object columnValue = src.getColumnStoredValue(columnName);
 
             if (columnValue == null && !column.isOptional()) {
                 columnValue = createColumnArray(column, nRows);
@@ -187,6 +276,15 @@ public abstract class FitsTable extends FitsHDU {
         // Resize column values:
         for (ColumnMeta column : getColumnDescCollection()) {
             final String columnName = column.getName();
+
+            final Array2D flatValueOriginal = getColumnFlatValue(columnName);
+            if (flatValueOriginal != null) {
+                // keep flat storage:
+                final boolean filterWl = (column instanceof WaveColumnMeta);
+                setColumnValue(columnName, flatValueOriginal.filter(maskRows, nbKeepRows,
+                        (filterWl) ? maskWavelengths : null, nbKeepWl));
+                continue;
+            }
             final Object columnValueOriginal = getColumnValue(columnName);
 
             // ignore optional columns (null):
@@ -676,10 +774,13 @@ public abstract class FitsTable extends FitsHDU {
      */
     /**
      * Return the Map storing column values
+     * Note: any deferred column value is loaded first and any flat column value is converted to a 2D array
      *
      * @return Map storing column values
      */
     public final Map<String, Object> getColumnsValue() {
+        loadDeferredColumns();
+        inflateColumns();
         return this.columnsValue;
     }
 
@@ -690,7 +791,7 @@ public abstract class FitsTable extends FitsHDU {
      * @return true if the table contains the column
      */
     public final boolean hasColumn(final ColumnMeta meta) {
-        return getColumnValue(meta.getName()) != null;
+        return isColumnDeferred(meta.getName()) || isColumnFlat(meta.getName()) || (getColumnValue(meta.getName()) != null);
     }
 
     /**
@@ -709,13 +810,33 @@ public abstract class FitsTable extends FitsHDU {
 
     /**
      * Return the column value given its name The returned value can be null if
-     * the column has never been defined
+     * the column has never been defined.
+     * Note: a flat column value is converted to a 2D array (kept for next accesses)
      *
      * @param name column name
      * @return any array value or null if undefined
      */
     public final Object getColumnValue(final String name) {
-        return getColumnsValue().get(name);
+        Object value = this.columnsValue.get(name);
+        if ((value == null) && !this.columnsLoader.isEmpty()) {
+            value = loadDeferredColumn(name);
+        }
+        if (((value == null) || (value instanceof Array2D)) && !this.columnsFlatValue.isEmpty()) {
+            value = inflateColumn(name);
+        }
+        return value;
+    }
+
+    /**
+     * Return the column value given its name as stored i.e. a flat column value
+     * is returned as an Array2D instance (not converted).
+     *
+     * @param name column name
+     * @return any array value, Array2D instance or null if undefined
+     */
+    protected final Object getColumnStoredValue(final String name) {
+        final Array2D flatValue = getColumnFlatValue(name);
+        return (flatValue != null) ? flatValue : getColumnValue(name);
     }
 
     /**
@@ -845,16 +966,42 @@ public abstract class FitsTable extends FitsHDU {
 
     /**
      * Define the column value given its name and an array value (String[] or a
-     * primitive array)
+     * primitive array) or an Array2D instance for 2D double or boolean columns
+     * (flat storage if the given instance is flat)
      *
      * @param name column name
-     * @param value any array value
+     * @param value any array value or Array2D instance
      */
     public final void setColumnValue(final String name, final Object value) {
         if (logger.isLoggable(Level.FINE)) {
-            logger.log(Level.FINE, "COLUMN [{0}] = {1}", new Object[]{name, (value != null) ? ArrayFuncs.arrayDescription(value) : ""});
+            logger.log(Level.FINE, "COLUMN [{0}] = {1}", new Object[]{name, (value != null) ? describe(value) : ""});
+        }
+        this.columnsLoader.remove(name);
+        storeColumnValue(name, value);
+    }
+
+    /**
+     * Store the column value given its name in the flat storage (flat Array2D instance)
+     * or in the column values map (the new value is published before the previous one is removed)
+     *
+     * @param name column name
+     * @param value any array value or Array2D instance (null to remove the column value)
+     */
+    private void storeColumnValue(final String name, final Object value) {
+        if (value == null) {
+            this.columnsValue.remove(name);
+            this.columnsFlatValue.remove(name);
+        } else if ((value instanceof Array2D) && ((Array2D) value).isFlat()) {
+            this.columnsFlatValue.put(name, (Array2D) value);
+            this.columnsValue.remove(name);
+        } else {
+            this.columnsValue.put(name, (value instanceof Array2D) ? ((Array2D) value).toArray() : value);
+            this.columnsFlatValue.remove(name);
         }
-        getColumnsValue().put(name, value);
+    }
+
+    private static String describe(final Object value) {
+        return (value instanceof Array2D) ? value.toString() : ArrayFuncs.arrayDescription(value);
     }
 
     /**
@@ -864,7 +1011,149 @@ public abstract class FitsTable extends FitsHDU {
      * @return true if removed; false otherwise
      */
     protected final boolean removeColumnValue(final String name) {
-        return getColumnsValue().remove(name) != null;
+        final boolean deferred = (this.columnsLoader.remove(name) != null);
+        final boolean flat = (this.columnsFlatValue.remove(name) != null);
+        return (this.columnsValue.remove(name) != null) || deferred || flat;
+    }
+
+    /*
+     * --- Flat column values (flat storage) -----------------------------------
+     */
+    /**
+     * Return true if the column value (given its name) is stored in a flat contiguous array (or packed words)
+     *
+     * @param name column name
+     * @return true if the column value is stored in a flat contiguous array (or packed words)
+     */
+    public final boolean isColumnFlat(final String name) {
+        return this.columnsFlatValue.containsKey(name);
+    }
+
+    /**
+     * Return the flat column value given its name (deferred column value is loaded first)
+     *
+     * @param name column name
+     * @return flat column value or null if undefined or not stored in a flat contiguous array
+     */
+    private Array2D getColumnFlatValue(final String name) {
+        if (isColumnDeferred(name)) {
+            loadDeferredColumn(name);
+        }
+        return this.columnsFlatValue.get(name);
+    }
+
+    /**
+     * Convert the flat column value given its name to a 2D array (kept for next accesses)
+     *
+     * @param name column name
+     * @return 2D array or null if undefined
+     */
+    private synchronized Object inflateColumn(final String name) {
+        // check again (concurrent access):
+        Object value = this.columnsValue.get(name);
+        if (value == null) {
+            final Array2D flatValue = this.columnsFlatValue.get(name);
+            if (flatValue != null) {
+                value = flatValue.toArray();
+                // publish the inflated value before removing the flat one:
+                this.columnsValue.put(name, value);
+                this.columnsFlatValue.remove(name);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Convert all flat column values (if any) to 2D arrays
+     */
+    private void inflateColumns() {
+        if (!this.columnsFlatValue.isEmpty()) {
+            for (String name : new ArrayList<String>(this.columnsFlatValue.keySet())) {
+                inflateColumn(name);
+            }
+        }
+    }
+
+    /*
+     * --- Deferred Column values (lazy loading) -------------------------------
+     */
+    /**
+     * Define the column loader used to load the column value (given its name) on first access
+     *
+     * @param name column name
+     * @param loader column loader
+     */
+    public final void setColumnLoader(final String name, final ColumnLoader loader) {
+        this.columnsValue.remove(name);
+        this.columnsFlatValue.remove(name);
+        this.columnsLoader.put(name, loader);
+    }
+
+    /**
+     * Return the column loader used to load the column value (given its name) on first access
+     *
+     * @param name column name
+     * @return column loader or null if the column value is loaded (or undefined)
+     */
+    public final ColumnLoader getColumnLoader(final String name) {
+        return this.columnsLoader.get(name);
+    }
+
+    /**
+     * Return true if the column value (given its name) is not loaded yet
+     *
+     * @param name column name
+     * @return true if the column value is not loaded yet
+     */
+    public final boolean isColumnDeferred(final String name) {
+        return this.columnsLoader.containsKey(name);
+    }
+
+    /**
+     * Load the deferred column value given its name
+     *
+     * @param name column name
+     * @return loaded column value or null if undefined
+     */
+    private synchronized Object loadDeferredColumn(final String name) {
+        // check again (concurrent access):
+        Object value = this.columnsValue.get(name);
+        if (value == null) {
+            value = this.columnsFlatValue.get(name);
+        }
+        if (value == null) {
+            // keep the loader until the value is stored (concurrent readers wait for this lock):
+            final ColumnLoader loader = this.columnsLoader.get(name);
+
+            if (loader != null) {
+                final ColumnMeta column = getColumnDesc(name);
+                if (column != null) {
+                    value = loader.loadColumn(this, column);
+
+                    if (logger.isLoggable(Level.FINE)) {
+                        logger.log(Level.FINE, "DEFERRED COLUMN [{0}] = {1}", new Object[]{name, (value != null) ? describe(value) : ""});
+                    }
+                    if (value != null) {
+                        storeColumnValue(name, value);
+                    }
+                }
+                this.columnsLoader.remove(name);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Load all deferred column values (if any)
+     */
+    public final void loadDeferredColumns() {
+        if (!this.columnsLoader.isEmpty()) {
+            for (ColumnMeta column : getColumnDescCollection()) {
+                if (isColumnDeferred(column.getName())) {
+                    loadDeferredColumn(column.getName());
+                }
+            }
+        }
     }
 
     /*
@@ -944,19 +1233,33 @@ public abstract class FitsTable extends FitsHDU {
      */
     protected final void clearColumnsDerivedValue() {
         if (this.columnsDerivedValue != null) {
+            final DerivedColumnCache cache = DerivedColumnCache.getInstance();
+            if (cache.isBounded()) {
+                cache.removeAll(this, this.columnsDerivedValue.keySet());
+            }
             this.columnsDerivedValue.clear();
         }
+        if (this.columnsDecodedValue != null) {
+            final DerivedColumnCache cache = DerivedColumnCache.getInstance();
+            if (cache.isBounded()) {
+                for (String name : this.columnsDecodedValue.keySet()) {
+                    cache.remove(this, name + DECODED_SUFFIX);
+                }
+            }
+            this.columnsDecodedValue.clear();
+        }
     }
 
     /**
      * Return the Map storing column derived value
+     * Note: values put directly in this map are not accounted by the DerivedColumnCache
      *
      * @return Map storing column derived value
      */
     public final Map<String, Object> getColumnsDerivedValue() {
         // lazy
         if (this.columnsDerivedValue == null) {
-            this.columnsDerivedValue = new HashMap<String, Object>();
+            this.columnsDerivedValue = new ConcurrentHashMap<String, Object>();
         }
 
         return this.columnsDerivedValue;
@@ -964,13 +1267,108 @@ public abstract class FitsTable extends FitsHDU {
 
     /**
      * Return the column derived value given its name The returned value can be
-     * null if the column derived value has never been defined
+     * null if the column derived value has never been defined (or evicted)
      *
      * @param name column name
      * @return any value or null if undefined
      */
     public final Object getColumnDerivedValue(final String name) {
-        return getColumnsDerivedValue().get(name);
+        Object value = getColumnDerivedStoredValue(name);
+        if (value instanceof DoubleArray2D) {
+            // convert the flat derived value to a 2D array (kept for next accesses):
+            value = ((DoubleArray2D) value).toArray();
+            setColumnDerivedValue(name, value);
+        } else if (value instanceof EncodedStringArray) {
+            // decode the dictionary-encoded derived value (cached):
+            value = getColumnDerivedDecoded(name, (EncodedStringArray) value);
+        }
+        return value;
+    }
+
+    /**
+     * Return the decoded values of the given dictionary-encoded derived value:
+     * the decoded array is kept as an evictable derived value until the encoded value is modified
+     *
+     * @param name column name
+     * @param encoded dictionary-encoded derived value
+     * @return decoded values (shared array: read-only)
+     */
+    protected final String[] getColumnDerivedDecoded(final String name, final EncodedStringArray encoded) {
+        // lazy
+        if (this.columnsDecodedValue == null) {
+            this.columnsDecodedValue = new ConcurrentHashMap<String, EncodedStringArray.Decoded>();
+        }
+        final DerivedColumnCache cache = DerivedColumnCache.getInstance();
+
+        EncodedStringArray.Decoded decoded = this.columnsDecodedValue.get(name);
+        final boolean valid = (decoded != null) && decoded.isValid(encoded);
+        cache.access(this, name + DECODED_SUFFIX, valid);
+
+        if (!valid) {
+            decoded = encoded.decode();
+            this.columnsDecodedValue.put(name, decoded);
+
+            if (cache.isBounded()) {
+                cache.put(this, name + DECODED_SUFFIX, decoded);
+            }
+        }
+        return decoded.getValues();
+    }
+
+    /**
+     * Return the column derived value given its name as stored i.e. a flat
+     * derived value is returned as a DoubleArray2D instance (not converted).
+     * Accesses are recorded by the DerivedColumnCache (LRU order and statistics)
+     *
+     * @param name column name
+     * @return any value or null if undefined (or evicted)
+     */
+    protected final Object getColumnDerivedStoredValue(final String name) {
+        prepareColumnDerivedValue(name);
+        final Object value = getColumnsDerivedValue().get(name);
+        DerivedColumnCache.getInstance().access(this, name, (value != null));
+        return value;
+    }
+
+    /**
+     * Prepare the derived value given its name before it is accessed
+     * i.e. to compute lazily derived values filled by other components.
+     * To be overriden in child classes
+     *
+     * @param name column name
+     */
+    protected void prepareColumnDerivedValue(final String name) {
+        // no-op by default
+    }
+
+    /**
+     * Return true if the derived value given its name can be evicted by the DerivedColumnCache
+     * i.e. it is computed again by its getter on next access.
+     * To be overriden in child classes for derived values filled by other components
+     *
+     * @param name column name
+     * @return true by default
+     */
+    protected boolean isColumnDerivedEvictable(final String name) {
+        return true;
+    }
+
+    /**
+     * Evict the given derived value (called by the DerivedColumnCache)
+     *
+     * @param name column name
+     * @param value accounted value (not removed if the derived value was replaced)
+     */
+    final void evictColumnDerivedValue(final String name, final Object value) {
+        if (value != null) {
+            if (name.endsWith(DECODED_SUFFIX)) {
+                if (this.columnsDecodedValue != null) {
+                    this.columnsDecodedValue.remove(name.substring(0, name.length() - DECODED_SUFFIX.length()), value);
+                }
+            } else if (this.columnsDerivedValue != null) {
+                this.columnsDerivedValue.remove(name, value);
+            }
+        }
     }
 
     /**
@@ -1077,9 +1475,18 @@ public abstract class FitsTable extends FitsHDU {
      */
     public final void setColumnDerivedValue(final String name, final Object value) {
         if (logger.isLoggable(Level.FINE)) {
-            logger.log(Level.FINE, "DERIVED COLUMN VALUE [{0}] = {1}", new Object[]{name, (value != null) ? ArrayFuncs.arrayDescription(value) : ""});
+            logger.log(Level.FINE, "DERIVED COLUMN VALUE [{0}] = {1}", new Object[]{name, (value != null) ? describe(value) : ""});
+        }
+        if (value == null) {
+            removeColumnDerivedValue(name);
+            return;
         }
         getColumnsDerivedValue().put(name, value);
+
+        final DerivedColumnCache cache = DerivedColumnCache.getInstance();
+        if (cache.isBounded() && isColumnDerivedEvictable(name)) {
+            cache.put(this, name, value);
+        }
     }
 
     /**
@@ -1088,7 +1495,18 @@ public abstract class FitsTable extends FitsHDU {
      * @param name column name
      */
     public final void removeColumnDerivedValue(final String name) {
-        getColumnsDerivedValue().remove(name);
+        if (getColumnsDerivedValue().remove(name) != null) {
+            final DerivedColumnCache cache = DerivedColumnCache.getInstance();
+            if (cache.isBounded()) {
+                cache.remove(this, name);
+            }
+        }
+        if ((this.columnsDecodedValue != null) && (this.columnsDecodedValue.remove(name) != null)) {
+            final DerivedColumnCache cache = DerivedColumnCache.getInstance();
+            if (cache.isBounded()) {
+                cache.remove(this, name + DECODED_SUFFIX);
+            }
+        }
     }
 
     /*
@@ -1268,24 +1686,23 @@ public abstract class FitsTable extends FitsHDU {
                         double dMax = Double.NEGATIVE_INFINITY;
 
                         if (column.isArray()) {
-                            final double[][] dValues = getColumnAsDoubles(column.getName());
+                            final DoubleArray2D dValues = getColumnAsDoubles2D(column.getName());
                             if (dValues == null) {
                                 break;
                             }
                             // use column flag if present (OIData tables):
-                            final boolean[][] flags = (this instanceof OIData) ? ((OIData) this).getFlag() : null;
-
-                            for (int i = 0, len = dValues.length; i < len; i++) {
-                                final double[] dRowValues = dValues[i];
-                                final boolean[] rowFlags = (flags != null) ? flags[i] : null;
-
-                                for (int j = 0, jlen = dRowValues.length; j < jlen; j++) {
-                                    if ((rowFlags == null) || !rowFlags[j]) {
-                                        if (dRowValues[j] < dMin) {
-                                            dMin = dRowValues[j];
+                            final BooleanArray2D flags = (this instanceof OIData) ? ((OIData) this).getFlag2D() : null;
+
+                            double val;
+                            for (int i = 0, len = dValues.getNbRows(), jlen = dValues.getNbCols(); i < len; i++) {
+                                for (int j = 0; j < jlen; j++) {
+                                    if ((flags == null) || !flags.get(i, j)) {
+                                        val = dValues.get(i, j);
+                                        if (val < dMin) {
+                                            dMin = val;
                                         }
-                                        if (dRowValues[j] > dMax) {
-                                            dMax = dRowValues[j];
+                                        if (val > dMax) {
+                                            dMax = val;
                                         }
                                     }
                                 }
@@ -1423,7 +1840,14 @@ public abstract class FitsTable extends FitsHDU {
         /* Get mandatory columns names */
         for (ColumnMeta column : getColumnDescCollection()) {
             columnName = column.getName();
-            value = getColumnValue(columnName);
+
+            if (((checker == null) || checker.isSkipDeferred()) && isColumnDeferred(columnName)) {
+                // skip column values not loaded yet (lazy loading: format already checked by the loader):
+                continue;
+            }
+            // check flat column values as stored (not converted):
+            // note: deferred column values are loaded on explicit validation
+            value = getColumnStoredValue(columnName);
 
             if ((value == null) || OIFitsChecker.isInspectRules()) {
                 if (!column.isOptional()) {
@@ -1705,4 +2129,74 @@ public abstract class FitsTable extends FitsHDU {
         return null;
     }
 
+    /**
+     * Return the column data as a 2D view for the given column name (standard
+     * or derived) without converting flat column values. No conversion are
+     * performed here: only column storing double values are returned !
+     *
+     * @param name any column name
+     * @return column data as a 2D view or null if undefined or wrong type
+     */
+    public final DoubleArray2D getColumnAsDoubles2D(final String name) {
+        if (name != null) {
+            ColumnMeta meta = getColumnDesc(name);
+            if (meta != null
+                    && meta.getDataType() == Types.TYPE_DBL
+                    && meta.isArray()) {
+                final Array2D flatValue = getColumnFlatValue(name);
+                if (flatValue instanceof DoubleArray2D) {
+                    return (DoubleArray2D) flatValue;
+                }
+                final double[][] values = getColumnDoubles(name);
+                return (values != null) ? DoubleArray2D.wrap(values) : null;
+            }
+            meta = getColumnDerivedDesc(name);
+            if (meta != null
+                    && meta.getDataType() == Types.TYPE_DBL
+                    && meta.isArray()) {
+                return getDerivedColumnAsDoubles2D(name);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Return the derived column data as a 2D view for the given column name
+     * To be overriden in child classes for lazy computed columns stored in flat arrays
+     *
+     * @param name any column name
+     * @return column data as a 2D view or null if undefined or wrong type
+     */
+    protected DoubleArray2D getDerivedColumnAsDoubles2D(final String name) {
+        final double[][] values = getDerivedColumnAsDoubles(name);
+        return (values != null) ? DoubleArray2D.wrap(values) : null;
+    }
+
+    /**
+     * Return the column data as a 2D boolean view for the given column name
+     * (packed or not). No conversion are performed here: only 2D column
+     * storing boolean values are returned !
+     *
+     * @param name any column name
+     * @return column data as a 2D boolean view or null if undefined or wrong type
+     */
+    public final BooleanArray2D getColumnAsBooleans2D(final String name) {
+        if (name != null) {
+            final ColumnMeta meta = getColumnDesc(name);
+            if (meta != null
+                    && meta.getDataType() == Types.TYPE_LOGICAL
+                    && meta.isArray() && !meta.is3D()) {
+                final Array2D flatValue = getColumnFlatValue(name);
+                if (flatValue instanceof BooleanArray2D) {
+                    return (BooleanArray2D) flatValue;
+                }
+                final Object values = getColumnValue(name);
+                if (values instanceof boolean[][]) {
+                    return BooleanArray2D.wrap((boolean[][]) values);
+                }
+            }
+        }
+        return null;
+    }
+
 }
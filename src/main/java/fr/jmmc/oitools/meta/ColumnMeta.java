@@ -25,6 +25,9 @@ import fr.jmmc.oitools.fits.FitsTable;
 import fr.jmmc.oitools.model.ModelBase;
 import fr.jmmc.oitools.model.OIFitsChecker;
 import fr.jmmc.oitools.model.Rule;
+import fr.jmmc.oitools.util.Array2D;
+import fr.jmmc.oitools.util.BooleanArray2D;
+import fr.jmmc.oitools.util.DoubleArray2D;
 import fr.nom.tam.util.ArrayFuncs;
 import java.util.logging.Level;
 
@@ -304,10 +307,19 @@ public class ColumnMeta extends CellMeta {
         }
 
         // Check type and cardinality
-        final Class<?> baseClass = ArrayFuncs.getBaseClass(value);
+        final Class<?> baseClass;
+        final int[] dims;
+        if (value instanceof Array2D) {
+            // flat storage:
+            final Array2D values2D = (Array2D) value;
+            baseClass = (value instanceof BooleanArray2D) ? boolean.class : double.class;
+            dims = new int[]{values2D.getNbRows(), values2D.getNbCols()};
+        } else {
+            baseClass = ArrayFuncs.getBaseClass(value);
+            dims = ArrayFuncs.getDimensions(value);
+        }
         char columnType = Types.getDataType(baseClass).getRepresentation();
 
-        final int[] dims = ArrayFuncs.getDimensions(value);
         final int ndims = dims.length;
 
         // check rows
@@ -647,6 +659,24 @@ public class ColumnMeta extends CellMeta {
                             }
                         }
                     }
+                } else if (value instanceof DoubleArray2D) {
+                    // OIData: UNUSED (2D) in flat storage
+                    final DoubleArray2D fValues = (DoubleArray2D) value;
+
+                    double val;
+                    for (int r = 0, rlen = fValues.getNbCols(); r < columnRows; r++) {
+                        for (int c = 0; c < rlen; c++) {
+                            val = fValues.get(r, c);
+                            error = !isPositiveValueValid(val);
+
+                            if (error || OIFitsChecker.isInspectRules()) {
+                                // rule [GENERIC_COL_VAL_POSITIVE] check if column values are finite and positive
+                                if (checker != null) {
+                                    checker.ruleFailed(Rule.GENERIC_COL_VAL_POSITIVE, table, colName).addColValueAt(val, r, c);
+                                }
+                            }
+                        }
+                    }
                 } else {
                     // OIData: UNUSED (2D)
                     final double[][] fValues = (double[][]) value;
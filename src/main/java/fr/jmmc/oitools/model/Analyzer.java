@@ -20,20 +20,25 @@
 package fr.jmmc.oitools.model;
 
 import fr.jmmc.jmcs.util.NumberUtils;
+import fr.jmmc.oitools.OIFitsConstants;
 import static fr.jmmc.oitools.model.ModelBase.UNDEFINED_DBL;
 import fr.jmmc.oitools.model.range.Range;
+import fr.jmmc.oitools.util.BooleanArray2D;
 import fr.jmmc.oitools.util.CombUtils;
+import fr.jmmc.oitools.util.EncodedStringArray;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 
 /**
@@ -49,8 +54,9 @@ public final class Analyzer implements ModelVisitor {
 
     /** cached log debug flag */
     private final boolean isLogDebug = logger.isLoggable(Level.FINE);
-    /** cached combinations for baselines (staLen, combLen, combinations) */
-    private final Map<Integer, Map<Integer, List<int[]>>> combsCache = new HashMap<Integer, Map<Integer, List<int[]>>>(8);
+    /** cached combinations for baselines (staLen, combLen, combinations)
+     * (concurrent as station configurations are analyzed lazily from any thread) */
+    private final ConcurrentHashMap<Integer, ConcurrentHashMap<Integer, List<int[]>>> combsCache = new ConcurrentHashMap<>(8);
 
     /**
      * Return the Manager singleton
@@ -77,24 +83,7 @@ public final class Analyzer implements ModelVisitor {
     public void visit(final OIFitsFile oiFitsFile) {
         final long start = System.nanoTime();
 
-        // reset cached analyzed data:
-        oiFitsFile.setChanged();
-
-        // TODO: process keywords in primary HDU (image) ?
-        // process OITarget table (mandatory but incorrect files can happen):
-        if (oiFitsFile.hasOiTarget()) {
-            process(oiFitsFile.getOiTarget());
-        }
-
-        // process OIWavelength tables:
-        for (final OIWavelength oiWavelength : oiFitsFile.getOiWavelengths()) {
-            process(oiWavelength);
-        }
-
-        // process OIArray tables:
-        for (final OIArray oiArray : oiFitsFile.getOiArrays()) {
-            process(oiArray);
-        }
+        processReferenceTables(oiFitsFile);
 
         // process OIData tables:
         for (final OIData oiData : oiFitsFile.getOiDataList()) {
@@ -121,6 +110,33 @@ public final class Analyzer implements ModelVisitor {
         }
     }
 
+    /**
+     * Reset the cached analyzed data of the given OIFitsFile and process its reference tables
+     * (OI_TARGET, OI_WAVELENGTH, OI_ARRAY) but not its OIData tables
+     * Note: used by OIFitsCache to restore the analysis of OIData tables
+     * @param oiFitsFile OIFitsFile element to process
+     */
+    void processReferenceTables(final OIFitsFile oiFitsFile) {
+        // reset cached analyzed data:
+        oiFitsFile.setChanged();
+
+        // TODO: process keywords in primary HDU (image) ?
+        // process OITarget table (mandatory but incorrect files can happen):
+        if (oiFitsFile.hasOiTarget()) {
+            process(oiFitsFile.getOiTarget());
+        }
+
+        // process OIWavelength tables:
+        for (final OIWavelength oiWavelength : oiFitsFile.getOiWavelengths()) {
+            process(oiWavelength);
+        }
+
+        // process OIArray tables:
+        for (final OIArray oiArray : oiFitsFile.getOiArrays()) {
+            process(oiArray);
+        }
+    }
+
     /**
      * Process the given OITable element with this visitor implementation
      * @param oiTable OITable element to visit
@@ -151,7 +167,7 @@ public final class Analyzer implements ModelVisitor {
         // reset cached analyzed data:
         oiData.setChanged();
 
-        // First: station indexes & configurations:
+        // First: station indexes (configurations are analyzed lazily):
         if (oiData.getStaIndex() != null) {
             processStaIndex(oiData);
         }
@@ -159,23 +175,9 @@ public final class Analyzer implements ModelVisitor {
         // dimensions:
         final int nRows = oiData.getNbRows();
 
-        // Count Flags:
-        int nFlagged = 0;
-
-        final boolean[][] flags = oiData.getFlag();
-        if (flags != null) {
-            final int nWaves = oiData.getNWave();
-
-            for (int i = 0, j; i < nRows; i++) {
-                final boolean[] rowFlags = flags[i];
-
-                for (j = 0; j < nWaves; j++) {
-                    if ((rowFlags != null) && rowFlags[j]) {
-                        nFlagged++;
-                    }
-                }
-            }
-        }
+        // Count Flags (population count on packed words) unless not loaded (column projection):
+        final BooleanArray2D flags = (OIFitsLoader.isColumnSkipped(oiData, OIFitsConstants.COLUMN_FLAG)) ? null : oiData.getFlag2D();
+        final int nFlagged = (flags != null) ? flags.cardinality() : 0;
         oiData.setNFlagged(nFlagged);
 
         // Extract Granules of this table (targetId, nightId, insMode, mjd):
@@ -191,8 +193,6 @@ public final class Analyzer implements ModelVisitor {
         final short[][] staIndexes = oiData.getStaIndex();
         // Get MJD column:
         final double[] mjds = oiData.getMJD();
-        // Derived StaConf column:
-        final short[][] staConfs = (oiData.getDistinctStaConfCount()) != 0 ? oiData.getStaConf() : null;
 
         // note: if no OITarget table then the target will be Target.UNDEFINED
         final Map<Short, Target> targetIdToTarget = (oiTarget != null) ? oiTarget.getTargetIdToTarget() : null;
@@ -219,6 +219,10 @@ public final class Analyzer implements ModelVisitor {
 
         // reused Granule:
         Granule g = new Granule();
+        // last granule and its staIndex set (consecutive rows often belong to the same granule):
+        Granule lastGranule = null;
+        Set<Long> lastStaIndexes = null;
+        short[] lastStaIndex = null;
 
         // Process all rows to identify Granule and its associated fields:
         for (int i = 0; i < nRows; i++) {
@@ -253,12 +257,6 @@ public final class Analyzer implements ModelVisitor {
                     staNames = OIAbstractData.getRealStaNames(usedStaNamesMap, sortedStaNamesDir.getStaNames(), null);
                 }
             }
-            // Get corresponding StaConf:
-            String staConf = null;
-            if (staConfs != null) {
-                staConf = oiData.getStaNames(staConfs[i]); // staConf computed before
-            }
-
             // Get MJD value:
             final double mjd = mjds[i];
 
@@ -276,9 +274,18 @@ public final class Analyzer implements ModelVisitor {
             if (staNames != null) {
                 granule.getDistinctStaNames().add(staNames); // real staNames present in OIFitsFile
             }
-            // Update distinct StaConfs on shared granule:
-            if (staConf != null) {
-                granule.getDistinctStaConfs().add(staConf);
+            // Update staIndexes on shared granule to resolve distinct StaConfs lazily
+            // (keys by content: rows share distinct staIndex instances, see processStaIndex):
+            if (staIndexes != null) {
+                if (granule != lastGranule) {
+                    lastGranule = granule;
+                    lastStaIndexes = granule.getStaIndexes(oiData);
+                    lastStaIndex = null;
+                }
+                if (staIndexes[i] != lastStaIndex) {
+                    lastStaIndex = staIndexes[i];
+                    lastStaIndexes.add(Long.valueOf(Granule.getStaIndexKey(lastStaIndex)));
+                }
             }
 
             // Update MJD Ranges on shared granule:
@@ -452,11 +459,20 @@ public final class Analyzer implements ModelVisitor {
             final short[][] staIndexes = oiData.getStaIndex();
 
             if (staIndexes != null) {
-                // Derived StaIndexName column:
-                final String[] staIndexNames = oiData.getStaIndexName();
+                // Derived StaIndexName column (dictionary-encoded):
+                final EncodedStringArray staIndexNames = oiData.getStaIndexNameEncoded();
+
+                // resolve real staNames once per distinct StaIndex array (identity):
+                final Map<short[], Integer> staIndexCodes = new IdentityHashMap<short[], Integer>(oiData.getDistinctStaIndexCount());
 
                 for (int i = 0; i < nRows; i++) {
-                    staIndexNames[i] = oiData.getRealStaNames(usedStaNamesMap, staIndexes[i]);
+                    final short[] staIndex = staIndexes[i];
+                    Integer code = staIndexCodes.get(staIndex);
+                    if (code == null) {
+                        code = Integer.valueOf(staIndexNames.encode(oiData.getRealStaNames(usedStaNamesMap, staIndex)));
+                        staIndexCodes.put(staIndex, code);
+                    }
+                    staIndexNames.setCode(i, code.intValue());
                 }
 
                 if (isLogDebug) {
@@ -591,7 +607,7 @@ public final class Analyzer implements ModelVisitor {
                 logger.log(Level.FINE, "{0} : {1}", new Object[]{Arrays.toString(e.getKey()), e.getValue()});
             }
         }
-        processStaConf(oiData);
+        // note: station configurations are analyzed lazily (see OIData.getStaConf())
     }
 
     private static int testAndSwap(final short[] staIndexSorted, final String[] staIndexNamesSorted, final int i1, final int i2) {
@@ -612,9 +628,10 @@ public final class Analyzer implements ModelVisitor {
 
     /**
      * Process station configurations on the given OIData table
+     * Note: called by OIData on first use of its station configurations
      * @param oiData OIData table to process
      */
-    private void processStaConf(final OIData oiData) {
+    void processStaConf(final OIData oiData) {
 
         final int nRows = oiData.getNbRows();
 
@@ -1103,9 +1120,6 @@ public final class Analyzer implements ModelVisitor {
             // StaIndex column:
             final short[][] staIndexes = oiData.getStaIndex();
 
-            // Derived StaConfName column:
-            final String[] staConfNames = oiData.getStaConfName();
-
             short[] staIndex;
             for (int i = 0; i < nRows; i++) {
                 staIndex = staIndexes[i];
@@ -1116,9 +1130,9 @@ public final class Analyzer implements ModelVisitor {
                 if (staConfs[i] == null) {
                     logger.log(Level.WARNING, "MISSING station configuration for station index:{0} !", oiData.getStaNames(staIndex));
                 }
-                // store as String (stable):
-                staConfNames[i] = oiData.getStaNames(staConfs[i]);
             }
+            // Fill StaConfName derived column (dictionary-encoded):
+            processStaConfNames(oiData, staConfs);
         }
 
         if (isDebug) {
@@ -1130,6 +1144,29 @@ public final class Analyzer implements ModelVisitor {
         }
     }
 
+    /**
+     * Fill the station configuration names (dictionary-encoded) on the given OIData table
+     * @param oiData OIData table to process
+     * @param staConfs station configurations
+     */
+    private static void processStaConfNames(final OIData oiData, final short[][] staConfs) {
+        // Derived StaConfName column:
+        final EncodedStringArray staConfNames = oiData.getStaConfNameEncoded();
+
+        // resolve names once per distinct StaConf array (identity) and store as String (stable):
+        final Map<short[], Integer> staConfCodes = new IdentityHashMap<short[], Integer>(oiData.getDistinctStaConfCount() + 1);
+
+        for (int i = 0, len = staConfs.length; i < len; i++) {
+            final short[] staConf = staConfs[i];
+            Integer code = staConfCodes.get(staConf);
+            if (code == null) {
+                code = Integer.valueOf(staConfNames.encode(oiData.getStaNames(staConf)));
+                staConfCodes.put(staConf, code);
+            }
+            staConfNames.setCode(i, code.intValue());
+        }
+    }
+
     private List<int[]> getCombinations(final int staLen, final int confLen) {
         if (logger.isLoggable(Level.FINE)) {
             logger.log(Level.FINE, "Get iCombs with len = {0}", confLen);
@@ -1137,20 +1174,14 @@ public final class Analyzer implements ModelVisitor {
 
         final Integer staKey = NumberUtils.valueOf(staLen);
 
-        Map<Integer, List<int[]>> combsByConfLen = combsCache.get(staKey);
-        if (combsByConfLen == null) {
-            combsByConfLen = new HashMap<Integer, List<int[]>>(8);
-            combsCache.put(staKey, combsByConfLen);
-        }
+        // atomic get or create at both levels:
+        final ConcurrentHashMap<Integer, List<int[]>> combsByConfLen
+                                                      = combsCache.computeIfAbsent(staKey, key -> new ConcurrentHashMap<>(8));
 
         final Integer confKey = NumberUtils.valueOf(confLen);
 
-        List<int[]> iCombs = combsByConfLen.get(confKey);
-
-        if (iCombs == null) {
-            iCombs = CombUtils.generateCombinations(confKey.intValue(), staLen); // 1T or 2T or 3T
-            combsByConfLen.put(confKey, iCombs);
-        }
+        final List<int[]> iCombs = combsByConfLen.computeIfAbsent(confKey,
+                key -> CombUtils.generateCombinations(key.intValue(), staLen)); // 1T or 2T or 3T
 
         if (logger.isLoggable(Level.FINE)) {
             logger.log(Level.FINE, "getCombinations({0},{1}): {2}", new Object[]{staLen, confLen, iCombs});
@@ -402,6 +402,19 @@ public final class DataLocation {
         this.details.add(details);
     }
 
+    /**
+     * Append all data of the given DataLocation (merge)
+     * @param other DataLocation to append
+     */
+    void addAll(final DataLocation other) {
+        if (!other.isEmpty()) {
+            for (int i = 0, len = other.values.size(); i < len; i++) {
+                setValues(other.values.get(i), other.limits.get(i), other.expecteds.get(i),
+                        other.rows.get(i), other.cols.get(i), other.details.get(i));
+            }
+        }
+    }
+
     private void ensureCapacity() {
         if (isEmpty()) {
             final int newSize = 10;
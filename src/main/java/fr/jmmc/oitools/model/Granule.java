@@ -26,7 +26,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Logger;
 
@@ -59,6 +62,10 @@ public final class Granule {
     private Set<String> distinctStaNames = null;
     /** Set of distinct staConfs */
     private Set<String> distinctStaConfs = null;
+    /** distinct staIndex keys (content, see getStaIndexKey()) per OIData table to resolve distinct staConfs lazily (dropped once resolved) */
+    private Map<OIData, Set<Long>> staIndexesPerTable = null;
+    /** merged granules whose distinct staConfs are not resolved yet (dropped once resolved) */
+    private List<Granule> pendingGranules = null;
 
     public Granule() {
         super();
@@ -186,16 +193,118 @@ public final class Granule {
     }
 
     public boolean hasDistinctStaConfs() {
-        return (distinctStaConfs != null) && !distinctStaConfs.isEmpty();
+        return !getDistinctStaConfs().isEmpty();
     }
 
-    public Set<String> getDistinctStaConfs() {
+    public synchronized Set<String> getDistinctStaConfs() {
         if (distinctStaConfs == null) {
             distinctStaConfs = new LinkedHashSet<String>();
         }
+        if (staIndexesPerTable != null) {
+            // resolve staConfs of pending tables (analyzed on first use):
+            for (Map.Entry<OIData, Set<Long>> entry : staIndexesPerTable.entrySet()) {
+                addDistinctStaConfs(entry.getKey(), entry.getValue());
+            }
+            staIndexesPerTable = null;
+        }
+        if (pendingGranules != null) {
+            // resolve staConfs of merged granules (lock order: merged granule after this one):
+            for (Granule other : pendingGranules) {
+                distinctStaConfs.addAll(other.getDistinctStaConfs());
+            }
+            pendingGranules = null;
+        }
         return distinctStaConfs;
     }
 
+    /**
+     * Add the station configuration names of the given table rows having one of the given staIndex keys
+     * @param oiData OIData table
+     * @param staIndexes distinct staIndex keys (content)
+     */
+    private void addDistinctStaConfs(final OIData oiData, final Set<Long> staIndexes) {
+        if (oiData.getDistinctStaConfCount() != 0) {
+            final short[][] staIndexCol = oiData.getStaIndex();
+            final short[][] staConfs = oiData.getStaConf();
+
+            short[] last = null;
+            boolean match = false;
+
+            for (int i = 0, len = oiData.getNbRows(); i < len; i++) {
+                // rows share distinct staIndex instances (see Analyzer.processStaIndex):
+                if (staIndexCol[i] != last) {
+                    last = staIndexCol[i];
+                    match = staIndexes.contains(Long.valueOf(getStaIndexKey(last)));
+                }
+                if (match) {
+                    distinctStaConfs.add(oiData.getStaNames(staConfs[i])); // staConf computed before
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the set of distinct staIndex keys (content, see getStaIndexKey()) present in rows of the given table
+     * belonging to this granule, used to resolve distinct staConfs lazily
+     * @param oiData OIData table
+     * @return set of distinct staIndex keys (bounded by the number of distinct baselines / triplets)
+     */
+    synchronized Set<Long> getStaIndexes(final OIData oiData) {
+        if (staIndexesPerTable == null) {
+            staIndexesPerTable = new LinkedHashMap<OIData, Set<Long>>(4);
+        }
+        Set<Long> staIndexes = staIndexesPerTable.get(oiData);
+        if (staIndexes == null) {
+            staIndexes = new HashSet<Long>(16);
+            staIndexesPerTable.put(oiData, staIndexes);
+        }
+        return staIndexes;
+    }
+
+    /**
+     * Return the key of the given staIndex array packing its length and up to 3 station indexes (content)
+     * @param staIndex staIndex array (1 to 3 stations)
+     * @return key
+     */
+    static long getStaIndexKey(final short[] staIndex) {
+        final int len = staIndex.length;
+        long key = len;
+        for (int i = 0; i < len && i < 3; i++) {
+            key = (key << 16) | (staIndex[i] & 0xFFFFL);
+        }
+        return key;
+    }
+
+    /**
+     * Merge the distinct staConfs (resolved or not) of the given granule into this granule:
+     * unresolved staConfs are resolved later from the given granule, so this granule
+     * never keeps references to the OIData tables of the given granule
+     * @param other other granule
+     */
+    void mergeDistinctStaConfs(final Granule other) {
+        synchronized (other) {
+            final boolean resolved = (other.staIndexesPerTable == null) && (other.pendingGranules == null);
+
+            if (resolved) {
+                if (other.distinctStaConfs != null && !other.distinctStaConfs.isEmpty()) {
+                    synchronized (this) {
+                        if (distinctStaConfs == null) {
+                            distinctStaConfs = new LinkedHashSet<String>();
+                        }
+                        distinctStaConfs.addAll(other.distinctStaConfs);
+                    }
+                }
+                return;
+            }
+        }
+        synchronized (this) {
+            if (pendingGranules == null) {
+                pendingGranules = new ArrayList<Granule>(4);
+            }
+            pendingGranules.add(other);
+        }
+    }
+
     @Override
     public String toString() {
         return "Granule{" + "target=" + target + ", insMode=" + insMode
@@ -22,15 +22,22 @@ package fr.jmmc.oitools.model;
 import fr.jmmc.oitools.meta.ColumnMeta;
 import fr.jmmc.oitools.meta.WaveColumnMeta;
 import static fr.jmmc.oitools.model.ModelBase.UNDEFINED_DBL;
+import fr.jmmc.oitools.util.DoubleArray2D;
 import gnu.jel.CompilationException;
 import gnu.jel.CompiledExpression;
 import gnu.jel.DVMap;
 import gnu.jel.Evaluator;
 import gnu.jel.Library;
+import java.lang.reflect.Member;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -42,6 +49,58 @@ public final class JELEval extends ExpressionEvaluator {
 
     /** logger */
     private final static Logger _logger = Logger.getLogger(JELEval.class.getName());
+    /** maximum number of compiled expressions kept in the cache */
+    private final static int MAX_COMPILED = Math.max(1, Integer.getInteger("oitools.jel.cacheSize", 64).intValue());
+    /** cache of compiled expressions (LRU) keyed by expression and input column names
+     * (compilation failures are cached too: bounded by the same LRU and reset by clearCache()) */
+    private final static Map<CompiledKey, Compiled> COMPILED_CACHE
+                                                    = new LinkedHashMap<CompiledKey, Compiled>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<CompiledKey, Compiled> eldest) {
+            return size() > MAX_COMPILED;
+        }
+    };
+    /** number of compilations */
+    private static long nCompilations = 0L;
+    /** minimum number of evaluations to split rows across the fork-join pool (sequential below) */
+    private static int PARALLEL_THRESHOLD = Integer.getInteger("oitools.jel.parallelThreshold", 64 * 1024).intValue();
+
+    /**
+     * Return the minimum number of evaluations to evaluate rows in parallel
+     * @return minimum number of evaluations (0 or negative means always sequential)
+     */
+    public static int getParallelThreshold() {
+        return PARALLEL_THRESHOLD;
+    }
+
+    /**
+     * Define the minimum number of evaluations to evaluate rows in parallel
+     * @param threshold minimum number of evaluations (0 or negative means always sequential)
+     */
+    public static void setParallelThreshold(final int threshold) {
+        PARALLEL_THRESHOLD = threshold;
+    }
+
+    /**
+     * Return the number of compilations since startup (cache misses)
+     * @return number of compilations
+     */
+    public static long getCompilationCount() {
+        synchronized (COMPILED_CACHE) {
+            return nCompilations;
+        }
+    }
+
+    /**
+     * Clear the cache of compiled expressions (including cached compilation failures)
+     */
+    public static void clearCache() {
+        synchronized (COMPILED_CACHE) {
+            COMPILED_CACHE.clear();
+        }
+    }
 
     public JELEval() {
     }
@@ -90,35 +149,16 @@ public final class JELEval extends ExpressionEvaluator {
             }
         }
 
-        // Prepare the variable resolver used by compilation only:
-        final VariableResolver resolver = new VariableResolver(jelNames);
-
         // Output: always 2D array returned
         final double[][] result = new double[nRows][nWaves];
 
         try {
-            // Setup JEL!
-            final Class<?>[] staticLib = new Class<?>[2];
-            staticLib[0] = Math.class;
-            staticLib[1] = JELFunctions.class;
-
-            final Class<?>[] dynamicLib = new Class<?>[2];
-
-            // Both dynamicLib and context arrays must be consistent:
-            dynamicLib[0] = VariableResolver.class;
-            dynamicLib[1] = VariableProvider.class;
-
-            final Library lib = new Library(staticLib, dynamicLib, null, resolver, null);
-
-            // Math.random():
+            // Get the compiled expression (cached for the same expression and input column names):
             // may throw CompilationException or Throwable:
-            lib.markStateDependent("random", null);
+            final Compiled compiled = getCompiled(expression, (n == jelNames.length) ? jelNames : Arrays.copyOf(jelNames, n));
 
-            // Compile expression
-            _logger.fine("Compiling expression ...");
-
-            // may throw CompilationException or Throwable:
-            final CompiledExpression expr_c = Evaluator.compile(expression, lib);
+            final VariableResolver resolver = compiled.resolver;
+            final CompiledExpression expr_c = compiled.expression;
 
             // Retrieve values:
             // Uniquement les colonnes utilisées => VariableResolver.usedNames
@@ -164,7 +204,7 @@ public final class JELEval extends ExpressionEvaluator {
                         // only names with double[][] or double[] values:
                         if (colMeta.isArray()) {
                             // 2D column
-                            col = new JELColumn(colName, oiData.getColumnAsDoubles(colName));
+                            col = new JELColumn(colName, oiData.getColumnAsDoubles2D(colName));
                         } else {
                             // 1D column
                             col = new JELColumn(colName, oiData.getColumnAsDouble(colName));
@@ -180,27 +220,33 @@ public final class JELEval extends ExpressionEvaluator {
                 }
             }
 
-            // Prepare the variable resolver used by evaluation only:
-            final VariableProvider varProvider = new VariableProvider(jelColums);
+            // The used JELColumns are known so evaluate only once per row if all are 1D
+            // (unless the expression is state dependent like random()):
+            final boolean rowOnly = !has2D(jelColums) && !compiled.stateDependent;
 
-            final Object[] context = new Object[2];
-            context[0] = resolver;
-            context[1] = varProvider;
+            // number of evaluations per row:
+            final int rowCost = (rowOnly) ? 1 : Math.max(1, nWaves);
+            final int threshold = PARALLEL_THRESHOLD;
 
-            // Execute compiled expression:
-            double[] row;
+            if (_logger.isLoggable(Level.FINE)) {
+                _logger.log(Level.FINE, "rowOnly: {0}", rowOnly);
+            }
 
-            // On connait les JELColumns utilisées
-            // Donc on peut déduire si la boucle est en 1D ou en 2D ?
-            for (int i = 0; i < nRows; i++) {
-                varProvider.i = i;
-                row = result[i];
+            if ((threshold <= 0) || ((long) nRows * rowCost < threshold) || (ForkJoinPool.getCommonPoolParallelism() <= 1)) {
+                // may throw Throwable:
+                evalRows(resolver, expr_c, jelColums, rowOnly, result, 0, nRows);
+            } else {
+                // split rows in slices of (at least) threshold evaluations:
+                final int minRows = Math.max(1, threshold / rowCost);
 
-                for (int j = 0; j < nWaves; j++) {
-                    varProvider.j = j;
+                final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
 
-                    // may throw Throwable:
-                    row[j] = expr_c.evaluate_double(context);
+                ForkJoinPool.commonPool().invoke(
+                        new EvalTask(resolver, expr_c, jelColums, rowOnly, result, 0, nRows, minRows, failure)
+                );
+
+                if (failure.get() != null) {
+                    throw failure.get();
                 }
             }
         } catch (CompilationException ce) {
@@ -227,6 +273,292 @@ public final class JELEval extends ExpressionEvaluator {
         return result;
     }
 
+    /**
+     * Evaluate the compiled expression on the given rows into the result array
+     * using its own variable provider (so slices can be evaluated concurrently).
+     * Note: JEL generates bytecode so the per-cell evaluation is JIT-compiled and memory bound:
+     * a column-at-a-time interpreter over primitive arrays was measured slower than this loop
+     * @param resolver variable resolver used by compilation
+     * @param expr_c compiled expression
+     * @param jelColums input columns (null if unused)
+     * @param rowOnly true to evaluate only once per row (1D columns only)
+     * @param result result array
+     * @param fromRow first row (inclusive)
+     * @param toRow last row (exclusive)
+     * @throws Throwable if any evaluation failure occurs
+     */
+    private static void evalRows(final VariableResolver resolver, final CompiledExpression expr_c,
+                                 final JELColumn[] jelColums, final boolean rowOnly,
+                                 final double[][] result, final int fromRow, final int toRow) throws Throwable {
+
+        // Prepare the variable resolver used by evaluation only:
+        final VariableProvider varProvider = new VariableProvider(jelColums);
+
+        final Object[] context = new Object[2];
+        context[0] = resolver;
+        context[1] = varProvider;
+
+        // Execute compiled expression:
+        double[] row;
+
+        for (int i = fromRow; i < toRow; i++) {
+            // resolve row values of used columns once per row:
+            varProvider.setRow(i);
+            row = result[i];
+
+            if (rowOnly) {
+                varProvider.j = 0;
+
+                // may throw Throwable:
+                Arrays.fill(row, expr_c.evaluate_double(context));
+            } else {
+                for (int j = 0, nWaves = row.length; j < nWaves; j++) {
+                    varProvider.j = j;
+
+                    // may throw Throwable:
+                    row[j] = expr_c.evaluate_double(context);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param jelColums input columns (null if unused)
+     * @return true if any used column is 2D
+     */
+    private static boolean has2D(final JELColumn[] jelColums) {
+        for (JELColumn col : jelColums) {
+            if ((col != null) && (col.values2D != null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fork-join task evaluating a range of rows: split in halves until the range is small enough
+     * (disjoint row slices of the result array)
+     */
+    private static final class EvalTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /** variable resolver used by compilation */
+        private final VariableResolver resolver;
+        /** compiled expression */
+        private final CompiledExpression expr_c;
+        /** input columns (null if unused) */
+        private final JELColumn[] jelColums;
+        /** true to evaluate only once per row */
+        private final boolean rowOnly;
+        /** result array */
+        private final double[][] result;
+        /** first row (inclusive) */
+        private final int fromRow;
+        /** last row (exclusive) */
+        private final int toRow;
+        /** minimum number of rows per task */
+        private final int minRows;
+        /** first failure (shared by all tasks) */
+        private final AtomicReference<Throwable> failure;
+
+        EvalTask(final VariableResolver resolver, final CompiledExpression expr_c,
+                 final JELColumn[] jelColums, final boolean rowOnly,
+                 final double[][] result, final int fromRow, final int toRow, final int minRows,
+                 final AtomicReference<Throwable> failure) {
+            this.resolver = resolver;
+            this.expr_c = expr_c;
+            this.jelColums = jelColums;
+            this.rowOnly = rowOnly;
+            this.result = result;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.minRows = minRows;
+            this.failure = failure;
+        }
+
+        @Override
+        protected void compute() {
+            if (failure.get() != null) {
+                // skip remaining work:
+                return;
+            }
+            final int nRows = toRow - fromRow;
+
+            if (nRows >= 2 * minRows) {
+                final int mid = fromRow + nRows / 2;
+                invokeAll(
+                        new EvalTask(resolver, expr_c, jelColums, rowOnly, result, fromRow, mid, minRows, failure),
+                        new EvalTask(resolver, expr_c, jelColums, rowOnly, result, mid, toRow, minRows, failure)
+                );
+            } else {
+                try {
+                    evalRows(resolver, expr_c, jelColums, rowOnly, result, fromRow, toRow);
+                } catch (Throwable th) {
+                    failure.compareAndSet(null, th);
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the compiled expression for the given expression and input column names
+     * from the cache or compile it (and store it in the cache)
+     * @param expression expression entered by the user
+     * @param jelNames input column names
+     * @return compiled expression
+     * @throws CompilationException if the expression is invalid (also cached until evicted or clearCache() is called)
+     * @throws Throwable if any JEL failure occurs
+     */
+    private static Compiled getCompiled(final String expression, final String[] jelNames) throws CompilationException, Throwable {
+        final CompiledKey key = new CompiledKey(expression, jelNames);
+
+        Compiled compiled;
+        synchronized (COMPILED_CACHE) {
+            compiled = COMPILED_CACHE.get(key);
+        }
+        if (compiled == null) {
+            // Prepare the variable resolver used by compilation only:
+            final VariableResolver resolver = new VariableResolver(jelNames);
+
+            // Setup JEL!
+            final Class<?>[] staticLib = new Class<?>[2];
+            staticLib[0] = Math.class;
+            staticLib[1] = JELFunctions.class;
+
+            final Class<?>[] dynamicLib = new Class<?>[2];
+
+            // Both dynamicLib and context arrays must be consistent:
+            dynamicLib[0] = VariableResolver.class;
+            dynamicLib[1] = VariableProvider.class;
+
+            final TrackingLibrary lib = new TrackingLibrary(staticLib, dynamicLib, resolver);
+
+            // Math.random():
+            // may throw CompilationException or Throwable:
+            lib.markStateDependent("random", null);
+
+            // Compile expression
+            _logger.fine("Compiling expression ...");
+
+            CompiledExpression expr_c = null;
+            CompilationException failure = null;
+            try {
+                // may throw CompilationException or Throwable:
+                expr_c = Evaluator.compile(expression, lib);
+            } catch (CompilationException ce) {
+                failure = ce;
+            }
+            // state dependent functions (random) resolved by the compiler:
+            compiled = new Compiled(resolver, expr_c, failure, lib.stateDependent);
+
+            synchronized (COMPILED_CACHE) {
+                nCompilations++;
+                COMPILED_CACHE.put(key, compiled);
+            }
+        }
+        if (compiled.failure != null) {
+            throw compiled.failure;
+        }
+        return compiled;
+    }
+
+    /**
+     * JEL library recording if any state dependent function (see Library.markStateDependent)
+     * is resolved while compiling an expression (dynamic methods of the variable resolver and provider excluded)
+     */
+    private static final class TrackingLibrary extends Library {
+
+        /** dynamic library classes (column variables) */
+        private final Class<?>[] dynamicLib;
+        /** true if any state dependent function is used */
+        boolean stateDependent = false;
+
+        TrackingLibrary(final Class<?>[] staticLib, final Class<?>[] dynamicLib, final VariableResolver resolver) {
+            super(staticLib, dynamicLib, null, resolver, null);
+            this.dynamicLib = dynamicLib;
+        }
+
+        @Override
+        public Member getMember(final Class<?> container, final String name, final Class<?>[] params) throws CompilationException {
+            final Member member = super.getMember(container, name, params);
+
+            if ((member != null) && !isStateless(member) && !isDynamic(member.getDeclaringClass())) {
+                stateDependent = true;
+            }
+            return member;
+        }
+
+        private boolean isDynamic(final Class<?> declaringClass) {
+            for (Class<?> dynamicClass : dynamicLib) {
+                if (declaringClass.isAssignableFrom(dynamicClass)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Key of the compiled expression cache: expression and input column names (ordered)
+     * as the compiled expression refers to input columns by their index
+     */
+    private static final class CompiledKey {
+
+        /** expression */
+        private final String expression;
+        /** input column names */
+        private final String[] names;
+        /** cached hash code */
+        private final int hash;
+
+        CompiledKey(final String expression, final String[] names) {
+            this.expression = expression;
+            this.names = names;
+            this.hash = 31 * expression.hashCode() + Arrays.hashCode(names);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CompiledKey)) {
+                return false;
+            }
+            final CompiledKey other = (CompiledKey) obj;
+            return (hash == other.hash) && expression.equals(other.expression) && Arrays.equals(names, other.names);
+        }
+    }
+
+    /**
+     * Compiled expression (or compilation failure) with its variable resolver (used names)
+     */
+    private static final class Compiled {
+
+        /** variable resolver used by compilation (read-only after compilation) */
+        final VariableResolver resolver;
+        /** compiled expression (thread-safe) or null if failed */
+        final CompiledExpression expression;
+        /** compilation failure or null */
+        final CompilationException failure;
+        /** true if the expression uses any state dependent function (random) i.e. must be evaluated for every cell */
+        final boolean stateDependent;
+
+        Compiled(final VariableResolver resolver, final CompiledExpression expression, final CompilationException failure,
+                 final boolean stateDependent) {
+            this.resolver = resolver;
+            this.expression = expression;
+            this.failure = failure;
+            this.stateDependent = stateDependent;
+        }
+    }
+
     /**
      * This class is public and overridden public methods are required by JEL
      */
@@ -276,22 +608,70 @@ public final class JELEval extends ExpressionEvaluator {
 
     /**
      * This class is public and overridden public methods are required by JEL
+     * Values of the used columns are resolved once per row (setRow) so that
+     * getDoubleProperty() only reads primitive arrays per cell
      */
     public final static class VariableProvider {
 
+        /** input columns (null if unused) */
         final JELColumn[] columns;
-        int i = -1;
+        /** indices of the used columns */
+        final int[] usedIndexes;
+        /** row buffers of used 2D columns (per column index) */
+        final double[][] buffers;
+        /** current row values of used 2D columns (per column index) */
+        final double[][] rows;
+        /** current row value of used 1D columns (per column index) */
+        final double[] values;
+        /** current column index */
         int j = -1;
 
         VariableProvider(final JELColumn[] columns) {
             this.columns = columns;
+
+            int n = 0;
+            for (JELColumn col : columns) {
+                if (col != null) {
+                    n++;
+                }
+            }
+            this.usedIndexes = new int[n];
+            this.buffers = new double[columns.length][];
+            this.rows = new double[columns.length][];
+            this.values = new double[columns.length];
+
+            n = 0;
+            for (int k = 0; k < columns.length; k++) {
+                final JELColumn col = columns[k];
+                if (col != null) {
+                    usedIndexes[n++] = k;
+                    if (col.values2D != null) {
+                        buffers[k] = new double[col.values2D.getNbCols()];
+                    }
+                }
+            }
+        }
+
+        /**
+         * Resolve the values of the used columns for the given row
+         * @param i row index
+         */
+        void setRow(final int i) {
+            for (int k : usedIndexes) {
+                final JELColumn col = columns[k];
+
+                if (col.values2D != null) {
+                    rows[k] = col.values2D.getRow(i, buffers[k]);
+                } else {
+                    values[k] = (col.values1D != null) ? col.values1D[i] : UNDEFINED_DBL;
+                }
+            }
         }
 
         public double getDoubleProperty(final int index) {
-            final JELColumn col = columns[index];
+            final double[] row = rows[index];
 
-            return (col.values2D != null) ? col.values2D[i][j]
-                    : (col.values1D != null) ? col.values1D[i] : UNDEFINED_DBL;
+            return (row != null) ? row[j] : values[index];
         }
     }
 
@@ -299,7 +679,7 @@ public final class JELEval extends ExpressionEvaluator {
 
         final String name;
         final double[] values1D;
-        final double[][] values2D;
+        final DoubleArray2D values2D;
 
         JELColumn(final String name, final double[] values1D) {
             this.name = name;
@@ -307,7 +687,7 @@ public final class JELEval extends ExpressionEvaluator {
             this.values2D = null;
         }
 
-        JELColumn(final String name, final double[][] values2D) {
+        JELColumn(final String name, final DoubleArray2D values2D) {
             this.name = name;
             this.values1D = null;
             this.values2D = values2D;
@@ -315,7 +695,7 @@ public final class JELEval extends ExpressionEvaluator {
 
         @Override
         public String toString() {
-            return "JELColumn{" + "name=" + name + ", values1D=" + Arrays.toString(values1D) + ", values2D=" + Arrays.toString(values2D) + '}';
+            return "JELColumn{" + "name=" + name + ", values1D=" + Arrays.toString(values1D) + ", values2D=" + values2D + '}';
         }
     }
 }
@@ -33,8 +33,12 @@ import fr.jmmc.oitools.meta.Units;
 import fr.jmmc.oitools.meta.WaveColumnMeta;
 import static fr.jmmc.oitools.model.ModelBase.logger;
 import fr.jmmc.oitools.model.range.Range;
+import fr.jmmc.oitools.util.BooleanArray2D;
+import fr.jmmc.oitools.util.DoubleArray2D;
+import fr.jmmc.oitools.util.EncodedStringArray;
 import fr.jmmc.oitools.util.MathUtils;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -96,6 +100,12 @@ public abstract class OIData extends OIAbstractData {
     /** STA_CONF_NAME column descriptor */
     private final static ColumnMeta COLUMN_STA_CONF_NAME = new ColumnMeta(OIFitsConstants.COLUMN_STA_CONF_NAME,
             "station configuration name", Types.TYPE_CHAR);
+    /** station configuration analysis state: not done */
+    private final static int STA_CONF_TODO = 0;
+    /** station configuration analysis state: in progress */
+    private final static int STA_CONF_RUNNING = 1;
+    /** station configuration analysis state: done */
+    private final static int STA_CONF_DONE = 2;
 
     /** members */
     /** cached reference on OI_WAVELENGTH table associated to this OIData table */
@@ -107,6 +117,8 @@ public abstract class OIData extends OIAbstractData {
     private int nFlagged = -1;
     /** distinct StaConf values present in this table (station configuration) (sorted) */
     private final Set<short[]> distinctStaConf = new LinkedHashSet<short[]>();
+    /** station configuration analysis state (lazy) */
+    private volatile int staConfState = STA_CONF_TODO;
 
     /**
      * Protected OIData class constructor
@@ -305,6 +317,14 @@ public abstract class OIData extends OIAbstractData {
         return this.getColumnBooleans(OIFitsConstants.COLUMN_FLAG);
     }
 
+    /**
+     * Return the FLAG column as a 2D view (packed storage is preserved).
+     * @return the FLAG column as a 2D view or null if undefined
+     */
+    public final BooleanArray2D getFlag2D() {
+        return this.getColumnAsBooleans2D(OIFitsConstants.COLUMN_FLAG);
+    }
+
     /* --- Derived Column from expression --- */
     /**
      * Verify the validity of the expression
@@ -365,25 +385,41 @@ public abstract class OIData extends OIAbstractData {
 
     /* --- Alternate data representation methods --- */
     /**
-     * Return the station configuration name as String (1D)
+     * Return true if the derived value given its name can be evicted by the DerivedColumnCache:
+     * station configuration columns are filled by the Analyzer so they can not be computed again
+     *
+     * @param name column name
+     * @return false for station configuration columns; true otherwise
+     */
+    @Override
+    protected boolean isColumnDerivedEvictable(final String name) {
+        return !(OIFitsConstants.COLUMN_STA_INDEX_NAME.equals(name)
+                || OIFitsConstants.COLUMN_STA_CONF.equals(name)
+                || OIFitsConstants.COLUMN_STA_CONF_NAME.equals(name));
+    }
+
+    /**
+     * Return the station index name as String (1D) decoded from the dictionary-encoded column
+     * Note: the returned array is cached and shared so it is read-only: use getStaIndexNameEncoded() to modify values
      * @see Analyzer which fills that column
-     * @return the station configuration name as String (1D)
+     * @return the station index name as String (1D)
      */
     public String[] getStaIndexName() {
-        // lazy:
-        String[] staIndexNames = this.getColumnDerivedString(OIFitsConstants.COLUMN_STA_INDEX_NAME);
-
-        if (staIndexNames == null) {
-            staIndexNames = new String[getNbRows()];
+        return getColumnDerivedDecoded(OIFitsConstants.COLUMN_STA_INDEX_NAME, getStaIndexNameEncoded());
+    }
 
-            // not filled here: see Analyzer
-            this.setColumnDerivedValue(OIFitsConstants.COLUMN_STA_INDEX_NAME, staIndexNames);
-        }
-        return staIndexNames;
+    /**
+     * Return the station index name as dictionary-encoded column (1D)
+     * @see Analyzer which fills that column
+     * @return the station index name as dictionary-encoded column (1D)
+     */
+    public EncodedStringArray getStaIndexNameEncoded() {
+        return getEncodedColumn(OIFitsConstants.COLUMN_STA_INDEX_NAME);
     }
 
     /**
      * Return the station configuration as short arrays (2D)
+     * Note: the station configurations are analyzed on first use
      * @see Analyzer#processStaConf(fr.jmmc.oitools.model.OIData) which fills that column
      * @return the station configuration as short arrays (2D)
      */
@@ -401,21 +437,40 @@ public abstract class OIData extends OIAbstractData {
     }
 
     /**
-     * Return the station configuration name as String (1D)
+     * Return the station configuration name as String (1D) decoded from the dictionary-encoded column
+     * Note: the returned array is cached and shared so it is read-only: use getStaConfNameEncoded() to modify values
      * @see Analyzer which fills that column
      * @return the station configuration name as String (1D)
      */
     public String[] getStaConfName() {
+        return getColumnDerivedDecoded(OIFitsConstants.COLUMN_STA_CONF_NAME, getStaConfNameEncoded());
+    }
+
+    /**
+     * Return the station configuration name as dictionary-encoded column (1D)
+     * @see Analyzer which fills that column
+     * @return the station configuration name as dictionary-encoded column (1D)
+     */
+    public EncodedStringArray getStaConfNameEncoded() {
+        return getEncodedColumn(OIFitsConstants.COLUMN_STA_CONF_NAME);
+    }
+
+    /**
+     * Return the dictionary-encoded derived column given its name
+     * @param name derived column name
+     * @return dictionary-encoded column (1D)
+     */
+    private EncodedStringArray getEncodedColumn(final String name) {
         // lazy:
-        String[] staConfNames = this.getColumnDerivedString(OIFitsConstants.COLUMN_STA_CONF_NAME);
+        EncodedStringArray encoded = (EncodedStringArray) this.getColumnDerivedStoredValue(name);
 
-        if (staConfNames == null) {
-            staConfNames = new String[getNbRows()];
+        if (encoded == null) {
+            encoded = new EncodedStringArray(getNbRows());
 
             // not filled here: see Analyzer
-            this.setColumnDerivedValue(OIFitsConstants.COLUMN_STA_CONF_NAME, staConfNames);
+            this.setColumnDerivedValue(name, encoded);
         }
-        return staConfNames;
+        return encoded;
     }
 
     /**
@@ -481,6 +536,48 @@ public abstract class OIData extends OIAbstractData {
      */
     public abstract double[][] getSpatialFreq();
 
+    /**
+     * Return the spatial frequencies column as a 2D view.
+     * If the flat storage is enabled, the spatial frequencies (radius / effWave) are computed
+     * in a flat contiguous array (converted to double[][] if getSpatialFreq() is called later)
+     *
+     * @return the computed spatial frequencies f[x][y] (x,y for coordIndex, effWaveIndex) or null if undefined
+     */
+    public final DoubleArray2D getSpatialFreq2D() {
+        // lazy:
+        final Object value = this.getColumnDerivedStoredValue(OIFitsConstants.COLUMN_SPATIAL_FREQ);
+
+        if (value instanceof DoubleArray2D) {
+            return (DoubleArray2D) value;
+        }
+        if ((value == null) && isFlatStorage()) {
+            final double[] radius = getRadius();
+
+            if (radius != null) {
+                final int nRows = getNbRows();
+                final int nWaves = getNWave();
+                final DoubleArray2D spatialFreq = DoubleArray2D.create(nRows, nWaves, 0.0);
+
+                if (nWaves != 0) {
+                    final double[] effWaves = getOiWavelength().getEffWaveAsDouble();
+                    final double[] data = spatialFreq.getData();
+
+                    double r;
+                    for (int i = 0, j, off = 0; i < nRows; i++, off += nWaves) {
+                        r = radius[i];
+                        for (j = 0; j < nWaves; j++) {
+                            data[off + j] = r / effWaves[j];
+                        }
+                    }
+                }
+                this.setColumnDerivedValue(OIFitsConstants.COLUMN_SPATIAL_FREQ, spatialFreq);
+                return spatialFreq;
+            }
+        }
+        final double[][] spatialFreq = getSpatialFreq();
+        return (spatialFreq != null) ? DoubleArray2D.wrap(spatialFreq) : null;
+    }
+
     /**
      * Return the spatial coordinates given the coordinates array = coordinates / effWave
      * @param name derived column name to get/store spatial coordinates
@@ -973,6 +1070,19 @@ public abstract class OIData extends OIAbstractData {
         return null;
     }
 
+    /**
+     * Return the derived column data as a 2D view for the given column name
+     * @param name any column name
+     * @return column data as a 2D view or null if undefined or wrong type
+     */
+    @Override
+    protected DoubleArray2D getDerivedColumnAsDoubles2D(final String name) {
+        if (OIFitsConstants.COLUMN_SPATIAL_FREQ.equals(name)) {
+            return getSpatialFreq2D();
+        }
+        return super.getDerivedColumnAsDoubles2D(name);
+    }
+
     /* --- data analysis --- */
     /**
      * Indicate to clear any cached value (derived column ...)
@@ -982,6 +1092,58 @@ public abstract class OIData extends OIAbstractData {
         super.setChanged();
         nFlagged = -1;
         distinctStaConf.clear();
+        staConfState = STA_CONF_TODO;
+    }
+
+    /**
+     * Analyze the station configurations before accessing the STA_CONF and STA_CONF_NAME derived columns
+     * @param name column name
+     */
+    @Override
+    protected void prepareColumnDerivedValue(final String name) {
+        if ((staConfState != STA_CONF_DONE)
+                && (OIFitsConstants.COLUMN_STA_CONF.equals(name) || OIFitsConstants.COLUMN_STA_CONF_NAME.equals(name))) {
+            analyzeStaConf();
+        }
+    }
+
+    /**
+     * Analyze lazily the station configurations (STA_CONF, STA_CONF_NAME and distinct StaConf values)
+     * on first use as it is expensive (combinations, station graph) and only needed by StaConf filters or granules.
+     * Requires the station indexes to be analyzed before (see Analyzer)
+     */
+    private void analyzeStaConf() {
+        if (staConfState != STA_CONF_DONE) {
+            synchronized (this) {
+                // note: reentrant calls (RUNNING state) while processing return immediately:
+                if (staConfState == STA_CONF_TODO) {
+                    staConfState = STA_CONF_RUNNING;
+                    try {
+                        if (getDistinctStaIndexCount() != 0) {
+                            Analyzer.getInstance().processStaConf(this);
+                        }
+                    } finally {
+                        staConfState = STA_CONF_DONE;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Define the station configurations (restored from cached metadata, see OIFitsCache)
+     * Note: the STA_CONF_NAME derived column must be filled by the caller
+     * @param staConfs station configuration per row (sharing the distinct StaConf instances)
+     * @param distinctStaConfs distinct StaConf values
+     */
+    void setStaConf(final short[][] staConfs, final Collection<short[]> distinctStaConfs) {
+        synchronized (this) {
+            distinctStaConf.clear();
+            distinctStaConf.addAll(distinctStaConfs);
+            this.setColumnDerivedValue(OIFitsConstants.COLUMN_STA_CONF, staConfs);
+
+            staConfState = STA_CONF_DONE;
+        }
     }
 
     /**
@@ -1001,10 +1163,11 @@ public abstract class OIData extends OIAbstractData {
     }
 
     /**
-     * Get the distinct StaConf values present in this table (station configuration)
+     * Get the distinct StaConf values present in this table (station configuration analyzed on first use)
      * @return distinctStaConf
      */
     public Set<short[]> getDistinctStaConf() {
+        analyzeStaConf();
         return distinctStaConf;
     }
 
@@ -1013,7 +1176,7 @@ public abstract class OIData extends OIAbstractData {
      * @return distinctStaConf size
      */
     public int getDistinctStaConfCount() {
-        return distinctStaConf.size();
+        return getDistinctStaConf().size();
     }
 
     /**
@@ -1050,6 +1213,15 @@ public abstract class OIData extends OIAbstractData {
         return getColumnRange(OIFitsConstants.COLUMN_MJD);
     }
 
+    /**
+     * Define the minimum and maximum column value given its name (restored from cached metadata, see OIFitsCache)
+     * @param name column name
+     * @param range [min;max] values
+     */
+    void setMinMaxColumnValue(final String name, final Object range) {
+        getColumnsRangeValue().put(name, range);
+    }
+
     /**
      * Return the column range given its name
      *
@@ -1077,23 +1249,30 @@ public abstract class OIData extends OIAbstractData {
      */
     public static void checkColumnError(final OIFitsChecker checker, final boolean[][] flags, final double[][] errors,
                                         final OIData oidata, final String colName) {
-        boolean[] rowFlag;
-        double[] rowErr;
-
-        for (int i = 0, j; i < errors.length; i++) {
-            rowFlag = flags[i];
-            rowErr = errors[i];
+        checkColumnError(checker, BooleanArray2D.wrap(flags), DoubleArray2D.wrap(errors), oidata, colName);
+    }
 
-            for (j = 0; j < rowErr.length; j++) {
-                final double err = rowErr[j];
+    /**
+     * Return true if the given error value is valid ie. NaN or is positive or equals to 0
+     * @param checker checker component
+     * @param flags the FLAG column (2D view)
+     * @param errors error values (2D view)
+     * @param oidata oiData table
+     * @param colName column name
+     */
+    public static void checkColumnError(final OIFitsChecker checker, final BooleanArray2D flags, final DoubleArray2D errors,
+                                        final OIData oidata, final String colName) {
+        for (int i = 0, j, nRows = errors.getNbRows(), nCols = errors.getNbCols(); i < nRows; i++) {
+            for (j = 0; j < nCols; j++) {
+                final double err = errors.get(i, j);
                 boolean fixed = false;
 
                 if (!ColumnMeta.isPositiveValueValid(err)) {
-                    rowErr[j] = UNDEFINED_DBL;
+                    errors.set(i, j, UNDEFINED_DBL);
                     fixed = true;
                 }
                 // Not flagged ?
-                if ((!rowFlag[j] && fixed) || OIFitsChecker.isInspectRules()) {
+                if ((!flags.get(i, j) && fixed) || OIFitsChecker.isInspectRules()) {
                     // rule [GENERIC_COL_ERR] check if the UNFLAGGED *ERR column values are valid (positive or NULL)
                     if (checker != null) {
                         checker.ruleFailed(Rule.GENERIC_COL_ERR_FIX, oidata, colName).addColValueAt(err, i, j);
@@ -0,0 +1,582 @@
+/* 
+ * Copyright (C) 2026 CNRS - JMMC project ( http://www.jmmc.fr )
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.jmmc.oitools.model;
+
+import fr.jmmc.oitools.OIFitsConstants;
+import fr.jmmc.oitools.fits.FitsConstants;
+import fr.nom.tam.fits.BasicHDU;
+import fr.nom.tam.fits.BinaryTable;
+import fr.nom.tam.fits.BinaryTableHDU;
+import fr.nom.tam.fits.Fits;
+import fr.nom.tam.fits.FitsException;
+import fr.nom.tam.util.ArrayFuncs;
+import fr.nom.tam.util.BufferedFile;
+import fr.nom.tam.util.ChannelFile;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This class reads an OI data table (OI_VIS, OI_VIS2, OI_T3 or OI_FLUX) straight from the file
+ * in fixed-size row chunks: only the requested columns are decoded into reusable primitive buffers
+ * so that aggregations can run over files larger than the heap.
+ *
+ * Numeric columns are converted to double values and logical columns to boolean values,
+ * stored row-major in flat arrays: value(row, i) = array[row * repeat + i] where row is relative to the current chunk.
+ *
+ * The FLAG column is always read (if present) and combined with the optional wavelength mask
+ * to give the valid mask of the current chunk.
+ *
+ * Usage:
+ * <pre>
+ * final OIDataChunkReader reader = new OIDataChunkReader(fileLocation, oiData.getExtNb(), 4096, "VIS2DATA");
+ * try {
+ *     reader.setWavelengthRange(2.0e-6, 2.4e-6);
+ *     while (reader.nextChunk()) {
+ *         final double[] vis2 = reader.getDoubles("VIS2DATA");
+ *         final boolean[] valid = reader.getValidMask();
+ *         ...
+ *     }
+ * } finally {
+ *     reader.close();
+ * }
+ * </pre>
+ *
+ * Note: this class requires an uncompressed file (random access) and is not thread-safe.
+ */
+public final class OIDataChunkReader implements Closeable {
+
+    /* constants */
+    /** Logger associated to this class */
+    private final static Logger logger = Logger.getLogger(OIDataChunkReader.class.getName());
+    /** default number of rows per chunk */
+    public final static int DEFAULT_CHUNK_ROWS = 4096;
+
+    /* members */
+    /** fits file (header and random access stream) */
+    private final Fits fitsFile;
+    /** file channel to read table data */
+    private final FileChannel channel;
+    /** all HD units (headers only) */
+    private final BasicHDU[] hdus;
+    /** table extension name */
+    private final String extName;
+    /** table instrument name */
+    private final String insName;
+    /** number of rows in the table */
+    private final int nRows;
+    /** row length in bytes */
+    private final int rowLen;
+    /** file offset of the table data */
+    private final long dataOffset;
+    /** maximum number of rows per chunk */
+    private final int chunkRows;
+    /** reusable byte buffer (one chunk) */
+    private final ByteBuffer buffer;
+    /** chunk columns keyed by column name (ordered) */
+    private final Map<String, ChunkColumn> columns = new LinkedHashMap<String, ChunkColumn>();
+    /** flag column or null if missing */
+    private final ChunkColumn flagColumn;
+    /** number of wavelengths */
+    private final int nWaves;
+    /** optional wavelength mask (null means all wavelengths) */
+    private boolean[] waveMask = null;
+    /** cached effective wavelengths */
+    private double[] effWaves = null;
+    /** reusable valid mask (row-major) */
+    private final boolean[] validMask;
+    /** first row (table index) of the current chunk */
+    private int firstRow = 0;
+    /** number of rows in the current chunk */
+    private int rowCount = 0;
+
+    /**
+     * Open the given OI data table for chunked reads
+     * @param fileLocation absolute File Path (uncompressed file)
+     * @param extNb extension number of the table (see FitsHDU.getExtNb())
+     * @param chunkRows maximum number of rows per chunk
+     * @param columnNames fits column names to read (FLAG is always read if present)
+     * @throws IOException if the file is not found, compressed or an I/O error occurred
+     * @throws FitsException if the table is not an OI data table or any requested column is missing or unsupported
+     */
+    public OIDataChunkReader(final String fileLocation, final int extNb, final int chunkRows,
+                             final String... columnNames) throws IOException, FitsException {
+        if (chunkRows <= 0) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkRows);
+        }
+        final File file = new File(fileLocation);
+        if (!file.exists()) {
+            throw new IOException("File not found: " + fileLocation);
+        }
+
+        this.fitsFile = new Fits(file);
+        boolean done = false;
+        try {
+            if (fitsFile.getStream() instanceof BufferedFile) {
+                this.channel = ((BufferedFile) fitsFile.getStream()).getChannel();
+            } else if (fitsFile.getStream() instanceof ChannelFile) {
+                this.channel = ((ChannelFile) fitsFile.getStream()).getChannel();
+            } else {
+                throw new IOException("Chunked reads require an uncompressed file: " + fileLocation);
+            }
+
+            // random access: only headers are read (table data is skipped):
+            this.hdus = fitsFile.read();
+
+            if ((hdus == null) || (extNb < 1) || (extNb >= hdus.length) || !(hdus[extNb] instanceof BinaryTableHDU)) {
+                throw new FitsException("Invalid binary table extension: " + extNb);
+            }
+            final BinaryTableHDU hdu = (BinaryTableHDU) hdus[extNb];
+
+            this.extName = hdu.getTrimmedString(FitsConstants.KEYWORD_EXT_NAME);
+            if (!isOIData(extName)) {
+                throw new FitsException("Unsupported table [" + extName + "]: only OI_VIS, OI_VIS2, OI_T3 or OI_FLUX are supported");
+            }
+            this.insName = hdu.getTrimmedString(OIFitsConstants.KEYWORD_INSNAME);
+
+            final BinaryTable data = (BinaryTable) hdu.getData();
+            this.nRows = data.getNRows();
+            this.rowLen = (int) ((nRows != 0) ? data.getTableSize() / nRows : 0L);
+            this.dataOffset = data.getFileOffset();
+
+            this.chunkRows = Math.max(1, Math.min(chunkRows, nRows));
+            this.buffer = ByteBuffer.allocateDirect(this.chunkRows * rowLen).order(ByteOrder.BIG_ENDIAN);
+
+            for (String name : columnNames) {
+                if (!columns.containsKey(name)) {
+                    columns.put(name, createColumn(hdu, data, name));
+                }
+            }
+            ChunkColumn flag = columns.get(OIFitsConstants.COLUMN_FLAG);
+            if ((flag == null) && (hdu.findColumn(OIFitsConstants.COLUMN_FLAG) != -1)) {
+                flag = createColumn(hdu, data, OIFitsConstants.COLUMN_FLAG);
+                columns.put(OIFitsConstants.COLUMN_FLAG, flag);
+            }
+            if ((flag != null) && (flag.booleans == null)) {
+                throw new FitsException("Invalid column type [" + OIFitsConstants.COLUMN_FLAG + "]: logical expected");
+            }
+            this.flagColumn = flag;
+            this.nWaves = (flag != null) ? flag.repeat : getNbWavelengths();
+            this.validMask = new boolean[this.chunkRows * nWaves];
+
+            done = true;
+        } finally {
+            if (!done) {
+                close();
+            }
+        }
+        if (logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, "open {0}#{1}: {2} rows x {3} bytes", new Object[]{fileLocation, extNb, nRows, rowLen});
+        }
+    }
+
+    /**
+     * Open the given OI data table for chunked reads
+     * @param oiData OI data table (file metadata only as given by OIFitsLoader.scanOIFits())
+     * @param chunkRows maximum number of rows per chunk
+     * @param columnNames fits column names to read (FLAG is always read if present)
+     * @throws IOException if the file is not found, compressed or an I/O error occurred
+     * @throws FitsException if any requested column is missing or unsupported
+     */
+    public OIDataChunkReader(final OIData oiData, final int chunkRows,
+                             final String... columnNames) throws IOException, FitsException {
+        this(oiData.getOIFitsFile().getAbsoluteFilePath(), oiData.getExtNb(), chunkRows, columnNames);
+    }
+
+    /**
+     * Close the underlying file
+     */
+    @Override
+    public void close() {
+        if (fitsFile.getStream() != null) {
+            try {
+                fitsFile.getStream().close();
+            } catch (IOException ioe) {
+                logger.log(Level.FINE, "Closing Fits file", ioe);
+            }
+        }
+    }
+
+    /**
+     * Restart reading from the first row
+     */
+    public void reset() {
+        this.firstRow = 0;
+        this.rowCount = 0;
+    }
+
+    /**
+     * Read the next chunk of rows into the column buffers
+     * @return true if a chunk was read; false if all rows were read
+     * @throws IOException if an I/O error occurred
+     */
+    public boolean nextChunk() throws IOException {
+        final int start = firstRow + rowCount;
+        if (start >= nRows) {
+            this.firstRow = nRows;
+            this.rowCount = 0;
+            return false;
+        }
+        final int count = Math.min(chunkRows, nRows - start);
+
+        // positional reads (full chunk):
+        final ByteBuffer bb = this.buffer;
+        bb.clear();
+        bb.limit(count * rowLen);
+
+        long pos = dataOffset + ((long) start) * rowLen;
+        while (bb.hasRemaining()) {
+            final int n = channel.read(bb, pos);
+            if (n < 0) {
+                throw new IOException("Unexpected end of file at position: " + pos);
+            }
+            pos += n;
+        }
+
+        for (ChunkColumn column : columns.values()) {
+            column.decode(bb, count, rowLen);
+        }
+        this.firstRow = start;
+        this.rowCount = count;
+
+        updateValidMask();
+        return true;
+    }
+
+    /**
+     * Update the valid mask from the FLAG column and the wavelength mask
+     */
+    private void updateValidMask() {
+        final int nw = nWaves;
+        final boolean[] flags = (flagColumn != null) ? flagColumn.booleans : null;
+        final boolean[] mask = waveMask;
+
+        for (int i = 0, len = rowCount * nw; i < len; i++) {
+            validMask[i] = ((flags == null) || !flags[i]) && ((mask == null) || mask[i % nw]);
+        }
+    }
+
+    /**
+     * Define the wavelength mask (true means the wavelength is used)
+     * @param mask wavelength mask (length = number of wavelengths) or null to use all wavelengths
+     */
+    public void setWavelengthMask(final boolean[] mask) {
+        if ((mask != null) && (mask.length != nWaves)) {
+            throw new IllegalArgumentException("Invalid wavelength mask length: " + mask.length + " (expected " + nWaves + ")");
+        }
+        this.waveMask = mask;
+        updateValidMask();
+    }
+
+    /**
+     * Define the wavelength mask from the given effective wavelength range (inclusive)
+     * @param min minimum effective wavelength (m)
+     * @param max maximum effective wavelength (m)
+     * @throws IOException if the OI_WAVELENGTH table can not be read
+     */
+    public void setWavelengthRange(final double min, final double max) throws IOException {
+        final double[] waves = getEffWave();
+        final boolean[] mask = new boolean[waves.length];
+        for (int l = 0; l < waves.length; l++) {
+            mask[l] = (waves[l] >= min) && (waves[l] <= max);
+        }
+        setWavelengthMask(mask);
+    }
+
+    /**
+     * Return the effective wavelengths of the associated OI_WAVELENGTH table (INSNAME)
+     * @return effective wavelengths (m)
+     * @throws IOException if the OI_WAVELENGTH table is missing or can not be read
+     */
+    public double[] getEffWave() throws IOException {
+        if (effWaves == null) {
+            final BinaryTableHDU hdu = findWavelengthHDU();
+            try {
+                final Object values = hdu.getColumn(OIFitsConstants.COLUMN_EFF_WAVE);
+                final int len = Array.getLength(values);
+                final double[] waves = new double[len];
+                for (int l = 0; l < len; l++) {
+                    waves[l] = Array.getDouble(values, l);
+                }
+                this.effWaves = waves;
+            } catch (FitsException fe) {
+                throw new IOException("Unable to read the column " + OIFitsConstants.COLUMN_EFF_WAVE + " in table "
+                        + OIFitsConstants.TABLE_OI_WAVELENGTH + " [" + insName + "]", fe);
+            }
+        }
+        return effWaves;
+    }
+
+    private int getNbWavelengths() throws IOException {
+        return findWavelengthHDU().getNRows();
+    }
+
+    private BinaryTableHDU findWavelengthHDU() throws IOException {
+        if (insName != null) {
+            for (BasicHDU hdu : hdus) {
+                if ((hdu instanceof BinaryTableHDU)
+                        && OIFitsConstants.TABLE_OI_WAVELENGTH.equals(hdu.getTrimmedString(FitsConstants.KEYWORD_EXT_NAME))
+                        && insName.equals(hdu.getTrimmedString(OIFitsConstants.KEYWORD_INSNAME))) {
+                    return (BinaryTableHDU) hdu;
+                }
+            }
+        }
+        throw new IOException("Missing table " + OIFitsConstants.TABLE_OI_WAVELENGTH + " [" + insName + "]");
+    }
+
+    /*
+     * Getter - Setter -----------------------------------------------------------
+     */
+    /**
+     * Return the table extension name
+     * @return extension name
+     */
+    public String getExtName() {
+        return extName;
+    }
+
+    /**
+     * Return the table instrument name
+     * @return instrument name
+     */
+    public String getInsName() {
+        return insName;
+    }
+
+    /**
+     * Return the number of rows in the table
+     * @return number of rows
+     */
+    public int getNbRows() {
+        return nRows;
+    }
+
+    /**
+     * Return the number of wavelengths
+     * @return number of wavelengths
+     */
+    public int getNWave() {
+        return nWaves;
+    }
+
+    /**
+     * Return the maximum number of rows per chunk (buffer capacity)
+     * @return maximum number of rows per chunk
+     */
+    public int getChunkRows() {
+        return chunkRows;
+    }
+
+    /**
+     * Return the first row (table index) of the current chunk
+     * @return first row of the current chunk
+     */
+    public int getFirstRow() {
+        return firstRow;
+    }
+
+    /**
+     * Return the number of rows in the current chunk
+     * @return number of rows in the current chunk
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Return the number of values per row of the given column
+     * @param name fits column name
+     * @return number of values per row
+     */
+    public int getRepeat(final String name) {
+        return getChunkColumn(name).repeat;
+    }
+
+    /**
+     * Return the reusable buffer of the given numeric column (current chunk)
+     * @param name fits column name
+     * @return flat row-major values (only the first getRowCount() * getRepeat(name) values are valid)
+     */
+    public double[] getDoubles(final String name) {
+        final ChunkColumn column = getChunkColumn(name);
+        if (column.doubles == null) {
+            throw new IllegalArgumentException("Column [" + name + "] is not numeric");
+        }
+        return column.doubles;
+    }
+
+    /**
+     * Return the reusable buffer of the given logical column (current chunk)
+     * @param name fits column name
+     * @return flat row-major values (only the first getRowCount() * getRepeat(name) values are valid)
+     */
+    public boolean[] getBooleans(final String name) {
+        final ChunkColumn column = getChunkColumn(name);
+        if (column.booleans == null) {
+            throw new IllegalArgumentException("Column [" + name + "] is not logical");
+        }
+        return column.booleans;
+    }
+
+    /**
+     * Return the reusable valid mask of the current chunk: not flagged and wavelength enabled
+     * @return flat row-major mask (only the first getRowCount() * getNWave() values are valid)
+     */
+    public boolean[] getValidMask() {
+        return validMask;
+    }
+
+    private ChunkColumn getChunkColumn(final String name) {
+        final ChunkColumn column = columns.get(name);
+        if (column == null) {
+            throw new IllegalArgumentException("Column [" + name + "] was not requested");
+        }
+        return column;
+    }
+
+    /**
+     * Return true if the given extension name corresponds to an OI data table supported by this reader
+     * @param extName extension name
+     * @return true if OI_VIS, OI_VIS2, OI_T3 or OI_FLUX
+     */
+    public static boolean isOIData(final String extName) {
+        return OIFitsConstants.TABLE_OI_VIS.equals(extName)
+                || OIFitsConstants.TABLE_OI_VIS2.equals(extName)
+                || OIFitsConstants.TABLE_OI_T3.equals(extName)
+                || OIFitsConstants.TABLE_OI_FLUX.equals(extName);
+    }
+
+    private ChunkColumn createColumn(final BinaryTableHDU hdu, final BinaryTable data, final String name) throws FitsException {
+        final int idx = hdu.findColumn(name);
+        if (idx == -1) {
+            throw new FitsException("Missing column [" + name + "] in table " + extName);
+        }
+        final String tform = hdu.getTrimmedString("TFORM" + (idx + 1));
+        if (tform == null) {
+            throw new FitsException("Missing TFORM for column [" + name + "] in table " + extName);
+        }
+
+        // Compute the byte offset of the column in a row:
+        final Object[] modelRow = data.getModelRow();
+        int colOffset = 0;
+        for (int i = 0; i < idx; i++) {
+            colOffset += data.getSizes()[i] * ArrayFuncs.getBaseLength(modelRow[i]);
+        }
+
+        // fits type follows the repeat count (rTa):
+        int pos = 0;
+        while ((pos < tform.length()) && Character.isDigit(tform.charAt(pos))) {
+            pos++;
+        }
+        final char type = (pos < tform.length()) ? tform.charAt(pos) : ' ';
+
+        final Class<?> base;
+        switch (type) {
+            case 'L':
+                base = boolean.class;
+                break;
+            case 'B':
+            case 'I':
+            case 'J':
+            case 'K':
+            case 'E':
+            case 'D':
+                base = ArrayFuncs.getBaseClass(modelRow[idx]);
+                break;
+            default:
+                throw new FitsException("Unsupported column type [" + name + "] (" + tform + ") in table " + extName);
+        }
+        return new ChunkColumn(base, data.getSizes()[idx], colOffset, chunkRows);
+    }
+
+    /**
+     * Column buffer decoded from the chunk bytes
+     */
+    private static final class ChunkColumn {
+
+        /** primitive base class (fits storage) */
+        final Class<?> base;
+        /** number of values per row */
+        final int repeat;
+        /** byte offset in a row */
+        final int offset;
+        /** reusable numeric buffer or null */
+        final double[] doubles;
+        /** reusable logical buffer or null */
+        final boolean[] booleans;
+
+        ChunkColumn(final Class<?> base, final int repeat, final int offset, final int chunkRows) {
+            this.base = base;
+            this.repeat = repeat;
+            this.offset = offset;
+            if (base == boolean.class) {
+                this.doubles = null;
+                this.booleans = new boolean[chunkRows * repeat];
+            } else {
+                this.doubles = new double[chunkRows * repeat];
+                this.booleans = null;
+            }
+        }
+
+        void decode(final ByteBuffer bb, final int count, final int rowLen) {
+            final int n = repeat;
+
+            for (int row = 0, off = 0; row < count; row++, off += n) {
+                final int pos = row * rowLen + offset;
+
+                if (base == boolean.class) {
+                    for (int i = 0; i < n; i++) {
+                        booleans[off + i] = (bb.get(pos + i) == 'T');
+                    }
+                } else if (base == double.class) {
+                    for (int i = 0; i < n; i++) {
+                        doubles[off + i] = bb.getDouble(pos + 8 * i);
+                    }
+                } else if (base == float.class) {
+                    for (int i = 0; i < n; i++) {
+                        doubles[off + i] = bb.getFloat(pos + 4 * i);
+                    }
+                } else if (base == int.class) {
+                    for (int i = 0; i < n; i++) {
+                        doubles[off + i] = bb.getInt(pos + 4 * i);
+                    }
+                } else if (base == short.class) {
+                    for (int i = 0; i < n; i++) {
+                        doubles[off + i] = bb.getShort(pos + 2 * i);
+                    }
+                } else if (base == long.class) {
+                    for (int i = 0; i < n; i++) {
+                        doubles[off + i] = bb.getLong(pos + 8 * i);
+                    }
+                } else {
+                    // byte (unsigned in FITS):
+                    for (int i = 0; i < n; i++) {
+                        doubles[off + i] = bb.get(pos + i) & 0xFF;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -7,14 +7,24 @@ import fr.jmmc.jmcs.util.NumberUtils;
 import fr.jmmc.jmcs.util.StringUtils;
 import fr.jmmc.oitools.OIFitsConstants;
 import fr.jmmc.oitools.model.range.Range;
+import fr.jmmc.oitools.util.DoubleArray2D;
 import fr.jmmc.oitools.util.OIFitsFileComparator;
 import fr.jmmc.oitools.util.StationNamesComparator;
+import fr.jmmc.oitools.util.ThreadPoolUtils;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -289,18 +299,15 @@ public final class OIDataListHelper {
                     }
                 }
             } else {
-                final double[][] tableColumn2D = oiData.getColumnAsDoubles(columnName);
+                final DoubleArray2D tableColumn2D = oiData.getColumnAsDoubles2D(columnName);
 
                 if (tableColumn2D != null) {
                     final int nRows = oiData.getNbRows();
                     final int nWaves = oiData.getNWave();
-                    double[] row;
 
                     for (int i = 0, j; i < nRows; i++) {
-                        row = tableColumn2D[i];
-
                         for (j = 0; j < nWaves; j++) {
-                            if (NumberUtils.isFinite(row[j])) {
+                            if (NumberUtils.isFinite(tableColumn2D.get(i, j))) {
                                 count++;
                             }
                         }
@@ -311,6 +318,170 @@ public final class OIDataListHelper {
         return count;
     }
 
+    /**
+     * Create or modify the given expression columns in all given OIData tables in one batch:
+     * columns are evaluated in dependency order (a column referencing another one of the batch is evaluated after it)
+     * and tables are processed concurrently using a bounded pool of worker threads.
+     * Compiled expressions are shared by all tables having the same columns (see JELEval cache)
+     * @param oiDataList OIData tables
+     * @param expressions expressions keyed by column name
+     * @param nThreads maximum number of worker threads (1 means sequential evaluation)
+     * @throws IllegalArgumentException if expression columns have cyclic dependencies
+     * @throws InterruptedIOException if interrupted while waiting for evaluations
+     */
+    public static void updateExpressionColumns(final Collection<OIData> oiDataList, final Map<String, String> expressions,
+                                               final int nThreads) throws InterruptedIOException {
+        // may throw IllegalArgumentException:
+        final List<String> sortedNames = sortExpressionColumns(expressions);
+
+        final int nWorkers = Math.min(nThreads, oiDataList.size());
+
+        final long start = System.nanoTime();
+
+        if (nWorkers <= 1) {
+            for (OIData oiData : oiDataList) {
+                updateExpressionColumns(oiData, sortedNames, expressions);
+            }
+        } else {
+            final ExecutorService executor = ThreadPoolUtils.newFixedDaemonThreadPool(nWorkers, "OIDataExpression");
+            try {
+                final List<Future<Void>> futures = new ArrayList<Future<Void>>(oiDataList.size());
+
+                for (final OIData oiData : oiDataList) {
+                    futures.add(executor.submit(new Callable<Void>() {
+                        @Override
+                        public Void call() {
+                            updateExpressionColumns(oiData, sortedNames, expressions);
+                            return null;
+                        }
+                    }));
+                }
+
+                // report the first failure in the given table order:
+                for (Future<Void> future : futures) {
+                    try {
+                        future.get();
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("OIDataListHelper.updateExpressionColumns: interrupted");
+                    } catch (ExecutionException ee) {
+                        if (ee.getCause() instanceof RuntimeException) {
+                            throw (RuntimeException) ee.getCause();
+                        }
+                        throw new IllegalStateException("OIDataListHelper.updateExpressionColumns: unexpected failure", ee.getCause());
+                    }
+                }
+            } finally {
+                // cancel pending tasks if any failure:
+                executor.shutdownNow();
+            }
+        }
+
+        if (logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, "updateExpressionColumns: {0} columns in {1} tables using {2} threads: duration = {3} ms.",
+                    new Object[]{sortedNames.size(), oiDataList.size(), Math.max(1, nWorkers), 1e-6d * (System.nanoTime() - start)});
+        }
+    }
+
+    /**
+     * Create or modify the given expression columns in the given OIData table (in the given order)
+     * @param oiData OIData table
+     * @param sortedNames column names in dependency order
+     * @param expressions expressions keyed by column name
+     */
+    private static void updateExpressionColumns(final OIData oiData, final List<String> sortedNames,
+                                                final Map<String, String> expressions) {
+        for (String name : sortedNames) {
+            oiData.updateExpressionColumn(name, expressions.get(name));
+        }
+    }
+
+    /**
+     * Return the column names of the given expressions sorted in dependency order (topological sort):
+     * a column referencing other columns of the given expressions comes after them;
+     * independent columns keep the iteration order of the given map
+     * @param expressions expressions keyed by column name
+     * @return column names in dependency order
+     * @throws IllegalArgumentException if expression columns have cyclic dependencies
+     */
+    public static List<String> sortExpressionColumns(final Map<String, String> expressions) {
+        // column names are case-insensitive in expressions (see JELEval):
+        final Map<String, String> namesByKey = new LinkedHashMap<String, String>(expressions.size());
+        for (String name : expressions.keySet()) {
+            namesByKey.put(name.toUpperCase(), name);
+        }
+
+        // dependencies (column names of the batch) per column:
+        final Map<String, Set<String>> dependencies = new LinkedHashMap<String, Set<String>>(expressions.size());
+        for (Map.Entry<String, String> e : expressions.entrySet()) {
+            final Set<String> deps = new LinkedHashSet<String>(4);
+
+            for (String identifier : getIdentifiers(e.getValue())) {
+                final String dep = namesByKey.get(identifier.toUpperCase());
+
+                if ((dep != null) && !dep.equals(e.getKey())) {
+                    deps.add(dep);
+                }
+            }
+            dependencies.put(e.getKey(), deps);
+        }
+
+        final List<String> sorted = new ArrayList<String>(expressions.size());
+        final Set<String> done = new HashSet<String>(expressions.size());
+
+        // Kahn algorithm: take the first column whose dependencies are evaluated:
+        while (sorted.size() < dependencies.size()) {
+            String next = null;
+            for (Map.Entry<String, Set<String>> e : dependencies.entrySet()) {
+                if (!done.contains(e.getKey()) && done.containsAll(e.getValue())) {
+                    next = e.getKey();
+                    break;
+                }
+            }
+            if (next == null) {
+                final Set<String> cycle = new LinkedHashSet<String>(dependencies.keySet());
+                cycle.removeAll(done);
+                throw new IllegalArgumentException("Cyclic dependencies between expression columns: " + cycle);
+            }
+            done.add(next);
+            sorted.add(next);
+        }
+
+        if (logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, "sortExpressionColumns: {0}", sorted);
+        }
+        return sorted;
+    }
+
+    /**
+     * Return the identifiers (variable or function names) used in the given expression
+     * @param expression expression to parse
+     * @return identifiers
+     */
+    private static Set<String> getIdentifiers(final String expression) {
+        final Set<String> identifiers = new LinkedHashSet<String>(8);
+
+        for (int i = 0, len = expression.length(); i < len;) {
+            final char ch = expression.charAt(i);
+
+            if (Character.isJavaIdentifierStart(ch)) {
+                final int from = i++;
+                while ((i < len) && Character.isJavaIdentifierPart(expression.charAt(i))) {
+                    i++;
+                }
+                identifiers.add(expression.substring(from, i));
+            } else if (Character.isDigit(ch)) {
+                // skip numeric literal (1e5, 2.0d ...):
+                while ((i < len) && (Character.isLetterOrDigit(expression.charAt(i)) || (expression.charAt(i) == '.'))) {
+                    i++;
+                }
+            } else {
+                i++;
+            }
+        }
+        return identifiers;
+    }
+
     public static void toString(final Set<String> set, final StringBuilder sb, final String internalSeparator, final String separator) {
         toString(set, sb, internalSeparator, separator, Integer.MAX_VALUE);
     }
@@ -0,0 +1,986 @@
+/* 
+ * Copyright (C) 2026 CNRS - JMMC project ( http://www.jmmc.fr )
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.jmmc.oitools.model;
+
+import fr.jmmc.jmcs.util.NumberUtils;
+import fr.jmmc.oitools.OIFitsConstants;
+import fr.jmmc.oitools.fits.ChecksumHelper;
+import fr.jmmc.oitools.fits.FitsHDU;
+import fr.jmmc.oitools.image.FileRef;
+import fr.jmmc.oitools.image.FitsImageHDU;
+import fr.jmmc.oitools.image.FitsImageHDUFactory;
+import fr.jmmc.oitools.meta.ColumnMeta;
+import fr.jmmc.oitools.meta.OIFitsStandard;
+import fr.jmmc.oitools.util.EncodedStringArray;
+import fr.nom.tam.fits.FitsException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This class manages a persistent on-disk cache of OIFits file metadata (one entry file per OIFits file)
+ * to rebuild OIFitsFile instances (and OIFitsCollection) without reading the FITS data.
+ *
+ * Each entry is keyed by the absolute file path, the file size and its last modification time
+ * (the MD5 checksum is stored if known and compared with the expected MD5 checksum if given) and contains:
+ * - the primary header keywords,
+ * - the keywords and columns of the reference tables (OI_TARGET, OI_ARRAY, OI_WAVELENGTH, OI_CORR, OI_INSPOL),
+ * - the keywords and the columns used by the analysis of the OI data tables (TARGET_ID, TIME, MJD, STA_INDEX, FLAG),
+ * - the analysis results of the OI data tables: granules, distinct StaIndex / StaConf values (STA_CONF column),
+ * staNames mappings, flag count and column ranges.
+ *
+ * Only the reference tables (OI_TARGET, OI_WAVELENGTH, OI_ARRAY) are analyzed again when the entry is restored
+ * (see OIFitsFile.isAnalysisRestored()) while the other columns are read from the original file on first access
+ * (if its size and last modification time did not change).
+ * Header cards (non-standard keywords) are not cached and files with images or IMAGE-OI tables are never cached.
+ *
+ * This class is thread-safe as every entry is a separate file written atomically.
+ */
+public final class OIFitsCache {
+
+    /* constants */
+    /** Logger associated to this class */
+    private final static Logger logger = Logger.getLogger(OIFitsCache.class.getName());
+    /** entry file extension */
+    public final static String CACHE_FILE_EXT = ".oicache";
+    /** entry file magic number */
+    private final static int MAGIC = 0x4F494643; // OIFC
+    /** entry file format version (increment if the format or cached columns change) */
+    private final static int FORMAT_VERSION = 2;
+    /** columns of OI data tables stored in the cache (analysis) */
+    private final static Set<String> DATA_COLUMNS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+            OIFitsConstants.COLUMN_TARGET_ID, OIFitsConstants.COLUMN_TIME,
+            OIFitsConstants.COLUMN_MJD, OIFitsConstants.COLUMN_STA_INDEX,
+            OIFitsConstants.COLUMN_FLAG
+    )));
+    /* value tags */
+    private final static byte TAG_NULL = 0;
+    private final static byte TAG_STRING = 1;
+    private final static byte TAG_INTEGER = 2;
+    private final static byte TAG_DOUBLE = 3;
+    private final static byte TAG_BOOLEAN = 4;
+    private final static byte TAG_SHORT = 5;
+    private final static byte TAG_FLOAT = 6;
+    private final static byte TAG_LONG = 7;
+    private final static byte TAG_BOOLEAN_ARRAY = 10;
+    private final static byte TAG_BYTE_ARRAY = 11;
+    private final static byte TAG_SHORT_ARRAY = 12;
+    private final static byte TAG_INT_ARRAY = 13;
+    private final static byte TAG_LONG_ARRAY = 14;
+    private final static byte TAG_FLOAT_ARRAY = 15;
+    private final static byte TAG_DOUBLE_ARRAY = 16;
+    private final static byte TAG_OBJECT_ARRAY = 20;
+    /** maximum number of dimensions of the component type of object arrays */
+    private final static int MAX_ARRAY_DIMS = 3;
+    /** allowed element types of object arrays keyed by their binary name (Class.getName()) */
+    private final static Map<String, Class<?>> ARRAY_ELEMENT_TYPES = new HashMap<String, Class<?>>(16);
+
+    static {
+        ARRAY_ELEMENT_TYPES.put("Z", boolean.class);
+        ARRAY_ELEMENT_TYPES.put("B", byte.class);
+        ARRAY_ELEMENT_TYPES.put("C", char.class);
+        ARRAY_ELEMENT_TYPES.put("S", short.class);
+        ARRAY_ELEMENT_TYPES.put("I", int.class);
+        ARRAY_ELEMENT_TYPES.put("J", long.class);
+        ARRAY_ELEMENT_TYPES.put("F", float.class);
+        ARRAY_ELEMENT_TYPES.put("D", double.class);
+        ARRAY_ELEMENT_TYPES.put("Ljava.lang.String;", String.class);
+    }
+
+    /* members */
+    /** cache directory */
+    private final File cacheDir;
+
+    /**
+     * Public constructor
+     * @param cacheDir cache directory (created if needed)
+     * @throws IOException if the cache directory can not be created
+     */
+    public OIFitsCache(final File cacheDir) throws IOException {
+        if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) {
+            throw new IOException("Unable to create the cache directory: " + cacheDir);
+        }
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * Return the cache directory
+     * @return cache directory
+     */
+    public File getCacheDir() {
+        return cacheDir;
+    }
+
+    /**
+     * Return the OIFits file from the cache or load it and store its metadata in the cache
+     * Note: the checker is only used when the file is loaded (cache miss)
+     * @param checker checker component (may be null)
+     * @param fileLocation absolute File Path
+     * @return OIFits file
+     * @throws IOException IO failure
+     * @throws FitsException if the fits can not be opened
+     */
+    public OIFitsFile load(final OIFitsChecker checker, final String fileLocation) throws IOException, FitsException {
+        return load(checker, fileLocation, null);
+    }
+
+    /**
+     * Return the OIFits file from the cache or load it and store its metadata in the cache
+     * Note: the checker is only used when the file is loaded (cache miss).
+     * If the MD5 checksum is given, it is computed while loading the file and the metadata are only stored
+     * if both checksums match
+     * @param checker checker component (may be null)
+     * @param fileLocation absolute File Path
+     * @param md5sum expected MD5 checksum (hex) or null if unknown
+     * @return OIFits file
+     * @throws IOException IO failure
+     * @throws FitsException if the fits can not be opened
+     */
+    public OIFitsFile load(final OIFitsChecker checker, final String fileLocation, final String md5sum) throws IOException, FitsException {
+        OIFitsFile oiFitsFile = get(fileLocation, md5sum);
+        if (oiFitsFile == null) {
+            oiFitsFile = OIFitsLoader.loadOIFits(checker, fileLocation, (md5sum != null));
+
+            if ((md5sum != null) && !md5sum.equalsIgnoreCase(oiFitsFile.getMd5sum())) {
+                logger.log(Level.WARNING, "MD5 checksum mismatch for: {0} (expected: {1}, computed: {2})",
+                        new Object[]{fileLocation, md5sum, oiFitsFile.getMd5sum()});
+                return oiFitsFile;
+            }
+            try {
+                put(oiFitsFile);
+            } catch (IOException ioe) {
+                logger.log(Level.WARNING, "Unable to write the cache entry for: " + fileLocation, ioe);
+            }
+        }
+        return oiFitsFile;
+    }
+
+    /**
+     * Return the OIFits file restored from the cache if its entry is up-to-date
+     * @param fileLocation absolute File Path
+     * @return OIFits file or null if missing or out-of-date
+     */
+    public OIFitsFile get(final String fileLocation) {
+        return get(fileLocation, null);
+    }
+
+    /**
+     * Return the OIFits file restored from the cache if its entry is up-to-date
+     * and its MD5 checksum matches the expected one (if given)
+     * @param fileLocation absolute File Path
+     * @param md5sum expected MD5 checksum (hex) or null if unknown
+     * @return OIFits file or null if missing, out-of-date or if the MD5 checksum differs (or is not stored)
+     */
+    public OIFitsFile get(final String fileLocation, final String md5sum) {
+        final File file = new File(fileLocation);
+        final File entryFile = getEntryFile(file.getAbsolutePath());
+
+        if (!file.isFile() || !entryFile.isFile()) {
+            return null;
+        }
+        final long start = System.nanoTime();
+
+        OIFitsFile oiFitsFile = null;
+        try {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(entryFile), 64 * 1024));
+            try {
+                oiFitsFile = readEntry(in, file, md5sum);
+            } finally {
+                in.close();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Invalid cache entry: " + entryFile, e);
+        }
+        if ((oiFitsFile != null) && logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, "get: {0} duration = {1} ms.",
+                    new Object[]{fileLocation, 1e-6d * (System.nanoTime() - start)});
+        }
+        return oiFitsFile;
+    }
+
+    /**
+     * Store the metadata of the given OIFits file in the cache
+     * Note: the given file is analyzed if needed (granules and station configurations)
+     * @param oiFitsFile OIFits file (loaded from disk)
+     * @return true if stored; false if this file can not be cached
+     * @throws IOException if the entry can not be written
+     */
+    public boolean put(final OIFitsFile oiFitsFile) throws IOException {
+        final String absFilePath = oiFitsFile.getAbsoluteFilePath();
+        if ((absFilePath == null) || !isCacheable(oiFitsFile)) {
+            return false;
+        }
+        final File file = new File(absFilePath);
+        if (!file.isFile()) {
+            return false;
+        }
+        final File entryFile = getEntryFile(absFilePath);
+        final File tmpFile = File.createTempFile(entryFile.getName(), ".tmp", cacheDir);
+
+        boolean done = false;
+        try {
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile), 64 * 1024));
+            try {
+                writeEntry(out, oiFitsFile, file);
+            } finally {
+                out.close();
+            }
+            // atomic replace:
+            if (entryFile.exists() && !entryFile.delete()) {
+                throw new IOException("Unable to delete the cache entry: " + entryFile);
+            }
+            if (!tmpFile.renameTo(entryFile)) {
+                throw new IOException("Unable to rename the cache entry: " + tmpFile);
+            }
+            done = true;
+        } finally {
+            if (!done) {
+                tmpFile.delete();
+            }
+        }
+        logger.log(Level.FINE, "put: {0}", absFilePath);
+        return true;
+    }
+
+    /**
+     * Remove the cache entry of the given file
+     * @param fileLocation absolute File Path
+     * @return true if removed
+     */
+    public boolean remove(final String fileLocation) {
+        return getEntryFile(new File(fileLocation).getAbsolutePath()).delete();
+    }
+
+    /**
+     * Return true if the given OIFits file can be restored from cached metadata
+     * @param oiFitsFile OIFits file
+     * @return true if cacheable
+     */
+    private static boolean isCacheable(final OIFitsFile oiFitsFile) {
+        if ((oiFitsFile.getExistingImageOiData() != null) || (oiFitsFile.getFitsImageHDUs().size() > 1)) {
+            return false;
+        }
+        final FitsImageHDU primary = oiFitsFile.getPrimaryImageHDU();
+        return (primary == null) || !primary.hasImages();
+    }
+
+    private File getEntryFile(final String absFilePath) {
+        final byte[] digest = ChecksumHelper.getDigest(ChecksumHelper.ALGORITHM_MD5).digest(absFilePath.getBytes(StandardCharsets.UTF_8));
+        return new File(cacheDir, ChecksumHelper.toHexString(digest) + CACHE_FILE_EXT);
+    }
+
+    /* --- entry I/O --- */
+    private static void writeEntry(final DataOutputStream out, final OIFitsFile oiFitsFile, final File file) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        // key:
+        out.writeUTF(file.getAbsolutePath());
+        out.writeLong(file.length());
+        out.writeLong(file.lastModified());
+        writeValue(out, oiFitsFile.getMd5sum());
+
+        out.writeUTF(oiFitsFile.getVersion().name());
+
+        // primary HDU:
+        final FitsImageHDU primary = oiFitsFile.getPrimaryImageHDU();
+        out.writeBoolean(primary != null);
+        if (primary != null) {
+            writeKeywords(out, primary.getKeywordsValue());
+        }
+
+        // tables (registration order):
+        final OITable[] oiTables = oiFitsFile.getOiTables();
+        out.writeInt(oiTables.length);
+
+        for (OITable oiTable : oiTables) {
+            out.writeUTF(oiTable.getExtName());
+            out.writeInt(oiTable.getExtNb());
+            writeKeywords(out, oiTable.getKeywordsValue());
+
+            final boolean isData = (oiTable instanceof OIData);
+            final Map<String, Object> columns = new LinkedHashMap<String, Object>();
+
+            for (ColumnMeta column : oiTable.getColumnDescCollection()) {
+                final String name = column.getName();
+                if (!isData || DATA_COLUMNS.contains(name)) {
+                    final Object value = oiTable.getColumnValue(name);
+                    if (value != null) {
+                        columns.put(name, value);
+                    }
+                }
+            }
+            out.writeInt(columns.size());
+            for (Map.Entry<String, Object> entry : columns.entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        }
+
+        writeAnalysis(out, oiFitsFile);
+    }
+
+    private static OIFitsFile readEntry(final DataInputStream in, final File file, final String expectedMd5sum) throws IOException {
+        if ((in.readInt() != MAGIC) || (in.readInt() != FORMAT_VERSION)) {
+            return null;
+        }
+        // check key:
+        final String absFilePath = file.getAbsolutePath();
+        final long fileLength = file.length();
+        final long lastModified = file.lastModified();
+        if (!absFilePath.equals(in.readUTF()) || (in.readLong() != fileLength) || (in.readLong() != lastModified)) {
+            logger.log(Level.FINE, "Out-of-date cache entry for: {0}", absFilePath);
+            return null;
+        }
+        final String md5sum = (String) readValue(in);
+        if ((expectedMd5sum != null) && !expectedMd5sum.equalsIgnoreCase(md5sum)) {
+            logger.log(Level.FINE, "MD5 checksum mismatch for cache entry: {0}", absFilePath);
+            return null;
+        }
+
+        final OIFitsFile oiFitsFile = new OIFitsFile(OIFitsStandard.valueOf(in.readUTF()), new FileRef(absFilePath));
+        oiFitsFile.setMd5sum(md5sum);
+
+        if (in.readBoolean()) {
+            final FitsImageHDUFactory factory = (oiFitsFile.isOIFits2()) ? OIPrimaryHDU.DEFAULT_FACTORY : FitsImageHDUFactory.DEFAULT_FACTORY;
+            final FitsImageHDU primary = factory.create();
+            readKeywords(in, primary);
+            oiFitsFile.getFitsImageHDUs().add(primary);
+        }
+
+        for (int i = 0, nbTables = in.readInt(); i < nbTables; i++) {
+            final String extName = in.readUTF();
+            final int extNb = in.readInt();
+
+            final OITable oiTable = createOITable(oiFitsFile, extName);
+            if (oiTable == null) {
+                throw new IOException("Unsupported table in cache entry: " + extName);
+            }
+            oiTable.setExtNb(extNb);
+            readKeywords(in, oiTable);
+
+            final Set<String> cached = new HashSet<String>();
+            for (int j = 0, nbColumns = in.readInt(); j < nbColumns; j++) {
+                final String name = in.readUTF();
+                oiTable.setColumnValue(name, readValue(in));
+                cached.add(name);
+            }
+
+            // other columns are read from the original file on first access (shared loader per table):
+            if (oiTable instanceof OIData) {
+                final OIFitsLoader.FileColumnLoader loader = new OIFitsLoader.FileColumnLoader(absFilePath, extNb, fileLength, lastModified);
+
+                for (ColumnMeta column : oiTable.getColumnDescCollection()) {
+                    if (!cached.contains(column.getName())) {
+                        oiTable.setColumnLoader(column.getName(), loader);
+                    }
+                }
+            }
+            oiFitsFile.registerOiTable(oiTable);
+        }
+
+        readAnalysis(in, oiFitsFile);
+        return oiFitsFile;
+    }
+
+    /* --- analysis I/O --- */
+    /**
+     * Write the analysis results of the OIData tables (computed by Analyzer)
+     * Note: the file and its station configurations are analyzed here if not done yet
+     * @param out output stream
+     * @param oiFitsFile OIFits file
+     * @throws IOException IO failure
+     */
+    private static void writeAnalysis(final DataOutputStream out, final OIFitsFile oiFitsFile) throws IOException {
+        final List<OIData> oiDatas = oiFitsFile.getOiDataList();
+        final Map<Granule, Set<OIData>> oiDataPerGranule = oiFitsFile.getOiDataPerGranule();
+
+        if (oiDataPerGranule.isEmpty() && !oiDatas.isEmpty()) {
+            oiFitsFile.analyze();
+        }
+        // no data: nothing to restore
+        final boolean analyzed = !oiDataPerGranule.isEmpty();
+        out.writeBoolean(analyzed);
+        if (!analyzed) {
+            return;
+        }
+
+        // staNames mappings (ordered):
+        final Map<String, StaNamesDir> usedStaNamesMap = oiFitsFile.getUsedStaNamesMap();
+        out.writeInt(usedStaNamesMap.size());
+        for (Map.Entry<String, StaNamesDir> entry : usedStaNamesMap.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeUTF(entry.getValue().getStaNames());
+            out.writeBoolean(entry.getValue().isOrientation());
+        }
+        final Map<String, String> sortedStaNamesMap = oiFitsFile.getSortedStaNamesMap();
+        out.writeInt(sortedStaNamesMap.size());
+        for (Map.Entry<String, String> entry : sortedStaNamesMap.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeUTF(entry.getValue());
+        }
+
+        for (OIData oiData : oiDatas) {
+            out.writeInt(oiData.getNFlagged());
+
+            final Set<Short> distinctTargetId = oiData.getDistinctTargetId();
+            final short[] targetIds = new short[distinctTargetId.size()];
+            int n = 0;
+            for (Short targetId : distinctTargetId) {
+                targetIds[n++] = targetId.shortValue();
+            }
+            writeValue(out, targetIds);
+
+            final Set<NightId> distinctNightId = oiData.getDistinctNightId();
+            final int[] nightIds = new int[distinctNightId.size()];
+            n = 0;
+            for (NightId nightId : distinctNightId) {
+                nightIds[n++] = nightId.getNightId();
+            }
+            writeValue(out, nightIds);
+
+            // distinct StaIndex values (shared instances by rows, see Analyzer.processStaIndex):
+            final short[][] staIndexes = oiData.getStaIndex();
+            final boolean hasStaIndex = (staIndexes != null) && (oiData.getDistinctStaIndexCount() != 0);
+            out.writeBoolean(hasStaIndex);
+
+            if (hasStaIndex) {
+                final short[][] distinctStaIndex = oiData.getDistinctStaIndex().toArray(new short[oiData.getDistinctStaIndexCount()][]);
+                final Map<short[], Integer> staIndexCodes = new IdentityHashMap<short[], Integer>(distinctStaIndex.length);
+                final Map<short[], StaNamesDir> staIndexesToSortedStaNamesDir = oiData.getStaIndexesToSortedStaNamesDir();
+
+                writeValue(out, distinctStaIndex);
+                for (int i = 0; i < distinctStaIndex.length; i++) {
+                    staIndexCodes.put(distinctStaIndex[i], NumberUtils.valueOf(i));
+
+                    final StaNamesDir sortedStaNamesDir = staIndexesToSortedStaNamesDir.get(distinctStaIndex[i]);
+                    writeValue(out, (sortedStaNamesDir != null) ? sortedStaNamesDir.getStaNames() : null);
+                    out.writeBoolean((sortedStaNamesDir != null) && sortedStaNamesDir.isOrientation());
+                }
+
+                final int nRows = oiData.getNbRows();
+                final int[] codes = new int[nRows];
+                for (int i = 0; i < nRows; i++) {
+                    codes[i] = staIndexCodes.get(staIndexes[i]).intValue();
+                }
+                writeValue(out, codes);
+
+                // station configurations (StaConf is a function of the distinct StaIndex):
+                final short[][] distinctStaConf = oiData.getDistinctStaConf().toArray(new short[oiData.getDistinctStaConfCount()][]);
+                final short[][] staConfs = oiData.getStaConf();
+                final Map<short[], Integer> staConfCodes = new IdentityHashMap<short[], Integer>(distinctStaConf.length);
+                for (int i = 0; i < distinctStaConf.length; i++) {
+                    staConfCodes.put(distinctStaConf[i], NumberUtils.valueOf(i));
+                }
+
+                final String[] staConfNames = oiData.getStaConfName();
+
+                final int[] confCodes = new int[distinctStaIndex.length];
+                final String[] confNames = new String[distinctStaIndex.length];
+                Arrays.fill(confCodes, -2); // undefined
+                boolean valid = true;
+
+                for (int i = 0; i < nRows && valid; i++) {
+                    final Integer confCode = (staConfs[i] != null) ? staConfCodes.get(staConfs[i]) : null;
+                    final int code = (confCode != null) ? confCode.intValue() : -1;
+
+                    if (confCodes[codes[i]] == -2) {
+                        confCodes[codes[i]] = code;
+                        confNames[codes[i]] = staConfNames[i];
+                    } else {
+                        valid = (confCodes[codes[i]] == code) && Objects.equals(confNames[codes[i]], staConfNames[i]);
+                    }
+                }
+                // analyze again when restored if inconsistent:
+                out.writeBoolean(valid);
+                if (valid) {
+                    writeValue(out, distinctStaConf);
+                    writeValue(out, confCodes);
+                    writeValue(out, confNames);
+                }
+            }
+
+            // column ranges (loaded columns only):
+            final Map<String, Object> ranges = new LinkedHashMap<String, Object>();
+            for (ColumnMeta column : oiData.getColumnDescCollection()) {
+                final String name = column.getName();
+                if (!oiData.isColumnDeferred(name)) {
+                    final Object range = oiData.getMinMaxColumnValue(name);
+                    if (range != null) {
+                        ranges.put(name, range);
+                    }
+                }
+            }
+            out.writeInt(ranges.size());
+            for (Map.Entry<String, Object> entry : ranges.entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        }
+
+        // granules:
+        final OIWavelength[] oiWavelengths = oiFitsFile.getOiWavelengths();
+        final OITarget oiTarget = oiFitsFile.getOiTarget();
+
+        out.writeInt(oiDataPerGranule.size());
+        for (Map.Entry<Granule, Set<OIData>> entry : oiDataPerGranule.entrySet()) {
+            final Granule granule = entry.getKey();
+            final Set<OIData> oiDataTables = entry.getValue();
+            final OIData first = oiDataTables.iterator().next();
+
+            // target id (granule target resolved from the first table):
+            Short targetId = null;
+            if ((oiTarget != null) && (granule.getTarget() != Target.UNDEFINED)) {
+                for (Short id : first.getDistinctTargetId()) {
+                    if (granule.getTarget().equals(oiTarget.getTargetIdToTarget().get(id))) {
+                        targetId = id;
+                        break;
+                    }
+                }
+            }
+            out.writeBoolean(targetId != null);
+            if (targetId != null) {
+                out.writeShort(targetId.shortValue());
+            }
+            // instrument mode of the first table:
+            out.writeInt(indexOf(oiWavelengths, first.getOiWavelength()));
+            out.writeInt(granule.getNight().getNightId());
+
+            out.writeDouble(granule.getMjdRange().getMin());
+            out.writeDouble(granule.getMjdRange().getMax());
+
+            writeValue(out, granule.getDistinctStaNames().toArray(new String[granule.getDistinctStaNames().size()]));
+            final Set<String> distinctStaConfs = granule.getDistinctStaConfs();
+            writeValue(out, distinctStaConfs.toArray(new String[distinctStaConfs.size()]));
+
+            final int[] tables = new int[oiDataTables.size()];
+            int n = 0;
+            for (OIData oiData : oiDataTables) {
+                tables[n++] = oiDatas.indexOf(oiData);
+            }
+            writeValue(out, tables);
+        }
+    }
+
+    /**
+     * Restore the analysis results of the OIData tables (see writeAnalysis) after analyzing the reference tables
+     * @param in input stream
+     * @param oiFitsFile OIFits file (restored tables)
+     * @throws IOException IO failure
+     */
+    private static void readAnalysis(final DataInputStream in, final OIFitsFile oiFitsFile) throws IOException {
+        if (!in.readBoolean()) {
+            return;
+        }
+        // analyze reference tables (targets, instrument modes, stations):
+        Analyzer.getInstance().processReferenceTables(oiFitsFile);
+
+        final Map<String, StaNamesDir> usedStaNamesMap = oiFitsFile.getUsedStaNamesMap();
+        for (int i = 0, len = in.readInt(); i < len; i++) {
+            final String key = in.readUTF();
+            usedStaNamesMap.put(key, new StaNamesDir(in.readUTF(), in.readBoolean()));
+        }
+        final Map<String, String> sortedStaNamesMap = oiFitsFile.getSortedStaNamesMap();
+        for (int i = 0, len = in.readInt(); i < len; i++) {
+            final String key = in.readUTF();
+            sortedStaNamesMap.put(key, in.readUTF());
+        }
+
+        final List<OIData> oiDatas = oiFitsFile.getOiDataList();
+
+        for (OIData oiData : oiDatas) {
+            // reset cached analyzed data:
+            oiData.setChanged();
+            oiData.setNFlagged(in.readInt());
+
+            for (short targetId : (short[]) readValue(in)) {
+                oiData.getDistinctTargetId().add(Short.valueOf(targetId));
+            }
+            for (int nightId : (int[]) readValue(in)) {
+                oiData.getDistinctNightId().add(NightId.getCachedInstance(nightId));
+            }
+
+            if (in.readBoolean()) {
+                final short[][] distinctStaIndex = (short[][]) readValue(in);
+                final Map<short[], StaNamesDir> staIndexesToSortedStaNamesDir = oiData.getStaIndexesToSortedStaNamesDir();
+
+                for (short[] staIndex : distinctStaIndex) {
+                    oiData.getDistinctStaIndex().add(staIndex);
+
+                    final String sortedStaNames = (String) readValue(in);
+                    final boolean orientation = in.readBoolean();
+                    if (sortedStaNames != null) {
+                        staIndexesToSortedStaNamesDir.put(staIndex, new StaNamesDir(sortedStaNames, orientation));
+                    }
+                }
+
+                final int[] codes = (int[]) readValue(in);
+                final short[][] staIndexes = oiData.getStaIndex();
+                if ((staIndexes == null) || (codes.length != staIndexes.length)) {
+                    throw new IOException("Invalid StaIndex codes in cache entry: " + oiData);
+                }
+                // share distinct instances:
+                for (int i = 0; i < codes.length; i++) {
+                    staIndexes[i] = distinctStaIndex[codes[i]];
+                }
+
+                // Derived StaIndexName column (dictionary-encoded) resolved once per distinct StaIndex:
+                final EncodedStringArray staIndexNames = oiData.getStaIndexNameEncoded();
+                final int[] nameCodes = new int[distinctStaIndex.length];
+                for (int i = 0; i < distinctStaIndex.length; i++) {
+                    nameCodes[i] = staIndexNames.encode(oiData.getRealStaNames(usedStaNamesMap, distinctStaIndex[i]));
+                }
+                for (int i = 0; i < codes.length; i++) {
+                    staIndexNames.setCode(i, nameCodes[codes[i]]);
+                }
+
+                // station configurations:
+                if (in.readBoolean()) {
+                    final short[][] distinctStaConf = (short[][]) readValue(in);
+                    final int[] confCodes = (int[]) readValue(in);
+                    final String[] confNames = (String[]) readValue(in);
+
+                    final short[][] staConfs = new short[codes.length][];
+                    for (int i = 0; i < codes.length; i++) {
+                        final int code = confCodes[codes[i]];
+                        staConfs[i] = (code >= 0) ? distinctStaConf[code] : null;
+                    }
+                    oiData.setStaConf(staConfs, Arrays.asList(distinctStaConf));
+
+                    // Derived StaConfName column (dictionary-encoded) resolved once per distinct StaIndex:
+                    final EncodedStringArray staConfNames = oiData.getStaConfNameEncoded();
+                    final int[] confNameCodes = new int[distinctStaIndex.length];
+                    for (int i = 0; i < distinctStaIndex.length; i++) {
+                        confNameCodes[i] = (confNames[i] != null) ? staConfNames.encode(confNames[i]) : -1;
+                    }
+                    for (int i = 0; i < codes.length; i++) {
+                        if (confNameCodes[codes[i]] != -1) {
+                            staConfNames.setCode(i, confNameCodes[codes[i]]);
+                        }
+                    }
+                }
+            }
+
+            for (int i = 0, len = in.readInt(); i < len; i++) {
+                final String name = in.readUTF();
+                oiData.setMinMaxColumnValue(name, readValue(in));
+            }
+        }
+
+        // granules:
+        final OIWavelength[] oiWavelengths = oiFitsFile.getOiWavelengths();
+        final OITarget oiTarget = oiFitsFile.getOiTarget();
+        final Map<Granule, Granule> distinctGranules = oiFitsFile.getDistinctGranules();
+        final Map<Granule, Set<OIData>> oiDataPerGranule = oiFitsFile.getOiDataPerGranule();
+
+        for (int i = 0, len = in.readInt(); i < len; i++) {
+            Target target = null;
+            if (in.readBoolean()) {
+                final Short targetId = Short.valueOf(in.readShort());
+                target = (oiTarget != null) ? oiTarget.getTargetIdToTarget().get(targetId) : null;
+            }
+            if (target == null) {
+                target = Target.UNDEFINED;
+            }
+            final int wlIndex = in.readInt();
+            final InstrumentMode insMode = (wlIndex >= 0) ? oiWavelengths[wlIndex].getInstrumentMode() : InstrumentMode.UNDEFINED;
+            final NightId night = NightId.getCachedInstance(in.readInt());
+
+            final Granule granule = new Granule();
+            granule.set(target, insMode, night);
+            granule.updateMjdRange(in.readDouble());
+            granule.updateMjdRange(in.readDouble());
+
+            final String[] staNames = (String[]) readValue(in);
+            if (staNames.length != 0) {
+                granule.getDistinctStaNames().addAll(Arrays.asList(staNames));
+            }
+            granule.getDistinctStaConfs().addAll(Arrays.asList((String[]) readValue(in)));
+
+            final Set<OIData> oiDataTables = new LinkedHashSet<OIData>();
+            for (int index : (int[]) readValue(in)) {
+                oiDataTables.add(oiDatas.get(index));
+            }
+            distinctGranules.put(granule, granule);
+            oiDataPerGranule.put(granule, oiDataTables);
+        }
+        oiFitsFile.setAnalysisRestored(true);
+    }
+
+    private static int indexOf(final Object[] array, final Object value) {
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static OITable createOITable(final OIFitsFile oiFitsFile, final String extName) {
+        if (OIFitsConstants.TABLE_OI_TARGET.equals(extName)) {
+            return new OITarget(oiFitsFile);
+        } else if (OIFitsConstants.TABLE_OI_ARRAY.equals(extName)) {
+            return new OIArray(oiFitsFile);
+        } else if (OIFitsConstants.TABLE_OI_WAVELENGTH.equals(extName)) {
+            return new OIWavelength(oiFitsFile);
+        } else if (OIFitsConstants.TABLE_OI_CORR.equals(extName)) {
+            return new OICorr(oiFitsFile);
+        } else if (OIFitsConstants.TABLE_OI_INSPOL.equals(extName)) {
+            return new OIInspol(oiFitsFile);
+        } else if (OIFitsConstants.TABLE_OI_VIS.equals(extName)) {
+            return new OIVis(oiFitsFile);
+        } else if (OIFitsConstants.TABLE_OI_VIS2.equals(extName)) {
+            return new OIVis2(oiFitsFile);
+        } else if (OIFitsConstants.TABLE_OI_T3.equals(extName)) {
+            return new OIT3(oiFitsFile);
+        } else if (OIFitsConstants.TABLE_OI_FLUX.equals(extName)) {
+            return new OIFlux(oiFitsFile);
+        }
+        return null;
+    }
+
+    private static void writeKeywords(final DataOutputStream out, final Map<String, Object> keywords) throws IOException {
+        out.writeInt(keywords.size());
+        for (Map.Entry<String, Object> entry : keywords.entrySet()) {
+            out.writeUTF(entry.getKey());
+            writeValue(out, entry.getValue());
+        }
+    }
+
+    private static void readKeywords(final DataInputStream in, final FitsHDU hdu) throws IOException {
+        for (int i = 0, len = in.readInt(); i < len; i++) {
+            final String name = in.readUTF();
+            hdu.setKeywordValue(name, readValue(in));
+        }
+    }
+
+    private static void writeValue(final DataOutputStream out, final Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        } else if (value instanceof String) {
+            out.writeByte(TAG_STRING);
+            final byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else if (value instanceof Integer) {
+            out.writeByte(TAG_INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Double) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TAG_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Short) {
+            out.writeByte(TAG_SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Float) {
+            out.writeByte(TAG_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TAG_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof boolean[]) {
+            final boolean[] a = (boolean[]) value;
+            out.writeByte(TAG_BOOLEAN_ARRAY);
+            out.writeInt(a.length);
+            for (boolean v : a) {
+                out.writeBoolean(v);
+            }
+        } else if (value instanceof byte[]) {
+            final byte[] a = (byte[]) value;
+            out.writeByte(TAG_BYTE_ARRAY);
+            out.writeInt(a.length);
+            out.write(a);
+        } else if (value instanceof short[]) {
+            final short[] a = (short[]) value;
+            out.writeByte(TAG_SHORT_ARRAY);
+            out.writeInt(a.length);
+            for (short v : a) {
+                out.writeShort(v);
+            }
+        } else if (value instanceof int[]) {
+            final int[] a = (int[]) value;
+            out.writeByte(TAG_INT_ARRAY);
+            out.writeInt(a.length);
+            for (int v : a) {
+                out.writeInt(v);
+            }
+        } else if (value instanceof long[]) {
+            final long[] a = (long[]) value;
+            out.writeByte(TAG_LONG_ARRAY);
+            out.writeInt(a.length);
+            for (long v : a) {
+                out.writeLong(v);
+            }
+        } else if (value instanceof float[]) {
+            final float[] a = (float[]) value;
+            out.writeByte(TAG_FLOAT_ARRAY);
+            out.writeInt(a.length);
+            for (float v : a) {
+                out.writeFloat(v);
+            }
+        } else if (value instanceof double[]) {
+            final double[] a = (double[]) value;
+            out.writeByte(TAG_DOUBLE_ARRAY);
+            out.writeInt(a.length);
+            for (double v : a) {
+                out.writeDouble(v);
+            }
+        } else if (value instanceof Object[]) {
+            // String[] or multi-dimensional arrays:
+            final Object[] a = (Object[]) value;
+            out.writeByte(TAG_OBJECT_ARRAY);
+            out.writeUTF(a.getClass().getComponentType().getName());
+            out.writeInt(a.length);
+            for (Object v : a) {
+                writeValue(out, v);
+            }
+        } else {
+            throw new IOException("Unsupported value type: " + value.getClass());
+        }
+    }
+
+    private static Object readValue(final DataInputStream in) throws IOException {
+        final byte tag = in.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_STRING: {
+                final byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+            case TAG_INTEGER:
+                return Integer.valueOf(in.readInt());
+            case TAG_DOUBLE:
+                return Double.valueOf(in.readDouble());
+            case TAG_BOOLEAN:
+                return Boolean.valueOf(in.readBoolean());
+            case TAG_SHORT:
+                return Short.valueOf(in.readShort());
+            case TAG_FLOAT:
+                return Float.valueOf(in.readFloat());
+            case TAG_LONG:
+                return Long.valueOf(in.readLong());
+            case TAG_BOOLEAN_ARRAY: {
+                final boolean[] a = new boolean[in.readInt()];
+                for (int i = 0; i < a.length; i++) {
+                    a[i] = in.readBoolean();
+                }
+                return a;
+            }
+            case TAG_BYTE_ARRAY: {
+                final byte[] a = new byte[in.readInt()];
+                in.readFully(a);
+                return a;
+            }
+            case TAG_SHORT_ARRAY: {
+                final short[] a = new short[in.readInt()];
+                for (int i = 0; i < a.length; i++) {
+                    a[i] = in.readShort();
+                }
+                return a;
+            }
+            case TAG_INT_ARRAY: {
+                final int[] a = new int[in.readInt()];
+                for (int i = 0; i < a.length; i++) {
+                    a[i] = in.readInt();
+                }
+                return a;
+            }
+            case TAG_LONG_ARRAY: {
+                final long[] a = new long[in.readInt()];
+                for (int i = 0; i < a.length; i++) {
+                    a[i] = in.readLong();
+                }
+                return a;
+            }
+            case TAG_FLOAT_ARRAY: {
+                final float[] a = new float[in.readInt()];
+                for (int i = 0; i < a.length; i++) {
+                    a[i] = in.readFloat();
+                }
+                return a;
+            }
+            case TAG_DOUBLE_ARRAY: {
+                final double[] a = new double[in.readInt()];
+                for (int i = 0; i < a.length; i++) {
+                    a[i] = in.readDouble();
+                }
+                return a;
+            }
+            case TAG_OBJECT_ARRAY: {
+                final Class<?> componentType = getComponentType(in.readUTF());
+                final Object[] a = (Object[]) Array.newInstance(componentType, in.readInt());
+                for (int i = 0; i < a.length; i++) {
+                    a[i] = readValue(in);
+                }
+                return a;
+            }
+            default:
+                throw new IOException("Invalid value tag: " + tag);
+        }
+    }
+
+    /**
+     * Return the component type of an object array given its class name
+     * restricted to String or (multi-dimensional) arrays of primitive types or String
+     * @param name class name (Class.getName())
+     * @return component type
+     * @throws IOException if the type is not supported
+     */
+    private static Class<?> getComponentType(final String name) throws IOException {
+        final int dims = name.lastIndexOf('[') + 1;
+        if (dims == 0) {
+            if (String.class.getName().equals(name)) {
+                return String.class;
+            }
+            throw new IOException("Unsupported array type: " + name);
+        }
+        if (dims > MAX_ARRAY_DIMS) {
+            throw new IOException("Unsupported array type: " + name);
+        }
+        Class<?> type = ARRAY_ELEMENT_TYPES.get(name.substring(dims));
+        if (type == null) {
+            throw new IOException("Unsupported array type: " + name);
+        }
+        for (int i = 0; i < dims; i++) {
+            type = Array.newInstance(type, 0).getClass();
+        }
+        return type;
+    }
+}
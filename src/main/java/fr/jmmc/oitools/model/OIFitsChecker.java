@@ -141,6 +141,9 @@ public final class OIFitsChecker {
     /** flag to skip keyword / column format checks (loading OIFITS) */
     private boolean skipFormat = false;
 
+    /** flag to skip value checks of deferred columns (lazy loading) */
+    private boolean skipDeferred = false;
+
     /** DataLocation mapping keyed by RuleFailure */
     private final Map<RuleFailure, DataLocation> failures;
 
@@ -160,6 +163,19 @@ public final class OIFitsChecker {
         this.failures = new LinkedHashMap<RuleFailure, DataLocation>();
     }
 
+    /**
+     * Return a new checker having the same configuration (skip format / deferred flags and rules to fix)
+     * but no failure, to check another file separately (see merge)
+     * @return new OIFitsChecker instance
+     */
+    public OIFitsChecker derive() {
+        final OIFitsChecker checker = new OIFitsChecker();
+        checker.setSkipFormat(skipFormat);
+        checker.setSkipDeferred(skipDeferred);
+        checker.fixRules.addAll(fixRules);
+        return checker;
+    }
+
     /**
      * Define the severity of all rules according to the given profile.
      * @param profile severity profile to use
@@ -205,12 +221,40 @@ public final class OIFitsChecker {
         failures.clear();
     }
 
+    /**
+     * Merge the failures (appended in order) and the rules to fix of the given checker into this checker
+     * @param other checker to merge (not modified)
+     */
+    public void merge(final OIFitsChecker other) {
+        fixRules.addAll(other.fixRules);
+
+        for (Map.Entry<RuleFailure, DataLocation> entry : other.failures.entrySet()) {
+            final RuleFailure failure = entry.getKey();
+            final DataLocation otherDatas = entry.getValue();
+
+            DataLocation datas = failures.get(failure);
+
+            if (otherDatas.isEmpty()) {
+                if (datas == null) {
+                    failures.put(failure, new DataLocation(failure.getRule()));
+                }
+            } else {
+                if (datas == null || datas == DataLocation.EMPTY) {
+                    datas = new DataLocation(failure.getRule());
+                    failures.put(failure, datas);
+                }
+                datas.addAll(otherDatas);
+            }
+        }
+    }
+
     /**
      * Clear the temporary state (cleanup)
      */
     void cleanup() {
         setFileRef(null, null);
         setSkipFormat(false);
+        setSkipDeferred(false);
         fileRefStandards.clear();
         corrCheckers.clear();
         fixRules.clear();
@@ -705,4 +749,17 @@ public final class OIFitsChecker {
         this.skipFormat = skipFormat;
     }
 
+    /**
+     * Return the flag to skip value checks of deferred columns (lazy loading)
+     * as their format is checked when loading the file
+     * @return flag to skip value checks of deferred columns
+     */
+    public boolean isSkipDeferred() {
+        return skipDeferred;
+    }
+
+    void setSkipDeferred(boolean skipDeferred) {
+        this.skipDeferred = skipDeferred;
+    }
+
 }
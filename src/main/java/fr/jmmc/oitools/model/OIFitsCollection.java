@@ -40,8 +40,10 @@ import fr.jmmc.oitools.processing.StaIndexFilter;
 import fr.jmmc.oitools.processing.TargetUIDFilter;
 import fr.jmmc.oitools.util.GranuleComparator;
 import fr.jmmc.oitools.util.OIFitsFileComparator;
+import fr.jmmc.oitools.util.ThreadPoolUtils;
 import fr.nom.tam.fits.FitsException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.MalformedURLException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -54,6 +56,10 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -110,6 +116,125 @@ public final class OIFitsCollection implements ToStringable {
         return oiFitsCollection;
     }
 
+    /**
+     * Load the given files in parallel using a bounded pool of worker threads.
+     * Each file is loaded with its own OIFitsChecker (derived from the given checker) whose failures are merged
+     * into the given checker in the order of the given file locations,
+     * so the resulting collection and report do not depend on thread scheduling.
+     * @param checker checker component (may be null)
+     * @param fileLocations list of file locations
+     * @param nThreads maximum number of worker threads (1 means sequential loading)
+     * @return new OIFitsCollection
+     * @throws IOException IO failure (first failing file in the given order)
+     * @throws FitsException if the fits can not be opened (first failing file in the given order)
+     */
+    public static OIFitsCollection create(final OIFitsChecker checker, final List<String> fileLocations,
+                                          final int nThreads) throws IOException, FitsException {
+
+        final int nWorkers = Math.min(nThreads, fileLocations.size());
+
+        if (nWorkers <= 1) {
+            return create(checker, fileLocations);
+        }
+        // note: inspect mode updates the shared rules => not thread-safe:
+        if (OIFitsChecker.isInspectRules()) {
+            logger.warning("OIFitsCollection.create: inspect mode enabled: loading files sequentially");
+            return create(checker, fileLocations);
+        }
+
+        final ExecutorService executor = ThreadPoolUtils.newFixedDaemonThreadPool(nWorkers, "OIFitsLoader");
+
+        final long start = System.nanoTime();
+        try {
+            final List<Future<LoadResult>> futures = new ArrayList<Future<LoadResult>>(fileLocations.size());
+
+            for (final String fileLocation : fileLocations) {
+                // derive checkers before any merge (caller thread):
+                final OIFitsChecker fileChecker = (checker != null) ? checker.derive() : null;
+
+                futures.add(executor.submit(new Callable<LoadResult>() {
+                    @Override
+                    public LoadResult call() throws IOException, FitsException {
+                        try {
+                            return new LoadResult(OIFitsLoader.loadOIFits(fileChecker, fileLocation), fileChecker, null);
+                        } catch (IOException | FitsException | RuntimeException e) {
+                            // keep the partial report of the failing file:
+                            return new LoadResult(null, fileChecker, e);
+                        }
+                    }
+                }));
+            }
+
+            final OIFitsCollection oiFitsCollection = new OIFitsCollection();
+
+            // merge results in the given order:
+            for (Future<LoadResult> future : futures) {
+                final LoadResult result;
+                try {
+                    result = future.get();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("OIFitsCollection.create: interrupted");
+                } catch (ExecutionException ee) {
+                    throw new IllegalStateException("OIFitsCollection.create: unexpected failure", ee.getCause());
+                }
+                if (checker != null) {
+                    checker.merge(result.checker);
+                }
+                if (result.exception != null) {
+                    if (result.exception instanceof IOException) {
+                        throw (IOException) result.exception;
+                    }
+                    if (result.exception instanceof FitsException) {
+                        throw (FitsException) result.exception;
+                    }
+                    throw (RuntimeException) result.exception;
+                }
+                oiFitsCollection.addOIFitsFile(result.oiFitsFile);
+            }
+            oiFitsCollection.analyzeCollection();
+
+            if (logger.isLoggable(Level.INFO)) {
+                logger.log(Level.INFO, "OIFitsCollection.create: {0} files loaded using {1} threads: duration = {2} ms.",
+                        new Object[]{fileLocations.size(), nWorkers, 1e-6d * (System.nanoTime() - start)});
+            }
+            return oiFitsCollection;
+        } finally {
+            // cancel pending tasks if any failure:
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Load the given files using the given metadata cache: up-to-date files are restored
+     * from the cache without reading their FITS data, other files are loaded and then cached.
+     * Note: the checker only reports the files loaded from disk (cache miss)
+     * @param checker checker component (may be null)
+     * @param fileLocations list of file locations
+     * @param cache metadata cache
+     * @return new OIFitsCollection
+     * @throws IOException IO failure
+     * @throws FitsException if the fits can not be opened
+     */
+    public static OIFitsCollection create(final OIFitsChecker checker, final List<String> fileLocations,
+                                          final OIFitsCache cache) throws IOException, FitsException {
+        final OIFitsCollection oiFitsCollection = new OIFitsCollection();
+
+        final long start = System.nanoTime();
+
+        // load files:
+        for (String fileLocation : fileLocations) {
+            oiFitsCollection.addOIFitsFile(cache.load(checker, fileLocation));
+        }
+        oiFitsCollection.analyzeCollection();
+
+        if (logger.isLoggable(Level.INFO)) {
+            logger.log(Level.INFO, "OIFitsCollection.create: {0} files loaded using cache: duration = {1} ms.",
+                    new Object[]{fileLocations.size(), 1e-6d * (System.nanoTime() - start)});
+        }
+        return oiFitsCollection;
+    }
+
     public static OIFitsCollection create(final OIFitsFile... oiFitsFiles) {
         final OIFitsCollection oiFitsCollection = new OIFitsCollection();
 
@@ -202,8 +327,10 @@ public final class OIFitsCollection implements ToStringable {
      */
     public OIFitsFile addOIFitsFile(final OIFitsFile oifitsFile) {
         if (oifitsFile != null) {
-            // analyze the given file:
-            oifitsFile.analyze();
+            // analyze the given file (unless restored from cached metadata):
+            if (!oifitsFile.isAnalysisRestored()) {
+                oifitsFile.analyze();
+            }
 
             final String key = getFilePath(oifitsFile);
             final OIFitsFile previous = getOIFitsFile(key);
@@ -347,7 +474,7 @@ public final class OIFitsCollection implements ToStringable {
                 }
 
                 // Update distinct StaConfs on shared granule:
-                globalGranule.getDistinctStaConfs().addAll(g.getDistinctStaConfs());
+                globalGranule.mergeDistinctStaConfs(g);
 
                 // Update MJD Range on shared granule:
                 globalGranule.updateMjdRange(g.getMjdRange());
@@ -542,6 +669,32 @@ public final class OIFitsCollection implements ToStringable {
         return r;
     }
 
+    /**
+     * Create or modify the given expression columns in all OIData tables in one batch
+     * (dependency order, tables processed concurrently)
+     * @param expressions expressions keyed by column name
+     * @param nThreads maximum number of worker threads (1 means sequential evaluation)
+     * @throws IllegalArgumentException if expression columns have cyclic dependencies
+     * @throws InterruptedIOException if interrupted while waiting for evaluations
+     * @see OIDataListHelper#updateExpressionColumns(Collection, Map, int)
+     */
+    public void updateExpressionColumns(final Map<String, String> expressions, final int nThreads) throws InterruptedIOException {
+        try {
+            OIDataListHelper.updateExpressionColumns(getAllOiDatas(), expressions, nThreads);
+        } finally {
+            // reset cached ranges of the updated columns:
+            clearColumnRanges(expressions.keySet());
+        }
+    }
+
+    /**
+     * Reset the cached global ranges of the given columns (modified values)
+     * @param names column names
+     */
+    public void clearColumnRanges(final Collection<String> names) {
+        columnRanges.keySet().removeAll(names);
+    }
+
     // --- Query API ---
     /**
      * Query this collection with the given query criteria:
@@ -1302,4 +1455,23 @@ public final class OIFitsCollection implements ToStringable {
         }
         return granules;
     }
+
+    /**
+     * Result of a single file loading task (parallel loading)
+     */
+    private static final class LoadResult {
+
+        /** loaded OIFits file (null if failed) */
+        final OIFitsFile oiFitsFile;
+        /** checker used to load the file (may be null) */
+        final OIFitsChecker checker;
+        /** loading failure (null if succeeded) */
+        final Exception exception;
+
+        LoadResult(final OIFitsFile oiFitsFile, final OIFitsChecker checker, final Exception exception) {
+            this.oiFitsFile = oiFitsFile;
+            this.checker = checker;
+            this.exception = exception;
+        }
+    }
 }
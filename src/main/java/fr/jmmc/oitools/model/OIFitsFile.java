@@ -106,6 +106,8 @@ public final class OIFitsFile extends FitsImageFile {
     private final Map<String, StaNamesDir> usedStaNamesMap = new LinkedHashMap<String, StaNamesDir>();
     /** Map of used staNames to sorted StaNames (consistent) */
     private final Map<String, String> sortedStaNamesMap = new LinkedHashMap<String, String>();
+    /** true if the analyzed data were restored from cached metadata (see OIFitsCache) */
+    private boolean analysisRestored = false;
 
     /**
      * Public constructor
@@ -922,6 +924,23 @@ public final class OIFitsFile extends FitsImageFile {
         oiDataPerGranule.clear();
         usedStaNamesMap.clear();
         sortedStaNamesMap.clear();
+        analysisRestored = false;
+    }
+
+    /**
+     * Return true if the analyzed data were restored from cached metadata (until the next analyze() call)
+     * @return true if the analyzed data were restored from cached metadata
+     */
+    public boolean isAnalysisRestored() {
+        return analysisRestored;
+    }
+
+    /**
+     * Indicate that the analyzed data were restored from cached metadata
+     * @param analysisRestored true if the analyzed data were restored from cached metadata
+     */
+    void setAnalysisRestored(final boolean analysisRestored) {
+        this.analysisRestored = analysisRestored;
     }
 
     /**
@@ -21,8 +21,10 @@ package fr.jmmc.oitools.model;
 
 import fr.jmmc.oitools.OIFitsConstants;
 import fr.jmmc.oitools.fits.ChecksumHelper;
+import fr.jmmc.oitools.fits.ColumnLoader;
 import fr.jmmc.oitools.fits.FitsConstants;
 import fr.jmmc.oitools.fits.FitsHDU;
+import fr.jmmc.oitools.fits.FitsTable;
 import fr.jmmc.oitools.fits.FitsUtils;
 import fr.jmmc.oitools.image.FileRef;
 import fr.jmmc.oitools.image.FitsImageHDU;
@@ -35,22 +37,37 @@ import fr.jmmc.oitools.meta.ColumnMeta;
 import fr.jmmc.oitools.meta.OIFitsStandard;
 import fr.jmmc.oitools.meta.Types;
 import fr.jmmc.oitools.meta.Units;
+import fr.jmmc.oitools.meta.WaveColumnMeta;
+import fr.jmmc.oitools.util.Array2D;
+import fr.jmmc.oitools.util.BooleanArray2D;
+import fr.jmmc.oitools.util.DoubleArray2D;
 import fr.jmmc.oitools.util.FileUtils;
 import fr.nom.tam.fits.BasicHDU;
+import fr.nom.tam.fits.BinaryTable;
 import fr.nom.tam.fits.BinaryTableHDU;
 import fr.nom.tam.fits.Fits;
 import fr.nom.tam.fits.FitsException;
 import fr.nom.tam.fits.Header;
 import fr.nom.tam.fits.ImageHDU;
 import fr.nom.tam.util.ArrayFuncs;
+import fr.nom.tam.util.BufferedFile;
+import fr.nom.tam.util.ChannelFile;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Array;
 import java.net.MalformedURLException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.security.MessageDigest;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 
 /**
@@ -67,11 +84,46 @@ public class OIFitsLoader {
         FitsUtils.setup();
     }
 
+    /** lazy loading flag (memory-mapped columns decoded on first access) */
+    private static boolean LAZY_LOADING = "true".equalsIgnoreCase(System.getProperty("oitools.loader.lazy", "false"));
+
+    /**
+     * Return the lazy loading flag
+     * @return true if column values are decoded on first access (memory-mapped file)
+     */
+    public static boolean isLazyLoading() {
+        return LAZY_LOADING;
+    }
+
+    /**
+     * Define the lazy loading flag: true to memory-map local files and decode column values on first access.
+     * Note: compressed and remote files are always loaded completely.
+     * Note: the format and units of deferred columns are checked when loading the file
+     * but their values are only checked by an explicit validation (OIFitsFile.check(checker))
+     * that loads them.
+     * @param lazy lazy loading flag
+     */
+    public static void setLazyLoading(final boolean lazy) {
+        LAZY_LOADING = lazy;
+    }
+
+    /** columns of data tables always loaded in scan mode or column projection (granules: target, night, baselines) */
+    private final static Set<String> SCAN_COLUMNS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+            OIFitsConstants.COLUMN_TARGET_ID, OIFitsConstants.COLUMN_TIME,
+            OIFitsConstants.COLUMN_MJD, OIFitsConstants.COLUMN_STA_INDEX
+    )));
+
     /* members */
     /** flag to log the checker report */
     private final boolean logCheckerReport;
     /** flag to compute the file checksum */
     private final boolean doChecksum;
+    /** flag to defer column loading */
+    private final boolean lazy;
+    /** optional set of data table column names to load (null means all columns) */
+    private final Set<String> dataColumns;
+    /** file channel used to memory-map table data (lazy loading or column subset) */
+    private FileChannel channel = null;
     /** checker */
     private final OIFitsChecker checker;
     /** OIFits data model */
@@ -152,6 +204,81 @@ public class OIFitsLoader {
      */
     public static OIFitsFile loadOIFits(final OIFitsStandard std, final OIFitsChecker checker,
                                         final String fileLocation, final boolean doChecksum) throws IOException, FitsException {
+        return loadOIFits(std, checker, fileLocation, doChecksum, null);
+    }
+
+    /**
+     * Load an OI Fits File with only the given columns in data tables (column projection):
+     * other columns of data tables are not read (headers and reference tables are loaded completely).
+     * Note: TARGET_ID, TIME, MJD and STA_INDEX columns are always loaded as they are needed to analyze the data.
+     * The returned OIFits data model is not validated.
+     * Accessing any other column of data tables (getters, expressions, checker or writer)
+     * throws an IllegalStateException as its values were not read.
+     * @param checker checker component (format of loaded keywords and columns only)
+     * @param fileLocation absolute File Path or URL (file:// or http://)
+     * @param columnNames set of data table column names to load (ex: UCOORD, VCOORD, VIS2DATA, VIS2ERR, FLAG)
+     * @return OIFits data model
+     * @throws FitsException if the fits can not be opened
+     * @throws IOException IO failure
+     */
+    public static OIFitsFile loadOIFits(final OIFitsChecker checker, final String fileLocation,
+                                        final Set<String> columnNames) throws IOException, FitsException {
+        final Set<String> dataColumns = new HashSet<String>(SCAN_COLUMNS);
+        dataColumns.addAll(columnNames);
+
+        return loadOIFits(null, checker, fileLocation, false, dataColumns);
+    }
+
+    /**
+     * Scan an OI Fits File to get its meta data only:
+     * headers and reference tables (OI_TARGET, OI_WAVELENGTH, OI_ARRAY ...) are loaded
+     * but data tables only get their TARGET_ID, TIME, MJD and STA_INDEX columns (other columns are not read
+     * and their access throws an IllegalStateException).
+     * The returned OIFits data model is analyzed (granules, MJD ranges) but not validated.
+     * @param fileLocation absolute File Path or URL (file:// or http://)
+     * @return OIFits data model (meta data only)
+     * @throws FitsException if the fits can not be opened
+     * @throws IOException IO failure
+     */
+    public static OIFitsFile scanOIFits(final String fileLocation) throws IOException, FitsException {
+        return scanOIFits(null, fileLocation);
+    }
+
+    /**
+     * Scan an OI Fits File to get its meta data only:
+     * headers and reference tables (OI_TARGET, OI_WAVELENGTH, OI_ARRAY ...) are loaded
+     * but data tables only get their TARGET_ID, TIME, MJD and STA_INDEX columns (other columns are not read
+     * and their access throws an IllegalStateException).
+     * The returned OIFits data model is analyzed (granules, MJD ranges) but not validated.
+     * @param checker checker component (format of loaded keywords and columns only)
+     * @param fileLocation absolute File Path or URL (file:// or http://)
+     * @return OIFits data model (meta data only)
+     * @throws FitsException if the fits can not be opened
+     * @throws IOException IO failure
+     */
+    public static OIFitsFile scanOIFits(final OIFitsChecker checker, final String fileLocation) throws IOException, FitsException {
+        final OIFitsFile oiFitsFile = loadOIFits(null, checker, fileLocation, false, SCAN_COLUMNS);
+
+        // compute granules:
+        oiFitsFile.analyze();
+
+        return oiFitsFile;
+    }
+
+    /**
+     * Main method to load an OI Fits File with the given checker component
+     * @param std OIFITS standard to force loading in V1 or V2 (null means automatic version)
+     * @param checker checker component
+     * @param fileLocation absolute File Path or URL (file:// or http://)
+     * @param doChecksum true to compute the file checksum
+     * @param dataColumns optional set of data table column names to load (null means all columns)
+     * @return OIFits data model
+     * @throws FitsException if the fits can not be opened
+     * @throws IOException IO failure
+     */
+    private static OIFitsFile loadOIFits(final OIFitsStandard std, final OIFitsChecker checker,
+                                         final String fileLocation, final boolean doChecksum,
+                                         final Set<String> dataColumns) throws IOException, FitsException {
         boolean remote = false;
         final String absFilePath;
         final URI fileURI;
@@ -181,7 +308,8 @@ public class OIFitsLoader {
             fileURI = null;
         }
 
-        final OIFitsLoader loader = new OIFitsLoader(checker, doChecksum);
+        // temporary files are deleted just after loading: do not defer column loading:
+        final OIFitsLoader loader = new OIFitsLoader(checker, doChecksum, LAZY_LOADING && !remote, dataColumns);
         try {
             loader.load(std, absFilePath);
         } finally {
@@ -203,8 +331,11 @@ public class OIFitsLoader {
      * Custom constructor to give a checker instance (multiple file load / validation)
      * @param checker checker component
      * @param doChecksum flag to compute the file checksum
+     * @param lazy flag to defer column loading
+     * @param dataColumns optional set of data table column names to load (null means all columns)
      */
-    private OIFitsLoader(final OIFitsChecker checker, final boolean doChecksum) {
+    private OIFitsLoader(final OIFitsChecker checker, final boolean doChecksum, final boolean lazy,
+                         final Set<String> dataColumns) {
         super();
         if (checker != null) {
             this.checker = checker;
@@ -214,6 +345,8 @@ public class OIFitsLoader {
             this.logCheckerReport = (this.checker != null);
         }
         this.doChecksum = doChecksum;
+        this.lazy = lazy;
+        this.dataColumns = dataColumns;
     }
 
     /**
@@ -264,12 +397,31 @@ public class OIFitsLoader {
 
             final long fileSize = file.length();
 
+            // single pass: compute the checksum while reading the file sequentially
+            // (lazy mode skips reading the table data => separate checksum pass):
+            final boolean digestWhileReading = this.doChecksum && !this.lazy;
+
+            String md5sum = null;
+            MessageDigest digest = null;
+            InputStream digestStream = null;
+
             Fits fitsFile = null;
             try {
                 final long start = System.nanoTime();
 
                 // open the fits file:
-                fitsFile = new Fits(absFilePath);
+                if (digestWhileReading) {
+                    digest = ChecksumHelper.getDigest(ChecksumHelper.ALGORITHM_MD5);
+                    digestStream = ChecksumHelper.openDigestStream(file, digest);
+                    fitsFile = new Fits(digestStream);
+                } else {
+                    fitsFile = new Fits(absFilePath);
+                }
+
+                // random access (uncompressed file) defers table reads:
+                if (this.lazy || (this.dataColumns != null)) {
+                    this.channel = getChannel(fitsFile);
+                }
 
                 // read the complete file structure:
                 // TODO: unify the readHDU with FitsImageLoader
@@ -282,6 +434,10 @@ public class OIFitsLoader {
                     this.processHDUnits(std, fileRef, hdus);
                 }
 
+                if (digestWhileReading) {
+                    md5sum = ChecksumHelper.completeChecksum(digestStream, digest);
+                }
+
                 if (logger.isLoggable(Level.INFO)) {
                     logger.log(Level.INFO, "load: duration = {0} ms.", 1e-6d * (System.nanoTime() - start));
                 }
@@ -294,12 +450,21 @@ public class OIFitsLoader {
                 }
                 throw fe;
             } finally {
+                // mapped buffers remain valid after closing the file:
+                this.channel = null;
+
                 if (fitsFile != null && fitsFile.getStream() != null) {
                     try {
                         fitsFile.getStream().close();
                     } catch (IOException ioe) {
                         logger.log(Level.FINE, "Closing Fits file", ioe);
                     }
+                } else if (digestStream != null) {
+                    try {
+                        digestStream.close();
+                    } catch (IOException ioe) {
+                        logger.log(Level.FINE, "Closing file", ioe);
+                    }
                 }
             }
 
@@ -312,24 +477,30 @@ public class OIFitsLoader {
             this.oiFitsFile.setSize(fileSize);
 
             if (this.doChecksum) {
-                final String md5sum = ChecksumHelper.computeMD5(file);
+                if (md5sum == null) {
+                    md5sum = ChecksumHelper.computeMD5(file);
+                }
                 if (logger.isLoggable(Level.INFO)) {
                     logger.log(Level.INFO, "md5sum = {0}", md5sum);
                 }
                 this.oiFitsFile.setMd5sum(md5sum);
             }
 
-            // Always perform validation:
-            // ENABLE before second OIFits validation
-            if (checker != null) {
-                checker.setSkipFormat(true);
-            }
+            // Always perform validation (complete data tables only):
+            if (this.dataColumns == null) {
+                // ENABLE before second OIFits validation
+                if (checker != null) {
+                    checker.setSkipFormat(true);
+                    // lazy loading: deferred columns are only checked on explicit validation:
+                    checker.setSkipDeferred(this.lazy);
+                }
 
-            this.oiFitsFile.check(this.checker);
+                this.oiFitsFile.check(this.checker);
 
-            if (this.logCheckerReport && logger.isLoggable(Level.INFO)) {
-                // log validation results
-                logger.log(Level.INFO, "validation results\n{0}", this.checker.getCheckReport());
+                if (this.logCheckerReport && logger.isLoggable(Level.INFO)) {
+                    // log validation results
+                    logger.log(Level.INFO, "validation results\n{0}", this.checker.getCheckReport());
+                }
             }
         } finally {
             if (checker != null) {
@@ -623,6 +794,12 @@ public class OIFitsLoader {
             logger.log(Level.FINE, "ROWS = {0}", nbRows);
         }
 
+        // memory-map the table data if lazy loading is possible:
+        final ByteBuffer tableBuffer = mapTableData(hdu);
+
+        // only load the given columns of data tables:
+        final Set<String> columnNames = (table instanceof OIData) ? this.dataColumns : null;
+
         // Get Column descriptors:
         final Collection<ColumnMeta> columnsDescCollection = table.getColumnDescCollection();
 
@@ -641,6 +818,15 @@ public class OIFitsLoader {
             name = column.getName();
             value = null;
 
+            if ((columnNames != null) && !columnNames.contains(name)) {
+                // skip column (not read) but fail on access if the column exists or is mandatory:
+                if (!column.isOptional() || (hdu.findColumn(name) != -1)
+                        || ((column.getAlias() != null) && (hdu.findColumn(column.getAlias()) != -1))) {
+                    table.setColumnLoader(name, NotLoadedColumnLoader.INSTANCE);
+                }
+                continue;
+            }
+
             idx = hdu.findColumn(name);
 
             if (idx == -1 || OIFitsChecker.isInspectRules()) {
@@ -664,6 +850,7 @@ public class OIFitsLoader {
                 final int length;
                 final String unit;
                 final Object values;
+                boolean flat = false;
 
                 if (OIFitsChecker.isInspectRules() && idx == -1) {
                     type = Types.TYPE_CHAR.getRepresentation();
@@ -674,16 +861,40 @@ public class OIFitsLoader {
                     type = hdu.getColumnType(idx);
                     length = hdu.getColumnLength(idx);
                     unit = hdu.getColumnUnit(idx);
-                    values = hdu.getColumn(idx);
+
+                    if ((tableBuffer != null) && !isVariableLength(type)) {
+                        // only defer wavelength-dependent (large) columns as other columns may be fixed by the checker:
+                        if (this.lazy && (column instanceof WaveColumnMeta)) {
+                            // check column format only and defer reading its values:
+                            if (checkColumn(table, column, type, length, unit)) {
+                                table.setColumnLoader(name,
+                                        new DeferredColumnLoader((BinaryTable) hdu.getData(), tableBuffer, idx, type, length));
+                            }
+                            continue;
+                        }
+                        flat = isFlatColumn(column, type);
+                        // decode only this column:
+                        values = (flat) ? ((BinaryTable) hdu.getData()).getFlattenedColumn(idx, tableBuffer)
+                                : ((BinaryTable) hdu.getData()).getColumn(idx, tableBuffer);
+                    } else {
+                        flat = isFlatColumn(column, type) && !isVariableLength(type);
+                        values = (flat) ? ((BinaryTable) hdu.getData()).getFlattenedColumn(idx) : hdu.getColumn(idx);
+                    }
                 }
                 if (logger.isLoggable(Level.FINE)) {
                     logger.log(Level.FINE, "COLUMN [{0}] [{1} {2}]",
                             new Object[]{name, length, type});
                 }
 
-                // read all data and convert them to arrays[][]:
-                // parse column value:
-                value = parseColumn(table, column, type, length, unit, values);
+                if (flat) {
+                    // keep the flattened values (flat storage):
+                    value = (checkColumn(table, column, type, length, unit))
+                            ? wrapFlatColumn(values, nbRows, length) : null;
+                } else {
+                    // read all data and convert them to arrays[][]:
+                    // parse column value:
+                    value = parseColumn(table, column, type, length, unit, values);
+                }
             }
 
             // Fix undefined columns:
@@ -727,6 +938,63 @@ public class OIFitsLoader {
         }
     }
 
+    /**
+     * Memory-map the data of the given binary table if lazy loading or column subset is enabled
+     * @param hdu binary table
+     * @return read-only buffer or null if disabled or not possible
+     */
+    private ByteBuffer mapTableData(final BinaryTableHDU hdu) {
+        if (!OIFitsChecker.isInspectRules()) {
+            return mapTableData(this.channel, hdu);
+        }
+        return null;
+    }
+
+    /**
+     * Memory-map the data of the given binary table using the given file channel
+     * @param channel file channel or null if the file is not random access
+     * @param hdu binary table
+     * @return read-only buffer or null if not possible
+     */
+    private static ByteBuffer mapTableData(final FileChannel channel, final BinaryTableHDU hdu) {
+        if (channel != null) {
+            final BinaryTable data = (BinaryTable) hdu.getData();
+            final long size = data.getTableSize();
+
+            if ((data.getFileOffset() >= 0L) && (size > 0L) && (size <= Integer.MAX_VALUE)) {
+                try {
+                    return channel.map(FileChannel.MapMode.READ_ONLY, data.getFileOffset(), size);
+                } catch (IOException ioe) {
+                    logger.log(Level.WARNING, "Unable to map table data (lazy loading disabled):", ioe);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Return the file channel of the given fits file if random access
+     * @param fitsFile fits file
+     * @return file channel or null if the file is not random access (compressed)
+     */
+    private static FileChannel getChannel(final Fits fitsFile) {
+        if (fitsFile.getStream() instanceof BufferedFile) {
+            return ((BufferedFile) fitsFile.getStream()).getChannel();
+        } else if (fitsFile.getStream() instanceof ChannelFile) {
+            return ((ChannelFile) fitsFile.getStream()).getChannel();
+        }
+        return null;
+    }
+
+    /**
+     * Return true if the given fits column type corresponds to variable length arrays
+     * @param columnType fits column type
+     * @return true if variable length arrays
+     */
+    private static boolean isVariableLength(final char columnType) {
+        return (columnType == 'P') || (columnType == 'Q');
+    }
+
     /**
      * Parse the column value and check its format (data type, repeat, units)
      * @param table Fits table
@@ -745,13 +1013,31 @@ public class OIFitsLoader {
                     new Object[]{column.getName(), ArrayFuncs.arrayDescription(columnValue)});
         }
 
-        // final column value:
-        Object value = columnValue;
+        if (!checkColumn(table, column, columnType, columnRepeat, columnUnit) || (columnValue == null)) {
+            // fast fail:
+            return null;
+        }
+        return convertColumn(column, columnType, columnRepeat, columnValue);
+    }
+
+    /**
+     * Check the column format (data type, repeat, units)
+     * @param table Fits table
+     * @param column column descriptor
+     * @param columnType fits column type
+     * @param columnRepeat fits column repeat (cardinality)
+     * @param columnUnit fits column unit
+     * @return true if the column values are compatible; false if they must be ignored
+     */
+    private boolean checkColumn(final OITable table, final ColumnMeta column, final char columnType,
+                                final int columnRepeat, final String columnUnit) {
+
+        boolean compatible = true;
 
         // Check type and cardinality
         if (column.checkColumnFormat(checker, table, columnType, columnRepeat)) {
             // incompatible array size = ignore totally values:
-            value = null;
+            compatible = false;
         }
 
         // Check unit
@@ -778,10 +1064,63 @@ public class OIFitsLoader {
             }
         }
 
-        if (value == null) {
-            // fast fail:
-            return null;
+        return compatible;
+    }
+
+    /**
+     * Return true if the column values can be kept in a flat contiguous array
+     * i.e. wavelength-dependent double columns without type conversion (flat storage)
+     * or stored as float values in the file (native storage)
+     * or wavelength-dependent 2D boolean columns (packed storage)
+     * @param column column descriptor
+     * @param columnType fits column type
+     * @return true if the column values can be kept in a flat contiguous array
+     */
+    private static boolean isFlatColumn(final ColumnMeta column, final char columnType) {
+        if (column instanceof WaveColumnMeta) {
+            if (column.getDataType() == Types.TYPE_DBL) {
+                if (columnType == column.getType()) {
+                    return FitsTable.isFlatStorage();
+                }
+                return FitsTable.isNativeStorage() && (columnType == Types.TYPE_REAL.getRepresentation());
+            }
+            if ((column.getDataType() == Types.TYPE_LOGICAL) && !column.is3D()) {
+                return FitsTable.isPackedStorage() && (columnType == column.getType());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Wrap the flattened column values (double, float or boolean values) as a 2D view
+     * @param values flattened column values (double[], float[] or boolean[])
+     * @param nRows number of rows
+     * @param nCols number of columns (row stride)
+     * @return 2D view on the flattened column values (boolean values are packed)
+     */
+    private static Array2D wrapFlatColumn(final Object values, final int nRows, final int nCols) {
+        if (values instanceof float[]) {
+            return DoubleArray2D.wrap((float[]) values, nRows, nCols);
         }
+        if (values instanceof boolean[]) {
+            return BooleanArray2D.pack((boolean[]) values, nRows, nCols);
+        }
+        return DoubleArray2D.wrap((double[]) values, nRows, nCols);
+    }
+
+    /**
+     * Convert the column value to the expected data model type and dimensions
+     * @param column column descriptor
+     * @param columnType fits column type
+     * @param columnRepeat fits column repeat (cardinality)
+     * @param columnValue column raw value
+     * @return converted column value or null
+     */
+    private static Object convertColumn(final ColumnMeta column, final char columnType,
+                                        final int columnRepeat, final Object columnValue) {
+        // final column value:
+        Object value = columnValue;
+
         // convert fits data type to expected data model type:
         if (columnType != column.getType()) {
             switch (column.getDataType()) {
@@ -849,6 +1188,190 @@ public class OIFitsLoader {
         return value;
     }
 
+    /**
+     * Column loader reading the column values from the memory-mapped table data on first access
+     */
+    private static final class DeferredColumnLoader implements ColumnLoader {
+
+        /** binary table (column definitions) */
+        private final BinaryTable data;
+        /** memory-mapped table data */
+        private final ByteBuffer buffer;
+        /** column index */
+        private final int index;
+        /** fits column type */
+        private final char columnType;
+        /** fits column repeat (cardinality) */
+        private final int columnRepeat;
+
+        DeferredColumnLoader(final BinaryTable data, final ByteBuffer buffer, final int index,
+                             final char columnType, final int columnRepeat) {
+            this.data = data;
+            this.buffer = buffer;
+            this.index = index;
+            this.columnType = columnType;
+            this.columnRepeat = columnRepeat;
+        }
+
+        @Override
+        public Object loadColumn(final FitsTable table, final ColumnMeta column) {
+            Object value = null;
+            try {
+                if (isFlatColumn(column, columnType)) {
+                    // keep the flattened values (flat storage):
+                    value = wrapFlatColumn(data.getFlattenedColumn(index, buffer), table.getNbRows(), columnRepeat);
+                } else {
+                    value = convertColumn(column, columnType, columnRepeat, data.getColumn(index, buffer));
+                }
+            } catch (FitsException fe) {
+                logger.log(Level.SEVERE, "Unable to load the column: " + column.getName(), fe);
+            }
+            // Fix undefined columns:
+            if ((value == null) && !column.isOptional()) {
+                value = table.createColumnArray(column, table.getNbRows());
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Return true if the given column was skipped by the column projection (scan mode or column subset)
+     * @param table table
+     * @param name column name
+     * @return true if the given column was not loaded (its access fails)
+     */
+    static boolean isColumnSkipped(final FitsTable table, final String name) {
+        return table.getColumnLoader(name) == NotLoadedColumnLoader.INSTANCE;
+    }
+
+    /**
+     * Column loader of the data table columns skipped by the column projection:
+     * fail fast on access instead of returning missing values
+     */
+    private static final class NotLoadedColumnLoader implements ColumnLoader {
+
+        /** singleton */
+        static final NotLoadedColumnLoader INSTANCE = new NotLoadedColumnLoader();
+
+        @Override
+        public Object loadColumn(final FitsTable table, final ColumnMeta column) {
+            throw new IllegalStateException("Column [" + column.getName() + "] of table " + table.idToString()
+                    + " was not loaded (column projection)");
+        }
+    }
+
+    /**
+     * Column loader reading the column values from the given table of the original file on first access
+     * (tables restored from cached metadata, see OIFitsCache)
+     */
+    static final class FileColumnLoader implements ColumnLoader {
+
+        /** absolute file path */
+        private final String absFilePath;
+        /** extension number of the table */
+        private final int extNb;
+        /** expected file size (cached metadata) */
+        private final long fileLength;
+        /** expected file last modification time (cached metadata) */
+        private final long lastModified;
+        /** binary table (read on first access) */
+        private BinaryTableHDU hdu = null;
+        /** memory-mapped table data (null if the table data is in memory) */
+        private ByteBuffer buffer = null;
+
+        FileColumnLoader(final String absFilePath, final int extNb, final long fileLength, final long lastModified) {
+            this.absFilePath = absFilePath;
+            this.extNb = extNb;
+            this.fileLength = fileLength;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public synchronized Object loadColumn(final FitsTable table, final ColumnMeta column) {
+            Object value = null;
+            try {
+                if (this.hdu == null) {
+                    open();
+                }
+                int idx = hdu.findColumn(column.getName());
+                if ((idx == -1) && (column.getAlias() != null)) {
+                    idx = hdu.findColumn(column.getAlias());
+                }
+                if (idx != -1) {
+                    final char type = hdu.getColumnType(idx);
+                    final BinaryTable data = (BinaryTable) hdu.getData();
+
+                    if (isFlatColumn(column, type) && !isVariableLength(type)) {
+                        // keep the flattened values (flat storage):
+                        final Object values = (buffer != null) ? data.getFlattenedColumn(idx, buffer) : data.getFlattenedColumn(idx);
+                        value = wrapFlatColumn(values, table.getNbRows(), hdu.getColumnLength(idx));
+                    } else {
+                        final Object values = ((buffer != null) && !isVariableLength(type))
+                                ? data.getColumn(idx, buffer) : hdu.getColumn(idx);
+
+                        value = convertColumn(column, type, hdu.getColumnLength(idx), values);
+                    }
+
+                    // fix invalid error values as done by the checker (NaN):
+                    if ((column.getDataColumnName() != null) && (table instanceof OIData)) {
+                        final OIData oiData = (OIData) table;
+                        if (value instanceof double[][]) {
+                            OIData.checkColumnError(null, oiData.getFlag(), (double[][]) value, oiData, column.getName());
+                        } else if (value instanceof DoubleArray2D) {
+                            OIData.checkColumnError(null, oiData.getFlag2D(), (DoubleArray2D) value, oiData, column.getName());
+                        }
+                    }
+                }
+            } catch (IOException | FitsException e) {
+                logger.log(Level.SEVERE, "Unable to load the column: " + column.getName() + " from " + absFilePath, e);
+            }
+            // Fix undefined columns:
+            if ((value == null) && !column.isOptional()) {
+                value = table.createColumnArray(column, table.getNbRows());
+            }
+            return value;
+        }
+
+        /**
+         * Read the file structure and memory-map the table data (or read it if not possible)
+         * @throws IOException if the file changed since its metadata were cached
+         */
+        private void open() throws IOException, FitsException {
+            logger.log(Level.FINE, "Loading deferred columns from: {0}", absFilePath);
+
+            final File file = new File(absFilePath);
+            if ((file.length() != fileLength) || (file.lastModified() != lastModified)) {
+                throw new IOException("File modified since its metadata were cached: " + absFilePath);
+            }
+
+            final Fits fitsFile = new Fits(absFilePath);
+            try {
+                final BasicHDU[] hdus = fitsFile.read();
+
+                if ((hdus == null) || (extNb >= hdus.length) || !(hdus[extNb] instanceof BinaryTableHDU)) {
+                    throw new FitsException("Missing binary table extension: " + extNb);
+                }
+                final BinaryTableHDU bh = (BinaryTableHDU) hdus[extNb];
+
+                this.buffer = mapTableData(getChannel(fitsFile), bh);
+                if (this.buffer == null) {
+                    // read the complete table before closing the file:
+                    bh.getData().getData();
+                }
+                this.hdu = bh;
+            } finally {
+                // mapped buffers remain valid after closing the file:
+                if (fitsFile.getStream() != null) {
+                    try {
+                        fitsFile.getStream().close();
+                    } catch (IOException ioe) {
+                        logger.log(Level.FINE, "Closing Fits file", ioe);
+                    }
+                }
+            }
+        }
+    }
+
     /*
      * Getter - Setter -----------------------------------------------------------
      */
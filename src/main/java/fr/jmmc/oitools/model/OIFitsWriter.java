@@ -20,6 +20,9 @@
 package fr.jmmc.oitools.model;
 
 import fr.jmmc.jmcs.util.NumberUtils;
+import fr.jmmc.oitools.OIFitsConstants;
+import fr.jmmc.oitools.fits.ChecksumHelper;
+import fr.jmmc.oitools.fits.FitsConstants;
 import fr.jmmc.oitools.fits.FitsTable;
 import fr.jmmc.oitools.fits.FitsUtils;
 import fr.jmmc.oitools.image.FitsImageHDU;
@@ -28,20 +31,40 @@ import fr.jmmc.oitools.image.ImageOiData;
 import fr.jmmc.oitools.image.ImageOiOutputParam;
 import fr.jmmc.oitools.meta.ColumnMeta;
 import fr.jmmc.oitools.meta.Types;
+import fr.jmmc.oitools.util.ThreadPoolUtils;
 import fr.nom.tam.fits.BasicHDU;
 import fr.nom.tam.fits.BinaryTable;
 import fr.nom.tam.fits.BinaryTableHDU;
 import fr.nom.tam.fits.Data;
 import fr.nom.tam.fits.Fits;
 import fr.nom.tam.fits.FitsException;
+import fr.nom.tam.fits.FitsUtil;
 import fr.nom.tam.fits.Header;
+import fr.nom.tam.fits.HeaderCard;
+import fr.nom.tam.util.AsciiFuncs;
+import fr.nom.tam.util.BufferedDataOutputStream;
 import fr.nom.tam.util.BufferedFile;
+import fr.nom.tam.util.RandomAccess;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 
 /**
@@ -55,10 +78,55 @@ public class OIFitsWriter {
     /** Logger associated to meta model classes */
     protected final static java.util.logging.Logger logger = java.util.logging.Logger.getLogger(OIFitsWriter.class.getName());
 
+    /** buffer size used to encode table rows in streaming mode (multiple of 4 bytes for checksum) */
+    private final static int STREAM_BUFFER_SIZE = 64 * 2880;
+    /** approximate block size (bytes) of table rows processed by each checksum task */
+    private final static int CHECKSUM_BLOCK_SIZE = 4 * 1024 * 1024;
+
     static {
         FitsUtils.setup();
     }
 
+    /** streaming flag (table rows encoded directly into the file channel) */
+    private static boolean STREAMING = "true".equalsIgnoreCase(System.getProperty("oitools.writer.stream", "false"));
+
+    /** checksum flag (CHECKSUM and DATASUM keywords written in binary table headers) */
+    private static boolean WRITE_CHECKSUM = "true".equalsIgnoreCase(System.getProperty("oitools.writer.checksum", "false"));
+
+    /**
+     * Return the streaming flag
+     * @return true if table rows are encoded directly from the table columns into the file
+     */
+    public static boolean isStreaming() {
+        return STREAMING;
+    }
+
+    /**
+     * Define the streaming flag: true to write binary table headers then encode rows directly
+     * from the table columns into the file channel (no intermediate copy of the table data).
+     * @param streaming streaming flag
+     */
+    public static void setStreaming(final boolean streaming) {
+        STREAMING = streaming;
+    }
+
+    /**
+     * Return the checksum flag
+     * @return true if CHECKSUM and DATASUM keywords are written in binary table headers
+     */
+    public static boolean isWriteChecksum() {
+        return WRITE_CHECKSUM;
+    }
+
+    /**
+     * Define the checksum flag: true to write CHECKSUM and DATASUM keywords in binary table headers
+     * (computed while writing rows in streaming mode)
+     * @param checksum checksum flag
+     */
+    public static void setWriteChecksum(final boolean checksum) {
+        WRITE_CHECKSUM = checksum;
+    }
+
     /**
      * Main method to write an OI Fits File
      * @param absFilePath absolute File path on file system (not URL)
@@ -72,16 +140,304 @@ public class OIFitsWriter {
         final OIFitsWriter writer = new OIFitsWriter(oiFitsFile);
         writer.write(absFilePath);
     }
+    /**
+     * Append the rows of the given OI data table to the last HDU of an existing OIFits file
+     * without rewriting the file: the last HDU must be the same table type (EXTNAME, INSNAME)
+     * with the same column formats. New rows are written after the existing rows (padding fixed),
+     * then NAXIS2 and CHECKSUM / DATASUM keywords (if present) are updated in place in the table header.
+     *
+     * Note : This method supposes that the given table was checked previously
+     *
+     * @param absFilePath absolute File path on file system (uncompressed file)
+     * @param oiData OI data table containing the rows to append
+     * @throws FitsException if the last HDU is not compatible with the given table
+     * @throws IOException IO failure
+     */
+    public static void appendRows(final String absFilePath, final OIData oiData) throws IOException, FitsException {
+        if (logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, "appending {0} rows to {1}", new Object[]{oiData.getNbRows(), absFilePath});
+        }
+        final long start = System.nanoTime();
+
+        final File file = new File(absFilePath);
+        if (!file.exists()) {
+            throw new IOException("File not found: " + absFilePath);
+        }
+
+        // read headers (table data is skipped):
+        final BasicHDU[] hdus;
+        final Fits fitsFile = new Fits(file);
+        try {
+            if (!(fitsFile.getStream() instanceof RandomAccess)) {
+                throw new IOException("Append rows requires an uncompressed file: " + absFilePath);
+            }
+            hdus = fitsFile.read();
+        } finally {
+            fitsFile.getStream().close();
+        }
+
+        final BasicHDU lastHdu = (hdus != null && hdus.length > 1) ? hdus[hdus.length - 1] : null;
+        if (!(lastHdu instanceof BinaryTableHDU)) {
+            throw new FitsException("Invalid OIFits file (the last HDU is not a binary table): " + absFilePath);
+        }
+        final Header header = lastHdu.getHeader();
+
+        // create the binary table header (first row) and the table stream :
+        final OIFitsWriter writer = new OIFitsWriter(oiData.getOIFitsFile(), true, false);
+        final BasicHDU hdu = writer.createBinaryTable(oiData);
+        final TableStream tableStream = writer.tableStreams.get(hdu);
+
+        checkCompatibleTable(header, oiData, hdu.getHeader());
+
+        if (header.getIntValue("PCOUNT", 0) != 0) {
+            throw new FitsException("Unsupported binary table with heap (PCOUNT > 0): " + absFilePath);
+        }
+        final long rowLength = tableStream.rowLength;
+        final int nbRows = header.getIntValue("NAXIS2");
+        final long dataOffset = lastHdu.getData().getFileOffset();
+        final long headerOffset = dataOffset - header.getOriginalSize();
+        final long dataSize = rowLength * nbRows;
+        final long newDataSize = dataSize + rowLength * tableStream.nRows;
+
+        final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() != dataOffset + FitsUtil.addPadding(dataSize)) {
+                throw new FitsException("Invalid OIFits file (unexpected file size): " + absFilePath);
+            }
+
+            // read the raw header to update cards in place:
+            final byte[] rawHeader = new byte[(int) (dataOffset - headerOffset)];
+            final ByteBuffer bb = ByteBuffer.wrap(rawHeader);
+            for (long pos = headerOffset; bb.hasRemaining();) {
+                final int n = channel.read(bb, pos);
+                if (n < 0) {
+                    throw new IOException("Unexpected end of file: " + absFilePath);
+                }
+                pos += n;
+            }
+
+            if (findCard(rawHeader, "END") == -1) {
+                throw new FitsException("Invalid OIFits file (END card not found in the last header): " + absFilePath);
+            }
+
+            final int idxChecksum = findCard(rawHeader, FitsConstants.KEYWORD_CHECKSUM);
+            final int idxDataSum = findCard(rawHeader, FitsConstants.KEYWORD_DATASUM);
+            final boolean checksum = (idxChecksum != -1);
+
+            long dataSum = 0L;
+            if (checksum) {
+                if (idxDataSum != -1) {
+                    final String value = header.findCard(FitsConstants.KEYWORD_DATASUM).getValue();
+                    try {
+                        dataSum = Long.parseLong(value.trim());
+                    } catch (NumberFormatException nfe) {
+                        throw new FitsException("Invalid DATASUM value: " + value);
+                    }
+                } else {
+                    dataSum = computeDataSum(channel, dataOffset, dataSize);
+                }
+            }
+
+            // encode new rows after existing rows (overwrite padding):
+            channel.position(dataOffset + dataSize);
+
+            final RowEncoder encoder = new RowEncoder(channel);
+            // the checksum of new rows starts at the previous 4-byte boundary:
+            encoder.reset(checksum, (int) (dataSize & 3L));
+            encoder.putRows(tableStream, 0, tableStream.nRows);
+
+            if (dataSize + encoder.getCount() != newDataSize) {
+                throw new FitsException("Invalid binary table size: " + encoder.getCount() + " bytes written ("
+                        + (newDataSize - dataSize) + " expected)");
+            }
+            encoder.finish(FitsUtil.padding(newDataSize));
+
+            // update header cards in place:
+            setCard(rawHeader, findCard(rawHeader, "NAXIS2"),
+                    new HeaderCard("NAXIS2", nbRows + tableStream.nRows, getComment(header, "NAXIS2")));
+
+            if (checksum) {
+                dataSum = ChecksumHelper.addChecksum(dataSum, encoder.getChecksum());
+
+                if (idxDataSum != -1) {
+                    final HeaderCard card = header.findCard(FitsConstants.KEYWORD_DATASUM);
+                    setCard(rawHeader, idxDataSum, (card.isStringValue())
+                            ? new HeaderCard(FitsConstants.KEYWORD_DATASUM, Long.toString(dataSum), getComment(header, FitsConstants.KEYWORD_DATASUM))
+                            : new HeaderCard(FitsConstants.KEYWORD_DATASUM, dataSum, getComment(header, FitsConstants.KEYWORD_DATASUM)));
+                }
+                final String comment = getComment(header, FitsConstants.KEYWORD_CHECKSUM);
+                setCard(rawHeader, idxChecksum, new HeaderCard(FitsConstants.KEYWORD_CHECKSUM, "0000000000000000", comment));
+
+                final Fits.ChecksumOutputStream cs = new Fits.ChecksumOutputStream();
+                cs.write(rawHeader, 0, rawHeader.length);
+
+                setCard(rawHeader, idxChecksum, new HeaderCard(FitsConstants.KEYWORD_CHECKSUM,
+                        Fits.checksumEnc(ChecksumHelper.addChecksum(cs.getChecksum(), dataSum), true), comment));
+            }
+
+            bb.clear();
+            for (long pos = headerOffset; bb.hasRemaining();) {
+                pos += channel.write(bb, pos);
+            }
+        } finally {
+            channel.close();
+        }
+
+        if (logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, "appendRows : duration = {0} ms.", 1e-6d * (System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Check that the given binary table header is compatible with the given table
+     * @param header binary table header (file)
+     * @param oiData OI data table
+     * @param tableHeader binary table header of the given table
+     * @throws FitsException if the tables are not compatible
+     */
+    private static void checkCompatibleTable(final Header header, final OIData oiData, final Header tableHeader) throws FitsException {
+        final String extName = header.getTrimmedStringValue(FitsConstants.KEYWORD_EXT_NAME);
+        if (!oiData.getExtName().equals(extName)) {
+            throw new FitsException("Incompatible table: " + extName + " <> " + oiData.getExtName());
+        }
+        final String insName = header.getTrimmedStringValue(OIFitsConstants.KEYWORD_INSNAME);
+        if ((insName != null) && !insName.equals(oiData.getInsName())) {
+            throw new FitsException("Incompatible table [" + extName + "]: INSNAME " + insName + " <> " + oiData.getInsName());
+        }
+        final int nCols = header.getIntValue("TFIELDS", 0);
+        if ((nCols != tableHeader.getIntValue("TFIELDS", 0))
+                || (header.getIntValue("NAXIS1", 0) != tableHeader.getIntValue("NAXIS1", 0))) {
+            throw new FitsException("Incompatible table [" + extName + "]: different columns or row length");
+        }
+        for (int i = 1; i <= nCols; i++) {
+            if (!equalsValue(header, tableHeader, "TTYPE" + i) || !equalsValue(header, tableHeader, "TFORM" + i)) {
+                throw new FitsException("Incompatible table [" + extName + "]: column " + i + " ["
+                        + header.getTrimmedStringValue("TTYPE" + i) + " " + header.getTrimmedStringValue("TFORM" + i) + "] <> ["
+                        + tableHeader.getTrimmedStringValue("TTYPE" + i) + " " + tableHeader.getTrimmedStringValue("TFORM" + i) + "]");
+            }
+        }
+    }
+
+    /**
+     * @param header first header
+     * @param other second header
+     * @param key keyword name
+     * @return true if both trimmed string values are equal
+     */
+    private static boolean equalsValue(final Header header, final Header other, final String key) {
+        final String value = header.getTrimmedStringValue(key);
+        return (value != null) && value.equals(other.getTrimmedStringValue(key));
+    }
+
+    /**
+     * @param header header
+     * @param key keyword name
+     * @return trimmed comment of the given card or null
+     */
+    private static String getComment(final Header header, final String key) {
+        final HeaderCard card = header.findCard(key);
+        final String comment = (card != null) ? card.getComment() : null;
+        return (comment != null) ? comment.trim() : null;
+    }
+
+    /**
+     * Find the card index of the given keyword in the raw header (before the END card)
+     * @param rawHeader raw header (80 bytes per card)
+     * @param key keyword name
+     * @return card index or -1 if not found
+     */
+    private static int findCard(final byte[] rawHeader, final String key) {
+        final byte[] bkey = AsciiFuncs.getBytes(key);
+        for (int i = 0, len = rawHeader.length / 80; i < len; i++) {
+            final int off = i * 80;
+            boolean match = true;
+            for (int j = 0; j < 8 && match; j++) {
+                match = rawHeader[off + j] == ((j < bkey.length) ? bkey[j] : (byte) ' ');
+            }
+            if (match) {
+                return i;
+            }
+            if (rawHeader[off] == 'E' && rawHeader[off + 1] == 'N' && rawHeader[off + 2] == 'D' && rawHeader[off + 3] == ' ') {
+                break;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Replace the card at the given index in the raw header
+     * @param rawHeader raw header (80 bytes per card)
+     * @param index card index
+     * @param card new card
+     * @throws FitsException if the card is missing or invalid
+     */
+    private static void setCard(final byte[] rawHeader, final int index, final HeaderCard card) throws FitsException {
+        final byte[] bcard = AsciiFuncs.getBytes(card.toString());
+        if (index < 0 || bcard.length != 80) {
+            throw new FitsException("Unable to update the card: " + card);
+        }
+        System.arraycopy(bcard, 0, rawHeader, index * 80, 80);
+    }
+
+    /**
+     * Compute the checksum of the given data area (data size must be a multiple of 4 or padded with zeros)
+     * @param channel file channel
+     * @param offset data offset
+     * @param size data size in bytes
+     * @return checksum as long value
+     * @throws IOException IO failure
+     */
+    private static long computeDataSum(final FileChannel channel, final long offset, final long size) throws IOException {
+        final Fits.ChecksumOutputStream cs = new Fits.ChecksumOutputStream();
+        final ByteBuffer bb = ByteBuffer.allocate(STREAM_BUFFER_SIZE);
+
+        for (long pos = offset, end = offset + size; pos < end;) {
+            bb.clear();
+            if (end - pos < bb.capacity()) {
+                bb.limit((int) (end - pos));
+            }
+            final int n = channel.read(bb, pos);
+            if (n < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+            pos += n;
+            // only process complete 4-byte groups except at the end:
+            final int len = (pos < end) ? (bb.position() & ~3) : bb.position();
+            cs.write(bb.array(), 0, len);
+            pos -= bb.position() - len;
+        }
+        return cs.getChecksum();
+    }
+
     /* members */
     /** OIFits data model */
     private final OIFitsFile oiFitsFile;
+    /** streaming mode */
+    private final boolean streaming;
+    /** checksum flag */
+    private final boolean checksum;
+    /** table streams keyed by binary table HDU (streaming mode or checksum) */
+    private final Map<BasicHDU, TableStream> tableStreams;
 
     /**
      * Private constructor
      * @param oiFitsFile OIFits data model
      */
     private OIFitsWriter(final OIFitsFile oiFitsFile) {
+        this(oiFitsFile, STREAMING, WRITE_CHECKSUM);
+    }
+
+    /**
+     * Private constructor
+     * @param oiFitsFile OIFits data model
+     * @param streaming true to encode table rows directly into the file channel
+     * @param checksum true to write CHECKSUM and DATASUM keywords in binary table headers
+     */
+    private OIFitsWriter(final OIFitsFile oiFitsFile, final boolean streaming, final boolean checksum) {
         this.oiFitsFile = oiFitsFile;
+        this.streaming = streaming;
+        this.checksum = checksum;
+        this.tableStreams = (streaming || checksum) ? new IdentityHashMap<BasicHDU, TableStream>() : null;
     }
 
     /**
@@ -99,7 +455,6 @@ public class OIFitsWriter {
             logger.log(Level.FINE, "writing {0}", absFilePath);
         }
 
-        BufferedFile bf = null;
         try {
             final long start = System.nanoTime();
 
@@ -110,12 +465,14 @@ public class OIFitsWriter {
             createHDUnits(fitsFile);
 
             // write the fits file :
-            bf = new BufferedFile(absFilePath, "rw");
-            fitsFile.write(bf);
-
-            // flush and close :
-            bf.close();
-            bf = null;
+            if (this.streaming) {
+                writeStream(fitsFile, absFilePath);
+            } else {
+                if (this.checksum) {
+                    updateChecksums();
+                }
+                writeFits(fitsFile, absFilePath);
+            }
 
             if (logger.isLoggable(Level.FINE)) {
                 logger.log(Level.FINE, "write : duration = {0} ms.", 1e-6d * (System.nanoTime() - start));
@@ -125,6 +482,146 @@ public class OIFitsWriter {
             logger.log(Level.SEVERE, "Unable to write the file : " + absFilePath, fe);
 
             throw fe;
+        }
+    }
+
+    /**
+     * Compute the data checksums of all binary tables in parallel (directly from the table columns)
+     * and update their CHECKSUM and DATASUM keywords
+     * @throws FitsException if any FITS error occurred
+     * @throws IOException IO failure
+     */
+    private void updateChecksums() throws FitsException, IOException {
+        final long start = System.nanoTime();
+
+        final List<BasicHDU> hdus = new ArrayList<BasicHDU>(this.tableStreams.keySet());
+        final List<TableStream> tables = new ArrayList<TableStream>(hdus.size());
+        for (BasicHDU hdu : hdus) {
+            tables.add(this.tableStreams.get(hdu));
+        }
+
+        final long[] dataSums = computeDataSums(tables);
+
+        for (int i = 0; i < dataSums.length; i++) {
+            Fits.setChecksum(hdus.get(i).getHeader(), dataSums[i], true);
+        }
+        this.tableStreams.clear();
+
+        if (logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, "updateChecksums : duration = {0} ms.", 1e-6d * (System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Compute the data checksums of the given tables: rows are split into blocks (aligned on 4 bytes)
+     * encoded and summed in parallel, then partial sums are combined per table
+     * @param tables tables to process
+     * @return data checksums (DATASUM) in the same order
+     * @throws IOException IO failure
+     */
+    private static long[] computeDataSums(final List<TableStream> tables) throws IOException {
+        final long[] dataSums = new long[tables.size()];
+
+        // split tables into row blocks:
+        final List<int[]> blocks = new ArrayList<int[]>();
+        long totalSize = 0L;
+
+        for (int t = 0; t < dataSums.length; t++) {
+            final TableStream table = tables.get(t);
+            // multiple of 4 rows to keep blocks aligned on 4 bytes:
+            final int blockRows = Math.max(4, (CHECKSUM_BLOCK_SIZE / Math.max(1, table.rowLength)) & ~3);
+
+            for (int row = 0; row < table.nRows; row += blockRows) {
+                blocks.add(new int[]{t, row, Math.min(table.nRows, row + blockRows)});
+            }
+            totalSize += (long) table.nRows * table.rowLength;
+        }
+
+        final int nWorkers = Math.min(Runtime.getRuntime().availableProcessors(), blocks.size());
+
+        if ((nWorkers <= 1) || (totalSize < CHECKSUM_BLOCK_SIZE)) {
+            final RowEncoder encoder = new RowEncoder(null);
+            for (int[] block : blocks) {
+                dataSums[block[0]] = ChecksumHelper.addChecksum(dataSums[block[0]],
+                        computeDataSum(encoder, tables.get(block[0]), block[1], block[2]));
+            }
+            return dataSums;
+        }
+
+        final ExecutorService executor = ThreadPoolUtils.newFixedDaemonThreadPool(nWorkers, "OIFitsChecksum");
+        try {
+            final ThreadLocal<RowEncoder> encoders = new ThreadLocal<RowEncoder>();
+            final List<Future<Long>> futures = new ArrayList<Future<Long>>(blocks.size());
+
+            for (final int[] block : blocks) {
+                futures.add(executor.submit(new Callable<Long>() {
+                    @Override
+                    public Long call() throws IOException {
+                        RowEncoder encoder = encoders.get();
+                        if (encoder == null) {
+                            encoder = new RowEncoder(null);
+                            encoders.set(encoder);
+                        }
+                        return Long.valueOf(computeDataSum(encoder, tables.get(block[0]), block[1], block[2]));
+                    }
+                }));
+            }
+
+            for (int i = 0, len = blocks.size(); i < len; i++) {
+                final long sum;
+                try {
+                    sum = futures.get(i).get().longValue();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("OIFitsWriter.computeDataSums: interrupted");
+                } catch (ExecutionException ee) {
+                    if (ee.getCause() instanceof IOException) {
+                        throw (IOException) ee.getCause();
+                    }
+                    throw new IllegalStateException("OIFitsWriter.computeDataSums: unexpected failure", ee.getCause());
+                }
+                final int t = blocks.get(i)[0];
+                dataSums[t] = ChecksumHelper.addChecksum(dataSums[t], sum);
+            }
+            return dataSums;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Compute the checksum of the given rows (first row must start on a 4-byte boundary)
+     * @param encoder row encoder (checksum only)
+     * @param table table to encode
+     * @param fromRow first row (inclusive)
+     * @param toRow last row (exclusive)
+     * @return partial checksum
+     * @throws IOException IO failure
+     */
+    private static long computeDataSum(final RowEncoder encoder, final TableStream table,
+                                       final int fromRow, final int toRow) throws IOException {
+        encoder.reset(true);
+        encoder.putRows(table, fromRow, toRow);
+        encoder.finish(0);
+        return encoder.getChecksum();
+    }
+
+    /**
+     * Write the complete fits model into the given file
+     * @param fitsFile fits file
+     * @param absFilePath absolute File path on file system (not URL)
+     * @throws FitsException if any FITS error occurred
+     * @throws IOException IO failure
+     */
+    private static void writeFits(final Fits fitsFile, final String absFilePath) throws FitsException, IOException {
+        BufferedFile bf = null;
+        try {
+            bf = new BufferedFile(absFilePath, "rw");
+            fitsFile.write(bf);
+
+            // flush and close :
+            bf.close();
+            bf = null;
         } finally {
             if (bf != null) {
                 // flush and close :
@@ -133,6 +630,95 @@ public class OIFitsWriter {
         }
     }
 
+    /**
+     * Write the fits model into the given file: binary table headers are written
+     * then rows are encoded directly from the table columns (padding and checksum on the fly).
+     * Other HDUs (images) are written by nom.tam.
+     * @param fitsFile fits file
+     * @param absFilePath absolute File path on file system (not URL)
+     * @throws FitsException if any FITS error occurred
+     * @throws IOException IO failure
+     */
+    private void writeStream(final Fits fitsFile, final String absFilePath) throws FitsException, IOException {
+        final FileChannel channel = FileChannel.open(new File(absFilePath).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            final BufferedDataOutputStream out = new BufferedDataOutputStream(Channels.newOutputStream(channel));
+            final RowEncoder encoder = new RowEncoder(channel);
+
+            for (int i = 0, len = fitsFile.getNumberOfHDUs(); i < len; i++) {
+                final BasicHDU hdu = fitsFile.getHDU(i);
+                final TableStream tableStream = this.tableStreams.get(hdu);
+
+                if (tableStream == null) {
+                    // write and flush :
+                    hdu.write(out);
+                } else {
+                    writeTable(channel, hdu.getHeader(), tableStream, encoder);
+                }
+            }
+        } finally {
+            channel.close();
+            this.tableStreams.clear();
+        }
+    }
+
+    /**
+     * Write the binary table header then encode all rows
+     * @param channel file channel positioned at the start of the HDU
+     * @param header binary table header
+     * @param tableStream table columns to write
+     * @param encoder row encoder
+     * @throws FitsException if any FITS error occurred
+     * @throws IOException IO failure
+     */
+    private void writeTable(final FileChannel channel, final Header header, final TableStream tableStream,
+                            final RowEncoder encoder) throws FitsException, IOException {
+
+        final long headerOffset = channel.position();
+        final int headerSize = writeHeader(channel, header, headerOffset);
+        channel.position(headerOffset + headerSize);
+
+        final long dataSize = (long) tableStream.nRows * tableStream.rowLength;
+
+        encoder.reset(this.checksum);
+        encoder.putRows(tableStream, 0, tableStream.nRows);
+
+        if (encoder.getCount() != dataSize) {
+            throw new FitsException("Invalid binary table size: " + encoder.getCount() + " bytes written (" + dataSize + " expected)");
+        }
+        encoder.finish(FitsUtil.padding(dataSize));
+
+        if (this.checksum) {
+            Fits.setChecksum(header, encoder.getChecksum(), true);
+
+            // update header in place:
+            if (writeHeader(channel, header, headerOffset) != headerSize) {
+                throw new FitsException("Unable to update the binary table header (size changed)");
+            }
+        }
+    }
+
+    /**
+     * Write the given header at the given position
+     * @param channel file channel
+     * @param header header to write
+     * @param position position in file
+     * @return header size in bytes (including padding)
+     * @throws FitsException if any FITS error occurred
+     * @throws IOException IO failure
+     */
+    private static int writeHeader(final FileChannel channel, final Header header, final long position) throws FitsException, IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream(4 * 2880);
+        header.write(new BufferedDataOutputStream(bos));
+
+        final ByteBuffer bb = ByteBuffer.wrap(bos.toByteArray());
+        for (long pos = position; bb.hasRemaining();) {
+            pos += channel.write(bb, pos);
+        }
+        return bb.capacity();
+    }
+
     /**
      * Create all Fits HD units corresponding to OI_* tables, and additional HDU for IMAGE-OI (in first place) if any.
      * Primary HDU Keywords are not -yet- serialized.
@@ -222,6 +808,12 @@ public class OIFitsWriter {
         // backup of modified String keyed by column name :
         final Map<String, String> backupFirstString = new HashMap<String, String>(size);
 
+        // columns to stream (rows) and string widths:
+        final int nRows = table.getNbRows();
+        final boolean doStream = (this.tableStreams != null);
+        final List<Object> columnList = (doStream) ? new ArrayList<Object>(size) : null;
+        final List<Integer> widthList = (doStream) ? new ArrayList<Integer>(size) : null;
+
         // define both data list and index map :
         int i = 0;
         Integer idx;
@@ -234,8 +826,21 @@ public class OIFitsWriter {
             value = table.getColumnValue(name);
 
             if (value != null) {
-                // fix string length to have correct header length ('0A' issue) :
-                if (column.getDataType() == Types.TYPE_CHAR) {
+                int width = 0;
+                if (doStream) {
+                    if (column.getDataType() == Types.TYPE_CHAR) {
+                        width = Math.max(column.getRepeat(), FitsUtil.maxLength((String[]) value));
+                    }
+                    columnList.add(value);
+                    widthList.add(NumberUtils.valueOf(width));
+                }
+                if (streaming) {
+                    // only use the first row to define the binary table (header):
+                    if (nRows != 0) {
+                        value = createModelColumn(value, width);
+                    }
+                } else if (column.getDataType() == Types.TYPE_CHAR) {
+                    // fix string length to have correct header length ('0A' issue) :
                     values = (String[]) value;
 
                     if (values.length > 0) {
@@ -315,9 +920,56 @@ public class OIFitsWriter {
                 }
             }
         }
+
+        if (checksum) {
+            // reserve CHECKSUM and DATASUM cards (computed later from the table columns)
+            // like Fits.setChecksum(hdu) to get the same header card order:
+            header.deleteKey(FitsConstants.KEYWORD_CHECKSUM);
+            Fits.setChecksum(header, 0L, true);
+        }
+
+        if (doStream) {
+            if (streaming) {
+                // fix the number of rows as the binary table only contains the first row
+                // (at last to preserve the header card order):
+                header.setNaxis(2, nRows);
+            }
+
+            final int[] widths = new int[widthList.size()];
+            for (i = 0; i < widths.length; i++) {
+                widths[i] = widthList.get(i).intValue();
+            }
+            this.tableStreams.put(hdu, new TableStream(columnList.toArray(), widths, nRows, header.getIntValue("NAXIS1")));
+        }
         return hdu;
     }
 
+    /**
+     * Create a column containing only the first row of the given column
+     * (padded to the given width for character columns)
+     * @param value column values
+     * @param width string width (character column)
+     * @return column value with a single row
+     */
+    private static Object createModelColumn(final Object value, final int width) {
+        final Object model = Array.newInstance(value.getClass().getComponentType(), 1);
+        System.arraycopy(value, 0, model, 0, 1);
+
+        if (model instanceof String[]) {
+            final String[] values = (String[]) model;
+            // set the first value to the column width (header) :
+            final StringBuilder sb = new StringBuilder(width);
+            if (values[0] != null) {
+                sb.append(values[0]);
+            }
+            while (sb.length() < width) {
+                sb.append(' ');
+            }
+            values[0] = sb.toString();
+        }
+        return model;
+    }
+
     /*
      * Getter - Setter -----------------------------------------------------------
      */
@@ -328,4 +980,227 @@ public class OIFitsWriter {
     public OIFitsFile getOIFitsFile() {
         return oiFitsFile;
     }
+
+    /**
+     * Columns of a binary table written in streaming mode
+     */
+    private static final class TableStream {
+
+        /** column values (not null) */
+        final Object[] columns;
+        /** string widths (character columns only) */
+        final int[] widths;
+        /** number of rows */
+        final int nRows;
+        /** row length in bytes (NAXIS1) */
+        final int rowLength;
+
+        TableStream(final Object[] columns, final int[] widths, final int nRows, final int rowLength) {
+            this.columns = columns;
+            this.widths = widths;
+            this.nRows = nRows;
+            this.rowLength = rowLength;
+        }
+    }
+
+    /**
+     * Encode values in FITS binary format (big endian) into a buffer flushed to the file channel,
+     * and compute the data checksum on the fly (checksum only if no file channel).
+     */
+    private static final class RowEncoder {
+
+        /** file channel (optional) */
+        private final FileChannel channel;
+        /** buffer */
+        private final byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        /** buffer wrapper */
+        private final ByteBuffer bb = ByteBuffer.wrap(buffer);
+        /** position in buffer */
+        private int pos = 0;
+        /** position of the first byte to write in buffer */
+        private int start = 0;
+        /** number of bytes flushed */
+        private long flushed = 0L;
+        /** optional data checksum */
+        private Fits.ChecksumOutputStream cs = null;
+
+        RowEncoder(final FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void reset(final boolean checksum) {
+            reset(checksum, 0);
+        }
+
+        /**
+         * Reset this encoder
+         * @param checksum true to compute the checksum
+         * @param skip number of leading zero bytes only used by the checksum (4-byte alignment)
+         */
+        void reset(final boolean checksum, final int skip) {
+            Arrays.fill(buffer, 0, skip, (byte) 0);
+            pos = skip;
+            start = skip;
+            flushed = 0L;
+            cs = (checksum) ? new Fits.ChecksumOutputStream() : null;
+        }
+
+        long getCount() {
+            return flushed + pos - start;
+        }
+
+        long getChecksum() {
+            return (cs != null) ? cs.getChecksum() : 0L;
+        }
+
+        void finish(final int padding) throws IOException {
+            for (int i = 0; i < padding; i++) {
+                putByte((byte) 0);
+            }
+            flush();
+        }
+
+        private void flush() throws IOException {
+            if (pos != 0) {
+                if (cs != null) {
+                    cs.write(buffer, 0, pos);
+                }
+                if (channel != null) {
+                    bb.clear().limit(pos).position(start);
+                    while (bb.hasRemaining()) {
+                        channel.write(bb);
+                    }
+                }
+                flushed += pos - start;
+                pos = 0;
+                start = 0;
+            }
+        }
+
+        private void putByte(final byte b) throws IOException {
+            if (pos == buffer.length) {
+                flush();
+            }
+            buffer[pos++] = b;
+        }
+
+        private void putShort(final short v) throws IOException {
+            putByte((byte) (v >> 8));
+            putByte((byte) v);
+        }
+
+        private void putInt(final int v) throws IOException {
+            if (buffer.length - pos >= 4) {
+                final byte[] b = buffer;
+                int p = pos;
+                b[p++] = (byte) (v >> 24);
+                b[p++] = (byte) (v >> 16);
+                b[p++] = (byte) (v >> 8);
+                b[p++] = (byte) v;
+                pos = p;
+            } else {
+                putShort((short) (v >> 16));
+                putShort((short) v);
+            }
+        }
+
+        private void putLong(final long v) throws IOException {
+            putInt((int) (v >> 32));
+            putInt((int) v);
+        }
+
+        private void putString(final String s, final int width) throws IOException {
+            int n = 0;
+            if (s != null) {
+                final byte[] b = AsciiFuncs.getBytes(s);
+                n = Math.min(b.length, width);
+                for (int i = 0; i < n; i++) {
+                    putByte(b[i]);
+                }
+            }
+            for (; n < width; n++) {
+                putByte((byte) ' ');
+            }
+        }
+
+        /**
+         * Encode the given rows
+         * @param table table to encode
+         * @param fromRow first row (inclusive)
+         * @param toRow last row (exclusive)
+         * @throws IOException IO failure
+         */
+        void putRows(final TableStream table, final int fromRow, final int toRow) throws IOException {
+            final Object[] columns = table.columns;
+            final int[] widths = table.widths;
+
+            for (int row = fromRow; row < toRow; row++) {
+                for (int i = 0; i < columns.length; i++) {
+                    putColumn(columns[i], row, widths[i]);
+                }
+            }
+        }
+
+        private void putColumn(final Object column, final int row, final int width) throws IOException {
+            if (column instanceof double[]) {
+                putLong(Double.doubleToLongBits(((double[]) column)[row]));
+            } else if (column instanceof String[]) {
+                putString(((String[]) column)[row], width);
+            } else if (column instanceof Object[]) {
+                putArray(((Object[]) column)[row]);
+            } else if (column instanceof short[]) {
+                putShort(((short[]) column)[row]);
+            } else if (column instanceof int[]) {
+                putInt(((int[]) column)[row]);
+            } else if (column instanceof float[]) {
+                putInt(Float.floatToIntBits(((float[]) column)[row]));
+            } else if (column instanceof boolean[]) {
+                putByte(((boolean[]) column)[row] ? (byte) 'T' : (byte) 'F');
+            } else if (column instanceof long[]) {
+                putLong(((long[]) column)[row]);
+            } else if (column instanceof byte[]) {
+                putByte(((byte[]) column)[row]);
+            } else {
+                throw new IllegalStateException("Unsupported column type: " + column.getClass());
+            }
+        }
+
+        private void putArray(final Object array) throws IOException {
+            if (array instanceof double[]) {
+                for (double v : (double[]) array) {
+                    putLong(Double.doubleToLongBits(v));
+                }
+            } else if (array instanceof float[]) {
+                for (float v : (float[]) array) {
+                    putInt(Float.floatToIntBits(v));
+                }
+            } else if (array instanceof boolean[]) {
+                for (boolean v : (boolean[]) array) {
+                    putByte(v ? (byte) 'T' : (byte) 'F');
+                }
+            } else if (array instanceof Object[]) {
+                for (Object v : (Object[]) array) {
+                    putArray(v);
+                }
+            } else if (array instanceof int[]) {
+                for (int v : (int[]) array) {
+                    putInt(v);
+                }
+            } else if (array instanceof short[]) {
+                for (short v : (short[]) array) {
+                    putShort(v);
+                }
+            } else if (array instanceof long[]) {
+                for (long v : (long[]) array) {
+                    putLong(v);
+                }
+            } else if (array instanceof byte[]) {
+                for (byte v : (byte[]) array) {
+                    putByte(v);
+                }
+            } else {
+                throw new IllegalStateException("Unsupported column type: " + array.getClass());
+            }
+        }
+    }
 }
@@ -248,7 +248,7 @@ public final class OIFlux extends OIData {
     public void checkSyntax(final OIFitsChecker checker) {
         super.checkSyntax(checker);
 
-        checkColumnError(checker, getFlag(), getFluxErr(), this, OIFitsConstants.COLUMN_FLUXERR);
+        checkColumnError(checker, getFlag2D(), getColumnAsDoubles2D(OIFitsConstants.COLUMN_FLUXERR), this, OIFitsConstants.COLUMN_FLUXERR);
 
         // OIFITS2: check OI_CORR indexes
         final OICorr oiCorr = getOiCorr();
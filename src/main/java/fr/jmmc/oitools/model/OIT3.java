@@ -28,6 +28,7 @@ import fr.jmmc.oitools.meta.DataRange;
 import fr.jmmc.oitools.meta.Types;
 import fr.jmmc.oitools.meta.Units;
 import fr.jmmc.oitools.meta.WaveColumnMeta;
+import fr.jmmc.oitools.util.DoubleArray2D;
 import fr.jmmc.oitools.util.MathUtils;
 
 /**
@@ -505,8 +506,8 @@ public final class OIT3 extends OIData {
     public void checkSyntax(final OIFitsChecker checker) {
         super.checkSyntax(checker);
 
-        checkColumnError(checker, getFlag(), getT3AmpErr(), this, OIFitsConstants.COLUMN_T3AMPERR);
-        checkColumnError(checker, getFlag(), getT3PhiErr(), this, OIFitsConstants.COLUMN_T3PHIERR);
+        checkColumnError(checker, getFlag2D(), getColumnAsDoubles2D(OIFitsConstants.COLUMN_T3AMPERR), this, OIFitsConstants.COLUMN_T3AMPERR);
+        checkColumnError(checker, getFlag2D(), getColumnAsDoubles2D(OIFitsConstants.COLUMN_T3PHIERR), this, OIFitsConstants.COLUMN_T3PHIERR);
 
         // check STA_INDEX Unique
         checkStaIndexes(checker, getStaIndex(), this);
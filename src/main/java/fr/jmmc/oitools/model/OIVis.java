@@ -30,6 +30,7 @@ import fr.jmmc.oitools.meta.KeywordMeta;
 import fr.jmmc.oitools.meta.Types;
 import fr.jmmc.oitools.meta.Units;
 import fr.jmmc.oitools.meta.WaveColumnMeta;
+import fr.jmmc.oitools.util.DoubleArray2D;
 import fr.jmmc.oitools.util.MathUtils;
 
 /**
@@ -597,17 +598,17 @@ public final class OIVis extends OIData {
     public void checkSyntax(final OIFitsChecker checker) {
         super.checkSyntax(checker);
 
-        checkColumnError(checker, getFlag(), getVisAmpErr(), this, OIFitsConstants.COLUMN_VISAMPERR);
-        checkColumnError(checker, getFlag(), getVisPhiErr(), this, OIFitsConstants.COLUMN_VISPHIERR);
+        checkColumnError(checker, getFlag2D(), getColumnAsDoubles2D(OIFitsConstants.COLUMN_VISAMPERR), this, OIFitsConstants.COLUMN_VISAMPERR);
+        checkColumnError(checker, getFlag2D(), getColumnAsDoubles2D(OIFitsConstants.COLUMN_VISPHIERR), this, OIFitsConstants.COLUMN_VISPHIERR);
 
         // optional columns
-        final double[][] rvisErr = getRVisErr();
-        final double[][] ivisErr = getIVisErr();
+        final DoubleArray2D rvisErr = getColumnAsDoubles2D(OIFitsConstants.COLUMN_RVISERR);
+        final DoubleArray2D ivisErr = getColumnAsDoubles2D(OIFitsConstants.COLUMN_IVISERR);
         if (rvisErr != null) {
-            checkColumnError(checker, getFlag(), rvisErr, this, OIFitsConstants.COLUMN_RVISERR);
+            checkColumnError(checker, getFlag2D(), rvisErr, this, OIFitsConstants.COLUMN_RVISERR);
         }
         if (ivisErr != null) {
-            checkColumnError(checker, getFlag(), ivisErr, this, OIFitsConstants.COLUMN_IVISERR);
+            checkColumnError(checker, getFlag2D(), ivisErr, this, OIFitsConstants.COLUMN_IVISERR);
         }
 
         // check STA_INDEX Unique
@@ -29,6 +29,7 @@ import fr.jmmc.oitools.meta.DataRange;
 import fr.jmmc.oitools.meta.Types;
 import fr.jmmc.oitools.meta.Units;
 import fr.jmmc.oitools.meta.WaveColumnMeta;
+import fr.jmmc.oitools.util.DoubleArray2D;
 import fr.jmmc.oitools.util.MathUtils;
 
 /**
@@ -411,7 +412,7 @@ public final class OIVis2 extends OIData {
         super.checkSyntax(checker);
 
         // Check that non-flagged data point has valid errors:
-        checkColumnError(checker, getFlag(), getVis2Err(), this, OIFitsConstants.COLUMN_VIS2ERR);
+        checkColumnError(checker, getFlag2D(), getColumnAsDoubles2D(OIFitsConstants.COLUMN_VIS2ERR), this, OIFitsConstants.COLUMN_VIS2ERR);
 
         // check STA_INDEX Unique
         checkStaIndexes(checker, getStaIndex(), this);
@@ -0,0 +1,198 @@
+/* 
+ * Copyright (C) 2026 CNRS - JMMC project ( http://www.jmmc.fr )
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+/*******************************************************************************
+ * JMMC project ( http://www.jmmc.fr ) - Copyright (C) CNRS.
+ ******************************************************************************/
+package fr.jmmc.oitools.model.range;
+
+import java.util.Collection;
+
+/**
+ * Index of ranges normalized into merged and sorted primitive bounds
+ * to test quickly if a value belongs to any range (same semantics as Range.contains(Collection, double)):
+ * - undefined (NaN) bounds mean unbounded,
+ * - few ranges are scanned linearly, more ranges use binary search.
+ * Instances are mutable (see set()) to be reused.
+ */
+public final class RangeIndex {
+
+    /** maximum number of ranges to scan linearly */
+    private final static int LINEAR_THRESHOLD = 8;
+
+    /** minimum values (sorted) */
+    private double[] mins = new double[4];
+    /** maximum values (same order) */
+    private double[] maxs = new double[4];
+    /** number of merged ranges */
+    private int size = 0;
+    /** true if any range is fully undefined (contains any value including NaN) */
+    private boolean all = false;
+
+    /**
+     * Constructor (empty)
+     */
+    public RangeIndex() {
+        super();
+    }
+
+    /**
+     * Reset this index (empty)
+     */
+    public void clear() {
+        size = 0;
+        all = false;
+    }
+
+    /**
+     * Define this index from the given ranges
+     * @param ranges ranges to index
+     * @return this index
+     */
+    public RangeIndex set(final Collection<Range> ranges) {
+        clear();
+
+        final int len = ranges.size();
+        if (mins.length < len) {
+            mins = new double[len];
+            maxs = new double[len];
+        }
+
+        // normalize bounds:
+        int n = 0;
+        for (Range range : ranges) {
+            final double min = range.getMin();
+            final double max = range.getMax();
+
+            if (Double.isNaN(min) && Double.isNaN(max)) {
+                all = true;
+            } else {
+                final double lower = Double.isNaN(min) ? Double.NEGATIVE_INFINITY : min;
+                final double upper = Double.isNaN(max) ? Double.POSITIVE_INFINITY : max;
+
+                // skip empty ranges:
+                if (lower <= upper) {
+                    mins[n] = lower;
+                    maxs[n] = upper;
+                    n++;
+                }
+            }
+        }
+        if (all || (n == 0)) {
+            return this;
+        }
+
+        // sort ranges by minimum value (insertion sort as ranges are few):
+        for (int i = 1; i < n; i++) {
+            final double min = mins[i];
+            final double max = maxs[i];
+            int k = i - 1;
+            while ((k >= 0) && (mins[k] > min)) {
+                mins[k + 1] = mins[k];
+                maxs[k + 1] = maxs[k];
+                k--;
+            }
+            mins[k + 1] = min;
+            maxs[k + 1] = max;
+        }
+
+        // merge overlapping ranges (closed intervals):
+        int last = 0;
+        for (int i = 1; i < n; i++) {
+            if (mins[i] <= maxs[last]) {
+                if (maxs[i] > maxs[last]) {
+                    maxs[last] = maxs[i];
+                }
+            } else {
+                last++;
+                mins[last] = mins[i];
+                maxs[last] = maxs[i];
+            }
+        }
+        size = last + 1;
+        return this;
+    }
+
+    /**
+     * @return number of merged ranges
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if this index contains no range
+     */
+    public boolean isEmpty() {
+        return (size == 0) && !all;
+    }
+
+    /**
+     * Test if the given value belongs to any range
+     * @param value value to test
+     * @return true if the given value belongs to any range
+     */
+    public boolean contains(final double value) {
+        if (all) {
+            return true;
+        }
+        final int n = size;
+        final double[] lows = mins;
+        final double[] highs = maxs;
+
+        if (n <= LINEAR_THRESHOLD) {
+            // note: NaN value never matches:
+            for (int i = 0; i < n; i++) {
+                if ((value >= lows[i]) && (value <= highs[i])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (value != value) {
+            // NaN
+            return false;
+        }
+        // binary search: find the last range whose minimum is <= value:
+        int lo = 0;
+        int hi = n - 1;
+        while (lo <= hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (lows[mid] <= value) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return (hi >= 0) && (value <= highs[hi]);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder(16 + 32 * size);
+        sb.append("RangeIndex[");
+        if (all) {
+            sb.append("ALL");
+        }
+        for (int i = 0; i < size; i++) {
+            if (all || (i != 0)) {
+                sb.append(", ");
+            }
+            sb.append('[').append(mins[i]).append(", ").append(maxs[i]).append(']');
+        }
+        return sb.append(']').toString();
+    }
+}
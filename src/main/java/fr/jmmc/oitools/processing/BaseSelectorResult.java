@@ -30,6 +30,7 @@ import fr.jmmc.oitools.model.StaNamesDir;
 import fr.jmmc.oitools.model.Target;
 import fr.jmmc.oitools.model.range.Range;
 import fr.jmmc.oitools.util.OITableByFileComparator;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -243,6 +244,24 @@ public class BaseSelectorResult {
         return OIDataListHelper.getNbDataPointsNotFlagged(oiDatas);
     }
 
+    // --- expression columns ---
+    /**
+     * Create or modify the given expression columns in the selected oidata tables in one batch
+     * (dependency order, tables processed concurrently)
+     * @param expressions expressions keyed by column name
+     * @param nThreads maximum number of worker threads (1 means sequential evaluation)
+     * @throws IllegalArgumentException if expression columns have cyclic dependencies
+     * @throws InterruptedIOException if interrupted while waiting for evaluations
+     */
+    public void updateExpressionColumns(final Map<String, String> expressions, final int nThreads) throws InterruptedIOException {
+        try {
+            OIDataListHelper.updateExpressionColumns(oiDatas, expressions, nThreads);
+        } finally {
+            // reset cached ranges of the updated columns:
+            oiFitsCollection.clearColumnRanges(expressions.keySet());
+        }
+    }
+
     // --- global state ---
     /**
      * Return the Map of sorted staNames to StaNamesDir (from OIFitsCollection)
@@ -10,6 +10,7 @@ import fr.jmmc.oitools.model.OIFitsFile;
 import fr.jmmc.oitools.model.OIFitsLoader;
 import fr.jmmc.oitools.model.OIVis;
 import fr.jmmc.oitools.model.OIVis2;
+import fr.jmmc.oitools.util.BooleanArray2D;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Dimension;
@@ -88,7 +89,7 @@ public class BeamEstimator {
                 final int idxNone = (maskOIData2D != null) ? maskOIData2D.getIndexNone() : -1;
                 final int idxFull = (maskOIData2D != null) ? maskOIData2D.getIndexFull() : -1;
 
-                final boolean[][] flags = oiData.getFlag();
+                final BooleanArray2D flags = oiData.getFlag2D();
 
                 IndexMask maskOIData2DRow = null;
 
@@ -111,8 +112,6 @@ public class BeamEstimator {
                         maskOIData2DRow = (maskOIData2D.accept(i, idxFull)) ? null : maskOIData2D;
                     }
 
-                    final boolean[] rowFlags = (flags != null) ? flags[i] : null;
-
                     final double u_g = snapToGrid(ucoord[i], PREC_UV);
                     final double v_g = snapToGrid(vcoord[i], PREC_UV);
 
@@ -131,7 +130,7 @@ public class BeamEstimator {
                             continue;
                         }
 
-                        if ((rowFlags != null) && rowFlags[l]) {
+                        if ((flags != null) && flags.get(i, l)) {
                             // data point is flagged so skip it:
                             continue;
                         }
@@ -197,7 +196,7 @@ public class BeamEstimator {
                 continue;
             }
 
-            final boolean[][] flags = oiData.getFlag();
+            final BooleanArray2D flags = oiData.getFlag2D();
 
             final int nRows = oiData.getNbRows();
             final int nWaves = oiData.getNWave();
@@ -207,15 +206,13 @@ public class BeamEstimator {
 
                 // Iterate on table rows (i):
                 for (int i = 0; i < nRows; i++) {
-                    final boolean[] rowFlags = (flags != null) ? flags[i] : null;
-
                     final double u_g = snapToGrid(ucoord[i], PREC_UV);
                     final double v_g = snapToGrid(vcoord[i], PREC_UV);
 
                     // Iterate on wave channels (l):
                     for (int l = 0; l < nWaves; l++) {
 
-                        if ((rowFlags == null) || !rowFlags[l]) {
+                        if ((flags == null) || !flags.get(i, l)) {
                             t++;
                             final double wl_g = snapToGrid(effWaves[l], PREC_WL);
 
@@ -5,6 +5,7 @@ package fr.jmmc.oitools.processing;
 
 import fr.jmmc.oitools.fits.FitsTable;
 import fr.jmmc.oitools.model.range.Range;
+import fr.jmmc.oitools.model.range.RangeIndex;
 import java.util.HashSet;
 import java.util.List;
 import java.util.logging.Level;
@@ -17,6 +18,8 @@ public final class Double1DFilter extends FitsTableFilter<Range> {
 
     // members:
     private final HashSet<Range> rangeMatchings = new HashSet<Range>();
+    /** merged and sorted matching ranges */
+    private final RangeIndex rangeIndex = new RangeIndex();
     private double[] tableColumn1D = null;
 
     public Double1DFilter(final String columnName, final List<Range> acceptedValues, final boolean include) {
@@ -26,6 +29,7 @@ public final class Double1DFilter extends FitsTableFilter<Range> {
     @Override
     protected void reset() {
         rangeMatchings.clear();
+        rangeIndex.clear();
         tableColumn1D = null;
     }
 
@@ -60,11 +64,14 @@ public final class Double1DFilter extends FitsTableFilter<Range> {
             // missing column, ignore filter:
             return FilterState.FULL;
         }
+        // normalize matching ranges once:
+        rangeIndex.set(rangeMatchings);
+
         return FilterState.MASK;
     }
 
     @Override
     public boolean accept(final int row, final int col) {
-        return Range.contains(rangeMatchings, tableColumn1D[row]) == include;
+        return rangeIndex.contains(tableColumn1D[row]) == include;
     }
 }
@@ -5,6 +5,8 @@ package fr.jmmc.oitools.processing;
 
 import fr.jmmc.oitools.fits.FitsTable;
 import fr.jmmc.oitools.model.range.Range;
+import fr.jmmc.oitools.model.range.RangeIndex;
+import fr.jmmc.oitools.util.DoubleArray2D;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -18,7 +20,9 @@ public final class Double2DFilter extends FitsTableFilter<Range> {
 
     // members:
     private final Set<Range> rangeMatchings = new HashSet<Range>();
-    private double[][] tableColumn2D = null;
+    /** merged and sorted matching ranges */
+    private final RangeIndex rangeIndex = new RangeIndex();
+    private DoubleArray2D tableColumn2D = null;
 
     public Double2DFilter(final String columnName, final List<Range> acceptedValues, final boolean include) {
         super(columnName, acceptedValues, include);
@@ -27,6 +31,7 @@ public final class Double2DFilter extends FitsTableFilter<Range> {
     @Override
     protected void reset() {
         rangeMatchings.clear();
+        rangeIndex.clear();
         tableColumn2D = null;
     }
 
@@ -55,17 +60,20 @@ public final class Double2DFilter extends FitsTableFilter<Range> {
             return (include) ? FilterState.FULL : FilterState.INVALID;
         }
         // resolve column once
-        tableColumn2D = fitsTable.getColumnAsDoubles(columnName);
+        tableColumn2D = fitsTable.getColumnAsDoubles2D(columnName);
 
         if (tableColumn2D == null) {
             // missing column, ignore filter:
             return FilterState.FULL;
         }
+        // normalize matching ranges once:
+        rangeIndex.set(rangeMatchings);
+
         return FilterState.MASK;
     }
 
     @Override
     public boolean accept(final int row, final int col) {
-        return Range.contains(rangeMatchings, tableColumn2D[row][col]) == include;
+        return rangeIndex.contains(tableColumn2D.get(row, col)) == include;
     }
 }
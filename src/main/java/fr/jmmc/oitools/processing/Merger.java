@@ -36,9 +36,9 @@ import fr.jmmc.oitools.model.OITarget;
 import fr.jmmc.oitools.model.OIWavelength;
 import fr.jmmc.oitools.model.Target;
 import fr.jmmc.oitools.model.TargetManager;
+import fr.jmmc.oitools.util.DoubleArray2D;
 import fr.jmmc.oitools.util.OITableComparator;
 import fr.nom.tam.fits.FitsDate;
-import fr.nom.tam.util.ArrayFuncs;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
@@ -731,16 +731,17 @@ public final class Merger {
                     final short[] newTargetIds = new short[nRows];
 
                     // Update filtered columns 2D:
-                    final Map<String, double[][]> newColumns2D = new LinkedHashMap<String, double[][]>();
+                    final Map<String, DoubleArray2D> newColumns2D = new LinkedHashMap<String, DoubleArray2D>();
 
                     // get all related standard columns:
                     for (String columnName : relatedColumnsFiltersOIData2D) {
                         // clone standard 2D columns present in this table to set values to NaN (filtered out) below:
                         if (newOIData.getColumnDesc(columnName) != null) {
-                            final double[][] prevColumnValue = newOIData.getColumnDoubles(columnName);
+                            final DoubleArray2D prevColumnValue = newOIData.getColumnAsDoubles2D(columnName);
                             if (prevColumnValue != null) {
                                 // TODO: check dims !
-                                newColumns2D.put(columnName, (double[][]) ArrayFuncs.deepClone(prevColumnValue));
+                                // deep copy (flat storage is preserved):
+                                newColumns2D.put(columnName, prevColumnValue.copy());
                             }
                         }
                     }
@@ -750,7 +751,10 @@ public final class Merger {
                         logger.log(Level.FINE, "newColumns2DKeys: {0}", Arrays.toString(newColumns2DKeys));
                     }
 
-                    final double[][] newColumns2DRows = new double[newColumns2DKeys.length][];
+                    final DoubleArray2D[] newColumns2DValues = new DoubleArray2D[newColumns2DKeys.length];
+                    for (int k = 0; k < newColumns2DKeys.length; k++) {
+                        newColumns2DValues[k] = newColumns2D.get(newColumns2DKeys[k]);
+                    }
 
                     // Iterate on table rows (i):
                     for (int i = 0; i < nRows; i++) {
@@ -801,10 +805,6 @@ public final class Merger {
                         }
 
                         if (!skip && (maskOIData2DRow != null)) {
-                            for (int k = 0; k < newColumns2DKeys.length; k++) {
-                                newColumns2DRows[k] = newColumns2D.get(newColumns2DKeys[k])[i];
-                            }
-
                             // Iterate on wave channels (l):
                             for (int l = 0; l < nWaves; l++) {
 
@@ -819,8 +819,8 @@ public final class Merger {
                                     // if bit is false for this row, we hide this row
 
                                     // set column value to NaN:
-                                    for (int k = 0; k < newColumns2DRows.length; k++) {
-                                        newColumns2DRows[k][l] = Double.NaN;
+                                    for (int k = 0; k < newColumns2DValues.length; k++) {
+                                        newColumns2DValues[k].set(i, l, Double.NaN);
                                     }
                                 }
                             } // wave channels
@@ -837,7 +837,7 @@ public final class Merger {
                         if (logger.isLoggable(Level.FINE)) {
                             logger.log(Level.FINE, "Column[{0}] filtered: {1}",
                                     new Object[]{columnName,
-                                                 Arrays.deepToString(newColumns2D.get(columnName))
+                                                 newColumns2D.get(columnName)
                                     });
                         }
                         newOIData.setColumnValue(columnName, newColumns2D.get(columnName));
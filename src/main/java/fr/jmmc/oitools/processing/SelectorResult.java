@@ -22,6 +22,7 @@ import fr.jmmc.oitools.model.OIData;
 import fr.jmmc.oitools.model.OIFitsCollection;
 import fr.jmmc.oitools.model.OIWavelength;
 import fr.jmmc.oitools.model.range.Range;
+import fr.jmmc.oitools.util.BooleanArray2D;
 import java.util.ArrayList;
 import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
@@ -237,7 +238,15 @@ public final class SelectorResult extends BaseSelectorResult {
             final int nRows = oiData.getNbRows();
             final int nWaves = oiData.getNWave();
 
-            final boolean[][] flags = (type == COUNT_POINTS_NOT_FLAGGED) ? oiData.getFlag() : null;
+            final BooleanArray2D flags = (type == COUNT_POINTS_NOT_FLAGGED) ? oiData.getFlag2D() : null;
+
+            // word-level masks (64 channels at once):
+            final int nWords = (nWaves + 63) >>> 6;
+            final long lastWordMask = BooleanArray2D.getLastWordMask(nWaves);
+            final long[] maskWavelengthWords = (maskWavelength != null) ? maskWavelength.getBitSet().toLongArray() : null;
+            final long[] maskOIData2DWords = (maskOIData2D != null) ? maskOIData2D.getBitSet().toLongArray() : null;
+            final int maskOIData2DStride = (maskOIData2D != null) ? maskOIData2D.getNbCols() : 0;
+            final int nFlagWords = (flags != null) ? flags.getNbWords() : 0;
 
             IndexMask maskOIData2DRow = null;
 
@@ -266,38 +275,28 @@ public final class SelectorResult extends BaseSelectorResult {
                     }
                     continue;
                 }
-                
-                final boolean[] rowFlags = (flags != null) ? flags[i] : null;
 
-                // Iterate on wave channels (l):
-                for (int l = 0; l < nWaves; l++) {
+                // Iterate on wave channels (64 at once):
+                for (int k = 0; k < nWords; k++) {
+                    long valid = (k == nWords - 1) ? lastWordMask : -1L;
 
                     // check optional wavelength mask:
-                    if ((maskWavelength != null) && !maskWavelength.accept(l)) {
-                        // if bit is false for this row, we hide this row
-                        continue;
+                    if (maskWavelengthWords != null) {
+                        valid &= BooleanArray2D.getWord(maskWavelengthWords, k << 6);
                     }
 
                     // check optional data mask 2D (and its Full flag):
-                    if ((maskOIData2DRow != null) && !maskOIData2DRow.accept(i, l)) {
-                        // if bit is false for this row, we hide this row
-                        continue;
-                    }
-
-                    // data point is valid:
-                    if (type == COUNT_POINTS) {
-                        count++;
-                        continue;
+                    if (maskOIData2DRow != null) {
+                        valid &= BooleanArray2D.getWord(maskOIData2DWords, i * maskOIData2DStride + (k << 6));
                     }
 
-                    if ((rowFlags != null) && rowFlags[l]) {
-                        // data point is flagged so skip it:
-                        continue;
+                    // data point is flagged so skip it:
+                    if (k < nFlagWords) {
+                        valid &= ~flags.getWord(i, k);
                     }
 
-                    // data point is valid and not flagged:
-                    /* if (type == COUNT_POINTS_NOT_FLAGGED) is always true */
-                    count++;
+                    // valid data points (not flagged if type == COUNT_POINTS_NOT_FLAGGED):
+                    count += Long.bitCount(valid);
                 }
             }
         }
@@ -6,6 +6,7 @@ package fr.jmmc.oitools.processing;
 import fr.jmmc.oitools.OIFitsConstants;
 import fr.jmmc.oitools.fits.FitsTable;
 import fr.jmmc.oitools.model.OIData;
+import fr.jmmc.oitools.util.EncodedStringArray;
 import java.util.HashSet;
 import java.util.List;
 import java.util.logging.Level;
@@ -19,6 +20,8 @@ public final class StaConfFilter extends FitsTableFilter<String> {
     // members:
     private final HashSet<short[]> staIndexMatchings = new HashSet<short[]>(); // identity
     private short[][] staConf = null;
+    private int[] codes = null;
+    private boolean[] matchingCodes = null;
 
     public StaConfFilter(final List<String> staConfs, final boolean include) {
         super(OIFitsConstants.COLUMN_STA_CONF, staConfs, include);
@@ -28,6 +31,8 @@ public final class StaConfFilter extends FitsTableFilter<String> {
     protected void reset() {
         staIndexMatchings.clear();
         staConf = null;
+        codes = null;
+        matchingCodes = null;
     }
 
     @Override
@@ -58,11 +63,29 @@ public final class StaConfFilter extends FitsTableFilter<String> {
             // missing column, ignore filter:
             return FilterState.FULL;
         }
+        // use dictionary-encoded names (filled by Analyzer) to test int codes per row:
+        final EncodedStringArray names = oiData.getStaConfNameEncoded();
+
+        if (names.getNbValues() != 0) {
+            codes = names.getCodes();
+            matchingCodes = new boolean[names.getNbValues()];
+
+            for (final short[] matching : staIndexMatchings) {
+                final int code = names.getCode(oiData.getStaNames(matching)); // cached
+                if (code != EncodedStringArray.UNDEFINED_CODE) {
+                    matchingCodes[code] = true;
+                }
+            }
+        }
         return FilterState.MASK;
     }
 
     @Override
     public boolean accept(final int row, final int col) {
+        if (codes != null) {
+            final int code = codes[row];
+            return ((code != EncodedStringArray.UNDEFINED_CODE) && matchingCodes[code]) == include;
+        }
         return staIndexMatchings.contains(staConf[row]) == include;
     }
 }
@@ -7,6 +7,7 @@ import fr.jmmc.oitools.OIFitsConstants;
 import fr.jmmc.oitools.fits.FitsTable;
 import fr.jmmc.oitools.model.OIData;
 import fr.jmmc.oitools.model.StaNamesDir;
+import fr.jmmc.oitools.util.EncodedStringArray;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -22,6 +23,8 @@ public final class StaIndexFilter extends FitsTableFilter<String> {
     private final Map<String, StaNamesDir> usedStaNamesMap;
     private final HashSet<short[]> staIndexMatchings = new HashSet<short[]>(); // identity
     private short[][] staIndexes = null;
+    private int[] codes = null;
+    private boolean[] matchingCodes = null;
 
     public StaIndexFilter(final Map<String, StaNamesDir> usedStaNamesMap, final List<String> realStaNames, final boolean include) {
         super(OIFitsConstants.COLUMN_STA_INDEX, realStaNames, include);
@@ -32,6 +35,8 @@ public final class StaIndexFilter extends FitsTableFilter<String> {
     protected void reset() {
         staIndexMatchings.clear();
         staIndexes = null;
+        codes = null;
+        matchingCodes = null;
     }
 
     @Override
@@ -62,11 +67,32 @@ public final class StaIndexFilter extends FitsTableFilter<String> {
             // missing column, ignore filter:
             return FilterState.FULL;
         }
+        // use dictionary-encoded names (filled by Analyzer) to test int codes per row:
+        final EncodedStringArray names = oiData.getStaIndexNameEncoded();
+
+        if (names.getNbValues() != 0) {
+            codes = names.getCodes();
+            matchingCodes = new boolean[names.getNbValues()];
+
+            // names are resolved with the OIFits usedStaNamesMap (see Analyzer):
+            final Map<String, StaNamesDir> fileStaNamesMap = oiData.getOIFitsFile().getUsedStaNamesMap();
+
+            for (final short[] matching : staIndexMatchings) {
+                final int code = names.getCode(oiData.getRealStaNames(fileStaNamesMap, matching));
+                if (code != EncodedStringArray.UNDEFINED_CODE) {
+                    matchingCodes[code] = true;
+                }
+            }
+        }
         return FilterState.MASK;
     }
 
     @Override
     public boolean accept(final int row, final int col) {
+        if (codes != null) {
+            final int code = codes[row];
+            return ((code != EncodedStringArray.UNDEFINED_CODE) && matchingCodes[code]) == include;
+        }
         return staIndexMatchings.contains(staIndexes[row]) == include;
     }
 }
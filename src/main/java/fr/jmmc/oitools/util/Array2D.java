@@ -0,0 +1,64 @@
+/* 
+ * Copyright (C) 2026 CNRS - JMMC project ( http://www.jmmc.fr )
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.jmmc.oitools.util;
+
+import java.util.BitSet;
+
+/**
+ * Common interface of the 2D column views [row][col] (see DoubleArray2D and BooleanArray2D)
+ * used by FitsTable to keep column values in compact storage (flat or packed arrays)
+ */
+public interface Array2D {
+
+    /**
+     * @return number of rows
+     */
+    public int getNbRows();
+
+    /**
+     * @return number of columns (0 if no row)
+     */
+    public int getNbCols();
+
+    /**
+     * @return true if backed by a compact storage (flat or packed array)
+     */
+    public boolean isFlat();
+
+    /**
+     * Return the values as a regular 2D array: the underlying array if not flat or a new 2D array
+     * @return 2D array [row][col]
+     */
+    public Object toArray();
+
+    /**
+     * Return a deep copy preserving the storage layout
+     * @return deep copy
+     */
+    public Array2D copy();
+
+    /**
+     * Return a new compact 2D array containing only the given rows and columns
+     * @param maskRows bit set indicating which rows to keep (true means keep row)
+     * @param nbKeepRows number of rows to keep
+     * @param maskCols optional bit set indicating which columns to keep (null means all)
+     * @param nbKeepCols number of columns to keep (ignored if maskCols is null)
+     * @return new compact 2D array
+     */
+    public Array2D filter(final BitSet maskRows, final int nbKeepRows,
+                          final BitSet maskCols, final int nbKeepCols);
+}
@@ -0,0 +1,381 @@
+/* 
+ * Copyright (C) 2026 CNRS - JMMC project ( http://www.jmmc.fr )
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.jmmc.oitools.util;
+
+import java.util.BitSet;
+
+/**
+ * Lightweight 2D view on boolean values [row][col] (FLAG columns) backed either by packed long words
+ * (1 bit per value, each row starts on a new word) or by a regular boolean[][] array.
+ * The packed storage uses 8 times less memory than boolean[][] and gives word-level operations
+ * (population count, combination with bit masks) to count flagged values.
+ */
+public abstract class BooleanArray2D implements Array2D {
+
+    /** number of bits per word */
+    private static final int WORD_BITS = 64;
+    /** shift to get the word index from a bit index */
+    private static final int WORD_SHIFT = 6;
+
+    /** number of rows */
+    protected final int nRows;
+    /** number of columns */
+    protected final int nCols;
+    /** number of words per row */
+    protected final int nWords;
+
+    /**
+     * Wrap the given 2D array
+     * @param values 2D array [row][col]
+     * @return view on the given array
+     */
+    public static BooleanArray2D wrap(final boolean[][] values) {
+        return new Jagged(values);
+    }
+
+    /**
+     * Pack the given flat array into a new packed 2D array
+     * @param data flat array (row major order)
+     * @param nRows number of rows
+     * @param nCols number of columns (row stride)
+     * @return new packed 2D array
+     * @throws IllegalArgumentException if the array length does not match nRows x nCols
+     */
+    public static BooleanArray2D pack(final boolean[] data, final int nRows, final int nCols) {
+        if (data.length != ((long) nRows) * nCols) {
+            throw new IllegalArgumentException("Invalid array length: " + data.length + " != " + nRows + " x " + nCols);
+        }
+        final Packed packed = new Packed(nRows, nCols);
+        final long[] words = packed.words;
+
+        for (int i = 0, off = 0, w = 0; i < nRows; i++, w += packed.nWords) {
+            for (int j = 0; j < nCols; j++, off++) {
+                if (data[off]) {
+                    words[w + (j >>> WORD_SHIFT)] |= (1L << j);
+                }
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Pack the given 2D array into a new packed 2D array
+     * @param values 2D array [row][col]
+     * @return new packed 2D array
+     */
+    public static BooleanArray2D pack(final boolean[][] values) {
+        final Jagged jagged = new Jagged(values);
+        final Packed packed = new Packed(jagged.nRows, jagged.nCols);
+
+        for (int i = 0, w = 0; i < jagged.nRows; i++) {
+            for (int k = 0; k < jagged.nWords; k++, w++) {
+                packed.words[w] = jagged.getWord(i, k);
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Create a new packed 2D array filled by false values
+     * @param nRows number of rows
+     * @param nCols number of columns
+     * @return new packed 2D array
+     */
+    public static BooleanArray2D create(final int nRows, final int nCols) {
+        return new Packed(nRows, nCols);
+    }
+
+    /**
+     * Return the 64 bits of the given bit set (as long words) starting at the given bit index
+     * @param words bit set words (see BitSet.toLongArray())
+     * @param fromIndex index of the first bit
+     * @return 64 bits (missing bits are 0)
+     */
+    public static long getWord(final long[] words, final int fromIndex) {
+        final int w = fromIndex >>> WORD_SHIFT;
+        if (w >= words.length) {
+            return 0L;
+        }
+        final int shift = fromIndex & (WORD_BITS - 1);
+        if (shift == 0) {
+            return words[w];
+        }
+        final long next = (w + 1 < words.length) ? words[w + 1] : 0L;
+        return (words[w] >>> shift) | (next << (WORD_BITS - shift));
+    }
+
+    /**
+     * Return the mask of the valid bits in the last word of a row
+     * @param nCols number of columns
+     * @return mask of the valid bits
+     */
+    public static long getLastWordMask(final int nCols) {
+        final int rem = nCols & (WORD_BITS - 1);
+        return (rem == 0) ? -1L : ((1L << rem) - 1L);
+    }
+
+    /**
+     * Protected constructor
+     * @param nRows number of rows
+     * @param nCols number of columns
+     */
+    protected BooleanArray2D(final int nRows, final int nCols) {
+        this.nRows = nRows;
+        this.nCols = nCols;
+        this.nWords = (nCols + WORD_BITS - 1) >>> WORD_SHIFT;
+    }
+
+    @Override
+    public final int getNbRows() {
+        return nRows;
+    }
+
+    @Override
+    public final int getNbCols() {
+        return nCols;
+    }
+
+    /**
+     * @return number of words per row
+     */
+    public final int getNbWords() {
+        return nWords;
+    }
+
+    /**
+     * Return the value at the given position
+     * @param row row index
+     * @param col column index
+     * @return value
+     */
+    public abstract boolean get(final int row, final int col);
+
+    /**
+     * Define the value at the given position
+     * @param row row index
+     * @param col column index
+     * @param value value
+     */
+    public abstract void set(final int row, final int col, final boolean value);
+
+    /**
+     * Return the 64 values of the given row starting at column (64 x wordIndex) as bits
+     * (bits beyond the number of columns are 0)
+     * @param row row index
+     * @param wordIndex word index in [0; getNbWords()[
+     * @return 64 values as bits
+     */
+    public abstract long getWord(final int row, final int wordIndex);
+
+    /**
+     * Return the number of true values in the given row
+     * @param row row index
+     * @return number of true values
+     */
+    public int cardinality(final int row) {
+        int count = 0;
+        for (int k = 0; k < nWords; k++) {
+            count += Long.bitCount(getWord(row, k));
+        }
+        return count;
+    }
+
+    /**
+     * Return the number of true values
+     * @return number of true values
+     */
+    public int cardinality() {
+        int count = 0;
+        for (int i = 0; i < nRows; i++) {
+            count += cardinality(i);
+        }
+        return count;
+    }
+
+    @Override
+    public abstract boolean[][] toArray();
+
+    @Override
+    public abstract BooleanArray2D copy();
+
+    @Override
+    public final BooleanArray2D filter(final BitSet maskRows, final int nbKeepRows,
+                                       final BitSet maskCols, final int nbKeepCols) {
+        final int nOutCols = (maskCols != null) ? nbKeepCols : nCols;
+        final Packed out = new Packed(nbKeepRows, nOutCols);
+
+        for (int i = maskRows.nextSetBit(0), j = 0; (i >= 0) && (j < nbKeepRows); i = maskRows.nextSetBit(i + 1), j++) {
+            if (maskCols == null) {
+                // copy whole words:
+                for (int k = 0, w = j * nWords; k < nWords; k++, w++) {
+                    out.words[w] = getWord(i, k);
+                }
+            } else {
+                for (int c = maskCols.nextSetBit(0), k = 0; (c >= 0) && (k < nOutCols); c = maskCols.nextSetBit(c + 1), k++) {
+                    if (get(i, c)) {
+                        out.set(j, k, true);
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + nRows + " x " + nCols + "]";
+    }
+
+    /**
+     * Packed storage (1 bit per value)
+     */
+    private static final class Packed extends BooleanArray2D {
+
+        /** packed words (row major order, nWords per row) */
+        private final long[] words;
+
+        Packed(final int nRows, final int nCols) {
+            this(new long[nRows * ((nCols + WORD_BITS - 1) >>> WORD_SHIFT)], nRows, nCols);
+        }
+
+        Packed(final long[] words, final int nRows, final int nCols) {
+            super(nRows, nCols);
+            this.words = words;
+        }
+
+        @Override
+        public boolean isFlat() {
+            return true;
+        }
+
+        @Override
+        public boolean get(final int row, final int col) {
+            return (words[row * nWords + (col >>> WORD_SHIFT)] & (1L << col)) != 0L;
+        }
+
+        @Override
+        public void set(final int row, final int col, final boolean value) {
+            final int w = row * nWords + (col >>> WORD_SHIFT);
+            if (value) {
+                words[w] |= (1L << col);
+            } else {
+                words[w] &= ~(1L << col);
+            }
+        }
+
+        @Override
+        public long getWord(final int row, final int wordIndex) {
+            return words[row * nWords + wordIndex];
+        }
+
+        @Override
+        public int cardinality() {
+            int count = 0;
+            for (int w = 0; w < words.length; w++) {
+                count += Long.bitCount(words[w]);
+            }
+            return count;
+        }
+
+        @Override
+        public boolean[][] toArray() {
+            final boolean[][] values = new boolean[nRows][nCols];
+            for (int i = 0; i < nRows; i++) {
+                final boolean[] row = values[i];
+                for (int j = 0; j < nCols; j++) {
+                    row[j] = get(i, j);
+                }
+            }
+            return values;
+        }
+
+        @Override
+        public BooleanArray2D copy() {
+            return new Packed(words.clone(), nRows, nCols);
+        }
+    }
+
+    /**
+     * Regular boolean[][] storage
+     */
+    private static final class Jagged extends BooleanArray2D {
+
+        /** 2D array */
+        private final boolean[][] values;
+
+        Jagged(final boolean[][] values) {
+            super(values.length, getNbCols(values));
+            this.values = values;
+        }
+
+        private static int getNbCols(final boolean[][] values) {
+            for (boolean[] rowValues : values) {
+                if (rowValues != null) {
+                    return rowValues.length;
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public boolean isFlat() {
+            return false;
+        }
+
+        @Override
+        public boolean get(final int row, final int col) {
+            final boolean[] rowValues = values[row];
+            return (rowValues != null) && rowValues[col];
+        }
+
+        @Override
+        public void set(final int row, final int col, final boolean value) {
+            values[row][col] = value;
+        }
+
+        @Override
+        public long getWord(final int row, final int wordIndex) {
+            final boolean[] rowValues = values[row];
+            if (rowValues == null) {
+                return 0L;
+            }
+            final int start = wordIndex << WORD_SHIFT;
+            final int end = Math.min(start + WORD_BITS, nCols);
+            long word = 0L;
+            for (int j = start; j < end; j++) {
+                if (rowValues[j]) {
+                    word |= (1L << j);
+                }
+            }
+            return word;
+        }
+
+        @Override
+        public boolean[][] toArray() {
+            return values;
+        }
+
+        @Override
+        public BooleanArray2D copy() {
+            final boolean[][] copy = new boolean[nRows][];
+            for (int i = 0; i < nRows; i++) {
+                copy[i] = (values[i] != null) ? values[i].clone() : null;
+            }
+            return new Jagged(copy);
+        }
+    }
+}
@@ -0,0 +1,377 @@
+/* 
+ * Copyright (C) 2026 CNRS - JMMC project ( http://www.jmmc.fr )
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.jmmc.oitools.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Lightweight 2D view on double values [row][col] backed either by a flat contiguous
+ * array (row stride = number of columns) or by a regular double[][] array.
+ * The flat storage avoids one array per row (object header, GC pressure)
+ * and gives better cache locality on large tables (many rows and channels).
+ * Single-precision values (FITS 'E' columns) may be kept in a flat float array:
+ * values are then widened to double on access only.
+ */
+public abstract class DoubleArray2D implements Array2D {
+
+    /** number of rows */
+    protected final int nRows;
+    /** number of columns */
+    protected final int nCols;
+
+    /**
+     * Wrap the given 2D array
+     * @param values 2D array [row][col]
+     * @return view on the given array
+     */
+    public static DoubleArray2D wrap(final double[][] values) {
+        return new Jagged(values);
+    }
+
+    /**
+     * Wrap the given flat array
+     * @param data flat array (row major order)
+     * @param nRows number of rows
+     * @param nCols number of columns (row stride)
+     * @return view on the given flat array
+     * @throws IllegalArgumentException if the array length does not match nRows x nCols
+     */
+    public static DoubleArray2D wrap(final double[] data, final int nRows, final int nCols) {
+        if (data.length != ((long) nRows) * nCols) {
+            throw new IllegalArgumentException("Invalid array length: " + data.length + " != " + nRows + " x " + nCols);
+        }
+        return new Flat(data, nRows, nCols);
+    }
+
+    /**
+     * Wrap the given flat float array (native single-precision storage)
+     * @param data flat float array (row major order)
+     * @param nRows number of rows
+     * @param nCols number of columns (row stride)
+     * @return view on the given flat float array
+     * @throws IllegalArgumentException if the array length does not match nRows x nCols
+     */
+    public static DoubleArray2D wrap(final float[] data, final int nRows, final int nCols) {
+        if (data.length != ((long) nRows) * nCols) {
+            throw new IllegalArgumentException("Invalid array length: " + data.length + " != " + nRows + " x " + nCols);
+        }
+        return new FlatFloat(data, nRows, nCols);
+    }
+
+    /**
+     * Create a new flat 2D array filled by the given value
+     * @param nRows number of rows
+     * @param nCols number of columns (row stride)
+     * @param value initial value
+     * @return new flat 2D array
+     */
+    public static DoubleArray2D create(final int nRows, final int nCols, final double value) {
+        final double[] data = new double[nRows * nCols];
+        if (value != 0.0) {
+            Arrays.fill(data, value);
+        }
+        return new Flat(data, nRows, nCols);
+    }
+
+    /**
+     * Protected constructor
+     * @param nRows number of rows
+     * @param nCols number of columns
+     */
+    protected DoubleArray2D(final int nRows, final int nCols) {
+        this.nRows = nRows;
+        this.nCols = nCols;
+    }
+
+    /**
+     * @return number of rows
+     */
+    @Override
+    public final int getNbRows() {
+        return nRows;
+    }
+
+    /**
+     * @return number of columns (0 if no row)
+     */
+    @Override
+    public final int getNbCols() {
+        return nCols;
+    }
+
+    /**
+     * @return true if backed by a flat contiguous array
+     */
+    public abstract boolean isFlat();
+
+    /**
+     * @return flat contiguous array (row major order) or null if not flat or not stored as double values
+     */
+    public abstract double[] getData();
+
+    /**
+     * @return true if values are stored as float values (single precision)
+     */
+    public boolean isFloat() {
+        return false;
+    }
+
+    /**
+     * Return the value at the given position
+     * @param row row index
+     * @param col column index
+     * @return value
+     */
+    public abstract double get(final int row, final int col);
+
+    /**
+     * Define the value at the given position
+     * (rounded to the nearest float value if stored as float values)
+     * @param row row index
+     * @param col column index
+     * @param value value
+     */
+    public abstract void set(final int row, final int col, final double value);
+
+    /**
+     * Return the values of the given row: the internal row array if available
+     * or the given buffer filled with the row values
+     * @param row row index
+     * @param buffer buffer of length nCols at least
+     * @return row values (read-only)
+     */
+    public abstract double[] getRow(final int row, final double[] buffer);
+
+    /**
+     * Return the values as a 2D array: the underlying array if not flat or a new 2D array
+     * @return 2D array [row][col]
+     */
+    public abstract double[][] toArray();
+
+    /**
+     * Return a deep copy preserving the storage layout
+     * @return deep copy
+     */
+    public abstract DoubleArray2D copy();
+
+    /**
+     * Return a new flat 2D array containing only the given rows and columns
+     * (float values remain stored as float values)
+     * @param maskRows bit set indicating which rows to keep (true means keep row)
+     * @param nbKeepRows number of rows to keep
+     * @param maskCols optional bit set indicating which columns to keep (null means all)
+     * @param nbKeepCols number of columns to keep (ignored if maskCols is null)
+     * @return new flat 2D array
+     */
+    @Override
+    public final DoubleArray2D filter(final BitSet maskRows, final int nbKeepRows,
+                                      final BitSet maskCols, final int nbKeepCols) {
+        final int nOutCols = (maskCols != null) ? nbKeepCols : nCols;
+        final DoubleArray2D out = (isFloat()) ? new FlatFloat(new float[nbKeepRows * nOutCols], nbKeepRows, nOutCols)
+                : new Flat(new double[nbKeepRows * nOutCols], nbKeepRows, nOutCols);
+
+        for (int i = maskRows.nextSetBit(0), j = 0; (i >= 0) && (j < nbKeepRows); i = maskRows.nextSetBit(i + 1), j++) {
+            if (maskCols == null) {
+                for (int c = 0; c < nOutCols; c++) {
+                    out.set(j, c, get(i, c));
+                }
+            } else {
+                for (int c = maskCols.nextSetBit(0), k = 0; (c >= 0) && (k < nOutCols); c = maskCols.nextSetBit(c + 1), k++) {
+                    out.set(j, k, get(i, c));
+                }
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + nRows + " x " + nCols + "]";
+    }
+
+    /**
+     * Flat contiguous storage
+     */
+    private static final class Flat extends DoubleArray2D {
+
+        /** flat array (row major order) */
+        private final double[] data;
+
+        Flat(final double[] data, final int nRows, final int nCols) {
+            super(nRows, nCols);
+            this.data = data;
+        }
+
+        @Override
+        public boolean isFlat() {
+            return true;
+        }
+
+        @Override
+        public double[] getData() {
+            return data;
+        }
+
+        @Override
+        public double get(final int row, final int col) {
+            return data[row * nCols + col];
+        }
+
+        @Override
+        public void set(final int row, final int col, final double value) {
+            data[row * nCols + col] = value;
+        }
+
+        @Override
+        public double[] getRow(final int row, final double[] buffer) {
+            System.arraycopy(data, row * nCols, buffer, 0, nCols);
+            return buffer;
+        }
+
+        @Override
+        public double[][] toArray() {
+            final double[][] values = new double[nRows][];
+            for (int i = 0, off = 0; i < nRows; i++, off += nCols) {
+                values[i] = Arrays.copyOfRange(data, off, off + nCols);
+            }
+            return values;
+        }
+
+        @Override
+        public DoubleArray2D copy() {
+            return new Flat(data.clone(), nRows, nCols);
+        }
+    }
+
+    /**
+     * Flat contiguous storage of float values (single precision)
+     */
+    private static final class FlatFloat extends DoubleArray2D {
+
+        /** flat float array (row major order) */
+        private final float[] data;
+
+        FlatFloat(final float[] data, final int nRows, final int nCols) {
+            super(nRows, nCols);
+            this.data = data;
+        }
+
+        @Override
+        public boolean isFlat() {
+            return true;
+        }
+
+        @Override
+        public boolean isFloat() {
+            return true;
+        }
+
+        @Override
+        public double[] getData() {
+            return null;
+        }
+
+        @Override
+        public double get(final int row, final int col) {
+            return data[row * nCols + col];
+        }
+
+        @Override
+        public void set(final int row, final int col, final double value) {
+            data[row * nCols + col] = (float) value;
+        }
+
+        @Override
+        public double[] getRow(final int row, final double[] buffer) {
+            for (int j = 0, off = row * nCols; j < nCols; j++) {
+                buffer[j] = data[off + j];
+            }
+            return buffer;
+        }
+
+        @Override
+        public double[][] toArray() {
+            final double[][] values = new double[nRows][nCols];
+            for (int i = 0, off = 0; i < nRows; i++, off += nCols) {
+                final double[] row = values[i];
+                for (int j = 0; j < nCols; j++) {
+                    row[j] = data[off + j];
+                }
+            }
+            return values;
+        }
+
+        @Override
+        public DoubleArray2D copy() {
+            return new FlatFloat(data.clone(), nRows, nCols);
+        }
+    }
+
+    /**
+     * Regular double[][] storage
+     */
+    private static final class Jagged extends DoubleArray2D {
+
+        /** 2D array */
+        private final double[][] values;
+
+        Jagged(final double[][] values) {
+            super(values.length, (values.length != 0) ? values[0].length : 0);
+            this.values = values;
+        }
+
+        @Override
+        public boolean isFlat() {
+            return false;
+        }
+
+        @Override
+        public double[] getData() {
+            return null;
+        }
+
+        @Override
+        public double get(final int row, final int col) {
+            return values[row][col];
+        }
+
+        @Override
+        public void set(final int row, final int col, final double value) {
+            values[row][col] = value;
+        }
+
+        @Override
+        public double[] getRow(final int row, final double[] buffer) {
+            return values[row];
+        }
+
+        @Override
+        public double[][] toArray() {
+            return values;
+        }
+
+        @Override
+        public DoubleArray2D copy() {
+            final double[][] copy = new double[nRows][];
+            for (int i = 0; i < nRows; i++) {
+                copy[i] = values[i].clone();
+            }
+            return new Jagged(copy);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/* 
+ * Copyright (C) 2026 CNRS - JMMC project ( http://www.jmmc.fr )
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.jmmc.oitools.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Dictionary-encoded String column (1D): each row stores a small int code
+ * referring to a distinct value of the dictionary (few distinct values, many rows)
+ * like station or configuration names. Rows share the same String instances
+ * and equality tests can be done once per distinct value then on int codes.
+ */
+public final class EncodedStringArray {
+
+    /** code of undefined (null) values */
+    public static final int UNDEFINED_CODE = -1;
+
+    /** codes per row */
+    private final int[] codes;
+    /** distinct values (dictionary) indexed by code */
+    private final List<String> values = new ArrayList<String>(8);
+    /** mapping between distinct values and their codes */
+    private final HashMap<String, Integer> valueCodes = new HashMap<String, Integer>(16);
+    /** modification count (rows) to detect outdated decoded arrays */
+    private int modCount = 0;
+
+    /**
+     * Create a new column with undefined values
+     * @param nRows number of rows
+     */
+    public EncodedStringArray(final int nRows) {
+        this.codes = new int[nRows];
+        Arrays.fill(this.codes, UNDEFINED_CODE);
+    }
+
+    /**
+     * @return number of rows
+     */
+    public int getNbRows() {
+        return codes.length;
+    }
+
+    /**
+     * @return number of distinct values (dictionary size)
+     */
+    public int getNbValues() {
+        return values.size();
+    }
+
+    /**
+     * Return the distinct value given its code
+     * @param code value code
+     * @return distinct value or null if undefined
+     */
+    public String getValue(final int code) {
+        return (code == UNDEFINED_CODE) ? null : values.get(code);
+    }
+
+    /**
+     * Return the code of the given value
+     * @param value value to look up
+     * @return value code or UNDEFINED_CODE if the value is null or missing in the dictionary
+     */
+    public int getCode(final String value) {
+        if (value != null) {
+            final Integer code = valueCodes.get(value);
+            if (code != null) {
+                return code.intValue();
+            }
+        }
+        return UNDEFINED_CODE;
+    }
+
+    /**
+     * Return the code of the given value (added to the dictionary if missing)
+     * @param value value to encode
+     * @return value code or UNDEFINED_CODE if the value is null
+     */
+    public int encode(final String value) {
+        if (value == null) {
+            return UNDEFINED_CODE;
+        }
+        Integer code = valueCodes.get(value);
+        if (code == null) {
+            code = Integer.valueOf(values.size());
+            values.add(value);
+            valueCodes.put(value, code);
+        }
+        return code.intValue();
+    }
+
+    /**
+     * Return the codes per row (internal array)
+     * @return codes per row
+     */
+    public int[] getCodes() {
+        return codes;
+    }
+
+    /**
+     * Return the value at the given row
+     * @param row row index
+     * @return value or null if undefined
+     */
+    public String get(final int row) {
+        return getValue(codes[row]);
+    }
+
+    /**
+     * Define the value at the given row
+     * @param row row index
+     * @param value value (null means undefined)
+     */
+    public void set(final int row, final String value) {
+        codes[row] = encode(value);
+        modCount++;
+    }
+
+    /**
+     * Define the code at the given row
+     * @param row row index
+     * @param code value code (given by encode)
+     */
+    public void setCode(final int row, final int code) {
+        codes[row] = code;
+        modCount++;
+    }
+
+    /**
+     * Return the modification count i.e. incremented when any row is defined
+     * (rows modified through getCodes() are not tracked)
+     * @return modification count
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * Return the mask of codes whose value belongs to the given values
+     * @param selectedValues values to match
+     * @return mask indexed by code
+     */
+    public boolean[] getCodeMask(final Collection<String> selectedValues) {
+        final boolean[] mask = new boolean[values.size()];
+        for (int code = 0; code < mask.length; code++) {
+            mask[code] = selectedValues.contains(values.get(code));
+        }
+        return mask;
+    }
+
+    /**
+     * Decode all rows into a new String array (sharing distinct String instances)
+     * @return new String array
+     */
+    public String[] toArray() {
+        final String[] dict = values.toArray(new String[values.size()]);
+        final String[] array = new String[codes.length];
+        for (int i = 0, code; i < codes.length; i++) {
+            code = codes[i];
+            if (code != UNDEFINED_CODE) {
+                array[i] = dict[code];
+            }
+        }
+        return array;
+    }
+
+    /**
+     * Decode all rows into a new Decoded instance (decoded array and modification count)
+     * @return new Decoded instance
+     */
+    public Decoded decode() {
+        final int count = modCount;
+        return new Decoded(toArray(), count);
+    }
+
+    @Override
+    public String toString() {
+        return "EncodedStringArray{nRows=" + codes.length + ", values=" + values + '}';
+    }
+
+    /**
+     * Decoded String array (rows share distinct String instances) with the modification count
+     * of the encoded column when decoded
+     */
+    public static final class Decoded {
+
+        /** decoded values */
+        private final String[] values;
+        /** modification count of the encoded column */
+        private final int modCount;
+
+        Decoded(final String[] values, final int modCount) {
+            this.values = values;
+            this.modCount = modCount;
+        }
+
+        /**
+         * @return decoded values (shared array: do not modify)
+         */
+        public String[] getValues() {
+            return values;
+        }
+
+        /**
+         * @param encoded encoded column
+         * @return true if the given encoded column was not modified since decoding
+         */
+        public boolean isValid(final EncodedStringArray encoded) {
+            return (modCount == encoded.getModCount()) && (values.length == encoded.getNbRows());
+        }
+    }
+}
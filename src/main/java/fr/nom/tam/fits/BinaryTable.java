@@ -27,6 +27,8 @@ import fr.nom.tam.util.TableException;
 import java.io.EOFException;
 import java.io.IOException;
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.StringTokenizer;
 
 /** This class defines the methods for accessing FITS binary table data.
@@ -921,6 +923,108 @@ public final class BinaryTable extends Data implements TableData {
         return columnToArray(col, res, nRow);
     }
 
+    /** Get a given column decoded from the given buffer containing
+     *  the table data (row order) without reading the complete table.
+     *  This is useful with deferred reads (random access) where the
+     *  table data is memory-mapped and only few columns are needed.
+     *
+     * // LAURENT : added method
+     *
+     * @param col The index of the column.
+     * @param buffer The buffer whose position 0 corresponds to the first row.
+     * @exception FitsException if the column is invalid or has variable length.
+     */
+    public Object getColumn(int col, ByteBuffer buffer) throws FitsException {
+
+        if (table != null) {
+            // already in memory:
+            return getColumn(col);
+        }
+        return encurl(getFlattenedColumn(col, buffer), col, nRow);
+    }
+
+    /** Get a given column in flattened format decoded from the given buffer
+     *  containing the table data (row order) without reading the complete table.
+     *
+     * // LAURENT : added method
+     *
+     * @param col The index of the column.
+     * @param buffer The buffer whose position 0 corresponds to the first row.
+     * @exception FitsException if the column is invalid or has variable length.
+     */
+    public Object getFlattenedColumn(int col, ByteBuffer buffer) throws FitsException {
+
+        if (table != null) {
+            // already in memory:
+            return getFlattenedColumn(col);
+        }
+
+        if (!validColumn(col)) {
+            throw new FitsException("Invalid column");
+        }
+        if (isVarCol(col)) {
+            throw new FitsException("Unsupported variable length column in buffer read:" + col);
+        }
+
+        // Compute the byte offset of the column in a row:
+        int colOffset = 0;
+        for (int i = 0; i < col; i += 1) {
+            colOffset += sizes[i] * ArrayFuncs.getBaseLength(modelRow[i]);
+        }
+
+        final int size = sizes[col];
+        final Object res = ArrayFuncs.newInstance(ArrayFuncs.getBaseClass(modelRow[col]), size * nRow);
+
+        final ByteBuffer bb = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+
+        try {
+            for (int row = 0, off = 0; row < nRow; row += 1, off += size) {
+                final int pos = row * rowLen + colOffset;
+
+                if (res instanceof byte[]) {
+                    bb.position(pos);
+                    bb.get((byte[]) res, off, size);
+                } else if (res instanceof short[]) {
+                    final short[] s = (short[]) res;
+                    for (int i = 0; i < size; i += 1) {
+                        s[off + i] = bb.getShort(pos + 2 * i);
+                    }
+                } else if (res instanceof int[]) {
+                    final int[] ia = (int[]) res;
+                    for (int i = 0; i < size; i += 1) {
+                        ia[off + i] = bb.getInt(pos + 4 * i);
+                    }
+                } else if (res instanceof long[]) {
+                    final long[] l = (long[]) res;
+                    for (int i = 0; i < size; i += 1) {
+                        l[off + i] = bb.getLong(pos + 8 * i);
+                    }
+                } else if (res instanceof float[]) {
+                    final float[] f = (float[]) res;
+                    for (int i = 0; i < size; i += 1) {
+                        f[off + i] = bb.getFloat(pos + 4 * i);
+                    }
+                } else if (res instanceof double[]) {
+                    final double[] d = (double[]) res;
+                    for (int i = 0; i < size; i += 1) {
+                        d[off + i] = bb.getDouble(pos + 8 * i);
+                    }
+                } else {
+                    throw new FitsException("Invalid type in column:" + col);
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new FitsException("Error in buffered column read:" + e);
+        }
+
+        return columnToArray(col, res, nRow);
+    }
+
+    /** Get the size of the table data in bytes (without heap and padding) */
+    public long getTableSize() {
+        return ((long) nRow) * rowLen;
+    }
+
     /** Get a particular element from the table.
      * @param i The row of the element.
      * @param j The column of the element.
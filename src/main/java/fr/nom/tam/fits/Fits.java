@@ -23,6 +23,7 @@ import fr.nom.tam.util.AsciiFuncs;
 import fr.nom.tam.util.BufferedDataInputStream;
 import fr.nom.tam.util.BufferedDataOutputStream;
 import fr.nom.tam.util.BufferedFile;
+import fr.nom.tam.util.ChannelFile;
 import fr.nom.tam.util.RandomAccess;
 import java.io.DataOutput;
 import java.io.DataOutputStream;
@@ -97,6 +98,44 @@ import java.util.Vector;
  */
 public final class Fits {
 
+    /** LAURENT : flag to use the NIO ChannelFile (read-only) instead of BufferedFile for random access */
+    private static boolean USE_CHANNEL_FILE = "true".equalsIgnoreCase(System.getProperty("fits.channel.file", "false"));
+
+    /**
+     * LAURENT : added method
+     * @return true to use the NIO ChannelFile (read-only) instead of BufferedFile for random access
+     */
+    public static boolean isUseChannelFile() {
+        return USE_CHANNEL_FILE;
+    }
+
+    /**
+     * LAURENT : added method
+     * @param flag true to use the NIO ChannelFile (read-only) instead of BufferedFile for random access
+     */
+    public static void setUseChannelFile(final boolean flag) {
+        USE_CHANNEL_FILE = flag;
+    }
+
+    /** LAURENT : flag to decompress compressed streams on a background thread (read-ahead) */
+    private static boolean USE_READ_AHEAD = "true".equalsIgnoreCase(System.getProperty("fits.readahead", "false"));
+
+    /**
+     * LAURENT : added method
+     * @return true to decompress compressed streams on a background thread (read-ahead)
+     */
+    public static boolean isUseReadAhead() {
+        return USE_READ_AHEAD;
+    }
+
+    /**
+     * LAURENT : added method
+     * @param flag true to decompress compressed streams on a background thread (read-ahead)
+     */
+    public static void setUseReadAhead(final boolean flag) {
+        USE_READ_AHEAD = flag;
+    }
+
     /** The input stream associated with this Fits object.
      */
     private ArrayDataInput dataStr;
@@ -466,6 +505,17 @@ public final class Fits {
      * @throws FitsException
      */
     protected void randomInit(File f) throws FitsException {
+        randomInit(f, USE_CHANNEL_FILE);
+    }
+
+    /** LAURENT : added method
+     *  Initialize using buffered random access.
+     *  This implies that the data is uncompressed.
+     * @param f
+     * @param useChannelFile true to use the NIO ChannelFile (read-only)
+     * @throws FitsException
+     */
+    protected void randomInit(File f, boolean useChannelFile) throws FitsException {
 
         String permissions = "r";
         if (!f.exists() || !f.canRead()) {
@@ -475,9 +525,13 @@ public final class Fits {
             permissions += "w";
         }
         try {
-            dataStr = new BufferedFile(f, permissions);
+            if (useChannelFile) {
+                dataStr = new ChannelFile(f);
+            } else {
+                dataStr = new BufferedFile(f, permissions);
 
-            ((BufferedFile) dataStr).seek(0);
+                ((BufferedFile) dataStr).seek(0);
+            }
         } catch (IOException e) {
             throw new FitsException("Unable to open file " + f.getPath());
         }
@@ -500,6 +554,20 @@ public final class Fits {
         fileInit(myFile, compressed);
     }
 
+    /** LAURENT : added method
+     *  Associate the Fits object with a File
+     * @param myFile The File object.
+     * @param compressed Is the data compressed?
+     * @param useChannelFile true to use the NIO ChannelFile (read-only) if not compressed
+     */
+    public Fits(File myFile, boolean compressed, boolean useChannelFile) throws FitsException {
+        if (compressed) {
+            fileInit(myFile, compressed);
+        } else {
+            randomInit(myFile, useChannelFile);
+        }
+    }
+
     /** Get a stream from the file and then use the stream initialization.
      * @param myFile  The File to be associated.
      * @param compressed Is the data compressed?
@@ -980,19 +1048,37 @@ public final class Fits {
          * the correct implementation is in the write() interface.
          */
         // LBO: New checksum computation using a checksum stream (only ~35K buffer allocated instead of the all byte[] !)
-        ChecksumOutputStream cs;
-
         // DATASUM keyword.
-        cs = new ChecksumOutputStream();
+        final ChecksumOutputStream cs = new ChecksumOutputStream();
         hdu.getData().write(new BufferedDataOutputStream(cs, 12 * 2880));
         final long csd = cs.getChecksum(); // flush and close streams
+
+        return setChecksum(hdr, csd, addDataSum);
+    }
+
+    /**
+     * LAURENT : added method
+     * Add or update the CHECKSUM keyword given the checksum of the data part (already computed).
+     * It is safe to call this method with a dummy data checksum first to reserve the header cards.
+     * @param hdr the header to be updated.
+     * @param csd checksum of the data part (DATASUM)
+     * @param addDataSum true to add DATASUM keyword before computing final checksum (header + data)
+     * @return checksum as long value
+     * @throws HeaderCardException
+     */
+    public static long setChecksum(final Header hdr, final long csd, final boolean addDataSum)
+            throws HeaderCardException, FitsException {
+
+        // reset CHECKSUM in place:
+        hdr.addValue("CHECKSUM", "0000000000000000", "ntf::fits:checksum:1");
+
         if (addDataSum) {
             hdr.addValue("DATASUM", csd, "ntf::fits:datasum:1");
         }
 
         // We already have the checksum of the data.  Lets compute it for
         // the header.
-        cs = new ChecksumOutputStream();
+        final ChecksumOutputStream cs = new ChecksumOutputStream();
         hdr.write(new BufferedDataOutputStream(cs, 4 * 2880));
         final long csh = cs.getChecksum(); // flush and close streams
 
@@ -1026,13 +1112,15 @@ public final class Fits {
 
     /**
      * Encode a 32bit integer according to the Seaman-Pence proposal.
+     * LAURENT : made public to update CHECKSUM keywords in place
      * @param c the checksum previously calculated
+     * @param compl true to encode the complement of the checksum
      * @return the encoded string of 16 bytes.
      * @see http://heasarc.gsfc.nasa.gov/docs/heasarc/ofwg/docs/general/checksum/node14.html#SECTION00035000000000000000
      * @author R J Mathar
      * @since 2005-10-05
      */
-    private static String checksumEnc(final long c, final boolean compl) {
+    public static String checksumEnc(final long c, final boolean compl) {
         byte[] asc = new byte[16];
         final int[] exclude = {0x3a, 0x3b, 0x3c, 0x3d, 0x3e, 0x3f, 0x40, 0x5b, 0x5c, 0x5d, 0x5e, 0x5f, 0x60};
         final long[] mask = {0xff000000L, 0xff0000L, 0xff00L, 0xffL};
@@ -1100,8 +1188,10 @@ public final class Fits {
 
     /**
      * Compute the Seaman-Pence 32-bit 1's complement checksum over the byte stream EFFICIENTLY.
+     * LAURENT : made public to compute DATASUM while streaming data
+     * (write lengths must be multiples of 4 except the last one)
      */
-    private static final class ChecksumOutputStream extends OutputStream {
+    public static final class ChecksumOutputStream extends OutputStream {
 
         /* members */
         private boolean _open;
@@ -1111,18 +1201,18 @@ public final class Fits {
         /* checksum */
         private long _checksum;
 
-        ChecksumOutputStream() {
+        public ChecksumOutputStream() {
             reset();
         }
 
-        void reset() {
+        public void reset() {
             _open = true;
             _hi = 0l;
             _lo = 0l;
             _checksum = 0l;
         }
 
-        long getChecksum() {
+        public long getChecksum() {
             /* close if needed to compute checksum */
             close();
             return _checksum;
@@ -1160,7 +1250,8 @@ public final class Fits {
             long hi = _hi;
             long lo = _lo;
 
-            final int len = length >> 1; // 2 * (length / 4)
+            // LAURENT: fix length (only complete 4-byte groups in the main loop):
+            final int len = (length >> 2) << 1; // 2 * (length / 4)
             // System.out.println(length + " bytes") ;
             final int remain = length % 4;
             /* a write(2) on Sparc/PA-RISC would write the MSB first, on Linux the LSB; by some kind
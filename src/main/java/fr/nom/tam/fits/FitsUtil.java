@@ -20,6 +20,7 @@ package fr.nom.tam.fits;
 import fr.nom.tam.util.ArrayDataOutput;
 import fr.nom.tam.util.AsciiFuncs;
 import fr.nom.tam.util.RandomAccess;
+import fr.nom.tam.util.ReadAheadInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FilterInputStream;
@@ -98,6 +99,9 @@ public final class FitsUtil {
         return size + padding(size);
     }
 
+    /** LAURENT : input buffer size of the GZIP decompressor (read-ahead) */
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
     /** This method decompresses a compressed
      *  input stream.  The decompression method is
      *  selected automatically based upon the first two bytes read.
@@ -121,6 +125,10 @@ public final class FitsUtil {
                 // Push the data back into the stream
                 pb.unread(mag2);
                 pb.unread(mag1);
+                // LAURENT : inflate on a background thread if enabled:
+                if (Fits.isUseReadAhead()) {
+                    return new ReadAheadInputStream(new GZIPInputStream(pb, GZIP_BUFFER_SIZE));
+                }
                 return new GZIPInputStream(pb);
             } else if (mag1 == 0x1f && mag2 == 0x9d) {
                 // Push the data back into the stream
@@ -1289,4 +1289,53 @@ public final class ArrayFuncs implements PrimitiveInfo {
         }
         return result;
     }
+
+    /**
+     * LAURENT : added method
+     * Copy a segment of a primitive numeric array into the given byte buffer
+     * at its current position (unchanged), using the byte order of the buffer.
+     * The byte buffer must have enough room for the segment.
+     *
+     * @param dst    The byte buffer to fill.
+     * @param array  The primitive array (short, char, int, long, float or double).
+     * @param start  The first element to copy.
+     * @param length The number of elements to copy.
+     * @return the number of bytes copied
+     * @throws IllegalArgumentException if the array is not a supported primitive array
+     */
+    public static int putArray(final java.nio.ByteBuffer dst, final Object array, final int start, final int length) {
+        // floating-point values are converted using doubleToLongBits / floatToIntBits
+        // (canonical NaN) to produce the same bytes as the DataOutput methods:
+        if (array instanceof double[]) {
+            final double[] d = (double[]) array;
+            for (int i = start, end = start + length, pos = dst.position(); i < end; i += 1, pos += 8) {
+                dst.putLong(pos, Double.doubleToLongBits(d[i]));
+            }
+            return length << 3;
+        }
+        if (array instanceof float[]) {
+            final float[] f = (float[]) array;
+            for (int i = start, end = start + length, pos = dst.position(); i < end; i += 1, pos += 4) {
+                dst.putInt(pos, Float.floatToIntBits(f[i]));
+            }
+            return length << 2;
+        }
+        if (array instanceof int[]) {
+            dst.asIntBuffer().put((int[]) array, start, length);
+            return length << 2;
+        }
+        if (array instanceof long[]) {
+            dst.asLongBuffer().put((long[]) array, start, length);
+            return length << 3;
+        }
+        if (array instanceof short[]) {
+            dst.asShortBuffer().put((short[]) array, start, length);
+            return length << 1;
+        }
+        if (array instanceof char[]) {
+            dst.asCharBuffer().put((char[]) array, start, length);
+            return length << 1;
+        }
+        throw new IllegalArgumentException("Unsupported array type: " + ((array != null) ? array.getClass().getName() : "null"));
+    }
 }
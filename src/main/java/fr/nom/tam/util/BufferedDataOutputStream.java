@@ -21,6 +21,7 @@ import java.io.BufferedOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 /** This class is intended for high performance I/O in scientific applications.
  * It combines the functionality of the BufferedOutputStream and the
@@ -47,11 +48,17 @@ public final class BufferedDataOutputStream
         extends BufferedOutputStream
         implements ArrayDataOutput {
 
+    /** LAURENT : minimum segment length (elements) to use bulk copies into the buffer */
+    private static final int BULK_LENGTH = 32;
+
+    /** LAURENT : big-endian byte buffer wrapping the output buffer (bulk copies) */
+    private final ByteBuffer bufView;
+
     /** Use the BufferedOutputStream constructor
      * @param o An open output stream.
      */
     public BufferedDataOutputStream(OutputStream o) {
-        super(o, 32768);
+        this(o, 32768);
     }
 
     /** Use the BufferedOutputStream constructor
@@ -59,7 +66,9 @@ public final class BufferedDataOutputStream
      * @param bufLength   The buffer size.
      */
     public BufferedDataOutputStream(OutputStream o, int bufLength) {
-        super(o, bufLength);
+        // LAURENT : ensure the buffer can hold any primitive value
+        super(o, Math.max(bufLength, 16));
+        this.bufView = ByteBuffer.wrap(buf);
     }
 
     /** Write a boolean value
@@ -319,6 +328,10 @@ public final class BufferedDataOutputStream
      */
     public void write(short[] s, int start, int len) throws IOException {
 
+        if (len >= BULK_LENGTH) {
+            writeBulk(s, start, len, 1);
+            return;
+        }
         for (int i = start, size = start + len; i < size; i += 1) {
             if (count + 2 > buf.length) {
                 checkBuf(2);
@@ -338,6 +351,10 @@ public final class BufferedDataOutputStream
      */
     public void write(char[] c, int start, int len) throws IOException {
 
+        if (len >= BULK_LENGTH) {
+            writeBulk(c, start, len, 1);
+            return;
+        }
         for (int i = start, size = start + len; i < size; i += 1) {
             if (count + 2 > buf.length) {
                 checkBuf(2);
@@ -357,6 +374,10 @@ public final class BufferedDataOutputStream
      */
     public void write(int[] i, int start, int len) throws IOException {
 
+        if (len >= BULK_LENGTH) {
+            writeBulk(i, start, len, 2);
+            return;
+        }
         for (int ii = start, size = start + len; ii < size; ii += 1) {
             if (count + 4 > buf.length) {
                 checkBuf(4);
@@ -381,6 +402,10 @@ public final class BufferedDataOutputStream
      */
     public void write(long[] l, int start, int len) throws IOException {
 
+        if (len >= BULK_LENGTH) {
+            writeBulk(l, start, len, 3);
+            return;
+        }
         for (int i = start, size = start + len; i < size; i += 1) {
             if (count + 8 > buf.length) {
                 checkBuf(8);
@@ -409,6 +434,10 @@ public final class BufferedDataOutputStream
 
     public void write(float[] f, int start, int len) throws IOException {
 
+        if (len >= BULK_LENGTH) {
+            writeBulk(f, start, len, 2);
+            return;
+        }
         for (int i = start, size = start + len; i < size; i += 1) {
 
             if (count + 4 > buf.length) {
@@ -430,6 +459,10 @@ public final class BufferedDataOutputStream
 
     public void write(double[] d, int start, int len) throws IOException {
 
+        if (len >= BULK_LENGTH) {
+            writeBulk(d, start, len, 3);
+            return;
+        }
         for (int i = start, size = start + len; i < size; i += 1) {
             if (count + 8 > buf.length) {
                 checkBuf(8);
@@ -471,6 +504,32 @@ public final class BufferedDataOutputStream
         }
     }
 
+    /**
+     * LAURENT : added method
+     * Write a segment of a primitive numeric array by copying whole ranges
+     * into the buffer through a big-endian ByteBuffer view.
+     * @param array the primitive array
+     * @param start the first element to write
+     * @param len the number of elements to write
+     * @param shift log2 of the element size in bytes
+     */
+    private void writeBulk(final Object array, int start, int len, final int shift) throws IOException {
+        for (int n; len > 0; start += n, len -= n) {
+            n = (buf.length - count) >> shift;
+            if (n == 0) {
+                out.write(buf, 0, count);
+                count = 0;
+                n = buf.length >> shift;
+            }
+            if (n > len) {
+                n = len;
+            }
+            bufView.clear();
+            bufView.position(count);
+            count += ArrayFuncs.putArray(bufView, array, start, n);
+        }
+    }
+
     /* See if there is enough space to add
      * something to the buffer.
      */
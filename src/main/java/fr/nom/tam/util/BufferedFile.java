@@ -53,10 +53,35 @@ import java.io.File;
 import java.io.FileDescriptor;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 public final class BufferedFile
         implements ArrayDataInput, ArrayDataOutput, RandomAccess {
 
+    /** LAURENT : minimum segment length (elements) to use bulk copies into the buffer */
+    private static final int BULK_LENGTH = 32;
+    /** LAURENT : size of the direct buffer used to write large arrays to the file channel */
+    private static final int DIRECT_BUFFER_SIZE = 65536;
+    /** LAURENT : flag to write large arrays to the file channel through a direct buffer */
+    private static boolean USE_DIRECT_WRITE = "true".equalsIgnoreCase(System.getProperty("fits.write.direct", "false"));
+
+    /**
+     * LAURENT : added method
+     * @return true to write large arrays to the file channel through a direct buffer
+     */
+    public static boolean isUseDirectWrite() {
+        return USE_DIRECT_WRITE;
+    }
+
+    /**
+     * LAURENT : added method
+     * @param flag true to write large arrays to the file channel through a direct buffer
+     */
+    public static void setUseDirectWrite(final boolean flag) {
+        USE_DIRECT_WRITE = flag;
+    }
+
     /** The current offset into the buffer */
     private int bufferOffset;
     /** The number of valid characters in the buffer */
@@ -73,6 +98,10 @@ public final class BufferedFile
     private long fileOffset;
     /** Is the buffer being used for input or output */
     private boolean doingInput;
+    /** LAURENT : big-endian byte buffer wrapping the data buffer (bulk copies) */
+    private ByteBuffer bufferView;
+    /** LAURENT : direct buffer used to write large arrays (lazily allocated) */
+    private ByteBuffer directBuffer = null;
 
     /** Create a read-only buffered file */
     public BufferedFile(String filename) throws IOException {
@@ -123,6 +152,7 @@ public final class BufferedFile
 
         raf = new RandomAccessFile(file, mode);
         buffer = new byte[bufferSize];
+        bufferView = ByteBuffer.wrap(buffer);
         bufferOffset = 0;
         bufferLength = 0;
         fileOffset = 0;
@@ -1022,6 +1052,10 @@ public final class BufferedFile
     }
 
     public void write(short[] s, int start, int length) throws IOException {
+        if (length >= BULK_LENGTH) {
+            writeBulk(s, start, length, 1);
+            return;
+        }
         for (int i = start, size = start + length; i < size; i += 1) {
             convertFromShort(s[i]);
         }
@@ -1034,6 +1068,10 @@ public final class BufferedFile
     }
 
     public void write(char[] c, int start, int length) throws IOException {
+        if (length >= BULK_LENGTH) {
+            writeBulk(c, start, length, 1);
+            return;
+        }
         for (int i = start, size = start + length; i < size; i += 1) {
             convertFromChar(c[i]);
         }
@@ -1046,6 +1084,10 @@ public final class BufferedFile
     }
 
     public void write(int[] i, int start, int length) throws IOException {
+        if (length >= BULK_LENGTH) {
+            writeBulk(i, start, length, 2);
+            return;
+        }
         for (int ii = start, size = start + length; ii < size; ii += 1) {
             convertFromInt(i[ii]);
         }
@@ -1058,6 +1100,10 @@ public final class BufferedFile
     }
 
     public void write(long[] l, int start, int length) throws IOException {
+        if (length >= BULK_LENGTH) {
+            writeBulk(l, start, length, 3);
+            return;
+        }
         for (int i = start, size = start + length; i < size; i += 1) {
             convertFromLong(l[i]);
         }
@@ -1070,6 +1116,10 @@ public final class BufferedFile
     }
 
     public void write(float[] f, int start, int length) throws IOException {
+        if (length >= BULK_LENGTH) {
+            writeBulk(f, start, length, 2);
+            return;
+        }
         for (int i = start, size = start + length; i < size; i += 1) {
             convertFromInt(Float.floatToIntBits(f[i]));
         }
@@ -1082,11 +1132,75 @@ public final class BufferedFile
     }
 
     public void write(double[] d, int start, int length) throws IOException {
+        if (length >= BULK_LENGTH) {
+            writeBulk(d, start, length, 3);
+            return;
+        }
         for (int i = start, size = start + length; i < size; i += 1) {
             convertFromLong(Double.doubleToLongBits(d[i]));
         }
     }
 
+    /**
+     * LAURENT : added method
+     * Write a segment of a primitive numeric array by copying whole ranges
+     * into the buffer through a big-endian ByteBuffer view.
+     * If the direct write mode is enabled, large segments are rather copied into
+     * a direct buffer and written to the file channel.
+     * @param array the primitive array
+     * @param start the first element to write
+     * @param length the number of elements to write
+     * @param shift log2 of the element size in bytes
+     */
+    private void writeBulk(final Object array, int start, int length, final int shift) throws IOException {
+        if (USE_DIRECT_WRITE && ((long) length << shift) >= bufferSize) {
+            writeDirect(array, start, length, shift);
+            return;
+        }
+        for (int n; length > 0; start += n, length -= n) {
+            needBuffer(1 << shift);
+            n = Math.min(length, (bufferSize - bufferOffset) >> shift);
+            bufferView.clear();
+            bufferView.position(bufferOffset);
+            bufferOffset += ArrayFuncs.putArray(bufferView, array, start, n);
+        }
+    }
+
+    /**
+     * LAURENT : added method
+     * Flush the buffer and write a segment of a primitive numeric array
+     * to the file channel through a direct buffer.
+     * @param array the primitive array
+     * @param start the first element to write
+     * @param length the number of elements to write
+     * @param shift log2 of the element size in bytes
+     */
+    private void writeDirect(final Object array, int start, int length, final int shift) throws IOException {
+        // switch to output mode and flush pending bytes:
+        needBuffer(0);
+        flush();
+
+        if (directBuffer == null) {
+            directBuffer = ByteBuffer.allocateDirect(DIRECT_BUFFER_SIZE);
+        }
+        final ByteBuffer bb = directBuffer;
+        // the channel position is the file pointer of the RandomAccessFile:
+        final FileChannel channel = raf.getChannel();
+
+        for (int n; length > 0; start += n, length -= n) {
+            n = Math.min(length, DIRECT_BUFFER_SIZE >> shift);
+            bb.clear();
+            bb.limit(ArrayFuncs.putArray(bb, array, start, n));
+            while (bb.hasRemaining()) {
+                channel.write(bb);
+            }
+            fileOffset += bb.limit();
+        }
+        doingInput = false;
+        bufferOffset = 0;
+        bufferLength = 0;
+    }
+
     /** Write an array of Strings -- equivalent to calling writeBytes for each string.
      */
     public void write(String[] s) throws IOException {
@@ -0,0 +1,576 @@
+/*
+ * This code is part of the Java FITS library developed 1996-2012 by T.A. McGlynn (NASA/GSFC)
+ * The code is available in the public domain and may be copied, modified and used
+ * by anyone in any fashion for any purpose without restriction.
+ *
+ * No warranty regarding correctness or performance of this code is given or implied.
+ * Users may contact the author if they have questions or concerns.
+ *
+ * The author would like to thank many who have contributed suggestions,
+ * enhancements and bug fixes including:
+ * David Glowacki, R.J. Mathar, Laurent Michel, Guillaume Belanger,
+ * Laurent Bourges, Rose Early, Fred Romelfanger, Jorgo Baker, A. Kovacs, V. Forchi, J.C. Segovia,
+ * Booth Hartley and Jason Weiss.
+ * I apologize to any contributors whose names may have been inadvertently omitted.
+ *
+ *      Tom McGlynn
+ */
+package fr.nom.tam.util;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/** LAURENT : added class
+ * Read-only random access file backed by a FileChannel and a direct ByteBuffer
+ * (big-endian like FITS data).
+ * <p>
+ * Primitive arrays are copied in bulk from the buffer using typed views
+ * (DoubleBuffer, FloatBuffer ...) instead of converting every element
+ * from bytes as BufferedFile does.
+ * <p>
+ * This class supports the same EOF handling as BufferedFile:
+ * a partial array is returned when an EOF is detected.
+ */
+public final class ChannelFile implements RandomAccess {
+
+    /** Default buffer size (64K) */
+    public static final int DEFAULT_BUFFER_SIZE = 65536;
+
+    /** The underlying file */
+    private final RandomAccessFile raf;
+    /** The underlying channel */
+    private final FileChannel channel;
+    /** The data buffer (position = current offset, limit = valid data) */
+    private final ByteBuffer buffer;
+    /** The offset of the beginning of the current buffer */
+    private long fileOffset;
+    /** Counter used in reading arrays */
+    private long primitiveArrayCount;
+
+    /** Create a read-only channel file */
+    public ChannelFile(String filename) throws IOException {
+        this(new File(filename), DEFAULT_BUFFER_SIZE);
+    }
+
+    /** Create a read-only channel file */
+    public ChannelFile(File file) throws IOException {
+        this(file, DEFAULT_BUFFER_SIZE);
+    }
+
+    /** Create a read-only channel file with the specified buffer size.
+     *  @param file The file to be accessed.
+     *  @param bufferSize   The buffer size to be used.
+     */
+    public ChannelFile(File file, int bufferSize) throws IOException {
+        this.raf = new RandomAccessFile(file, "r");
+        this.channel = raf.getChannel();
+        this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, 16)).order(ByteOrder.BIG_ENDIAN);
+        // empty buffer:
+        this.buffer.limit(0);
+        this.fileOffset = 0L;
+    }
+
+    /** Get the channel associated with this file. */
+    public FileChannel getChannel() {
+        return channel;
+    }
+
+    /** Ensure the buffer contains at least the given number of bytes
+     * (smaller than the buffer capacity)
+     * @return false if an EOF was reached before
+     */
+    private boolean fill(final int needBytes) throws IOException {
+        if (buffer.remaining() >= needBytes) {
+            return true;
+        }
+        // Move the last few bytes to the beginning of the buffer:
+        fileOffset += buffer.position();
+        buffer.compact();
+        try {
+            int len;
+            while (buffer.position() < needBytes) {
+                len = channel.read(buffer, fileOffset + buffer.position());
+                if (len < 0) {
+                    break;
+                }
+            }
+        } finally {
+            buffer.flip();
+        }
+        return buffer.remaining() >= needBytes;
+    }
+
+    /** Ensure the buffer contains the given number of bytes or throw EOFException */
+    private void checkBuffer(final int needBytes) throws IOException {
+        if (!fill(needBytes)) {
+            throw new EOFException();
+        }
+    }
+
+    /** Read a byte */
+    public int read() throws IOException {
+        if (!fill(1)) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    /** Read an entire byte array.
+     *  @param buf The array to be filled.
+     */
+    public int read(byte[] buf) throws IOException {
+        return read(buf, 0, buf.length);
+    }
+
+    /** Read into a segment of a byte array.
+     *  @param buf    The array to be filled.
+     *  @param offset The starting location for input.
+     *  @param len    The number of bytes to be read.  Fewer bytes
+     *                will be read if an EOF is reached.
+     */
+    public int read(byte[] buf, int offset, int len) throws IOException {
+        int total = 0;
+
+        // first copy buffered bytes:
+        if (buffer.hasRemaining()) {
+            final int get = Math.min(len, buffer.remaining());
+            buffer.get(buf, offset, get);
+            offset += get;
+            len -= get;
+            total += get;
+        }
+
+        if (len > buffer.capacity()) {
+            // large read: bypass the buffer
+            final ByteBuffer dst = ByteBuffer.wrap(buf, offset, len);
+            final long pos = getFilePointer();
+            int n;
+            while (dst.hasRemaining()) {
+                n = channel.read(dst, pos + dst.position() - offset);
+                if (n < 0) {
+                    break;
+                }
+            }
+            final int get = dst.position() - offset;
+            // empty buffer after the bytes read:
+            seek(pos + get);
+            total += get;
+        } else if (len > 0) {
+            fill(len);
+            final int get = Math.min(len, buffer.remaining());
+            buffer.get(buf, offset, get);
+            total += get;
+        }
+
+        if (total == 0 && (len > 0)) {
+            throw new EOFException();
+        }
+        return total;
+    }
+
+    /** Skip from the current position.
+     *  @param offset The number of bytes from the
+     *                current position.  This may
+     *                be negative.
+     */
+    public long skip(long offset) throws IOException {
+        final long pos = getFilePointer();
+        final long length = channel.size();
+
+        if (offset > 0 && pos + offset > length) {
+            offset = length - pos;
+            seek(length);
+        } else if (pos + offset < 0) {
+            offset = -pos;
+            seek(0);
+        } else {
+            seek(pos + offset);
+        }
+        return offset;
+    }
+
+    /** Move to the current offset from the beginning of the file. */
+    public void seek(long offsetFromStart) throws IOException {
+        // Are we within the current buffer?
+        if (fileOffset <= offsetFromStart && offsetFromStart < fileOffset + buffer.limit()) {
+            buffer.position((int) (offsetFromStart - fileOffset));
+        } else {
+            if (offsetFromStart < 0) {
+                offsetFromStart = 0;
+            }
+            fileOffset = offsetFromStart;
+
+            // Invalidate the current buffer.
+            buffer.clear().limit(0);
+        }
+    }
+
+    /** Get the current position in the stream */
+    public long getFilePointer() {
+        return fileOffset + buffer.position();
+    }
+
+    /** Get the length of the file */
+    public long length() throws IOException {
+        return channel.size();
+    }
+
+    /** Read a boolean */
+    public boolean readBoolean() throws IOException {
+        checkBuffer(1);
+        return buffer.get() == 1;
+    }
+
+    /** Read a byte */
+    public byte readByte() throws IOException {
+        checkBuffer(1);
+        return buffer.get();
+    }
+
+    /** Read an unsigned byte */
+    public int readUnsignedByte() throws IOException {
+        checkBuffer(1);
+        return buffer.get() & 0xFF;
+    }
+
+    /** Read an int */
+    public int readInt() throws IOException {
+        checkBuffer(4);
+        return buffer.getInt();
+    }
+
+    /** Read a short */
+    public short readShort() throws IOException {
+        checkBuffer(2);
+        return buffer.getShort();
+    }
+
+    /** Read an unsigned short */
+    public int readUnsignedShort() throws IOException {
+        return readShort() & 0xFFFF;
+    }
+
+    /** Read a char */
+    public char readChar() throws IOException {
+        checkBuffer(2);
+        return buffer.getChar();
+    }
+
+    /** Read a long */
+    public long readLong() throws IOException {
+        checkBuffer(8);
+        return buffer.getLong();
+    }
+
+    /** Read a float */
+    public float readFloat() throws IOException {
+        checkBuffer(4);
+        return buffer.getFloat();
+    }
+
+    /** Read a double */
+    public double readDouble() throws IOException {
+        checkBuffer(8);
+        return buffer.getDouble();
+    }
+
+    /** Read a byte array fully. */
+    public void readFully(byte[] b) throws IOException {
+        readFully(b, 0, b.length);
+    }
+
+    /** Read a byte array fully. */
+    public void readFully(byte[] b, int off, int len) throws IOException {
+
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IOException("Attempt to read outside byte array");
+        }
+
+        if (read(b, off, len) < len) {
+            throw new EOFException();
+        }
+    }
+
+    /** Skip the number of bytes. */
+    public int skipBytes(int toSkip) throws IOException {
+        return (int) skipBytes((long) toSkip);
+    }
+
+    public long skipBytes(long toSkip) throws IOException {
+
+        // Note that we allow negative skips...
+        if (skip(toSkip) < toSkip) {
+            throw new EOFException();
+        } else {
+            return toSkip;
+        }
+    }
+
+    /** Read a string encoded as a UTF. */
+    public String readUTF() throws IOException {
+        return DataInputStream.readUTF(this);
+    }
+
+    /** Read a line of input. */
+    public String readLine() throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        int c = -1;
+        boolean eol = false;
+
+        while (!eol) {
+            switch (c = read()) {
+                case -1:
+                case '\n':
+                    eol = true;
+                    break;
+                case '\r':
+                    eol = true;
+                    final long cur = getFilePointer();
+                    if (read() != '\n') {
+                        seek(cur);
+                    }
+                    break;
+                default:
+                    sb.append((char) c);
+                    break;
+            }
+        }
+
+        if ((c == -1) && (sb.length() == 0)) {
+            return null;
+        }
+        return sb.toString();
+    }
+
+    /** This routine provides efficient reading of arrays of any primitive type.
+     *  @deprecated  The readLArray(Object) routine should be used to
+     *               ensure that large arrays which read more than
+     *               two-gigabytes return the proper value.
+     */
+    @Deprecated
+    public int readArray(Object o) throws IOException {
+        return (int) readLArray(o);
+    }
+
+    /** This routine provides efficient reading of arrays of any primitive
+     *  type.
+     */
+    public long readLArray(Object o) throws IOException {
+        primitiveArrayCount = 0;
+        return primitiveArrayRecurse(o);
+    }
+
+    protected long primitiveArrayRecurse(Object o) throws IOException {
+
+        if (o == null) {
+            return primitiveArrayCount;
+        }
+
+        String className = o.getClass().getName();
+
+        if (className.charAt(0) != '[') {
+            throw new IOException("Invalid object passed to ChannelFile.readArray:" + className);
+        }
+
+        // Is this a multidimensional array?  If so process recursively.
+        if (className.charAt(1) == '[') {
+            Object[] oo = (Object[]) o;
+            for (int i = 0; i < oo.length; i += 1) {
+                primitiveArrayRecurse(oo[i]);
+            }
+        } else {
+
+            // This is a one-d array.  Process it using our special functions.
+            switch (className.charAt(1)) {
+                case 'Z':
+                    primitiveArrayCount += read((boolean[]) o, 0, ((boolean[]) o).length);
+                    break;
+                case 'B':
+                    primitiveArrayCount += read((byte[]) o, 0, ((byte[]) o).length);
+                    break;
+                case 'C':
+                    primitiveArrayCount += read((char[]) o, 0, ((char[]) o).length);
+                    break;
+                case 'S':
+                    primitiveArrayCount += read((short[]) o, 0, ((short[]) o).length);
+                    break;
+                case 'I':
+                    primitiveArrayCount += read((int[]) o, 0, ((int[]) o).length);
+                    break;
+                case 'J':
+                    primitiveArrayCount += read((long[]) o, 0, ((long[]) o).length);
+                    break;
+                case 'F':
+                    primitiveArrayCount += read((float[]) o, 0, ((float[]) o).length);
+                    break;
+                case 'D':
+                    primitiveArrayCount += read((double[]) o, 0, ((double[]) o).length);
+                    break;
+                case 'L':
+
+                    // Handle an array of Objects by recursion.  Anything
+                    // else is an error.
+                    if (className.equals("[Ljava.lang.Object;")) {
+                        Object[] oo = (Object[]) o;
+                        for (int i = 0; i < oo.length; i += 1) {
+                            primitiveArrayRecurse(oo[i]);
+                        }
+                    } else {
+                        throw new IOException("Invalid object passed to ChannelFile.readPrimitiveArray: " + className);
+                    }
+                    break;
+                default:
+                    throw new IOException("Invalid object passed to ChannelFile.readArray: " + className);
+            }
+        }
+        return primitiveArrayCount;
+    }
+
+    /** Return the number of elements available in the buffer (refilled if needed)
+     * @param size element size in bytes
+     * @param len number of elements needed
+     * @return number of elements available (0 means EOF)
+     */
+    private int available(final int size, final int len) throws IOException {
+        fill(size);
+        return Math.min(len, buffer.remaining() / size);
+    }
+
+    public int read(boolean[] b) throws IOException {
+        return read(b, 0, b.length);
+    }
+
+    public int read(boolean[] b, int start, int length) throws IOException {
+        int i = start;
+        for (int size = start + length, n; i < size; i += n) {
+            if ((n = available(1, size - i)) == 0) {
+                return eofCheck(start, i, 1);
+            }
+            for (int j = i, end = i + n; j < end; j++) {
+                b[j] = (buffer.get() == 1);
+            }
+        }
+        return length;
+    }
+
+    public int read(short[] s) throws IOException {
+        return read(s, 0, s.length);
+    }
+
+    public int read(short[] s, int start, int length) throws IOException {
+        int i = start;
+        for (int size = start + length, n; i < size; i += n) {
+            if ((n = available(2, size - i)) == 0) {
+                return eofCheck(start, i, 2);
+            }
+            buffer.asShortBuffer().get(s, i, n);
+            buffer.position(buffer.position() + (n << 1));
+        }
+        return length * 2;
+    }
+
+    public int read(char[] c) throws IOException {
+        return read(c, 0, c.length);
+    }
+
+    public int read(char[] c, int start, int length) throws IOException {
+        int i = start;
+        for (int size = start + length, n; i < size; i += n) {
+            if ((n = available(2, size - i)) == 0) {
+                return eofCheck(start, i, 2);
+            }
+            buffer.asCharBuffer().get(c, i, n);
+            buffer.position(buffer.position() + (n << 1));
+        }
+        return length * 2;
+    }
+
+    public int read(int[] i) throws IOException {
+        return read(i, 0, i.length);
+    }
+
+    public int read(int[] i, int start, int length) throws IOException {
+        int ii = start;
+        for (int size = start + length, n; ii < size; ii += n) {
+            if ((n = available(4, size - ii)) == 0) {
+                return eofCheck(start, ii, 4);
+            }
+            buffer.asIntBuffer().get(i, ii, n);
+            buffer.position(buffer.position() + (n << 2));
+        }
+        return length * 4;
+    }
+
+    public int read(long[] l) throws IOException {
+        return read(l, 0, l.length);
+    }
+
+    public int read(long[] l, int start, int length) throws IOException {
+        int i = start;
+        for (int size = start + length, n; i < size; i += n) {
+            if ((n = available(8, size - i)) == 0) {
+                return eofCheck(start, i, 8);
+            }
+            buffer.asLongBuffer().get(l, i, n);
+            buffer.position(buffer.position() + (n << 3));
+        }
+        return length * 8;
+    }
+
+    public int read(float[] f) throws IOException {
+        return read(f, 0, f.length);
+    }
+
+    public int read(float[] f, int start, int length) throws IOException {
+        int i = start;
+        for (int size = start + length, n; i < size; i += n) {
+            if ((n = available(4, size - i)) == 0) {
+                return eofCheck(start, i, 4);
+            }
+            buffer.asFloatBuffer().get(f, i, n);
+            buffer.position(buffer.position() + (n << 2));
+        }
+        return length * 4;
+    }
+
+    public int read(double[] d) throws IOException {
+        return read(d, 0, d.length);
+    }
+
+    public int read(double[] d, int start, int length) throws IOException {
+        int i = start;
+        for (int size = start + length, n; i < size; i += n) {
+            if ((n = available(8, size - i)) == 0) {
+                return eofCheck(start, i, 8);
+            }
+            buffer.asDoubleBuffer().get(d, i, n);
+            buffer.position(buffer.position() + (n << 3));
+        }
+        return length * 8;
+    }
+
+    /** See if an exception should be thrown during an array read. */
+    private int eofCheck(int start, int index, int length) throws EOFException {
+        if (start == index) {
+            throw new EOFException();
+        } else {
+            return (index - start) * length;
+        }
+    }
+
+    /** Close the file */
+    public void close() throws IOException {
+        raf.close();
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + "[fileOffset=" + fileOffset + ", position=" + buffer.position() + ", limit=" + buffer.limit() + "]";
+    }
+}
@@ -19,6 +19,7 @@ package fr.nom.tam.util;
 
 import java.io.IOException;
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
 
 /** A data table is conventionally considered to consist of rows and
  * columns, where the structure within each column is constant, but
@@ -140,7 +141,7 @@ public final class ColumnTable implements DataTable {
         String classname = newColumn.getClass().getName();
         nrow = checkColumnConsistency(newColumn, classname, nrow, size);
 
-        rowSize += nrow * ArrayFuncs.getBaseLength(newColumn);
+        rowSize += size * ArrayFuncs.getBaseLength(newColumn);
 
         getNumberOfRows();
 
@@ -551,84 +552,150 @@ public final class ColumnTable implements DataTable {
     }
 
     /** Read a table.
+     * LAURENT : bulk columnar decoding: read blocks of rows into a byte buffer
+     * and transpose them into the column arrays (big-endian typed views)
      * @param is The input stream to read from.
      */
     public int read(ArrayDataInput is) throws IOException {
 
-        // While we have not finished reading the table..
-        for (int row = 0; row < nrow; row += 1) {
+        if (rowSize == 0 || nrow == 0) {
+            return 0;
+        }
 
-            int ibyte = 0;
-            int ishort = 0;
-            int iint = 0;
-            int ilong = 0;
-            int ichar = 0;
-            int ifloat = 0;
-            int idouble = 0;
-            int iboolean = 0;
+        // number of rows per block (chunk ~ 64K):
+        final int nRowsBlock = (chunk > 0) ? chunk : 1;
 
-            // Loop over the columns within the row.
-            for (int col = 0; col < arrays.length; col += 1) {
+        final byte[] block = new byte[nRowsBlock * rowSize];
+        // FITS data is big-endian (ByteBuffer default order):
+        final ByteBuffer bb = ByteBuffer.wrap(block);
 
-                int arrOffset = sizes[col] * row;
-                int size = sizes[col];
+        // While we have not finished reading the table..
+        for (int row = 0; row < nrow; row += nRowsBlock) {
+            final int nRows = Math.min(nRowsBlock, nrow - row);
 
-                switch (types[col]) {
-                    // In anticpated order of use.
-                    case 'I':
-                        int[] ia = intPointers[iint];
-                        iint += 1;
-                        is.read(ia, arrOffset, size);
-                        break;
+            // note: readFully throws EOFException if the table is truncated:
+            is.readFully(block, 0, nRows * rowSize);
 
-                    case 'S':
-                        short[] s = shortPointers[ishort];
-                        ishort += 1;
-                        is.read(s, arrOffset, size);
-                        break;
-
-                    case 'B':
-                        byte[] b = bytePointers[ibyte];
-                        ibyte += 1;
-                        is.read(b, arrOffset, size);
-                        break;
+            int colOffset = 0;
 
-                    case 'F':
-                        float[] f = floatPointers[ifloat];
-                        ifloat += 1;
-                        is.read(f, arrOffset, size);
-                        break;
+            // Loop over the columns within the block.
+            for (int col = 0; col < arrays.length; col += 1) {
+                final int size = sizes[col];
 
-                    case 'D':
-                        double[] d = doublePointers[idouble];
-                        idouble += 1;
-                        is.read(d, arrOffset, size);
-                        break;
+                if (size != 0) {
+                    decodeColumn(bb, types[col], arrays[col], size, row, nRows, colOffset);
+                    colOffset += size * ArrayFuncs.getBaseLength(arrays[col]);
+                }
+            }
+        }
 
-                    case 'C':
-                        char[] c = charPointers[ichar];
-                        ichar += 1;
-                        is.read(c, arrOffset, size);
-                        break;
+        // All done if we get here...
+        return rowSize * nrow;
+    }
 
-                    case 'J':
-                        long[] l = longPointers[ilong];
-                        ilong += 1;
-                        is.read(l, arrOffset, size);
-                        break;
+    /** Decode the given column from the block of rows into its array
+     * @param bb buffer wrapping the block of rows
+     * @param type column base type
+     * @param array column array
+     * @param size number of elements per row
+     * @param row first row of the block
+     * @param nRows number of rows in the block
+     * @param colOffset byte offset of the column within a row
+     */
+    private void decodeColumn(final ByteBuffer bb, final char type, final Object array,
+                              final int size, final int row, final int nRows, final int colOffset) {
 
-                    case 'Z':
+        int arrOffset = size * row;
 
-                        boolean[] bool = booleanPointers[iboolean];
-                        iboolean += 1;
-                        is.read(bool, arrOffset, size);
-                        break;
+        switch (type) {
+            // In anticpated order of use.
+            case 'I': {
+                final int[] ia = (int[]) array;
+                for (int r = 0, pos = colOffset; r < nRows; r++, pos += rowSize, arrOffset += size) {
+                    if (size == 1) {
+                        ia[arrOffset] = bb.getInt(pos);
+                    } else {
+                        bb.position(pos);
+                        bb.asIntBuffer().get(ia, arrOffset, size);
+                    }
+                }
+                break;
+            }
+            case 'S': {
+                final short[] s = (short[]) array;
+                for (int r = 0, pos = colOffset; r < nRows; r++, pos += rowSize, arrOffset += size) {
+                    if (size == 1) {
+                        s[arrOffset] = bb.getShort(pos);
+                    } else {
+                        bb.position(pos);
+                        bb.asShortBuffer().get(s, arrOffset, size);
+                    }
+                }
+                break;
+            }
+            case 'B': {
+                final byte[] b = (byte[]) array;
+                final byte[] block = bb.array();
+                for (int r = 0, pos = colOffset; r < nRows; r++, pos += rowSize, arrOffset += size) {
+                    System.arraycopy(block, pos, b, arrOffset, size);
                 }
+                break;
+            }
+            case 'F': {
+                final float[] f = (float[]) array;
+                for (int r = 0, pos = colOffset; r < nRows; r++, pos += rowSize, arrOffset += size) {
+                    if (size == 1) {
+                        f[arrOffset] = bb.getFloat(pos);
+                    } else {
+                        bb.position(pos);
+                        bb.asFloatBuffer().get(f, arrOffset, size);
+                    }
+                }
+                break;
+            }
+            case 'D': {
+                final double[] d = (double[]) array;
+                for (int r = 0, pos = colOffset; r < nRows; r++, pos += rowSize, arrOffset += size) {
+                    if (size == 1) {
+                        d[arrOffset] = bb.getDouble(pos);
+                    } else {
+                        bb.position(pos);
+                        bb.asDoubleBuffer().get(d, arrOffset, size);
+                    }
+                }
+                break;
+            }
+            case 'C': {
+                final char[] c = (char[]) array;
+                for (int r = 0, pos = colOffset; r < nRows; r++, pos += rowSize, arrOffset += size) {
+                    bb.position(pos);
+                    bb.asCharBuffer().get(c, arrOffset, size);
+                }
+                break;
+            }
+            case 'J': {
+                final long[] l = (long[]) array;
+                for (int r = 0, pos = colOffset; r < nRows; r++, pos += rowSize, arrOffset += size) {
+                    if (size == 1) {
+                        l[arrOffset] = bb.getLong(pos);
+                    } else {
+                        bb.position(pos);
+                        bb.asLongBuffer().get(l, arrOffset, size);
+                    }
+                }
+                break;
+            }
+            case 'Z': {
+                final boolean[] bool = (boolean[]) array;
+                final byte[] block = bb.array();
+                for (int r = 0, pos = colOffset; r < nRows; r++, pos += rowSize) {
+                    for (int i = 0; i < size; i++) {
+                        bool[arrOffset++] = (block[pos + i] == 1);
+                    }
+                }
+                break;
             }
         }
-
-        // All done if we get here...
-        return rowSize * nrow;
     }
 
     /** Write a table.
@@ -0,0 +1,325 @@
+/*
+ * This code is part of the Java FITS library developed 1996-2012 by T.A. McGlynn (NASA/GSFC)
+ * The code is available in the public domain and may be copied, modified and used
+ * by anyone in any fashion for any purpose without restriction.
+ *
+ * No warranty regarding correctness or performance of this code is given or implied.
+ * Users may contact the author if they have questions or concerns.
+ *
+ * The author would like to thank many who have contributed suggestions,
+ * enhancements and bug fixes including:
+ * David Glowacki, R.J. Mathar, Laurent Michel, Guillaume Belanger,
+ * Laurent Bourges, Rose Early, Fred Romelfanger, Jorgo Baker, A. Kovacs, V. Forchi, J.C. Segovia,
+ * Booth Hartley and Jason Weiss.
+ * I apologize to any contributors whose names may have been inadvertently omitted.
+ *
+ *      Tom McGlynn
+ */
+package fr.nom.tam.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** LAURENT : added class
+ * Input stream reading the wrapped stream ahead on a background (daemon) thread
+ * into a bounded ring of buffers, so that a slow source (decompression)
+ * and the consumer (HDU parsing) run concurrently instead of serially.
+ * <p>
+ * Any exception raised by the wrapped stream is rethrown to the consumer
+ * once the data read before the failure is consumed.
+ * <p>
+ * The producer thread only holds a weak reference to this stream and waits
+ * with a timeout: it stops once this stream is closed or if the consumer
+ * drops it without closing it (the wrapped stream is then closed by the producer).
+ */
+public final class ReadAheadInputStream extends InputStream {
+
+    /** Default buffer size (256K) */
+    public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+    /** Default number of buffers in the ring */
+    public static final int DEFAULT_BUFFER_COUNT = 4;
+
+    /** thread counter (names) */
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger(0);
+    /** producer wait timeout (ms) before checking if this stream is closed or unreachable */
+    private static final long WAIT_TIMEOUT = 100L;
+
+    /** The wrapped stream (read by the producer thread only) */
+    private final InputStream in;
+    /** Empty buffers available to the producer */
+    private final BlockingQueue<Block> free;
+    /** Filled buffers available to the consumer */
+    private final BlockingQueue<Block> filled;
+    /** The producer thread */
+    private final Thread producer;
+    /** The current block being consumed or null */
+    private Block current = null;
+    /** Current position in the current block */
+    private int pos = 0;
+    /** True when the end of stream (or failure) was reached */
+    private boolean eof = false;
+    /** Failure of the wrapped stream if any */
+    private IOException failure = null;
+    /** True when closed */
+    private volatile boolean closed = false;
+
+    /** Create a read-ahead stream with default buffers */
+    public ReadAheadInputStream(InputStream in) {
+        this(in, DEFAULT_BUFFER_SIZE, DEFAULT_BUFFER_COUNT);
+    }
+
+    /** Create a read-ahead stream
+     * @param in the stream to read ahead
+     * @param bufferSize size of each buffer
+     * @param bufferCount number of buffers in the ring (at least 2)
+     */
+    public ReadAheadInputStream(InputStream in, int bufferSize, int bufferCount) {
+        this.in = in;
+
+        final int count = Math.max(2, bufferCount);
+        this.free = new ArrayBlockingQueue<Block>(count);
+        // +1 for the end marker:
+        this.filled = new ArrayBlockingQueue<Block>(count + 1);
+
+        for (int i = 0; i < count; i++) {
+            free.add(new Block(new byte[bufferSize]));
+        }
+
+        this.producer = new Thread(new Producer(this),
+                "FitsReadAhead-" + THREAD_COUNT.incrementAndGet());
+        this.producer.setDaemon(true);
+        this.producer.start();
+    }
+
+    /** Get the next filled block if the current one is consumed
+     * @return true if data is available, false at EOF
+     */
+    private boolean nextBlock() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (current != null) {
+            if (pos < current.length) {
+                return true;
+            }
+            // recycle the consumed buffer:
+            free.add(current);
+            current = null;
+        }
+        if (eof) {
+            if (failure != null) {
+                throw failure;
+            }
+            return false;
+        }
+        final Block block;
+        try {
+            block = filled.take();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted read-ahead");
+        }
+        if (block.data == null) {
+            eof = true;
+            failure = block.failure;
+            if (failure != null) {
+                throw failure;
+            }
+            return false;
+        }
+        current = block;
+        pos = 0;
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!nextBlock()) {
+            return -1;
+        }
+        return current.data[pos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextBlock()) {
+            return -1;
+        }
+        final int n = Math.min(len, current.length - pos);
+        System.arraycopy(current.data, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long remaining = n;
+        while ((remaining > 0L) && nextBlock()) {
+            final int len = (int) Math.min(remaining, current.length - pos);
+            pos += len;
+            remaining -= len;
+        }
+        return n - remaining;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (!closed && (current != null)) ? current.length - pos : 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            producer.interrupt();
+            try {
+                producer.join();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            in.close();
+        }
+    }
+
+    /** Producer loop: fill free buffers until the end of the wrapped stream
+     * (static class holding the stream weakly so an unclosed stream can be garbage collected)
+     */
+    private static final class Producer implements Runnable {
+
+        /** The wrapped stream */
+        private final InputStream in;
+        /** Empty buffers available to the producer */
+        private final BlockingQueue<Block> free;
+        /** Filled buffers available to the consumer */
+        private final BlockingQueue<Block> filled;
+        /** The read-ahead stream (weak reference) */
+        private final WeakReference<ReadAheadInputStream> owner;
+
+        Producer(final ReadAheadInputStream stream) {
+            this.in = stream.in;
+            this.free = stream.free;
+            this.filled = stream.filled;
+            this.owner = new WeakReference<ReadAheadInputStream>(stream);
+        }
+
+        @Override
+        public void run() {
+            Block end = Block.END;
+            try {
+                while (true) {
+                    final Block block = takeFree();
+                    if (block == null) {
+                        // closed or abandoned
+                        return;
+                    }
+                    final byte[] buf = block.data;
+
+                    // fill the complete buffer (except at EOF):
+                    int n = 0;
+                    while (n < buf.length) {
+                        final int len = in.read(buf, n, buf.length - n);
+                        if (len < 0) {
+                            break;
+                        }
+                        n += len;
+                    }
+                    if (n > 0) {
+                        block.length = n;
+                        if (!putFilled(block)) {
+                            return;
+                        }
+                    }
+                    if (n < buf.length) {
+                        break;
+                    }
+                }
+            } catch (InterruptedException ie) {
+                // closed
+                return;
+            } catch (IOException ioe) {
+                end = new Block(ioe);
+            } catch (RuntimeException re) {
+                end = new Block(new IOException("Read-ahead failure", re));
+            }
+            try {
+                putFilled(end);
+            } catch (InterruptedException ie) {
+                // closed
+            }
+        }
+
+        /** Wait for an empty buffer
+         * @return empty buffer or null if the stream is closed or abandoned
+         */
+        private Block takeFree() throws InterruptedException {
+            Block block;
+            while ((block = free.poll(WAIT_TIMEOUT, TimeUnit.MILLISECONDS)) == null) {
+                if (isStopped()) {
+                    return null;
+                }
+            }
+            return block;
+        }
+
+        /** Wait until the given block is queued for the consumer
+         * @param block filled block or end marker
+         * @return true if queued, false if the stream is closed or abandoned
+         */
+        private boolean putFilled(final Block block) throws InterruptedException {
+            while (!filled.offer(block, WAIT_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                if (isStopped()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** @return true if the stream is closed or abandoned (then closes the wrapped stream) */
+        private boolean isStopped() {
+            final ReadAheadInputStream stream = owner.get();
+            if (stream == null) {
+                // abandoned without close(): release the wrapped stream
+                try {
+                    in.close();
+                } catch (IOException ioe) {
+                    // ignore
+                }
+                return true;
+            }
+            return stream.closed;
+        }
+    }
+
+    /** Buffer (or end marker) exchanged between the producer and the consumer */
+    private static final class Block {
+
+        /** end of stream marker */
+        static final Block END = new Block((IOException) null);
+
+        /** buffer (null for end markers) */
+        final byte[] data;
+        /** number of valid bytes */
+        int length = 0;
+        /** failure of the wrapped stream (end marker) */
+        final IOException failure;
+
+        Block(byte[] data) {
+            this.data = data;
+            this.failure = null;
+        }
+
+        Block(IOException failure) {
+            this.data = null;
+            this.failure = failure;
+        }
+    }
+}
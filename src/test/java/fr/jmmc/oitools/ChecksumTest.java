@@ -0,0 +1,90 @@
+/* 
+ * Copyright (C) 2026 CNRS - JMMC project ( http://www.jmmc.fr )
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.jmmc.oitools;
+
+import fr.jmmc.oitools.fits.ChecksumHelper;
+import fr.jmmc.oitools.model.OIFitsLoader;
+import fr.nom.tam.fits.BasicHDU;
+import fr.nom.tam.fits.Fits;
+import fr.nom.tam.fits.FitsException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Compare the checksums computed while reading the OIFits files from the test/oifits folder
+ * (ChecksumHelper.openDigestStream / completeChecksum) with the checksums computed on the complete files.
+ */
+public class ChecksumTest extends JUnitBaseTest {
+
+    @Test
+    public void compareStreamedChecksums() throws IOException, FitsException {
+        for (String pathFile : getFitsFiles(new File(TEST_DIR_OIFITS))) {
+            final File file = new File(pathFile);
+            final String md5sum = ChecksumHelper.computeMD5(file);
+
+            final BasicHDU[] hdus = new Fits(file).read();
+
+            final MessageDigest digest = ChecksumHelper.getDigest(ChecksumHelper.ALGORITHM_MD5);
+            final InputStream in = ChecksumHelper.openDigestStream(file, digest);
+            try {
+                final BasicHDU[] streamedHdus = new Fits(in).read();
+
+                Assert.assertEquals(pathFile, md5sum, ChecksumHelper.completeChecksum(in, digest));
+
+                // FITS checksums (header + data) of every HDU:
+                Assert.assertEquals(pathFile, hdus.length, streamedHdus.length);
+                for (int i = 0; i < hdus.length; i++) {
+                    Assert.assertEquals(pathFile + "#" + i,
+                            ChecksumHelper.updateChecksum(hdus[i]), ChecksumHelper.updateChecksum(streamedHdus[i]));
+                }
+            } finally {
+                in.close();
+            }
+        }
+    }
+
+    @Test
+    public void compareSkippedChecksum() throws IOException {
+        final String pathFile = getFitsFiles(new File(TEST_DIR_OIFITS)).get(0);
+        final File file = new File(pathFile);
+
+        final MessageDigest digest = ChecksumHelper.getDigest(ChecksumHelper.ALGORITHM_MD5);
+        final InputStream in = ChecksumHelper.openDigestStream(file, digest);
+        try {
+            // skipped bytes are digested too:
+            Assert.assertEquals(pathFile, 2880, in.read(new byte[2880]));
+            Assert.assertEquals(pathFile, 2880, in.skip(2880));
+
+            Assert.assertEquals(pathFile, ChecksumHelper.computeMD5(file), ChecksumHelper.completeChecksum(in, digest));
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void compareLoaderChecksum() throws IOException, FitsException {
+        for (String pathFile : getFitsFiles(new File(TEST_DIR_OIFITS))) {
+            // md5sum computed while reading the file:
+            Assert.assertEquals(pathFile, ChecksumHelper.computeMD5(new File(pathFile)),
+                    OIFitsLoader.loadOIFits(null, pathFile, true).getMd5sum());
+        }
+    }
+}
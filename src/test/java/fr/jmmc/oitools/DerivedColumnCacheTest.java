@@ -0,0 +1,106 @@
+/* 
+ * Copyright (C) 2026 CNRS - JMMC project ( http://www.jmmc.fr )
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.jmmc.oitools;
+
+import fr.jmmc.oitools.fits.DerivedColumnCache;
+import fr.jmmc.oitools.model.OIData;
+import fr.jmmc.oitools.model.OIFitsFile;
+import fr.jmmc.oitools.model.OIFitsLoader;
+import fr.nom.tam.fits.FitsException;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+import org.junit.Test;
+
+/**
+ * Load OIFits files from the test/oifits folder and compare the derived columns
+ * computed without and with a small byte budget for the DerivedColumnCache (eviction).
+ */
+public class DerivedColumnCacheTest extends JUnitBaseTest {
+
+    /** small byte budget to force evictions */
+    private final static long MAX_BYTES = 64 * 1024L;
+
+    @Test
+    public void compareEvictedDerivedColumns() throws IOException, FitsException {
+        final DerivedColumnCache cache = DerivedColumnCache.getInstance();
+        final long maxBytes = cache.getMaxBytes();
+        try {
+            cache.setMaxBytes(0L);
+
+            final List<OIFitsFile> refFiles = new ArrayList<OIFitsFile>();
+            final List<OIFitsFile> files = new ArrayList<OIFitsFile>();
+
+            for (String pathFile : getFitsFiles(new File(TEST_DIR_OIFITS))) {
+                final OIFitsFile oiFitsFile = OIFitsLoader.loadOIFits(pathFile);
+                for (OIData oiData : oiFitsFile.getOiDataList()) {
+                    computeDerivedColumns(oiData);
+                }
+                refFiles.add(oiFitsFile);
+            }
+
+            cache.setMaxBytes(MAX_BYTES);
+            cache.resetStatistics();
+
+            for (String pathFile : getFitsFiles(new File(TEST_DIR_OIFITS))) {
+                files.add(OIFitsLoader.loadOIFits(pathFile));
+            }
+
+            // access derived columns twice across all tables:
+            for (int pass = 0; pass < 2; pass++) {
+                for (int i = 0; i < files.size(); i++) {
+                    final List<OIData> refDatas = refFiles.get(i).getOiDataList();
+                    final List<OIData> oiDatas = files.get(i).getOiDataList();
+
+                    for (int j = 0; j < oiDatas.size(); j++) {
+                        final OIData refData = refDatas.get(j);
+                        final OIData oiData = oiDatas.get(j);
+
+                        if (!Arrays.deepEquals(refData.getSpatialFreq(), oiData.getSpatialFreq())
+                                || !Arrays.equals(refData.getRadius(), oiData.getRadius())
+                                || !Arrays.equals(refData.getPosAngle(), oiData.getPosAngle())
+                                || !Arrays.equals(refData.getHourAngle(), oiData.getHourAngle())
+                                || !Arrays.equals(refData.getNightId(), oiData.getNightId())) {
+                            fail("Error derived columns: " + oiData.idToString());
+                        }
+                    }
+                    assertTrue("bytes > maxBytes: " + cache, (cache.getBytes() <= MAX_BYTES) || (cache.getSize() <= 1));
+                }
+            }
+
+            logger.info("compareEvictedDerivedColumns: " + cache);
+
+            assertTrue("no eviction: " + cache, cache.getEvictions() > 0L);
+            assertTrue("no hit: " + cache, cache.getHits() > 0L);
+            assertTrue("no miss: " + cache, cache.getMisses() > 0L);
+        } finally {
+            cache.setMaxBytes(maxBytes);
+        }
+    }
+
+    private static void computeDerivedColumns(final OIData oiData) {
+        oiData.getSpatialFreq();
+        oiData.getRadius();
+        oiData.getPosAngle();
+        oiData.getHourAngle();
+        oiData.getNightId();
+    }
+}
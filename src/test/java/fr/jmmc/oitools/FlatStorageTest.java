@@ -0,0 +1,300 @@
+/* 
+ * Copyright (C) 2026 CNRS - JMMC project ( http://www.jmmc.fr )
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.jmmc.oitools;
+
+import fr.jmmc.oitools.fits.FitsConstants;
+import fr.jmmc.oitools.fits.FitsTable;
+import fr.jmmc.oitools.meta.ColumnMeta;
+import fr.jmmc.oitools.meta.Types;
+import fr.jmmc.oitools.model.OIData;
+import fr.jmmc.oitools.model.OIFitsChecker;
+import fr.jmmc.oitools.model.OIFitsFile;
+import fr.jmmc.oitools.model.OIFitsLoader;
+import fr.jmmc.oitools.test.OITableUtils;
+import fr.jmmc.oitools.util.BooleanArray2D;
+import fr.jmmc.oitools.util.DoubleArray2D;
+import fr.nom.tam.fits.BasicHDU;
+import fr.nom.tam.fits.BinaryTable;
+import fr.nom.tam.fits.BinaryTableHDU;
+import fr.nom.tam.fits.Fits;
+import fr.nom.tam.fits.FitsException;
+import fr.nom.tam.fits.HeaderCard;
+import fr.nom.tam.util.ArrayFuncs;
+import fr.nom.tam.util.BufferedFile;
+import fr.nom.tam.util.Cursor;
+import java.io.File;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.regex.Pattern;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+import org.junit.Test;
+
+/**
+ * Load OIFits files from the test/oifits folder with and without the flat (native float or packed flag) column storage
+ * and compare the column views, validation reports and loaded structures.
+ */
+public class FlatStorageTest extends JUnitBaseTest {
+
+    /** OIFits file whose OI_VIS2 columns are converted to single-precision columns */
+    private static final String INPUT_FILE_NAME = "GRAVITY.2016-01-09T05-37-06_singlesci_calibrated.fits";
+
+    @Test
+    public void compareFlatStorage() throws IOException, FitsException {
+        for (String pathFile : getFitsFiles(new File(TEST_DIR_OIFITS))) {
+            compareStorage(pathFile, true, false, false);
+        }
+    }
+
+    @Test
+    public void compareNativeStorage() throws IOException, FitsException {
+        final String pathFile = TEST_DIR_TEST + "float-" + INPUT_FILE_NAME;
+        writeFloatColumns(TEST_DIR_OIFITS + INPUT_FILE_NAME, pathFile,
+                OIFitsConstants.COLUMN_VIS2DATA, OIFitsConstants.COLUMN_VIS2ERR);
+
+        assertEquals(0, compareStorage(pathFile, false, false, false));
+        assertEquals(2 * 2, compareStorage(pathFile, false, true, false));
+        assertEquals(2 * 2, compareStorage(pathFile, true, true, false));
+
+        for (String otherFile : getFitsFiles(new File(TEST_DIR_OIFITS))) {
+            compareStorage(otherFile, true, true, false);
+        }
+    }
+
+    @Test
+    public void comparePackedStorage() throws IOException, FitsException {
+        for (String pathFile : getFitsFiles(new File(TEST_DIR_OIFITS))) {
+            compareStorage(pathFile, false, false, true);
+            compareStorage(pathFile, true, true, true);
+        }
+    }
+
+    @Test
+    public void testBooleanArray2D() {
+        final int nRows = 5, nCols = 130;
+        final boolean[][] values = new boolean[nRows][nCols];
+        final boolean[] flat = new boolean[nRows * nCols];
+        int count = 0;
+        for (int i = 0; i < nRows; i++) {
+            for (int j = 0; j < nCols; j++) {
+                if (((i * 7 + j * 13) % 5 == 0) || (j == 63) || (j == 64) || (j == nCols - 1)) {
+                    values[i][j] = true;
+                    flat[i * nCols + j] = true;
+                    count++;
+                }
+            }
+        }
+        final BooleanArray2D packed = BooleanArray2D.pack(flat, nRows, nCols);
+        final BooleanArray2D jagged = BooleanArray2D.wrap(values);
+
+        assertTrue(packed.isFlat());
+        assertEquals(count, packed.cardinality());
+        assertEquals(count, jagged.cardinality());
+        assertEquals(count, BooleanArray2D.pack(values).cardinality());
+
+        for (int i = 0; i < nRows; i++) {
+            assertEquals(jagged.cardinality(i), packed.cardinality(i));
+            for (int k = 0; k < packed.getNbWords(); k++) {
+                assertEquals(jagged.getWord(i, k), packed.getWord(i, k));
+            }
+            for (int j = 0; j < nCols; j++) {
+                assertEquals(values[i][j], packed.get(i, j));
+            }
+        }
+
+        final BitSet maskRows = new BitSet();
+        maskRows.set(1);
+        maskRows.set(3);
+        final BitSet maskCols = new BitSet();
+        maskCols.set(0, 10);
+        maskCols.set(63, 66);
+
+        final BooleanArray2D filtered = packed.filter(maskRows, 2, maskCols, 13);
+        assertEquals(2, filtered.getNbRows());
+        assertEquals(13, filtered.getNbCols());
+        for (int j = 0, c = maskCols.nextSetBit(0); c >= 0; j++, c = maskCols.nextSetBit(c + 1)) {
+            assertEquals(values[1][c], filtered.get(0, j));
+            assertEquals(values[3][c], filtered.get(1, j));
+        }
+
+        final BooleanArray2D copy = packed.copy();
+        copy.set(0, 64, false);
+        copy.set(0, 65, true);
+        assertTrue(packed.get(0, 64));
+        assertEquals(values[0][65], packed.get(0, 65));
+
+        // unaligned word extraction:
+        final BitSet bits = new BitSet();
+        bits.set(60, 70);
+        assertEquals(0x3FFL, BooleanArray2D.getWord(bits.toLongArray(), 60));
+        assertEquals(0L, BooleanArray2D.getWord(bits.toLongArray(), 128));
+        assertEquals(0x3L, BooleanArray2D.getLastWordMask(nCols));
+    }
+
+    /**
+     * Load the given file with the default storage and the given storage modes and compare the results
+     * @param pathFile file to load
+     * @param flatStorage true to enable the flat storage
+     * @param nativeStorage true to enable the native float storage
+     * @param packedStorage true to enable the packed flag storage
+     * @return number of columns stored as float values
+     */
+    private static int compareStorage(final String pathFile, final boolean flatStorage, final boolean nativeStorage,
+                                      final boolean packedStorage) throws IOException, FitsException {
+        final boolean flat = FitsTable.isFlatStorage();
+        final boolean nativeFloat = FitsTable.isNativeStorage();
+        final boolean packed = FitsTable.isPackedStorage();
+        int nFloat = 0;
+        try {
+            FitsTable.setFlatStorage(false);
+            FitsTable.setNativeStorage(false);
+            FitsTable.setPackedStorage(false);
+            final OIFitsChecker srcChecker = new OIFitsChecker();
+            final OIFitsFile srcOIFitsFile = OIFitsLoader.loadOIFits(srcChecker, pathFile);
+
+            FitsTable.setFlatStorage(flatStorage);
+            FitsTable.setNativeStorage(nativeStorage);
+            FitsTable.setPackedStorage(packedStorage);
+            final OIFitsChecker destChecker = new OIFitsChecker();
+            final OIFitsFile destOIFitsFile = OIFitsLoader.loadOIFits(destChecker, pathFile);
+
+            assertEquals("check report: " + pathFile, srcChecker.getCheckReport(), destChecker.getCheckReport());
+
+            final OIData[] srcDatas = srcOIFitsFile.getOiDatas();
+            final OIData[] destDatas = destOIFitsFile.getOiDatas();
+            assertEquals(srcDatas.length, destDatas.length);
+
+            for (int i = 0; i < srcDatas.length; i++) {
+                if (destDatas[i].getFlag2D() != null) {
+                    if (packedStorage) {
+                        assertTrue("FLAG not packed: " + pathFile, destDatas[i].isColumnFlat(OIFitsConstants.COLUMN_FLAG));
+                    }
+                    compareFlags(pathFile, srcDatas[i], destDatas[i]);
+                }
+                int nFlat = 0;
+                for (ColumnMeta column : destDatas[i].getColumnDescCollection()) {
+                    if (destDatas[i].isColumnFlat(column.getName()) && (column.getDataType() == Types.TYPE_DBL)) {
+                        if (destDatas[i].getColumnAsDoubles2D(column.getName()).isFloat()) {
+                            nFloat++;
+                        }
+                        compareColumn(pathFile, column.getName(), srcDatas[i], destDatas[i]);
+                        nFlat++;
+                    }
+                }
+                if (flatStorage && (destDatas[i].getNbRows() != 0)) {
+                    assertTrue("no flat column: " + pathFile, nFlat != 0);
+                }
+                if (destDatas[i].getColumnDerivedDesc(OIFitsConstants.COLUMN_SPATIAL_FREQ) != null) {
+                    compareColumn(pathFile, OIFitsConstants.COLUMN_SPATIAL_FREQ, srcDatas[i], destDatas[i]);
+                }
+            }
+
+            if (!OITableUtils.compareOIFitsFile(srcOIFitsFile, destOIFitsFile)) {
+                fail("Error compareOIFitsFile: " + pathFile);
+            }
+        } finally {
+            FitsTable.setFlatStorage(flat);
+            FitsTable.setNativeStorage(nativeFloat);
+            FitsTable.setPackedStorage(packed);
+        }
+        return nFloat;
+    }
+
+    /**
+     * Copy the given fits file converting the given columns of OI_VIS2 tables to single-precision columns
+     * @param srcFile source file
+     * @param destFile destination file
+     * @param columnNames columns to convert
+     */
+    private static void writeFloatColumns(final String srcFile, final String destFile, final String... columnNames) throws IOException, FitsException {
+        final Fits fits = new Fits();
+
+        for (BasicHDU hdu : new Fits(srcFile).read()) {
+            if ((hdu instanceof BinaryTableHDU) && OIFitsConstants.TABLE_OI_VIS2.equals(hdu.getTrimmedString(FitsConstants.KEYWORD_EXT_NAME))) {
+                final BinaryTableHDU table = (BinaryTableHDU) hdu;
+                final int nCols = table.getNCols();
+                final Object[] columns = table.getColumns();
+
+                for (String name : columnNames) {
+                    final int idx = table.findColumn(name);
+                    columns[idx] = ArrayFuncs.convertArray(columns[idx], float.class);
+                }
+
+                final BinaryTable data = new BinaryTable(columns);
+                final BinaryTableHDU floatTable = new BinaryTableHDU(BinaryTableHDU.manufactureHeader(data), data);
+
+                for (int i = 0; i < nCols; i++) {
+                    floatTable.setColumnName(i, table.getColumnName(i), null, table.getColumnUnit(i));
+                }
+                // copy other keywords:
+                for (Cursor it = table.getHeader().iterator(); it.hasNext();) {
+                    final HeaderCard card = (HeaderCard) it.next();
+                    if (!STRUCTURE_KEYWORDS.matcher(card.getKey()).matches()) {
+                        floatTable.getHeader().addLine(card);
+                    }
+                }
+                hdu = floatTable;
+            }
+            fits.addHDU(hdu);
+        }
+
+        final BufferedFile bf = new BufferedFile(destFile, "rw");
+        try {
+            fits.write(bf);
+        } finally {
+            bf.close();
+        }
+    }
+
+    /** keywords managed by the binary table header */
+    private static final Pattern STRUCTURE_KEYWORDS
+            = Pattern.compile("XTENSION|BITPIX|NAXIS\\d*|PCOUNT|GCOUNT|TFIELDS|TFORM\\d+|TTYPE\\d+|TUNIT\\d+|TDIM\\d+|END|");
+
+    private static void compareFlags(final String pathFile, final OIData src, final OIData dest) {
+        final BooleanArray2D srcFlags = src.getFlag2D();
+        final BooleanArray2D destFlags = dest.getFlag2D();
+
+        assertEquals("FLAG: " + pathFile, srcFlags.getNbRows(), destFlags.getNbRows());
+        assertEquals("FLAG: " + pathFile, srcFlags.getNbCols(), destFlags.getNbCols());
+        assertEquals("FLAG: " + pathFile, srcFlags.cardinality(), destFlags.cardinality());
+
+        for (int r = 0; r < srcFlags.getNbRows(); r++) {
+            for (int k = 0; k < srcFlags.getNbWords(); k++) {
+                if (srcFlags.getWord(r, k) != destFlags.getWord(r, k)) {
+                    fail("FLAG[" + r + "] differs: " + pathFile);
+                }
+            }
+        }
+    }
+
+    private static void compareColumn(final String pathFile, final String name, final OIData src, final OIData dest) {
+        final DoubleArray2D srcValues = src.getColumnAsDoubles2D(name);
+        final DoubleArray2D destValues = dest.getColumnAsDoubles2D(name);
+
+        assertEquals(name + ": " + pathFile, srcValues.getNbRows(), destValues.getNbRows());
+        assertEquals(name + ": " + pathFile, srcValues.getNbCols(), destValues.getNbCols());
+
+        for (int r = 0; r < srcValues.getNbRows(); r++) {
+            for (int c = 0; c < srcValues.getNbCols(); c++) {
+                if (Double.compare(srcValues.get(r, c), destValues.get(r, c)) != 0) {
+                    fail(name + "[" + r + "][" + c + "] differs: " + pathFile);
+                }
+            }
+        }
+    }
+}
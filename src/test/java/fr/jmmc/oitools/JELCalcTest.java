@@ -23,11 +23,28 @@ package fr.jmmc.oitools;
  * Basic test for the gnu JEL (Expression evaluator)
  * @author bourgesl / grosje
  */
+import fr.jmmc.oitools.model.ExpressionEvaluator;
+import fr.jmmc.oitools.model.JELEval;
+import fr.jmmc.oitools.model.OIData;
+import fr.jmmc.oitools.model.OIDataListHelper;
+import fr.jmmc.oitools.model.OIFitsCollection;
+import fr.jmmc.oitools.model.OIFitsFile;
+import fr.jmmc.oitools.model.OIFitsLoader;
+import fr.jmmc.oitools.model.range.Range;
+import fr.jmmc.oitools.processing.Selector;
+import fr.jmmc.oitools.processing.SelectorResult;
+import fr.nom.tam.fits.FitsException;
 import gnu.jel.CompilationException;
 import gnu.jel.CompiledExpression;
 import gnu.jel.DVMap;
 import gnu.jel.Evaluator;
 import gnu.jel.Library;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -114,6 +131,166 @@ public class JELCalcTest extends JUnitBaseTest {
         }
     }
 
+    @Test
+    public void testCompiledExpressionCache() throws IOException, FitsException {
+        final String name = "SEC_2000";
+        final String expr = "(MJD - 51544.5) * 86400.0";
+
+        final OIFitsFile oiFitsFile = OIFitsLoader.loadOIFits(TEST_DIR_OIFITS + "GRAVITY.2016-01-09T05-37-06_singlesci_calibrated.fits");
+        final OIData[] oiDatas = oiFitsFile.getOiDatas();
+
+        JELEval.clearCache();
+        final long start = JELEval.getCompilationCount();
+
+        for (int pass = 0; pass < 2; pass++) {
+            for (OIData oiData : oiDatas) {
+                oiData.checkExpression(name, expr);
+                oiData.updateExpressionColumn(name, expr);
+
+                final double[][] values = oiData.getColumnDerivedDoubles(name);
+                final double[] mjds = oiData.getMJD();
+
+                for (int i = 0; i < oiData.getNbRows(); i++) {
+                    Assert.assertEquals((mjds[i] - 51544.5) * 86400.0, values[i][0], 0.0);
+                }
+            }
+        }
+        final long nCompilations = JELEval.getCompilationCount() - start;
+
+        logger.log(Level.INFO, "compilations: {0} for {1} evaluations", new Object[]{nCompilations, 2 * 2 * oiDatas.length});
+
+        // at most 2 compilations (check and update) per distinct set of input columns:
+        Assert.assertTrue(nCompilations <= 2 * 4);
+        Assert.assertTrue(nCompilations < 2 * 2 * oiDatas.length);
+    }
+
+    @Test
+    public void testExpressionColumns() throws IOException, FitsException {
+        final OIFitsFile oiFitsFile = OIFitsLoader.loadOIFits(TEST_DIR_OIFITS + "GRAVITY.2016-01-09T05-37-06_singlesci_calibrated.fits");
+
+        for (OIData oiData : oiFitsFile.getOiVis2()) {
+            // 1D expression (evaluated once per row):
+            final double[][] values1D = ExpressionEvaluator.getInstance().eval(oiData, "X1", "UCOORD * 2.0 + MJD", false);
+            // 2D expression:
+            final double[][] values2D = ExpressionEvaluator.getInstance().eval(oiData, "X2", "VIS2DATA / VIS2ERR + VCOORD", false);
+
+            final double[] ucoords = oiData.getColumnAsDouble(OIFitsConstants.COLUMN_UCOORD);
+            final double[] vcoords = oiData.getColumnAsDouble(OIFitsConstants.COLUMN_VCOORD);
+            final double[] mjds = oiData.getMJD();
+            final double[][] vis2Data = oiData.getColumnAsDoubles(OIFitsConstants.COLUMN_VIS2DATA);
+            final double[][] vis2Err = oiData.getColumnAsDoubles(OIFitsConstants.COLUMN_VIS2ERR);
+
+            for (int i = 0; i < oiData.getNbRows(); i++) {
+                for (int j = 0; j < oiData.getNWave(); j++) {
+                    Assert.assertEquals(ucoords[i] * 2.0 + mjds[i], values1D[i][j], 0.0);
+                    Assert.assertEquals(vis2Data[i][j] / vis2Err[i][j] + vcoords[i], values2D[i][j], 0.0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testStateDependentExpression() throws IOException, FitsException {
+        final OIFitsFile oiFitsFile = OIFitsLoader.loadOIFits(TEST_DIR_OIFITS + "GRAVITY.2016-01-09T05-37-06_singlesci_calibrated.fits");
+
+        for (OIData oiData : oiFitsFile.getOiVis2()) {
+            // 1D expression using random() (evaluated for every cell):
+            final double[][] values = ExpressionEvaluator.getInstance().eval(oiData, "X", "UCOORD + random()", false);
+
+            final double[] ucoords = oiData.getColumnAsDouble(OIFitsConstants.COLUMN_UCOORD);
+
+            for (int i = 0; i < oiData.getNbRows(); i++) {
+                int nDistinct = 0;
+                for (int j = 0; j < oiData.getNWave(); j++) {
+                    Assert.assertTrue(values[i][j] >= ucoords[i] && values[i][j] < ucoords[i] + 1.0);
+                    if (values[i][j] != values[i][0]) {
+                        nDistinct++;
+                    }
+                }
+                Assert.assertTrue(nDistinct != 0);
+            }
+        }
+    }
+
+    @Test
+    public void testParallelEvaluation() throws IOException, FitsException {
+        final OIFitsFile oiFitsFile = OIFitsLoader.loadOIFits(TEST_DIR_OIFITS + "GRAVITY.2016-01-09T05-37-06_singlesci_calibrated.fits");
+
+        final String[] expressions = new String[]{"UCOORD * 2.0 + MJD", "VIS2DATA / VIS2ERR + VCOORD"};
+
+        final int threshold = JELEval.getParallelThreshold();
+        try {
+            for (OIData oiData : oiFitsFile.getOiVis2()) {
+                for (String expression : expressions) {
+                    // sequential:
+                    JELEval.setParallelThreshold(0);
+                    final double[][] expected = ExpressionEvaluator.getInstance().eval(oiData, "X", expression, false);
+
+                    // parallel (split rows as much as possible):
+                    JELEval.setParallelThreshold(1);
+                    final double[][] values = ExpressionEvaluator.getInstance().eval(oiData, "X", expression, false);
+
+                    Assert.assertEquals(expected.length, values.length);
+                    for (int i = 0; i < expected.length; i++) {
+                        Assert.assertArrayEquals(expected[i], values[i], 0.0);
+                    }
+                }
+            }
+        } finally {
+            JELEval.setParallelThreshold(threshold);
+        }
+    }
+
+    @Test
+    public void testBatchExpressionColumns() throws IOException, FitsException {
+        final OIFitsFile oiFitsFile = OIFitsLoader.loadOIFits(TEST_DIR_OIFITS + "GRAVITY.2016-01-09T05-37-06_singlesci_calibrated.fits");
+        final OIFitsCollection oiFitsCollection = OIFitsCollection.create(oiFitsFile);
+
+        // chained expressions given in reverse order:
+        final Map<String, String> expressions = new LinkedHashMap<String, String>();
+        expressions.put("C_EXPR", "b_expr + a_expr");
+        expressions.put("B_EXPR", "A_EXPR * 2.0");
+        expressions.put("A_EXPR", "MJD + EFF_WAVE");
+
+        Assert.assertEquals(Arrays.asList("A_EXPR", "B_EXPR", "C_EXPR"), OIDataListHelper.sortExpressionColumns(expressions));
+
+        oiFitsCollection.updateExpressionColumns(expressions, 4);
+
+        for (OIData oiData : oiFitsCollection.getAllOiDatas()) {
+            final double[] mjds = oiData.getMJD();
+            final double[][] effWaves = oiData.getEffWaveAsDoubles();
+            final double[][] values = oiData.getColumnAsDoubles("C_EXPR");
+
+            Assert.assertNotNull(values);
+
+            for (int i = 0; i < oiData.getNbRows(); i++) {
+                for (int j = 0; j < oiData.getNWave(); j++) {
+                    final double a = mjds[i] + effWaves[i][j];
+                    Assert.assertEquals(a * 2.0 + a, values[i][j], 0.0);
+                }
+            }
+        }
+
+        // update from a selector result resets the collection ranges:
+        final Range range = oiFitsCollection.getColumnRange("A_EXPR");
+        Assert.assertTrue(range.isFinite());
+
+        final SelectorResult selectorResult = oiFitsCollection.findOIData(new Selector());
+        selectorResult.updateExpressionColumns(Collections.singletonMap("A_EXPR", "MJD + EFF_WAVE + 1000.0"), 4);
+
+        Assert.assertEquals(range.getMin() + 1000.0, oiFitsCollection.getColumnRange("A_EXPR").getMin(), 1e-6);
+        Assert.assertEquals(range.getMax() + 1000.0, oiFitsCollection.getColumnRange("A_EXPR").getMax(), 1e-6);
+
+        // cyclic dependencies:
+        expressions.put("A_EXPR", "C_EXPR - 1.0");
+        try {
+            oiFitsCollection.updateExpressionColumns(expressions, 4);
+            Assert.fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException iae) {
+            logger.log(Level.INFO, "expected failure: {0}", iae.getMessage());
+        }
+    }
+
     public static final class VariableProvider extends DVMap {
 
         double x;
@@ -0,0 +1,122 @@
+/* 
+ * Copyright (C) 2026 CNRS - JMMC project ( http://www.jmmc.fr )
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.jmmc.oitools;
+
+import fr.jmmc.oitools.fits.FitsTable;
+import fr.jmmc.oitools.meta.ColumnMeta;
+import fr.jmmc.oitools.model.OIFitsChecker;
+import fr.jmmc.oitools.model.OIFitsFile;
+import fr.jmmc.oitools.model.OIFitsLoader;
+import fr.jmmc.oitools.test.OITableUtils;
+import fr.nom.tam.fits.FitsException;
+import java.io.File;
+import java.io.IOException;
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+import org.junit.Test;
+
+/**
+ * Load OIFits files from the test/oifits folder in both complete and lazy modes
+ * and compare the loaded structures.
+ */
+public class LazyLoadTest extends JUnitBaseTest {
+
+    private final static String GRAVITY_FILE = "GRAVITY.2016-01-09T05-37-06_singlesci_calibrated.fits";
+
+    @Test
+    public void compareLazyLoad() throws IOException, FitsException {
+        final boolean lazy = OIFitsLoader.isLazyLoading();
+        try {
+            for (String pathFile : getFitsFiles(new File(TEST_DIR_OIFITS))) {
+                OIFitsLoader.setLazyLoading(false);
+                final OIFitsFile srcOIFitsFile = OIFitsLoader.loadOIFits(pathFile);
+
+                OIFitsLoader.setLazyLoading(true);
+                final OIFitsFile destOIFitsFile = OIFitsLoader.loadOIFits(pathFile);
+
+                if (!OITableUtils.compareOIFitsFile(srcOIFitsFile, destOIFitsFile)) {
+                    fail("Error compareOIFitsFile: " + pathFile);
+                }
+            }
+        } finally {
+            OIFitsLoader.setLazyLoading(lazy);
+        }
+    }
+
+    @Test
+    public void compareLazyLoadReport() throws IOException, FitsException {
+        final boolean lazy = OIFitsLoader.isLazyLoading();
+        try {
+            int nDeferred = 0;
+
+            for (String pathFile : getFitsFiles(new File(TEST_DIR_OIFITS))) {
+                OIFitsLoader.setLazyLoading(false);
+                final OIFitsFile srcOIFitsFile = OIFitsLoader.loadOIFits(new OIFitsChecker(), pathFile);
+
+                OIFitsLoader.setLazyLoading(true);
+                final OIFitsFile destOIFitsFile = OIFitsLoader.loadOIFits(new OIFitsChecker(), pathFile);
+
+                // deferred columns stay deferred after loading (only their format is validated):
+                final int nFileDeferred = getDeferredColumnCount(destOIFitsFile);
+                if (pathFile.endsWith(GRAVITY_FILE)) {
+                    assertTrue(pathFile, nFileDeferred != 0);
+                }
+                nDeferred += nFileDeferred;
+
+                // explicit validation loads and checks deferred columns:
+                final OIFitsChecker srcChecker = new OIFitsChecker();
+                srcOIFitsFile.check(srcChecker);
+
+                final OIFitsChecker destChecker = new OIFitsChecker();
+                destOIFitsFile.check(destChecker);
+
+                assertEquals(pathFile, 0, getDeferredColumnCount(destOIFitsFile));
+                assertEquals(pathFile, srcChecker.getFailuresAsString(), destChecker.getFailuresAsString());
+            }
+            assertTrue(nDeferred != 0);
+        } finally {
+            OIFitsLoader.setLazyLoading(lazy);
+        }
+    }
+
+    @Test
+    public void checkLazyLoadDefaultChecker() throws IOException, FitsException {
+        final boolean lazy = OIFitsLoader.isLazyLoading();
+        try {
+            OIFitsLoader.setLazyLoading(true);
+            // default checker (enabled) used by the loader:
+            final OIFitsFile oiFitsFile = OIFitsLoader.loadOIFits(TEST_DIR_OIFITS + GRAVITY_FILE);
+
+            assertTrue(getDeferredColumnCount(oiFitsFile) != 0);
+        } finally {
+            OIFitsLoader.setLazyLoading(lazy);
+        }
+    }
+
+    private static int getDeferredColumnCount(final OIFitsFile oiFitsFile) {
+        int nDeferred = 0;
+        for (FitsTable table : oiFitsFile.getOITableList()) {
+            for (ColumnMeta column : table.getColumnDescCollection()) {
+                if (table.isColumnDeferred(column.getName())) {
+                    nDeferred++;
+                }
+            }
+        }
+        return nDeferred;
+    }
+}
@@ -0,0 +1,159 @@
+/* 
+ * Copyright (C) 2026 CNRS - JMMC project ( http://www.jmmc.fr )
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.jmmc.oitools;
+
+import fr.jmmc.oitools.fits.FitsConstants;
+import fr.jmmc.oitools.model.OIData;
+import fr.jmmc.oitools.model.OIDataChunkReader;
+import fr.jmmc.oitools.model.OIFitsFile;
+import fr.jmmc.oitools.model.OIFitsLoader;
+import fr.jmmc.oitools.model.OIVis2;
+import fr.nom.tam.fits.BinaryTable;
+import fr.nom.tam.fits.BinaryTableHDU;
+import fr.nom.tam.fits.Fits;
+import fr.nom.tam.fits.FitsException;
+import fr.nom.tam.util.BufferedFile;
+import java.io.File;
+import java.io.IOException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Read the OI data tables of OIFits files from the test/oifits folder in small chunks
+ * and compare with the completely loaded files.
+ */
+public class OIDataChunkReaderTest extends JUnitBaseTest {
+
+    /** small chunk size to test chunk boundaries */
+    private final static int CHUNK_ROWS = 7;
+
+    @Test
+    public void compareChunks() throws IOException, FitsException {
+        for (String pathFile : getFitsFiles(new File(TEST_DIR_OIFITS))) {
+            final OIFitsFile oiFitsFile = OIFitsLoader.loadOIFits(pathFile);
+
+            for (OIData oiData : oiFitsFile.getOiDataList()) {
+                final boolean isVis2 = (oiData instanceof OIVis2);
+                final String[] columnNames = (isVis2)
+                        ? new String[]{OIFitsConstants.COLUMN_MJD, OIFitsConstants.COLUMN_VIS2DATA}
+                        : new String[]{OIFitsConstants.COLUMN_MJD};
+
+                final double[] mjds = oiData.getMJD();
+                final boolean[][] flags = oiData.getFlag();
+                final double[][] vis2 = (isVis2) ? ((OIVis2) oiData).getVis2Data() : null;
+
+                final OIDataChunkReader reader = new OIDataChunkReader(oiData, CHUNK_ROWS, columnNames);
+                try {
+                    Assert.assertEquals(pathFile, oiData.getExtName(), reader.getExtName());
+                    Assert.assertEquals(pathFile, oiData.getNbRows(), reader.getNbRows());
+                    Assert.assertEquals(pathFile, oiData.getNWave(), reader.getNWave());
+
+                    final int nWaves = reader.getNWave();
+
+                    // disable every other wavelength:
+                    final boolean[] waveMask = new boolean[nWaves];
+                    for (int l = 0; l < nWaves; l++) {
+                        waveMask[l] = (l % 2 == 0);
+                    }
+                    reader.setWavelengthMask(waveMask);
+
+                    int nRows = 0;
+                    while (reader.nextChunk()) {
+                        final int first = reader.getFirstRow();
+                        final double[] chunkMjds = reader.getDoubles(OIFitsConstants.COLUMN_MJD);
+                        final boolean[] chunkFlags = reader.getBooleans(OIFitsConstants.COLUMN_FLAG);
+                        final boolean[] valid = reader.getValidMask();
+                        final double[] chunkVis2 = (isVis2) ? reader.getDoubles(OIFitsConstants.COLUMN_VIS2DATA) : null;
+
+                        for (int r = 0; r < reader.getRowCount(); r++) {
+                            final int row = first + r;
+                            Assert.assertEquals(pathFile, mjds[row], chunkMjds[r], 0.0);
+
+                            for (int l = 0; l < nWaves; l++) {
+                                final int i = r * nWaves + l;
+                                Assert.assertEquals(pathFile, flags[row][l], chunkFlags[i]);
+                                Assert.assertEquals(pathFile, !flags[row][l] && waveMask[l], valid[i]);
+                                if (isVis2) {
+                                    Assert.assertEquals(pathFile, vis2[row][l], chunkVis2[i], 0.0);
+                                }
+                            }
+                        }
+                        nRows += reader.getRowCount();
+                    }
+                    Assert.assertEquals(pathFile, oiData.getNbRows(), nRows);
+                } finally {
+                    reader.close();
+                }
+            }
+        }
+    }
+    @Test
+    public void compareUnsignedBytes() throws IOException, FitsException {
+        final int nRows = 10;
+        final int nWaves = 3;
+        final boolean[][] flags = new boolean[nRows][nWaves];
+        final byte[][] bytes = new byte[nRows][nWaves];
+        for (int i = 0; i < nRows; i++) {
+            for (int l = 0; l < nWaves; l++) {
+                flags[i][l] = (l == 1);
+                bytes[i][l] = (byte) (i * 25 + l); // up to 227 (unsigned)
+            }
+        }
+
+        final BinaryTable data = new BinaryTable(new Object[]{flags, bytes});
+        final BinaryTableHDU hdu = new BinaryTableHDU(BinaryTableHDU.manufactureHeader(data), data);
+        hdu.setColumnName(0, OIFitsConstants.COLUMN_FLAG, null);
+        hdu.setColumnName(1, "BYTES", null);
+        hdu.addValue(FitsConstants.KEYWORD_EXT_NAME, OIFitsConstants.TABLE_OI_VIS2, null);
+
+        final Fits fits = new Fits();
+        fits.addHDU(hdu);
+
+        final File file = new File(TEST_DIR_TEST + "chunk-bytes.fits");
+        try {
+            final BufferedFile bf = new BufferedFile(file, "rw");
+            try {
+                fits.write(bf);
+            } finally {
+                bf.close();
+            }
+
+            final OIDataChunkReader reader = new OIDataChunkReader(file.getAbsolutePath(), 1, 4, "BYTES");
+            try {
+                int nRead = 0;
+                while (reader.nextChunk()) {
+                    final double[] chunkBytes = reader.getDoubles("BYTES");
+                    final boolean[] chunkFlags = reader.getBooleans(OIFitsConstants.COLUMN_FLAG);
+
+                    for (int r = 0; r < reader.getRowCount(); r++) {
+                        final int row = reader.getFirstRow() + r;
+                        for (int l = 0; l < nWaves; l++) {
+                            Assert.assertEquals(row * 25 + l, chunkBytes[r * nWaves + l], 0.0);
+                            Assert.assertEquals(flags[row][l], chunkFlags[r * nWaves + l]);
+                        }
+                    }
+                    nRead += reader.getRowCount();
+                }
+                Assert.assertEquals(nRows, nRead);
+            } finally {
+                reader.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
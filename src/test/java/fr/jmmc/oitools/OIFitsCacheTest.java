@@ -0,0 +1,198 @@
+/* 
+ * Copyright (C) 2026 CNRS - JMMC project ( http://www.jmmc.fr )
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.jmmc.oitools;
+
+import fr.jmmc.oitools.fits.ChecksumHelper;
+import fr.jmmc.oitools.model.Granule;
+import fr.jmmc.oitools.model.OIData;
+import fr.jmmc.oitools.model.OIFitsCache;
+import fr.jmmc.oitools.model.OIFitsCollection;
+import fr.jmmc.oitools.model.OIFitsFile;
+import fr.jmmc.oitools.model.OIFitsLoader;
+import fr.nom.tam.fits.FitsException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Store the metadata of OIFits files from the test/oifits folder in a cache,
+ * restore them and compare with the completely loaded files.
+ */
+public class OIFitsCacheTest extends JUnitBaseTest {
+
+    @Test
+    public void compareCollections() throws IOException, FitsException {
+        final File cacheDir = new File(System.getProperty("java.io.tmpdir"), "oitools-cache-test");
+        final OIFitsCache cache = new OIFitsCache(cacheDir);
+        try {
+            final List<String> fileLocations = new ArrayList<String>(getFitsFiles(new File(TEST_DIR_OIFITS)));
+
+            final OIFitsCollection oiFitsCollection = OIFitsCollection.create(null, fileLocations);
+
+            for (String pathFile : fileLocations) {
+                Assert.assertNull(pathFile, cache.get(pathFile));
+                cache.put(OIFitsLoader.loadOIFits(pathFile));
+            }
+
+            final OIFitsCollection cachedCollection = OIFitsCollection.create(null, fileLocations, cache);
+
+            // note: global granules depend on the target matching order (not deterministic) so compare files:
+            Assert.assertEquals(oiFitsCollection.size(), cachedCollection.size());
+            Assert.assertEquals(oiFitsCollection.getAllGranules().size(), cachedCollection.getAllGranules().size());
+            Assert.assertEquals(oiFitsCollection.getNbDataPoints(), cachedCollection.getNbDataPoints());
+            Assert.assertEquals(oiFitsCollection.getNbDataPointsNotFlagged(), cachedCollection.getNbDataPointsNotFlagged());
+
+            for (String pathFile : fileLocations) {
+                final OIFitsFile oiFitsFile = oiFitsCollection.getOIFitsFile(pathFile);
+                final OIFitsFile cachedOIFitsFile = cachedCollection.getOIFitsFile(pathFile);
+
+                Assert.assertEquals(pathFile, oiFitsFile.getNbOiTables(), cachedOIFitsFile.getNbOiTables());
+                // analysis restored from the cache (files with images are not cached):
+                Assert.assertEquals(pathFile, (cache.get(pathFile) != null) && !oiFitsFile.getOiDataPerGranule().isEmpty(),
+                        cachedOIFitsFile.isAnalysisRestored());
+                Assert.assertEquals(pathFile, oiFitsFile.getSortedStaNamesMap(), cachedOIFitsFile.getSortedStaNamesMap());
+                Assert.assertEquals(pathFile, oiFitsFile.getUsedStaNamesMap().toString(), cachedOIFitsFile.getUsedStaNamesMap().toString());
+
+                final Map<Granule, Set<OIData>> granules = oiFitsFile.getOiDataPerGranule();
+                final Map<Granule, Set<OIData>> cachedGranules = cachedOIFitsFile.getOiDataPerGranule();
+
+                Assert.assertEquals(pathFile, granules.keySet(), cachedGranules.keySet());
+
+                for (Granule granule : granules.keySet()) {
+                    for (Granule cachedGranule : cachedGranules.keySet()) {
+                        if (granule.equals(cachedGranule)) {
+                            Assert.assertEquals(pathFile, granule.getMjdRange(), cachedGranule.getMjdRange());
+                            Assert.assertEquals(pathFile, granule.getDistinctStaNames(), cachedGranule.getDistinctStaNames());
+                            Assert.assertEquals(pathFile, granule.getDistinctStaConfs(), cachedGranule.getDistinctStaConfs());
+                        }
+                    }
+                }
+
+                final List<OIData> oiDatas = oiFitsFile.getOiDataList();
+                final List<OIData> cachedOiDatas = cachedOIFitsFile.getOiDataList();
+
+                for (int i = 0; i < oiDatas.size(); i++) {
+                    final OIData oiData = oiDatas.get(i);
+                    final OIData cachedOiData = cachedOiDatas.get(i);
+
+                    Assert.assertEquals(pathFile, oiData.getNFlagged(), cachedOiData.getNFlagged());
+                    Assert.assertEquals(pathFile, oiData.getDistinctTargetId(), cachedOiData.getDistinctTargetId());
+                    Assert.assertEquals(pathFile, oiData.getDistinctNightId(), cachedOiData.getDistinctNightId());
+                    Assert.assertEquals(pathFile, oiData.getDistinctStaIndexCount(), cachedOiData.getDistinctStaIndexCount());
+                    Assert.assertEquals(pathFile, oiData.getMjdRange(), cachedOiData.getMjdRange());
+                    Assert.assertArrayEquals(pathFile, oiData.getStaIndexName(), cachedOiData.getStaIndexName());
+                    Assert.assertArrayEquals(pathFile, oiData.getStaConfName(), cachedOiData.getStaConfName());
+
+                    // columns read from the original file on first access:
+                    for (String name : oiData.getColumnsValue().keySet()) {
+                        Assert.assertTrue(pathFile + ": " + name,
+                                Arrays.deepEquals(new Object[]{oiData.getColumnValue(name)}, new Object[]{cachedOiData.getColumnValue(name)}));
+                    }
+                }
+            }
+        } finally {
+            for (File file : cacheDir.listFiles()) {
+                file.delete();
+            }
+            cacheDir.delete();
+        }
+    }
+
+    @Test
+    public void checkMd5sum() throws IOException, FitsException {
+        final File cacheDir = new File(System.getProperty("java.io.tmpdir"), "oitools-cache-md5-test");
+        final OIFitsCache cache = new OIFitsCache(cacheDir);
+        try {
+            final String pathFile = getFitsFiles(new File(TEST_DIR_OIFITS)).get(0);
+            final String md5sum = ChecksumHelper.computeMD5(new File(pathFile));
+
+            // no MD5 stored:
+            Assert.assertTrue(cache.put(OIFitsLoader.loadOIFits(pathFile)));
+            Assert.assertNotNull(cache.get(pathFile));
+            Assert.assertNull(cache.get(pathFile, md5sum));
+
+            // MD5 stored:
+            Assert.assertTrue(cache.put(OIFitsLoader.loadOIFits(null, pathFile, true)));
+            Assert.assertNotNull(cache.get(pathFile));
+            Assert.assertEquals(md5sum, cache.get(pathFile, md5sum).getMd5sum());
+            Assert.assertNull(cache.get(pathFile, "0123456789abcdef0123456789abcdef"));
+
+            // load (cache miss) computes the MD5 checksum and stores it if it matches:
+            Assert.assertTrue(cache.remove(pathFile));
+            Assert.assertEquals(md5sum, cache.load(null, pathFile, md5sum).getMd5sum());
+            Assert.assertNotNull(cache.get(pathFile, md5sum));
+            Assert.assertTrue(cache.get(pathFile, md5sum).isAnalysisRestored());
+
+            // not stored if it does not match:
+            Assert.assertTrue(cache.remove(pathFile));
+            Assert.assertEquals(md5sum, cache.load(null, pathFile, "0123456789abcdef0123456789abcdef").getMd5sum());
+            Assert.assertNull(cache.get(pathFile));
+        } finally {
+            for (File file : cacheDir.listFiles()) {
+                file.delete();
+            }
+            cacheDir.delete();
+        }
+    }
+
+    @Test
+    public void checkModifiedFile() throws IOException, FitsException {
+        final File cacheDir = new File(System.getProperty("java.io.tmpdir"), "oitools-cache-modified-test");
+        final OIFitsCache cache = new OIFitsCache(cacheDir);
+        final File file = new File(cacheDir, "modified.fits");
+        try {
+            Files.copy(new File(getFitsFiles(new File(TEST_DIR_OIFITS)).get(0)).toPath(), file.toPath());
+            final String pathFile = file.getAbsolutePath();
+
+            final OIFitsFile oiFitsFile = OIFitsLoader.loadOIFits(pathFile);
+            Assert.assertTrue(cache.put(oiFitsFile));
+
+            final OIFitsFile cachedOIFitsFile = cache.get(pathFile);
+            Assert.assertNotNull(cachedOIFitsFile);
+
+            // file modified after the cached file was restored:
+            Assert.assertTrue(file.setLastModified(file.lastModified() - 10000L));
+            Assert.assertNull(cache.get(pathFile));
+
+            // deferred columns are not read from the modified file:
+            final OIData oiData = oiFitsFile.getOiDataList().get(0);
+            final OIData cachedOiData = cachedOIFitsFile.getOiDataList().get(0);
+            String deferred = null;
+            for (String name : oiData.getColumnsValue().keySet()) {
+                if (cachedOiData.isColumnDeferred(name) && !oiData.getColumnDesc(name).isOptional()) {
+                    deferred = name;
+                    break;
+                }
+            }
+            Assert.assertNotNull(deferred);
+            Assert.assertFalse(pathFile + ": " + deferred,
+                    Arrays.deepEquals(new Object[]{oiData.getColumnValue(deferred)}, new Object[]{cachedOiData.getColumnValue(deferred)}));
+        } finally {
+            for (File f : cacheDir.listFiles()) {
+                f.delete();
+            }
+            cacheDir.delete();
+        }
+    }
+}
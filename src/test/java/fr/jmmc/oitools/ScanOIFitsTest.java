@@ -0,0 +1,124 @@
+/* 
+ * Copyright (C) 2026 CNRS - JMMC project ( http://www.jmmc.fr )
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.jmmc.oitools;
+
+import fr.jmmc.oitools.model.Granule;
+import fr.jmmc.oitools.model.OIData;
+import fr.jmmc.oitools.model.OIFitsFile;
+import fr.jmmc.oitools.model.OIFitsLoader;
+import fr.jmmc.oitools.model.OIVis2;
+import fr.nom.tam.fits.FitsException;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Scan (or load a subset of columns of) OIFits files from the test/oifits folder
+ * and compare with the completely loaded files.
+ */
+public class ScanOIFitsTest extends JUnitBaseTest {
+
+    /** columns always loaded */
+    private final static Set<String> SCAN_COLUMNS = new HashSet<String>(Arrays.asList(
+            OIFitsConstants.COLUMN_TARGET_ID, OIFitsConstants.COLUMN_TIME,
+            OIFitsConstants.COLUMN_MJD, OIFitsConstants.COLUMN_STA_INDEX
+    ));
+
+    @Test
+    public void compareGranules() throws IOException, FitsException {
+        for (String pathFile : getFitsFiles(new File(TEST_DIR_OIFITS))) {
+            final OIFitsFile oiFitsFile = OIFitsLoader.loadOIFits(pathFile);
+            oiFitsFile.analyze();
+
+            final OIFitsFile scanOIFitsFile = OIFitsLoader.scanOIFits(pathFile);
+
+            Assert.assertEquals(pathFile, oiFitsFile.getNbOiTables(), scanOIFitsFile.getNbOiTables());
+
+            final Map<Granule, Set<OIData>> granules = oiFitsFile.getOiDataPerGranule();
+            final Map<Granule, Set<OIData>> scanGranules = scanOIFitsFile.getOiDataPerGranule();
+
+            Assert.assertEquals(pathFile, granules.keySet(), scanGranules.keySet());
+
+            for (Granule granule : granules.keySet()) {
+                for (Granule scanGranule : scanGranules.keySet()) {
+                    if (granule.equals(scanGranule)) {
+                        Assert.assertEquals(pathFile, granule.getMjdRange(), scanGranule.getMjdRange());
+                        Assert.assertEquals(pathFile, granule.getDistinctStaNames(), scanGranule.getDistinctStaNames());
+                        Assert.assertEquals(pathFile, granules.get(granule).size(), scanGranules.get(scanGranule).size());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void compareProjection() throws IOException, FitsException {
+        final Set<String> columnNames = new HashSet<String>(Arrays.asList(
+                OIFitsConstants.COLUMN_UCOORD, OIFitsConstants.COLUMN_VCOORD, OIFitsConstants.COLUMN_FLAG
+        ));
+
+        for (String pathFile : getFitsFiles(new File(TEST_DIR_OIFITS))) {
+            final OIFitsFile oiFitsFile = OIFitsLoader.loadOIFits(pathFile);
+            final OIFitsFile subOIFitsFile = OIFitsLoader.loadOIFits(null, pathFile, columnNames);
+
+            final List<OIData> oiDatas = oiFitsFile.getOiDataList();
+            final List<OIData> subOiDatas = subOIFitsFile.getOiDataList();
+
+            Assert.assertEquals(pathFile, oiDatas.size(), subOiDatas.size());
+
+            for (int i = 0; i < oiDatas.size(); i++) {
+                final OIData oiData = oiDatas.get(i);
+                final OIData subOiData = subOiDatas.get(i);
+
+                for (String name : oiData.getColumnsValue().keySet()) {
+                    if (columnNames.contains(name)) {
+                        Assert.assertTrue(pathFile + ": " + name,
+                                Arrays.deepEquals(new Object[]{oiData.getColumnValue(name)}, new Object[]{subOiData.getColumnValue(name)}));
+                    } else if (!SCAN_COLUMNS.contains(name)) {
+                        // not projected column: fail fast
+                        checkNotLoaded(pathFile, subOiData, name);
+                    }
+                }
+
+                // getters of not projected columns:
+                if (subOiData instanceof OIVis2) {
+                    try {
+                        ((OIVis2) subOiData).getVis2Data();
+                        Assert.fail(pathFile + ": VIS2DATA loaded");
+                    } catch (IllegalStateException ise) {
+                        Assert.assertTrue(pathFile + ": " + ise.getMessage(), ise.getMessage().contains(OIFitsConstants.COLUMN_VIS2DATA));
+                    }
+                }
+            }
+        }
+    }
+
+    private static void checkNotLoaded(final String pathFile, final OIData oiData, final String name) {
+        try {
+            oiData.getColumnValue(name);
+            Assert.fail(pathFile + ": " + name + " loaded");
+        } catch (IllegalStateException ise) {
+            Assert.assertTrue(pathFile + ": " + ise.getMessage(), ise.getMessage().contains(name));
+        }
+    }
+}
@@ -8,15 +8,27 @@ import fr.jmmc.oitools.model.IndexMask;
 import fr.jmmc.oitools.model.OIData;
 import fr.jmmc.oitools.model.OIFitsChecker;
 import fr.jmmc.oitools.model.OIFitsCollection;
+import fr.jmmc.oitools.model.OIFitsFile;
 import fr.jmmc.oitools.model.OIWavelength;
 import fr.jmmc.oitools.model.range.Range;
+import fr.jmmc.oitools.model.range.RangeIndex;
 import fr.jmmc.oitools.processing.Selector;
 import fr.jmmc.oitools.processing.SelectorResult;
+import fr.jmmc.oitools.util.EncodedStringArray;
 import fr.nom.tam.fits.FitsException;
+import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -90,6 +102,57 @@ public class SelectorFilterTest extends JUnitBaseTest {
         Assert.assertEquals(42, mask.cardinality());
     }
 
+    @Test
+    public void testFindOIDataManyWavelengthRanges() {
+        // same wavelength ranges as testFindOIData2WavelengthRanges split into overlapping pieces (given unsorted):
+        final List<Range> ranges = new ArrayList<Range>();
+        for (int i = 15; i >= 0; i--) {
+            ranges.add(new Range(2.45E-6 + i * 0.01E-6, 2.46E-6 + i * 0.01E-6 - ((i == 15) ? 0.01E-6 : 0.0)));
+        }
+        ranges.add(new Range(2.40E-6, 2.42E-6));
+        ranges.add(new Range(2.38E-6, 2.41E-6));
+
+        final Selector selector = new Selector();
+        selector.setTargetUID(TARGET_NAME);
+        selector.addFilter(Selector.FILTER_EFFWAVE, ranges);
+
+        final SelectorResult selectorResult = oiFitsCollection.findOIData(selector);
+
+        final List<OIData> oiDatas = selectorResult.getSortedOIDatas();
+        Assert.assertEquals(4, oiDatas.size());
+
+        final IndexMask mask = selectorResult.getWavelengthMask(oiDatas.get(0).getOiWavelength());
+
+        logger.log(Level.INFO, "mask bits: {0}", mask.cardinality());
+        Assert.assertEquals(42, mask.cardinality());
+    }
+
+    @Test
+    public void testRangeIndex() {
+        final Random random = new Random(1234L);
+        final RangeIndex rangeIndex = new RangeIndex();
+
+        for (int pass = 0; pass < 200; pass++) {
+            final List<Range> ranges = new ArrayList<Range>();
+            for (int i = 0, n = random.nextInt(30); i < n; i++) {
+                final double min = (random.nextInt(20) == 0) ? Double.NaN : random.nextInt(100);
+                final double max = (random.nextInt(20) == 0) ? Double.NaN : min + random.nextInt(10) - 1;
+                ranges.add(new Range(min, max));
+            }
+            rangeIndex.set(ranges);
+
+            for (int i = -5; i <= 115; i++) {
+                final double value = 0.5 * i;
+                Assert.assertEquals("value: " + value + " ranges: " + ranges,
+                        Range.contains(ranges, value), rangeIndex.contains(value));
+            }
+            for (double value : new double[]{Double.NaN, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY}) {
+                Assert.assertEquals("value: " + value + " ranges: " + ranges,
+                        Range.contains(ranges, value), rangeIndex.contains(value));
+            }
+        }
+    }
+
     @Test
     public void testFindOIDataEmpty() {
         final Selector selector = new Selector();
@@ -124,4 +187,175 @@ public class SelectorFilterTest extends JUnitBaseTest {
             Assert.assertTrue(IndexMask.isFull(mask));
         }
     }
+
+    @Test
+    public void testFindOIDataStaIndex() {
+        final Selector selector = new Selector();
+        SelectorResult selectorResult = oiFitsCollection.findOIData(selector);
+        final int nbDataPoints = selectorResult.getNbDataPoints();
+
+        // check dictionary-encoded station names:
+        final TreeSet<String> staNames = new TreeSet<String>();
+        for (OIData oiData : selectorResult.getSortedOIDatas()) {
+            final EncodedStringArray staIndexNames = oiData.getStaIndexNameEncoded();
+            final short[][] staIndexes = oiData.getStaIndex();
+
+            for (int i = 0; i < oiData.getNbRows(); i++) {
+                final String realStaNames = oiData.getRealStaNames(oiData.getOIFitsFile().getUsedStaNamesMap(), staIndexes[i]);
+                Assert.assertEquals(realStaNames, staIndexNames.get(i));
+                staNames.add(realStaNames);
+            }
+            Assert.assertTrue(Arrays.equals(staIndexNames.toArray(), oiData.getStaIndexName()));
+        }
+
+        final List<String> selected = Arrays.asList(new String[]{staNames.first()});
+
+        selector.addIncludingFilter(Selector.FILTER_STAINDEX, selected);
+        selectorResult = oiFitsCollection.findOIData(selector);
+        final int nbIncluded = selectorResult.getNbDataPoints();
+
+        selector.reset();
+        selector.addExcludingFilter(Selector.FILTER_STAINDEX, selected);
+        selectorResult = oiFitsCollection.findOIData(selector);
+        final int nbExcluded = selectorResult.getNbDataPoints();
+
+        logger.log(Level.INFO, "testFindOIDataStaIndex: {0} = {1} + {2}", new Object[]{nbDataPoints, nbIncluded, nbExcluded});
+
+        Assert.assertTrue(nbIncluded != 0);
+        Assert.assertTrue(nbExcluded != 0);
+        Assert.assertEquals(nbDataPoints, nbIncluded + nbExcluded);
+    }
+
+    @Test
+    public void testLazyStaConf() throws IOException, MalformedURLException, FitsException {
+        final OIFitsCollection collection = OIFitsCollection.create(new OIFitsChecker(), Arrays.asList(new String[]{
+            TEST_DIR_OIFITS + INPUT_FILE_NAME
+        }));
+
+        for (OIData oiData : collection.getAllOiDatas()) {
+            // station configurations are not analyzed yet:
+            Assert.assertFalse(oiData.getColumnsDerivedValue().containsKey(OIFitsConstants.COLUMN_STA_CONF));
+        }
+
+        // first use:
+        Assert.assertEquals(oiFitsCollection.getDistinctStaConfs(), collection.getDistinctStaConfs());
+
+        for (OIData oiData : collection.getAllOiDatas()) {
+            Assert.assertTrue(oiData.getDistinctStaConfCount() != 0);
+            Assert.assertTrue(oiData.getColumnsDerivedValue().containsKey(OIFitsConstants.COLUMN_STA_CONF));
+        }
+    }
+
+    @Test
+    public void testDecodedStaNames() throws IOException, MalformedURLException, FitsException {
+        final OIFitsCollection collection = OIFitsCollection.create(new OIFitsChecker(), Arrays.asList(new String[]{
+            TEST_DIR_OIFITS + INPUT_FILE_NAME
+        }));
+
+        for (OIData oiData : collection.getAllOiDatas()) {
+            final String[] staIndexNames = oiData.getStaIndexName();
+            Assert.assertArrayEquals(oiData.getStaIndexNameEncoded().toArray(), staIndexNames);
+
+            // decoded once (cached):
+            Assert.assertSame(staIndexNames, oiData.getStaIndexName());
+            Assert.assertSame(oiData.getStaConfName(), oiData.getStaConfName());
+
+            // decoded values are not exposed as derived values:
+            for (String name : oiData.getColumnsDerivedValue().keySet()) {
+                Assert.assertFalse(name, name.endsWith("#DECODED"));
+            }
+
+            // decoded again once modified:
+            oiData.getStaIndexNameEncoded().set(0, "XX-YY");
+            final String[] modified = oiData.getStaIndexName();
+            Assert.assertNotSame(staIndexNames, modified);
+            Assert.assertEquals("XX-YY", modified[0]);
+        }
+    }
+
+    @Test
+    public void testConcurrentStaConf() throws Exception {
+        final List<String> files = getFitsFiles(new File(TEST_DIR_OIFITS));
+
+        // sequential analysis:
+        final OIFitsCollection expected = OIFitsCollection.create(null, files);
+        final List<OIData> expectedOiDatas = new ArrayList<OIData>(expected.getAllOiDatas());
+        final List<String> expectedStaConfs = new ArrayList<String>(expectedOiDatas.size());
+        for (OIData oiData : expectedOiDatas) {
+            expectedStaConfs.add(getStaConfNames(oiData));
+        }
+
+        // concurrent lazy analysis (all tables at the same time):
+        final OIFitsCollection collection = OIFitsCollection.create(null, files);
+        final List<OIData> oiDatas = new ArrayList<OIData>(collection.getAllOiDatas());
+        Assert.assertEquals(expectedOiDatas.size(), oiDatas.size());
+
+        final int nThreads = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        try {
+            final CountDownLatch startSignal = new CountDownLatch(1);
+            final List<Future<List<String>>> futures = new ArrayList<Future<List<String>>>(nThreads);
+
+            for (int t = 0; t < nThreads; t++) {
+                final int offset = t;
+                futures.add(executor.submit(new Callable<List<String>>() {
+                    @Override
+                    public List<String> call() throws InterruptedException {
+                        startSignal.await();
+
+                        final String[] staConfs = new String[oiDatas.size()];
+                        // each thread starts on a different table:
+                        for (int i = 0, len = oiDatas.size(); i < len; i++) {
+                            final int k = (i + offset) % len;
+                            staConfs[k] = getStaConfNames(oiDatas.get(k));
+                        }
+                        return Arrays.asList(staConfs);
+                    }
+                }));
+            }
+            startSignal.countDown();
+
+            for (Future<List<String>> future : futures) {
+                Assert.assertEquals(expectedStaConfs, future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(expected.getDistinctStaConfs(), collection.getDistinctStaConfs());
+    }
+
+    private static String getStaConfNames(final OIData oiData) {
+        final TreeSet<String> names = new TreeSet<String>();
+        for (short[] staConf : oiData.getDistinctStaConf()) {
+            names.add(oiData.getStaNames(staConf));
+        }
+        return oiData.getExtName() + names;
+    }
+
+    @Test
+    public void testParallelLoad() throws IOException, MalformedURLException, FitsException {
+        final List<String> files = getFitsFiles(new File(TEST_DIR_OIFITS));
+
+        final OIFitsChecker expectedChecker = new OIFitsChecker();
+        final OIFitsCollection expected = OIFitsCollection.create(expectedChecker, files);
+
+        final OIFitsChecker checker = new OIFitsChecker();
+        final OIFitsCollection collection = OIFitsCollection.create(checker, files, 4);
+
+        Assert.assertEquals(getFilePaths(expected), getFilePaths(collection));
+        Assert.assertEquals(expected.getNbDataPoints(), collection.getNbDataPoints());
+        Assert.assertEquals(expected.getAllGranules().size(), collection.getAllGranules().size());
+
+        // same failures in the same order:
+        Assert.assertEquals(expectedChecker.getFailuresAsString(), checker.getFailuresAsString());
+        Assert.assertEquals(expectedChecker.getCheckReport(), checker.getCheckReport());
+    }
+
+    private static List<String> getFilePaths(final OIFitsCollection collection) {
+        final List<String> paths = new ArrayList<String>(collection.size());
+        for (OIFitsFile oiFitsFile : collection.getOIFitsFiles()) {
+            paths.add(oiFitsFile.getAbsoluteFilePath());
+        }
+        return paths;
+    }
 }
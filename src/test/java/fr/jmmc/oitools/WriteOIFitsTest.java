@@ -19,17 +19,27 @@
  ******************************************************************************/
 package fr.jmmc.oitools;
 
+import fr.jmmc.oitools.fits.FitsConstants;
+import fr.jmmc.oitools.model.OIData;
 import fr.jmmc.oitools.model.OIFitsFile;
 import fr.jmmc.oitools.model.OIFitsLoader;
 import fr.jmmc.oitools.model.OIFitsWriter;
+import fr.jmmc.oitools.model.OITable;
 import fr.jmmc.oitools.test.OITableUtils;
 import fr.jmmc.oitools.test.fits.TamFitsTest;
+import fr.nom.tam.fits.BasicHDU;
+import fr.nom.tam.fits.BinaryTableHDU;
+import fr.nom.tam.fits.Fits;
 import fr.nom.tam.fits.FitsException;
 import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
+import java.nio.file.Files;
+import java.util.BitSet;
 import java.util.logging.Level;
 import static junit.framework.Assert.fail;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import org.junit.Test;
 
 /**
@@ -91,4 +101,175 @@ public class WriteOIFitsTest extends JUnitBaseTest {
             }
         }
     }
+
+    @Test
+    public void writeStreamCompare() throws IOException, MalformedURLException, FitsException {
+
+        final File copyDir = new File(TEST_DIR_TEST_OIFITS);
+        copyDir.mkdirs();
+
+        final File fileRef = new File(copyDir, "stream-ref.fits");
+        final File fileTo = new File(copyDir, "stream-copy.fits");
+
+        final boolean streaming = OIFitsWriter.isStreaming();
+        final boolean checksum = OIFitsWriter.isWriteChecksum();
+        try {
+            for (String pathFile : getFitsFiles(new File(TEST_DIR_OIFITS))) {
+
+                final OIFitsFile srcOIFitsFile = OIFitsLoader.loadOIFits(pathFile);
+
+                if (srcOIFitsFile == null) {
+                    fail("Error loadOIFits: " + pathFile);
+                } else {
+                    logger.log(Level.INFO, "stream: {0}", pathFile);
+
+                    // checksums: computed from columns (parallel) or while writing rows (streaming):
+                    for (boolean doChecksum : new boolean[]{false, true}) {
+                        OIFitsWriter.setWriteChecksum(doChecksum);
+
+                        OIFitsWriter.setStreaming(false);
+                        OIFitsWriter.writeOIFits(fileRef.getAbsolutePath(), srcOIFitsFile);
+
+                        OIFitsWriter.setStreaming(true);
+                        OIFitsWriter.writeOIFits(fileTo.getAbsolutePath(), srcOIFitsFile);
+
+                        // both writers must produce the same bytes:
+                        final byte[] bytes = Files.readAllBytes(fileRef.toPath());
+                        assertArrayEquals("Error streaming: " + pathFile, bytes, Files.readAllBytes(fileTo.toPath()));
+
+                        if (doChecksum) {
+                            // independent check: the ones' complement sum of every HDU must be -0:
+                            checkHDUSums(pathFile, fileRef, bytes);
+                        }
+                    }
+                }
+            }
+        } finally {
+            OIFitsWriter.setStreaming(streaming);
+            OIFitsWriter.setWriteChecksum(checksum);
+        }
+    }
+
+    /**
+     * Check the ones' complement sum of every binary table HDU (header and data) read back from the given file
+     * is -0 (0xFFFFFFFF) i.e. CHECKSUM keywords are valid (FITS checksum convention).
+     * Note: checksums are written in binary table headers only (primary keywords are copied from the data model)
+     * @param pathFile source file path (message)
+     * @param file written file
+     * @param bytes written file content
+     */
+    private static void checkHDUSums(final String pathFile, final File file, final byte[] bytes) throws IOException, FitsException {
+        final Fits fits = new Fits(file);
+        try {
+            final BasicHDU[] hdus = fits.read();
+            // HDUs are contiguous (padded sizes):
+            long offset = 0L;
+
+            for (int i = 0; i < hdus.length; i++) {
+                final BasicHDU hdu = hdus[i];
+                final long size = hdu.getSize();
+
+                if (hdu instanceof BinaryTableHDU) {
+                    if (hdu.getHeader().getStringValue(FitsConstants.KEYWORD_CHECKSUM) == null) {
+                        fail("Missing CHECKSUM in HDU#" + i + ": " + pathFile);
+                    }
+                    final long sum = onesComplementSum(bytes, (int) offset, (int) (offset + size));
+
+                    assertEquals("Invalid checksum in HDU#" + i + ": " + pathFile, 0xFFFFFFFFL, sum);
+                }
+                offset += size;
+            }
+            assertEquals("File size: " + pathFile, bytes.length, offset);
+        } finally {
+            fits.getStream().close();
+        }
+    }
+
+    /**
+     * Compute the 32-bit ones' complement sum of the given bytes (big endian words)
+     * @param bytes bytes
+     * @param from first byte (inclusive)
+     * @param to last byte (exclusive, multiple of 4 after from)
+     * @return 32-bit ones' complement sum
+     */
+    private static long onesComplementSum(final byte[] bytes, final int from, final int to) {
+        long sum = 0L;
+        for (int i = from; i < to; i += 4) {
+            sum += ((bytes[i] & 0xFFL) << 24) | ((bytes[i + 1] & 0xFFL) << 16)
+                    | ((bytes[i + 2] & 0xFFL) << 8) | (bytes[i + 3] & 0xFFL);
+            // fold carries:
+            sum = (sum & 0xFFFFFFFFL) + (sum >>> 32);
+        }
+        return sum;
+    }
+
+    @Test
+    public void appendRowsCompare() throws IOException, MalformedURLException, FitsException {
+
+        final File copyDir = new File(TEST_DIR_TEST_OIFITS);
+        copyDir.mkdirs();
+
+        final File fileRef = new File(copyDir, "append-ref.fits");
+        final File fileTo = new File(copyDir, "append-copy.fits");
+
+        final boolean streaming = OIFitsWriter.isStreaming();
+        final boolean checksum = OIFitsWriter.isWriteChecksum();
+        try {
+            OIFitsWriter.setStreaming(true);
+            OIFitsWriter.setWriteChecksum(true);
+
+            for (String pathFile : getFitsFiles(new File(TEST_DIR_OIFITS))) {
+
+                final OIFitsFile srcOIFitsFile = OIFitsLoader.loadOIFits(pathFile);
+
+                if (srcOIFitsFile == null) {
+                    fail("Error loadOIFits: " + pathFile);
+                } else if (srcOIFitsFile.getImageHDUCount() <= 1 && srcOIFitsFile.getExistingImageOiData() == null) {
+                    // move the last data table at the end of the file:
+                    OIData last = null;
+                    for (OITable oiTable : srcOIFitsFile.getOITableList()) {
+                        if (oiTable instanceof OIData) {
+                            last = (OIData) oiTable;
+                        }
+                    }
+                    if (last == null || last.getNbRows() < 2) {
+                        continue;
+                    }
+                    logger.log(Level.INFO, "append: {0}", pathFile);
+
+                    srcOIFitsFile.removeOiTable(last);
+                    srcOIFitsFile.addOiTable(last);
+
+                    final int index = srcOIFitsFile.getNbOiTables() - 1;
+                    final int nRows = last.getNbRows();
+                    final int nFirst = nRows / 3 + 1;
+
+                    OIFitsWriter.writeOIFits(fileRef.getAbsolutePath(), srcOIFitsFile);
+
+                    // write the first rows then append remaining rows:
+                    final OIFitsFile first = OIFitsLoader.loadOIFits(fileRef.getAbsolutePath());
+                    final OIFitsFile next = OIFitsLoader.loadOIFits(fileRef.getAbsolutePath());
+
+                    final BitSet mask = new BitSet(nRows);
+                    mask.set(0, nFirst);
+                    first.getOiTable(index).resizeTable(nFirst, mask);
+                    mask.flip(0, nRows);
+                    next.getOiTable(index).resizeTable(nRows - nFirst, mask);
+
+                    // write again the reference file (same headers):
+                    OIFitsWriter.writeOIFits(fileRef.getAbsolutePath(), OIFitsLoader.loadOIFits(fileRef.getAbsolutePath()));
+
+                    OIFitsWriter.writeOIFits(fileTo.getAbsolutePath(), first);
+                    OIFitsWriter.appendRows(fileTo.getAbsolutePath(), (OIData) next.getOiTable(index));
+
+                    // both files must be the same (NAXIS2, padding, CHECKSUM and DATASUM):
+                    assertArrayEquals("Error appendRows: " + pathFile,
+                            Files.readAllBytes(fileRef.toPath()), Files.readAllBytes(fileTo.toPath()));
+                }
+            }
+        } finally {
+            OIFitsWriter.setStreaming(streaming);
+            OIFitsWriter.setWriteChecksum(checksum);
+        }
+    }
 }
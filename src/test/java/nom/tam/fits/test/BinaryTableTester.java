@@ -8,8 +8,13 @@ import fr.nom.tam.fits.FitsFactory;
 import fr.nom.tam.fits.FitsUtil;
 import fr.nom.tam.fits.Header;
 import fr.nom.tam.util.ArrayFuncs;
+import fr.nom.tam.util.BufferedDataInputStream;
 import fr.nom.tam.util.BufferedDataOutputStream;
 import fr.nom.tam.util.BufferedFile;
+import fr.nom.tam.util.ColumnTable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import static org.junit.Assert.assertEquals;
 import org.junit.Before;
@@ -512,6 +517,148 @@ public class BinaryTableTester {
         assertEquals(count, 2);
     }
 
+    @Test
+    public void testBlockRead() throws Exception {
+
+        FitsFactory.setUseAsciiTables(false);
+
+        // several blocks (~64K) with a partial last block:
+        final int nRows = 5003;
+
+        final int[] bi = new int[nRows];
+        final String[] bstr = new String[nRows];
+        final boolean[] bl = new boolean[nRows];
+        final boolean[][] bl3 = new boolean[nRows][3];
+        final byte[] bb = new byte[nRows];
+        final short[][] bs = new short[nRows][3];
+        final long[] bj = new long[nRows];
+        final float[][] bf = new float[nRows][5];
+        final double[] bd = new double[nRows];
+        final double[][] bd7 = new double[nRows][7];
+        final String[] bstr2 = new String[nRows];
+
+        for (int i = 0; i < nRows; i += 1) {
+            bi[i] = i * i;
+            bstr[i] = "abcdefghijklmnopqrstuvwxzy".substring(0, i % 20);
+            bl[i] = (i % 3) == 0;
+            for (int j = 0; j < 3; j += 1) {
+                bl3[i][j] = ((i + j) % 2) == 0;
+                bs[i][j] = (short) (i * (j + 1));
+            }
+            bb[i] = (byte) i;
+            bj[i] = (long) i * i * i * i;
+            for (int j = 0; j < 5; j += 1) {
+                bf[i][j] = (float) (i + j * Math.exp(j));
+            }
+            bd[i] = 3 * Math.sin(i);
+            for (int j = 0; j < 7; j += 1) {
+                bd7[i][j] = i * Math.cos(j);
+            }
+            bstr2[i] = Integer.toString(i);
+        }
+
+        final BinaryTable data = new BinaryTable(new Object[]{bi, bstr, bl});
+        // added columns (ColumnTable.addColumn):
+        data.addColumn(bl3);
+        data.addColumn(bb);
+        data.addColumn(bs);
+        data.addColumn(bj);
+        data.addColumn(bf);
+        data.addColumn(bd);
+        data.addColumn(bd7);
+        data.addColumn(bstr2);
+
+        final Object[] columns = new Object[]{bi, bstr, bl, bl3, bb, bs, bj, bf, bd, bd7, bstr2};
+
+        Fits f = new Fits();
+        f.addHDU(Fits.makeHDU(data));
+
+        BufferedFile bf2 = new BufferedFile("bt-block.fits", "rw");
+        f.write(bf2);
+        bf2.flush();
+        bf2.close();
+
+        // bulk read (stream):
+        final FileInputStream in = new FileInputStream("bt-block.fits");
+        try {
+            final BinaryTableHDU streamHdu = (BinaryTableHDU) new Fits(in).getHDU(1);
+
+            // per-row reads (random access: deferred table):
+            final BinaryTableHDU fileHdu = (BinaryTableHDU) new Fits("bt-block.fits").getHDU(1);
+
+            assertEquals("NROWS", nRows, streamHdu.getNRows());
+            assertEquals("NCOLS", columns.length, streamHdu.getNCols());
+
+            for (int i = 0; i < nRows; i += 1) {
+                assertEquals("Row" + i, true, ArrayFuncs.arrayEquals(fileHdu.getRow(i), streamHdu.getRow(i)));
+            }
+
+            for (int i = 0; i < columns.length; i += 1) {
+                Object col = streamHdu.getColumn(i);
+                if (col instanceof String[]) {
+                    String[] st = (String[]) col;
+
+                    for (int j = 0; j < st.length; j += 1) {
+                        st[j] = st[j].trim();
+                    }
+                }
+                assertEquals("Data" + i, true, ArrayFuncs.arrayEquals(columns[i], col));
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void testColumnTableRead() throws Exception {
+
+        // several blocks (~64K) with a partial last block:
+        final int nRows = 5003;
+
+        // flattened columns: ints, strings (bytes), logicals, logicals[3], doubles[7]
+        final int[] sizes = new int[]{1, 20, 1, 3, 7};
+        final int[] ci = new int[nRows];
+        final byte[] cstr = FitsUtil.stringsToByteArray(new String[]{"abc", "defghijklmnopqrstuvw"}, 20);
+        final byte[] cs = new byte[nRows * 20];
+        final boolean[] cl = new boolean[nRows];
+        final boolean[] cl3 = new boolean[nRows * 3];
+        final double[] cd7 = new double[nRows * 7];
+
+        for (int i = 0; i < nRows; i += 1) {
+            ci[i] = i * i;
+            System.arraycopy(cstr, (i % 2) * 20, cs, i * 20, 20);
+            cl[i] = (i % 3) == 0;
+            for (int j = 0; j < 3; j += 1) {
+                cl3[i * 3 + j] = ((i + j) % 2) == 0;
+            }
+            for (int j = 0; j < 7; j += 1) {
+                cd7[i * 7 + j] = i * Math.cos(j);
+            }
+        }
+        final Object[] columns = new Object[]{ci, cs, cl, cl3, cd7};
+
+        // write rows (per-row path):
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        final BufferedDataOutputStream out = new BufferedDataOutputStream(bos);
+        new ColumnTable(columns, sizes).write(out);
+        out.flush();
+
+        // table built by column (ColumnTable.addColumn):
+        final ColumnTable table = new ColumnTable(new Object[]{new int[nRows]}, new int[]{1});
+        table.addColumn(new byte[nRows * 20], 20);
+        table.addColumn(new boolean[nRows], 1);
+        table.addColumn(new boolean[nRows * 3], 3);
+        table.addColumn(new double[nRows * 7], 7);
+
+        // bulk read:
+        final BufferedDataInputStream in = new BufferedDataInputStream(new ByteArrayInputStream(bos.toByteArray()));
+        assertEquals("size", bos.size(), table.read(in));
+
+        for (int i = 0; i < columns.length; i += 1) {
+            assertEquals("Data" + i, true, ArrayFuncs.arrayEquals(columns[i], table.getColumn(i)));
+        }
+    }
+
     @Test
     public void testByteArray() {
         String[] sarr = {"abc", " de", "f"};